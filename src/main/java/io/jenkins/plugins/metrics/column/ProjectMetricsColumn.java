@@ -14,8 +14,7 @@ import hudson.model.Run;
 import hudson.views.ListViewColumn;
 import hudson.views.ListViewColumnDescriptor;
 
-import io.jenkins.plugins.metrics.extension.MetricsProviderFactory;
-import io.jenkins.plugins.metrics.model.Metric;
+import io.jenkins.plugins.metrics.extension.MetricsSummaryStore;
 import io.jenkins.plugins.metrics.view.MetricsViewAction;
 
 /**
@@ -24,6 +23,8 @@ import io.jenkins.plugins.metrics.view.MetricsViewAction;
  * @author Andreas Pabst
  */
 public class ProjectMetricsColumn extends ListViewColumn {
+    private static final MetricsSummaryStore SUMMARIES = new MetricsSummaryStore();
+
     private String name = "Lines of Code";
     private String metricId = "LOC";
 
@@ -67,12 +68,14 @@ public class ProjectMetricsColumn extends ListViewColumn {
     }
 
     /**
-     * Returns the total number of issues for the selected static analysis tool in a given job.
+     * Returns the rendered value of the selected project metric of the last completed build of a given job. The value
+     * is read from the summary of the job, see {@link MetricsSummaryStore}. If there is no summary for the last
+     * completed build yet, then the summary is computed in the background and no value is returned.
      *
      * @param job
      *         the job to select
      *
-     * @return the number of issues for a tool in a given job
+     * @return the value of the metric in a given job
      */
     @SuppressWarnings("unused") // called bv jelly view
     public Optional<String> getMetricValue(final Job<?, ?> job) {
@@ -81,12 +84,7 @@ public class ProjectMetricsColumn extends ListViewColumn {
             return Optional.empty();
         }
 
-        return MetricsProviderFactory.findAllFor(lastCompletedBuild)
-                .stream()
-                .flatMap(metricsProvider -> metricsProvider.getProjectMetrics().stream())
-                .filter(metric -> metric.getId().equals(metricId))
-                .map(Metric::renderValue)
-                .findFirst();
+        return SUMMARIES.getOrBackfill(lastCompletedBuild).flatMap(summary -> summary.getValue(metricId));
     }
 
     /**
@@ -0,0 +1,49 @@
+package io.jenkins.plugins.metrics.extension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The results of calling all registered {@link MetricsProviderFactory} instances. Contains the results of all
+ * factories that finished in time and the names of the factories that did not.
+ *
+ * @param <T>
+ *         the type of the results
+ */
+public final class FanOutResult<T> {
+    private final List<T> results;
+    private final List<String> incompleteFactories;
+
+    FanOutResult(final List<T> results, final List<String> incompleteFactories) {
+        this.results = new ArrayList<>(results);
+        this.incompleteFactories = new ArrayList<>(incompleteFactories);
+    }
+
+    /**
+     * Returns the results of all factories that finished in time.
+     *
+     * @return the results
+     */
+    public List<T> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Returns the names of all factories that did not finish in time or failed.
+     *
+     * @return the names of the incomplete factories
+     */
+    public List<String> getIncompleteFactories() {
+        return Collections.unmodifiableList(incompleteFactories);
+    }
+
+    /**
+     * Returns whether all factories did finish in time.
+     *
+     * @return {@code true} if all results are available, {@code false} if some are missing
+     */
+    public boolean isComplete() {
+        return incompleteFactories.isEmpty();
+    }
+}
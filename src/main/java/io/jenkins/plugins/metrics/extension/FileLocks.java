@@ -0,0 +1,35 @@
+package io.jenkins.plugins.metrics.extension;
+
+import java.nio.file.Path;
+
+/**
+ * Locks for the files that are appended to by several builds, e.g., the trend and the history of a job. The locks are
+ * striped: each file is guarded by one of a fixed number of locks, so that files of different jobs can be accessed
+ * concurrently without keeping a lock for every job that ever existed.
+ */
+final class FileLocks {
+    private static final int STRIPES = 64;
+    private static final Object[] LOCKS = new Object[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    private FileLocks() {
+        // prevents instantiation
+    }
+
+    /**
+     * Returns the lock of the specified file.
+     *
+     * @param file
+     *         the file
+     *
+     * @return the lock
+     */
+    static Object get(final Path file) {
+        return LOCKS[Math.floorMod(file.toAbsolutePath().normalize().hashCode(), STRIPES)];
+    }
+}
@@ -0,0 +1,238 @@
+package io.jenkins.plugins.metrics.extension;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.security.core.Authentication;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.security.ACL;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+import io.jenkins.plugins.metrics.model.BranchMetrics;
+import io.jenkins.plugins.metrics.model.FolderMetrics;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+/**
+ * Aggregates the class metrics of the last completed builds of all jobs of a folder, e.g., the branches of a
+ * multibranch project. The stored snapshots of the builds are loaded and reduced to {@link BranchMetrics} concurrently
+ * using a dedicated fork-join pool; the partial results are then combined to the {@link FolderMetrics}. The metrics
+ * providers are never queried by the aggregation: jobs whose last completed build has no stored snapshot yet are
+ * counted as missing, their snapshot is created when the metrics of the build are opened.
+ *
+ * <p>
+ * Both the metrics of the jobs and the combined metrics of the folders are cached. The metrics of a job are computed
+ * again when the job has a new completed build (see {@link MetricsSnapshotListener}), the combined metrics of a folder
+ * are computed again when one of its jobs has changed or when the folder is requested with another set of jobs (e.g.,
+ * by a user who can see other jobs). The combined metrics of folders with missing jobs are not cached.
+ * </p>
+ *
+ * <p>
+ * The aggregation can be configured using the following system properties (prefixed with the name of this class):
+ * </p>
+ * <ul>
+ *     <li>{@code parallelism}: the maximum number of snapshots that are loaded concurrently (default: 4)</li>
+ *     <li>{@code maxClasses}: the number of classes with the highest values that are kept per job and metric
+ *     (default: 10)</li>
+ *     <li>{@code maxJobs}: the maximum number of jobs whose metrics are cached (default: 2000)</li>
+ *     <li>{@code maxFolders}: the maximum number of folders whose metrics are cached (default: 32)</li>
+ * </ul>
+ */
+public final class FolderMetricsAggregator {
+    private static final Logger LOGGER = Logger.getLogger(FolderMetricsAggregator.class.getName());
+    private static final String PREFIX = FolderMetricsAggregator.class.getName();
+
+    private static final int PARALLELISM = SystemProperties.getInteger(PREFIX + ".parallelism", 4);
+    private static final int MAX_CLASSES = SystemProperties.getInteger(PREFIX + ".maxClasses", 10);
+    private static final int MAX_JOBS = SystemProperties.getInteger(PREFIX + ".maxJobs", 2000);
+    private static final int MAX_FOLDERS = SystemProperties.getInteger(PREFIX + ".maxFolders", 32);
+
+    private static final FolderMetricsAggregator INSTANCE = new FolderMetricsAggregator(
+            build -> MetricsSnapshotCache.getInstance().find(build), MAX_JOBS, MAX_FOLDERS);
+
+    private final Function<Run<?, ?>, Optional<MetricsSnapshot>> snapshots;
+    private final Map<String, BranchMetrics> jobs;
+    private final Map<String, FolderResult> folders;
+
+    /**
+     * Returns the shared aggregator instance.
+     *
+     * @return the aggregator
+     */
+    public static FolderMetricsAggregator getInstance() {
+        return INSTANCE;
+    }
+
+    FolderMetricsAggregator(final Function<Run<?, ?>, Optional<MetricsSnapshot>> snapshots, final int maxJobs,
+            final int maxFolders) {
+        this.snapshots = snapshots;
+        jobs = createLeastRecentlyUsedMap(maxJobs);
+        folders = createLeastRecentlyUsedMap(maxFolders);
+    }
+
+    private static <V> Map<String, V> createLeastRecentlyUsedMap(final int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the combined class metrics of the last completed builds of the specified jobs. The jobs must be
+     * collected by the caller, so that only jobs that are visible to the current user are aggregated.
+     *
+     * @param folderName
+     *         the full name of the folder that contains the jobs
+     * @param folderJobs
+     *         the jobs of the folder
+     *
+     * @return the combined metrics
+     */
+    public FolderMetrics aggregate(final String folderName, final List<? extends Job<?, ?>> folderJobs) {
+        List<Job<?, ?>> completedJobs = new ArrayList<>();
+        List<String> fingerprint = new ArrayList<>();
+        for (Job<?, ?> job : folderJobs) {
+            var build = job.getLastCompletedBuild();
+            if (build != null) {
+                completedJobs.add(job);
+                fingerprint.add(job.getFullName() + '#' + build.getNumber());
+            }
+        }
+
+        synchronized (folders) {
+            var cached = folders.get(folderName);
+            if (cached != null && cached.fingerprint.equals(fingerprint)) {
+                return cached.metrics;
+            }
+        }
+
+        var metrics = aggregate(completedJobs);
+        if (metrics.getMissingCount() == 0) {
+            synchronized (folders) {
+                folders.put(folderName, new FolderResult(fingerprint, metrics));
+            }
+        }
+        return metrics;
+    }
+
+    FolderMetrics aggregate(final List<Job<?, ?>> folderJobs) {
+        if (folderJobs.isEmpty()) {
+            return new FolderMetrics();
+        }
+        return PoolHolder.POOL.invoke(new AggregationTask(folderJobs, Jenkins.getAuthentication2()));
+    }
+
+    /**
+     * Removes the metrics of the specified job and of all folders that contain the job from the cache.
+     *
+     * @param job
+     *         the job to remove the metrics for
+     */
+    public void invalidate(final Job<?, ?> job) {
+        var name = job.getFullName();
+        synchronized (jobs) {
+            jobs.remove(name);
+        }
+        synchronized (folders) {
+            folders.keySet().removeIf(folder -> name.startsWith(folder + '/'));
+        }
+    }
+
+    private Optional<BranchMetrics> getBranchMetrics(final Job<?, ?> job) {
+        var build = job.getLastCompletedBuild();
+        if (build == null) {
+            return Optional.empty();
+        }
+
+        var name = job.getFullName();
+        synchronized (jobs) {
+            var cached = jobs.get(name);
+            if (cached != null && cached.getBuild() == build.getNumber()) {
+                return Optional.of(cached);
+            }
+        }
+
+        var snapshot = snapshots.apply(build);
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        var branch = BranchMetrics.create(job.getFullDisplayName(), build.getUrl(), build.getNumber(),
+                snapshot.get().getClasses(), MAX_CLASSES);
+        if (snapshot.get().isComplete()) {
+            synchronized (jobs) {
+                jobs.put(name, branch);
+            }
+        }
+        return Optional.of(branch);
+    }
+
+    /**
+     * Splits the jobs into halves until each task contains a single job: loading the snapshot of a job dominates the
+     * costs of combining the results.
+     */
+    private final class AggregationTask extends RecursiveTask<FolderMetrics> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Job<?, ?>> folderJobs;
+        private final transient Authentication authentication;
+
+        AggregationTask(final List<Job<?, ?>> folderJobs, final Authentication authentication) {
+            super();
+
+            this.folderJobs = folderJobs;
+            this.authentication = authentication;
+        }
+
+        @Override
+        protected FolderMetrics compute() {
+            if (folderJobs.size() == 1) {
+                var metrics = new FolderMetrics();
+                var job = folderJobs.get(0);
+                try (var ignored = ACL.as2(authentication)) {
+                    getBranchMetrics(job).ifPresentOrElse(metrics::add, metrics::addMissing);
+                }
+                catch (RuntimeException exception) {
+                    LOGGER.log(Level.WARNING, "Can't aggregate metrics of job " + job.getFullName(), exception);
+                }
+                return metrics;
+            }
+
+            int middle = folderJobs.size() / 2;
+            var left = new AggregationTask(folderJobs.subList(0, middle), authentication);
+            left.fork();
+            var right = new AggregationTask(folderJobs.subList(middle, folderJobs.size()), authentication).compute();
+            return left.join().combine(right);
+        }
+    }
+
+    private record FolderResult(List<String> fingerprint, FolderMetrics metrics) {
+    }
+
+    /**
+     * Lazily creates the shared pool on first use.
+     */
+    private static final class PoolHolder {
+        private static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM, PoolHolder::createThread, null, false);
+
+        private static ForkJoinWorkerThread createThread(final ForkJoinPool pool) {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("metrics-folder-aggregation-" + thread.getPoolIndex());
+            thread.setContextClassLoader(FolderMetricsAggregator.class.getClassLoader());
+            return thread;
+        }
+    }
+}
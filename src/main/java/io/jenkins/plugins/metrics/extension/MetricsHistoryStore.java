@@ -0,0 +1,697 @@
+package io.jenkins.plugins.metrics.extension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.model.Job;
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.MetricColumn;
+import io.jenkins.plugins.metrics.model.MetricsTrend;
+
+/**
+ * Stores the metrics of all classes of all builds of a job in a single append-only file in the job folder, so that the
+ * history of a class can be shown without loading the snapshots of the builds. When a build completes, only the
+ * classes whose metrics changed since the previous build are written (see {@link MetricsSnapshotListener}). Hence, the
+ * size of the file is proportional to the number of changes rather than to the number of builds times the number of
+ * classes.
+ *
+ * <p>
+ * The file starts with a magic number and the format version, followed by a sequence of records. Each record starts
+ * with its type:
+ * </p>
+ * <ul>
+ *     <li>metric: the index of the metric (int16), its ID and its display name (UTF-8 strings with an int16 length
+ *     prefix)</li>
+ *     <li>class: the index of the class (int32) and its qualified name</li>
+ *     <li>build: the build number (int32), the timestamp of the build (int64), the number of entries (int32) and the
+ *     entries of all classes that changed in the build. Each entry contains the index of the class (int32), the build
+ *     number (int32), the file position of the previous entry of the class (int64, or -1), the number of values
+ *     (int16, -1 if the class has been removed in the build), and for each value the index of the metric (int16) and
+ *     the value (float64).</li>
+ *     <li>removed build: the number of a deleted build (int32). The entries of the build are kept, since the entries
+ *     of the following builds are linked to them, but readers skip the build.</li>
+ * </ul>
+ *
+ * <p>
+ * The entries of a class are linked backwards, so the history of a class is read by following the links from its
+ * latest entry: reading the history of the last 50 builds needs one positioned read per change within these builds,
+ * plus one read for the values at the start of the range. The position and a hash of the values of the latest entry of
+ * each class are kept in an in-memory index that is built by a single scan of the file and updated incrementally after
+ * each append. So appending a build does not need to read the file to find the changed classes. The file is scanned in
+ * chunks of bounded size, so indexing a large file does not need to read the whole file into memory.
+ * </p>
+ *
+ * <p>
+ * Each file is guarded by its own lock (see {@link FileLocks}), so the histories of different jobs are written and
+ * read concurrently.
+ * </p>
+ */
+public class MetricsHistoryStore {
+    /** The name of the history file in the job folder. */
+    static final String HISTORY_FILE_NAME = "metrics-aggregation-history.bin";
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsHistoryStore.class.getName());
+
+    private static final int MAGIC = 0x4D48_5354; // MHST
+    private static final int VERSION = 1;
+    private static final byte METRIC_RECORD = 1;
+    private static final byte CLASS_RECORD = 2;
+    private static final byte BUILD_RECORD = 3;
+    private static final byte REMOVED_BUILD_RECORD = 4;
+    private static final int ENTRY_HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES + Short.BYTES;
+    private static final int VALUE_SIZE = Short.BYTES + Double.BYTES;
+    private static final short REMOVED = -1;
+    private static final int MAX_CACHED_INDICES = 32;
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    /** The indices of the recently used history files, guarded by the map itself. */
+    private static final Map<Path, HistoryIndex> INDICES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Entry<Path, HistoryIndex> eldest) {
+            return size() > MAX_CACHED_INDICES;
+        }
+    };
+
+    /**
+     * Appends the metrics of all classes of the specified build that changed since the last recorded build. Builds
+     * that are not newer than the last recorded build (e.g., builds that completed out of order) are skipped since the
+     * history is stored in the order of the build numbers.
+     *
+     * @param build
+     *         the completed build
+     * @param classes
+     *         the metrics of all classes of the build
+     */
+    public void append(final Run<?, ?> build, final ClassMetricsTable classes) {
+        var file = getHistoryFile(build.getParent());
+        synchronized (FileLocks.get(file)) {
+            try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                var index = getIndex(file, channel);
+                if (index.buildCount > 0 && index.buildNumbers[index.buildCount - 1] >= build.getNumber()) {
+                    LOGGER.log(Level.INFO, "Skipping metrics history of {0}: build #{1} has been recorded already",
+                            new Object[] {build, index.buildNumbers[index.buildCount - 1]});
+                    return;
+                }
+
+                write(channel, index, createRecord(index, build, classes));
+            }
+            catch (IOException | RuntimeException exception) {
+                removeIndex(file);
+                LOGGER.log(Level.WARNING, "Can't append metrics of build " + build + " to " + file, exception);
+            }
+        }
+    }
+
+    /**
+     * Removes the specified build from the history of its job, e.g., because the build has been deleted.
+     *
+     * @param build
+     *         the deleted build
+     */
+    public void remove(final Run<?, ?> build) {
+        var file = getHistoryFile(build.getParent());
+        synchronized (FileLocks.get(file)) {
+            if (!Files.exists(file)) {
+                return;
+            }
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                var index = getIndex(file, channel);
+                if (index.isRecorded(build.getNumber())) {
+                    write(channel, index, ByteBuffer.allocate(1 + Integer.BYTES)
+                            .put(REMOVED_BUILD_RECORD).putInt(build.getNumber()).flip());
+                }
+            }
+            catch (IOException | RuntimeException exception) {
+                removeIndex(file);
+                LOGGER.log(Level.WARNING, "Can't remove metrics of build " + build + " from " + file, exception);
+            }
+        }
+    }
+
+    private void write(final FileChannel channel, final HistoryIndex index, final ByteBuffer record)
+            throws IOException {
+        channel.truncate(index.validLength);
+        channel.position(index.validLength);
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        index.update(channel);
+    }
+
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    private ByteBuffer createRecord(final HistoryIndex index, final Run<?, ?> build,
+            final ClassMetricsTable classes) throws IOException {
+        var dictionary = new ByteArrayOutputStream();
+        var dictionaryOutput = new DataOutputStream(dictionary);
+        if (index.validLength == 0) {
+            dictionaryOutput.writeInt(MAGIC);
+            dictionaryOutput.writeInt(VERSION);
+        }
+
+        List<MetricColumn> columns = new ArrayList<>(classes.getColumns());
+        var metricOfColumn = new int[columns.size()];
+        int metricCount = index.metricIds.size();
+        for (int column = 0; column < columns.size(); column++) {
+            var id = columns.get(column).getId();
+            var metric = index.metricIndices.get(id);
+            if (metric == null) {
+                metric = metricCount++;
+                dictionaryOutput.writeByte(METRIC_RECORD);
+                dictionaryOutput.writeShort(metric);
+                writeString(dictionaryOutput, id);
+                writeString(dictionaryOutput, columns.get(column).getMetricDefinition().getDisplayName());
+            }
+            metricOfColumn[column] = metric;
+        }
+
+        int classCount = index.classIndices.size();
+        var seen = new BitSet(classCount);
+        List<int[]> changedRows = new ArrayList<>(); // class index and row
+        for (int row = 0; row < classes.getRowCount(); row++) {
+            var name = classes.getQualifiedClassName(row);
+            var classIndex = index.classIndices.get(name);
+            if (classIndex == null) {
+                classIndex = classCount++;
+                dictionaryOutput.writeByte(CLASS_RECORD);
+                dictionaryOutput.writeInt(classIndex);
+                writeString(dictionaryOutput, name);
+                changedRows.add(new int[] {classIndex, row});
+            }
+            else {
+                seen.set(classIndex);
+                if (index.latestOffsets[classIndex] < 0 || index.removed.get(classIndex)
+                        || index.latestHashes[classIndex] != hashValues(columns, row, metricOfColumn)) {
+                    changedRows.add(new int[] {classIndex, row});
+                }
+            }
+        }
+
+        var content = new ByteArrayOutputStream();
+        var output = new DataOutputStream(content);
+        dictionaryOutput.flush();
+        output.write(dictionary.toByteArray());
+        output.writeByte(BUILD_RECORD);
+        output.writeInt(build.getNumber());
+        output.writeLong(build.getTimeInMillis());
+        var removedClasses = new BitSet();
+        for (int classIndex = 0; classIndex < index.classIndices.size(); classIndex++) {
+            if (!seen.get(classIndex) && !index.removed.get(classIndex)) {
+                removedClasses.set(classIndex);
+            }
+        }
+        output.writeInt(changedRows.size() + removedClasses.cardinality());
+
+        for (int[] changed : changedRows) {
+            int classIndex = changed[0];
+            writeEntryHeader(output, index, classIndex, build.getNumber());
+            int row = changed[1];
+            int count = 0;
+            for (MetricColumn column : columns) {
+                if (column.isPresent(row)) {
+                    count++;
+                }
+            }
+            output.writeShort(count);
+            for (int column = 0; column < columns.size(); column++) {
+                if (columns.get(column).isPresent(row)) {
+                    output.writeShort(metricOfColumn[column]);
+                    output.writeDouble(columns.get(column).getValue(row));
+                }
+            }
+        }
+        for (int classIndex = removedClasses.nextSetBit(0); classIndex >= 0;
+                classIndex = removedClasses.nextSetBit(classIndex + 1)) {
+            writeEntryHeader(output, index, classIndex, build.getNumber());
+            output.writeShort(REMOVED);
+        }
+        output.flush();
+
+        return ByteBuffer.wrap(content.toByteArray());
+    }
+
+    private void writeEntryHeader(final DataOutputStream output, final HistoryIndex index, final int classIndex,
+            final int buildNumber) throws IOException {
+        output.writeInt(classIndex);
+        output.writeInt(buildNumber);
+        output.writeLong(classIndex < index.classIndices.size() ? index.latestOffsets[classIndex] : -1);
+    }
+
+    private static long hashValues(final List<MetricColumn> columns, final int row, final int[] metricOfColumn) {
+        long hash = 0;
+        for (int column = 0; column < columns.size(); column++) {
+            if (columns.get(column).isPresent(row)) {
+                hash += hashValue(metricOfColumn[column], columns.get(column).getValue(row));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the hash of a single value of an entry. The hashes of the values of an entry are summed up, so the hash
+     * of an entry does not depend on the order of its values.
+     */
+    private static long hashValue(final int metric, final double value) {
+        long hash = Double.doubleToLongBits(value) ^ ((long) metric << 48) ^ 0x9E37_79B9_7F4A_7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58_476D_1CE4_E5B9L; // splitmix64 finalizer
+        hash = (hash ^ (hash >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private void writeString(final DataOutputStream output, final String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeShort(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads the history of all metrics of the specified class.
+     *
+     * @param job
+     *         the job to read the history for
+     * @param className
+     *         the qualified name of the class
+     * @param lastBuild
+     *         the number of the last build of the history, newer builds are ignored
+     * @param maxBuilds
+     *         the maximum number of builds
+     *
+     * @return the history of the class, the history is empty if no metrics have been recorded for the job. Deleted
+     *         builds are skipped.
+     */
+    public MetricsTrend read(final Job<?, ?> job, final String className, final int lastBuild,
+            final int maxBuilds) {
+        var file = getHistoryFile(job);
+        if (!Files.exists(file)) {
+            return new MetricsTrend(new int[0], new long[0], Map.of(), Map.of());
+        }
+
+        synchronized (FileLocks.get(file)) {
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                var index = getIndex(file, channel);
+                var builds = index.getBuilds(lastBuild, maxBuilds);
+                var history = readHistory(channel, index, index.classIndices.get(className), builds);
+
+                Map<String, String> displayNames = new LinkedHashMap<>();
+                Map<String, double[]> valuesByMetric = new HashMap<>();
+                for (int metric = 0; metric < history.length; metric++) {
+                    if (history[metric] != null) {
+                        var id = index.metricIds.get(metric);
+                        displayNames.put(id, index.metricNames.get(metric));
+                        valuesByMetric.put(id, history[metric]);
+                    }
+                }
+                return new MetricsTrend(index.getBuildNumbers(builds), index.getTimestamps(builds), displayNames,
+                        valuesByMetric);
+            }
+            catch (IOException | RuntimeException exception) {
+                removeIndex(file);
+                LOGGER.log(Level.WARNING, "Can't read metrics history " + file, exception);
+
+                return new MetricsTrend(new int[0], new long[0], Map.of(), Map.of());
+            }
+        }
+    }
+
+    /**
+     * Reads the history of a single metric for several classes, e.g., to show a sparkline for each row of a table.
+     *
+     * @param job
+     *         the job to read the history for
+     * @param classNames
+     *         the qualified names of the classes
+     * @param metricId
+     *         the ID of the metric
+     * @param lastBuild
+     *         the number of the last build of the history, newer builds are ignored
+     * @param maxBuilds
+     *         the maximum number of builds
+     *
+     * @return the values of the metric for each class, in the order of the class names. Each array has one value per
+     *         build, missing values are {@link Double#NaN}. The arrays are empty if no metrics have been recorded.
+     *         Deleted builds are skipped.
+     */
+    public double[][] read(final Job<?, ?> job, final List<String> classNames, final String metricId,
+            final int lastBuild, final int maxBuilds) {
+        var result = new double[classNames.size()][];
+        Arrays.fill(result, new double[0]);
+
+        var file = getHistoryFile(job);
+        if (!Files.exists(file)) {
+            return result;
+        }
+
+        synchronized (FileLocks.get(file)) {
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                var index = getIndex(file, channel);
+                var builds = index.getBuilds(lastBuild, maxBuilds);
+                var metric = index.metricIndices.get(metricId);
+                for (int i = 0; i < classNames.size(); i++) {
+                    var values = new double[builds.length];
+                    Arrays.fill(values, Double.NaN);
+                    if (metric != null) {
+                        var history = readHistory(channel, index, index.classIndices.get(classNames.get(i)), builds);
+                        if (history[metric] != null) {
+                            values = history[metric];
+                        }
+                    }
+                    result[i] = values;
+                }
+            }
+            catch (IOException | RuntimeException exception) {
+                removeIndex(file);
+                LOGGER.log(Level.WARNING, "Can't read metrics history " + file, exception);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the values of all metrics of a class for the specified builds.
+     *
+     * @return the values of each metric (indexed by the metric index), {@code null} for metrics without any value
+     */
+    private double[][] readHistory(final FileChannel channel, final HistoryIndex index, final Integer classIndex,
+            final int[] builds) throws IOException {
+        int metricCount = index.metricIds.size();
+        var history = new double[metricCount][];
+        if (classIndex == null || builds.length == 0) {
+            return history;
+        }
+
+        int firstBuild = index.buildNumbers[builds[0]];
+        int lastBuild = index.buildNumbers[builds[builds.length - 1]];
+        List<HistoryEntry> entries = new ArrayList<>(); // newest first
+        for (long offset = index.latestOffsets[classIndex]; offset >= 0; ) {
+            var entry = readEntry(channel, offset, metricCount);
+            if (entry.build <= lastBuild) {
+                entries.add(entry);
+                if (entry.build <= firstBuild) {
+                    break; // contains the values at the start of the range
+                }
+            }
+            offset = entry.previous;
+        }
+
+        int current = entries.size() - 1;
+        for (int build = 0; build < builds.length; build++) {
+            int number = index.buildNumbers[builds[build]];
+            while (current > 0 && entries.get(current - 1).build <= number) {
+                current--;
+            }
+            if (current < 0 || entries.get(current).build > number || entries.get(current).values == null) {
+                continue;
+            }
+            var values = entries.get(current).values;
+            for (int metric = 0; metric < metricCount; metric++) {
+                if (!Double.isNaN(values[metric])) {
+                    if (history[metric] == null) {
+                        history[metric] = new double[builds.length];
+                        Arrays.fill(history[metric], Double.NaN);
+                    }
+                    history[metric][build] = values[metric];
+                }
+            }
+        }
+        return history;
+    }
+
+    private static HistoryEntry readEntry(final FileChannel channel, final long offset, final int metricCount)
+            throws IOException {
+        var buffer = ByteBuffer.allocate((int) Math.min(ENTRY_HEADER_SIZE + (long) metricCount * VALUE_SIZE,
+                channel.size() - offset));
+        while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+            // read the whole entry
+        }
+        buffer.flip();
+
+        buffer.getInt(); // class index
+        int build = buffer.getInt();
+        long previous = buffer.getLong();
+        int count = buffer.getShort();
+        if (count == REMOVED) {
+            return new HistoryEntry(build, previous, null);
+        }
+        var values = new double[metricCount];
+        Arrays.fill(values, Double.NaN);
+        for (int i = 0; i < count; i++) {
+            int metric = buffer.getShort();
+            values[metric] = buffer.getDouble();
+        }
+        return new HistoryEntry(build, previous, values);
+    }
+
+    /**
+     * Returns the index of the specified file. The caller must hold the lock of the file.
+     */
+    private static HistoryIndex getIndex(final Path file, final FileChannel channel) throws IOException {
+        HistoryIndex index;
+        synchronized (INDICES) {
+            index = INDICES.get(file);
+        }
+        if (index == null || channel.size() < index.validLength) { // not yet indexed or replaced
+            index = new HistoryIndex();
+            synchronized (INDICES) {
+                INDICES.put(file, index);
+            }
+        }
+        index.update(channel);
+        return index;
+    }
+
+    private static void removeIndex(final Path file) {
+        synchronized (INDICES) {
+            INDICES.remove(file);
+        }
+    }
+
+    private Path getHistoryFile(final Job<?, ?> job) {
+        return job.getRootDir().toPath().resolve(HISTORY_FILE_NAME);
+    }
+
+    /**
+     * Entry of a class in a build.
+     *
+     * @param build
+     *         the build number
+     * @param previous
+     *         the file position of the previous entry of the class, or -1 if there is none
+     * @param values
+     *         the values of all metrics (indexed by the metric index), or {@code null} if the class has been removed
+     */
+    private record HistoryEntry(int build, long previous, double[] values) {
+    }
+
+    /**
+     * In-memory index of a history file: the dictionaries, the recorded and removed builds and the position and the
+     * hash of the values of the latest entry of each class.
+     */
+    private static final class HistoryIndex {
+        private final List<String> metricIds = new ArrayList<>();
+        private final List<String> metricNames = new ArrayList<>();
+        private final Map<String, Integer> metricIndices = new HashMap<>();
+        private final Map<String, Integer> classIndices = new HashMap<>();
+        private final BitSet removed = new BitSet();
+        private long[] latestOffsets = new long[0];
+        private long[] latestHashes = new long[0];
+        private int[] buildNumbers = new int[0];
+        private long[] timestamps = new long[0];
+        private final BitSet removedBuilds = new BitSet(); // indexed by the position in the recorded builds
+        private int buildCount;
+        private long validLength;
+
+        /**
+         * Reads the records that have been appended since the last update. The records are read in chunks of bounded
+         * size, a chunk is enlarged only if a single record does not fit.
+         */
+        void update(final FileChannel channel) throws IOException {
+            int chunkSize = CHUNK_SIZE;
+            while (channel.size() > validLength) {
+                long start = validLength;
+                var content = ByteBuffer.allocate((int) Math.min(chunkSize, channel.size() - start));
+                while (content.hasRemaining() && channel.read(content, start + content.position()) >= 0) {
+                    // read the next chunk
+                }
+                content.flip();
+
+                readRecords(content);
+                if (validLength == start) { // the chunk does not contain a complete record
+                    if (content.limit() >= channel.size() - start) {
+                        return; // the last record is incomplete
+                    }
+                    if (chunkSize > Integer.MAX_VALUE / 2) {
+                        throw new IOException("Record in metrics history at position " + start + " is too large");
+                    }
+                    chunkSize *= 2;
+                }
+            }
+        }
+
+        /**
+         * Reads all complete records of the specified chunk, starting at the position {@link #validLength} of the
+         * file.
+         */
+        private void readRecords(final ByteBuffer content) throws IOException {
+            try {
+                if (validLength == 0) {
+                    if (content.getInt() != MAGIC || content.getInt() != VERSION) {
+                        throw new IOException("Unsupported format of metrics history");
+                    }
+                    validLength = content.position();
+                }
+                while (content.hasRemaining()) {
+                    int start = content.position();
+                    byte type = content.get();
+                    if (type == METRIC_RECORD) {
+                        int metric = content.getShort();
+                        var id = getString(content);
+                        var name = getString(content);
+                        metricIndices.put(id, metric);
+                        metricIds.add(id);
+                        metricNames.add(name);
+                    }
+                    else if (type == CLASS_RECORD) {
+                        int classIndex = content.getInt();
+                        var name = getString(content);
+                        classIndices.put(name, classIndex);
+                        if (classIndex >= latestOffsets.length) {
+                            latestOffsets = Arrays.copyOf(latestOffsets, Math.max(16, 2 * classIndex));
+                            latestHashes = Arrays.copyOf(latestHashes, latestOffsets.length);
+                        }
+                        latestOffsets[classIndex] = -1;
+                    }
+                    else if (type == BUILD_RECORD) {
+                        readBuild(content, start);
+                    }
+                    else if (type == REMOVED_BUILD_RECORD) {
+                        int position = Arrays.binarySearch(buildNumbers, 0, buildCount, content.getInt());
+                        if (position >= 0) {
+                            removedBuilds.set(position);
+                        }
+                    }
+                    else {
+                        throw new IOException("Invalid record in metrics history at position " + validLength);
+                    }
+                    validLength += content.position() - start;
+                }
+            }
+            catch (BufferUnderflowException exception) {
+                // the last record is incomplete
+            }
+        }
+
+        private void readBuild(final ByteBuffer content, final int start) {
+            int number = content.getInt();
+            long timestamp = content.getLong();
+            int entries = content.getInt();
+
+            int recordStart = content.position();
+            for (int i = 0; i < entries; i++) { // make sure that the record is complete before applying it
+                skip(content, ENTRY_HEADER_SIZE - Short.BYTES);
+                int count = content.getShort();
+                skip(content, Math.max(0, count) * VALUE_SIZE);
+            }
+            content.position(recordStart);
+
+            for (int i = 0; i < entries; i++) {
+                long offset = validLength + content.position() - start;
+                int classIndex = content.getInt();
+                content.position(content.position() + ENTRY_HEADER_SIZE - Short.BYTES - Integer.BYTES);
+                int count = content.getShort();
+                long hash = 0;
+                for (int value = 0; value < count; value++) {
+                    int metric = content.getShort();
+                    hash += hashValue(metric, content.getDouble());
+                }
+                latestOffsets[classIndex] = offset;
+                latestHashes[classIndex] = hash;
+                removed.set(classIndex, count == REMOVED);
+            }
+
+            if (buildCount == buildNumbers.length) {
+                buildNumbers = Arrays.copyOf(buildNumbers, Math.max(16, 2 * buildCount));
+                timestamps = Arrays.copyOf(timestamps, buildNumbers.length);
+            }
+            buildNumbers[buildCount] = number;
+            timestamps[buildCount] = timestamp;
+            buildCount++;
+        }
+
+        private static void skip(final ByteBuffer content, final int length) {
+            if (content.remaining() < length) {
+                throw new BufferUnderflowException();
+            }
+            content.position(content.position() + length);
+        }
+
+        /**
+         * Returns whether the specified build has been recorded and has not been removed.
+         */
+        boolean isRecorded(final int number) {
+            int position = Arrays.binarySearch(buildNumbers, 0, buildCount, number);
+            return position >= 0 && !removedBuilds.get(position);
+        }
+
+        /**
+         * Returns the latest recorded builds up to the specified build, removed builds are skipped.
+         *
+         * @return the positions of the builds in the recorded builds, in ascending order
+         */
+        int[] getBuilds(final int lastBuild, final int maxBuilds) {
+            int end = buildCount;
+            while (end > 0 && buildNumbers[end - 1] > lastBuild) {
+                end--;
+            }
+            var positions = new int[Math.min(end, Math.max(0, maxBuilds))];
+            int count = positions.length;
+            for (int position = end - 1; position >= 0 && count > 0; position--) {
+                if (!removedBuilds.get(position)) {
+                    positions[--count] = position;
+                }
+            }
+            return Arrays.copyOfRange(positions, count, positions.length);
+        }
+
+        int[] getBuildNumbers(final int[] positions) {
+            var numbers = new int[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                numbers[i] = buildNumbers[positions[i]];
+            }
+            return numbers;
+        }
+
+        long[] getTimestamps(final int[] positions) {
+            var values = new long[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                values[i] = timestamps[positions[i]];
+            }
+            return values;
+        }
+
+        private static String getString(final ByteBuffer content) {
+            var bytes = new byte[content.getShort()];
+            content.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
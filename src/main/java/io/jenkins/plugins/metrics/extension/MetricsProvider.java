@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
+import io.jenkins.plugins.metrics.model.LineMetrics;
 import io.jenkins.plugins.metrics.model.Metric;
 import io.jenkins.plugins.metrics.model.MetricsMeasurement;
 
@@ -17,6 +18,7 @@ public class MetricsProvider {
     private List<MetricsMeasurement> metricsMeasurements = new ArrayList<>();
     private List<String> projectSummaryEntries = new LinkedList<>();
     private List<Metric> projectMetrics = new ArrayList<>();
+    private List<LineMetrics> lineMetrics = new ArrayList<>();
 
     public List<MetricsMeasurement> getMetricsMeasurements() {
         return metricsMeasurements;
@@ -68,4 +70,12 @@ public class MetricsProvider {
     public void addProjectMetric(final Metric metric) {
         projectMetrics.add(metric);
     }
+
+    public List<LineMetrics> getLineMetrics() {
+        return lineMetrics;
+    }
+
+    public void setLineMetrics(final List<LineMetrics> lineMetrics) {
+        this.lineMetrics = lineMetrics;
+    }
 }
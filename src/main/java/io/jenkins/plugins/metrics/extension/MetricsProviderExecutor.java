@@ -0,0 +1,176 @@
+package io.jenkins.plugins.metrics.extension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.security.core.Authentication;
+import hudson.security.ACL;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * Calls all {@link MetricsProviderFactory} instances concurrently using a dedicated and bounded executor. All
+ * factories share a time limit: the results of factories that do not finish in time (or that fail) are skipped and
+ * reported as incomplete. This holds for a single factory as well, so a slow provider never blocks the caller for
+ * longer than the time limit. Each call gets its own thread (a virtual thread on JDKs that support them), so
+ * factories that hang (and ignore the interrupt) do not delay the calls of other factories. If the maximum number of
+ * threads is in use, then additional calls are rejected and reported as incomplete right away, rather than queued
+ * behind hanging factories.
+ *
+ * <p>
+ * The executor can be configured using the following system properties (prefixed with the name of this class):
+ * </p>
+ * <ul>
+ *     <li>{@code parallel}: whether to call the factories concurrently (default: {@code true}), otherwise the
+ *     factories are called one after the other in the calling thread, without a time limit</li>
+ *     <li>{@code threads}: the maximum number of factories that are called concurrently (default: 64)</li>
+ *     <li>{@code timeoutSeconds}: the time limit for all factories (default: 120 seconds)</li>
+ * </ul>
+ */
+final class MetricsProviderExecutor {
+    private static final Logger LOGGER = Logger.getLogger(MetricsProviderExecutor.class.getName());
+    private static final String PREFIX = MetricsProviderExecutor.class.getName();
+
+    private static final boolean PARALLEL = SystemProperties.getBoolean(PREFIX + ".parallel", true);
+    private static final int THREADS = SystemProperties.getInteger(PREFIX + ".threads", 64);
+    private static final long TIMEOUT_SECONDS = SystemProperties.getLong(PREFIX + ".timeoutSeconds", 120L);
+
+    private final long timeoutMillis;
+
+    MetricsProviderExecutor() {
+        this(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+    }
+
+    MetricsProviderExecutor(final long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Calls the specified task for each factory.
+     *
+     * @param factories
+     *         the factories to call
+     * @param task
+     *         the task to call for each factory
+     * @param <T>
+     *         the type of the results
+     *
+     * @return the results of all factories that finished in time
+     */
+    <T> FanOutResult<T> fanOut(final List<MetricsProviderFactory> factories,
+            final Function<MetricsProviderFactory, T> task) {
+        if (PARALLEL) {
+            return fanOut(factories, task, ExecutorHolder.EXECUTOR);
+        }
+        return callSequentially(factories, task);
+    }
+
+    /**
+     * Calls the specified task for each factory in the calling thread. Factories that fail are skipped and reported as
+     * incomplete.
+     */
+    <T> FanOutResult<T> callSequentially(final List<MetricsProviderFactory> factories,
+            final Function<MetricsProviderFactory, T> task) {
+        List<T> results = new ArrayList<>(factories.size());
+        List<String> incomplete = new ArrayList<>();
+        for (MetricsProviderFactory factory : factories) {
+            try {
+                results.add(task.apply(factory));
+            }
+            catch (RuntimeException exception) {
+                var name = factory.getClass().getSimpleName();
+                LOGGER.log(Level.WARNING, "Metrics provider " + name + " failed", exception);
+                incomplete.add(name);
+            }
+        }
+        return new FanOutResult<>(results, incomplete);
+    }
+
+    <T> FanOutResult<T> fanOut(final List<MetricsProviderFactory> factories,
+            final Function<MetricsProviderFactory, T> task, final ExecutorService executor) {
+        Authentication authentication = Jenkins.getAuthentication2();
+        List<Future<T>> futures = new ArrayList<>(factories.size());
+        for (MetricsProviderFactory factory : factories) {
+            try {
+                futures.add(executor.submit(() -> {
+                    try (var ignored = ACL.as2(authentication)) {
+                        return task.apply(factory);
+                    }
+                }));
+            }
+            catch (RejectedExecutionException exception) {
+                futures.add(null);
+            }
+        }
+
+        List<T> results = new ArrayList<>(factories.size());
+        List<String> incomplete = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (int i = 0; i < futures.size(); i++) {
+            var future = futures.get(i);
+            var name = factories.get(i).getClass().getSimpleName();
+            if (future == null) {
+                LOGGER.log(Level.WARNING, "Metrics provider {0} skipped, all provider threads are busy", name);
+                incomplete.add(name);
+                continue;
+            }
+            try {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            catch (TimeoutException exception) {
+                LOGGER.log(Level.WARNING, "Metrics provider {0} did not finish within {1} ms",
+                        new Object[] {name, timeoutMillis});
+                future.cancel(true);
+                incomplete.add(name);
+            }
+            catch (ExecutionException exception) {
+                LOGGER.log(Level.WARNING, "Metrics provider " + name + " failed", exception.getCause());
+                incomplete.add(name);
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                futures.stream().filter(Objects::nonNull).forEach(f -> f.cancel(true));
+                factories.subList(i, factories.size()).forEach(f -> incomplete.add(f.getClass().getSimpleName()));
+                break;
+            }
+        }
+        return new FanOutResult<>(results, incomplete);
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        try {
+            var builderType = Class.forName("java.lang.Thread$Builder");
+            var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            var named = builderType.getMethod("name", String.class, long.class)
+                    .invoke(builder, "metrics-provider-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(named);
+        }
+        catch (ReflectiveOperationException | UnsupportedOperationException exception) {
+            return new NamingThreadFactory(new DaemonThreadFactory(), "metrics-provider");
+        }
+    }
+
+    /**
+     * Lazily creates the shared executor on first use. The executor starts a new thread for each call (or reuses an
+     * idle one) and rejects calls if all threads are busy.
+     */
+    private static final class ExecutorHolder {
+        private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(0, THREADS, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), createThreadFactory());
+    }
+}
@@ -15,35 +15,78 @@ import io.jenkins.plugins.util.JenkinsFacade;
  */
 public abstract class MetricsProviderFactory implements ExtensionPoint {
     /**
-     * Returns all {@link MetricsProvider}s for the specified build, iterating over all registered
-     * {@link MetricsProviderFactory}s.
+     * Returns all {@link MetricsProvider}s for the specified build, calling all registered
+     * {@link MetricsProviderFactory}s concurrently. Factories that do not finish in time or that fail are skipped.
      *
      * @param build
      *         the build to get the metrics for
      *
      * @return a list of {@link MetricsProvider}s
+     * @see #collectAllFor(Run)
      */
     public static List<MetricsProvider> findAllFor(final Run<?, ?> build) {
-        return findFactories().stream()
-                .map(f -> f.getMetricsProviderFor(build))
-                .toList();
+        return collectAllFor(build).getResults();
     }
 
     /**
-     * Returns all {@link MetricDefinition}s for the specified build, iterating over all registered
-     * {@link MetricsProviderFactory}s.
+     * Returns all {@link MetricsProvider}s for the specified build, calling all registered
+     * {@link MetricsProviderFactory}s concurrently. The result contains the providers of all factories that finished
+     * in time, and the names of the factories that did not.
+     *
+     * @param build
+     *         the build to get the metrics for
+     *
+     * @return the {@link MetricsProvider}s of all factories that finished in time
+     */
+    public static FanOutResult<MetricsProvider> collectAllFor(final Run<?, ?> build) {
+        return new MetricsProviderExecutor().fanOut(findFactories(), f -> f.getMetricsProviderFor(build));
+    }
+
+    /**
+     * Returns all {@link MetricDefinition}s for the specified build, calling all registered
+     * {@link MetricsProviderFactory}s concurrently. Factories that do not finish in time or that fail are skipped.
      *
      * @param build
      *         the build to get the metrics for
      *
      * @return a list of {@link MetricsProvider}s, ordered by their priorities
+     * @see #collectAllAvailableMetricsFor(Run)
      */
     public static List<MetricDefinition> findAllAvailableMetricsFor(final Run<?, ?> build) {
-        return findFactories().stream()
-                .map(f -> f.getAvailableMetricsFor(build))
+        return collectAllAvailableMetricsFor(build).getResults();
+    }
+
+    /**
+     * Returns all {@link MetricDefinition}s for the specified build, calling all registered
+     * {@link MetricsProviderFactory}s concurrently. The result contains the metrics of all factories that finished in
+     * time, and the names of the factories that did not.
+     *
+     * @param build
+     *         the build to get the metrics for
+     *
+     * @return the {@link MetricDefinition}s of all factories that finished in time, ordered by their priorities
+     */
+    public static FanOutResult<MetricDefinition> collectAllAvailableMetricsFor(final Run<?, ?> build) {
+        var definitions = new MetricsProviderExecutor().fanOut(findFactories(),
+                f -> f.getAvailableMetricsFor(build));
+        return new FanOutResult<>(definitions.getResults().stream()
                 .flatMap(Collection::stream)
                 .sorted()
-                .toList();
+                .toList(), definitions.getIncompleteFactories());
+    }
+
+    /**
+     * Returns the {@link MetricsProvider} and the available {@link MetricDefinition}s of each registered
+     * {@link MetricsProviderFactory} for the specified build. Both are computed in the same task, so that all
+     * factories are called concurrently only once and share a single time limit.
+     *
+     * @param build
+     *         the build to get the metrics for
+     *
+     * @return the contributions of all factories that finished in time
+     */
+    static FanOutResult<Contribution> collectContributionsFor(final Run<?, ?> build) {
+        return new MetricsProviderExecutor().fanOut(findFactories(), f -> f.getContributionFor(build));
     }
 
     private static List<MetricsProviderFactory> findFactories() {
@@ -70,4 +113,28 @@ public abstract class MetricsProviderFactory implements ExtensionPoint {
      * @return containing all possibly reported metrics
      */
     public abstract Set<MetricDefinition> getAvailableMetricsFor(Run<?, ?> build);
+
+    /**
+     * Returns the {@link MetricsProvider} and all metrics this {@link MetricsProviderFactory} reports, for the
+     * specified build.
+     *
+     * @param build
+     *         the build to get the metrics for
+     *
+     * @return the provider and the metrics
+     */
+    Contribution getContributionFor(final Run<?, ?> build) {
+        return new Contribution(getMetricsProviderFor(build), getAvailableMetricsFor(build));
+    }
+
+    /**
+     * The {@link MetricsProvider} and the available metrics of a factory.
+     *
+     * @param provider
+     *         the provider
+     * @param availableMetrics
+     *         the metrics the factory reports
+     */
+    record Contribution(MetricsProvider provider, Set<MetricDefinition> availableMetrics) {
+    }
 }
@@ -0,0 +1,420 @@
+package io.jenkins.plugins.metrics.extension;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.security.core.Authentication;
+import hudson.model.Run;
+import hudson.security.ACL;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+import io.jenkins.plugins.metrics.model.MetricsDiff;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+/**
+ * Controller wide cache of {@link MetricsSnapshot} instances, keyed by the external ID of the build. The cache is
+ * shared by all requests and users, so that opening the metrics of the same build several times (or by several users
+ * at the same time) loads the snapshot only once.
+ *
+ * <p>
+ * Snapshots of running builds and incomplete snapshots (where some providers did not finish in time) are cached as
+ * well, but only for a short time (system property
+ * {@code io.jenkins.plugins.metrics.extension.MetricsSnapshotCache.retrySeconds}, default: 30 seconds). Once that time
+ * has passed, the cached snapshot is still returned, while a new snapshot is computed in the background. So a slow
+ * provider does not block every request, and the missing metrics are still picked up eventually.
+ * </p>
+ *
+ * <p>
+ * The cache is bounded by a heap budget that can be configured using the system property
+ * {@code io.jenkins.plugins.metrics.extension.MetricsSnapshotCache.maxSizeMB} (default: 256 MB). If the budget is
+ * exceeded, then the least recently used snapshots are evicted. Additionally, all snapshots are held using
+ * {@link SoftReference soft references} so that the garbage collector can reclaim them if the controller runs low on
+ * memory.
+ * </p>
+ *
+ * <p>
+ * Additionally, the cache holds the {@link MetricsDiff diffs} of the last {@value #MAX_CACHED_DIFFS} pairs of builds.
+ * A diff refers to the rows of the snapshots only, so it does not keep the snapshots in memory. It is removed as soon
+ * as the snapshot of one of its builds is invalidated or replaced.
+ * </p>
+ */
+public final class MetricsSnapshotCache {
+    private static final Logger LOGGER = Logger.getLogger(MetricsSnapshotCache.class.getName());
+    private static final String PREFIX = MetricsSnapshotCache.class.getName();
+
+    private static final long MEGA_BYTE = 1024L * 1024L;
+    private static final int DEFAULT_MAX_SIZE_MB = 256;
+    private static final long DEFAULT_RETRY_SECONDS = 30L;
+    private static final int MAX_PENDING_REFRESHES = 32;
+    private static final int MAX_CACHED_DIFFS = 16;
+
+    private static final MetricsSnapshotCache INSTANCE = new MetricsSnapshotCache(new MetricsSnapshotStore(),
+            SystemProperties.getInteger(PREFIX + ".maxSizeMB", DEFAULT_MAX_SIZE_MB) * MEGA_BYTE,
+            TimeUnit.SECONDS.toNanos(SystemProperties.getLong(PREFIX + ".retrySeconds", DEFAULT_RETRY_SECONDS)),
+            command -> RefreshHolder.EXECUTOR.execute(command), System::nanoTime);
+
+    private final MetricsSnapshotStore store;
+    private final long maxSize;
+    private final long retryNanos;
+    private final Executor refresher;
+    private final LongSupplier clock;
+
+    private final Map<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<MetricsSnapshot>> loading = new ConcurrentHashMap<>();
+    private final Map<DiffKey, MetricsDiff> diffs = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Entry<DiffKey, MetricsDiff> eldest) {
+            return size() > MAX_CACHED_DIFFS;
+        }
+    };
+    private long size;
+
+    /**
+     * Returns the shared cache instance.
+     *
+     * @return the cache
+     */
+    public static MetricsSnapshotCache getInstance() {
+        return INSTANCE;
+    }
+
+    MetricsSnapshotCache(final MetricsSnapshotStore store, final long maxSize, final long retryNanos,
+            final Executor refresher, final LongSupplier clock) {
+        this.store = store;
+        this.maxSize = maxSize;
+        this.retryNanos = retryNanos;
+        this.refresher = refresher;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the {@link MetricsSnapshot} of the specified build. If the snapshot is not yet cached, it will be loaded
+     * using the {@link MetricsSnapshotStore}. Concurrent requests for the same build wait for the same loading
+     * operation, so that each snapshot is loaded only once. If the cached snapshot is outdated (since the build was
+     * still running or some providers did not finish in time), then the outdated snapshot is returned and a new
+     * snapshot is loaded in the background.
+     *
+     * @param build
+     *         the build to get the snapshot for
+     *
+     * @return the snapshot of the build
+     */
+    public MetricsSnapshot get(final Run<?, ?> build) {
+        var key = build.getExternalizableId();
+        var cached = getCached(key);
+        if (cached != null) {
+            if (cached.outdated()) {
+                refresh(build, key, cached.snapshot());
+            }
+            return cached.snapshot();
+        }
+
+        var loader = new CompletableFuture<MetricsSnapshot>();
+        var running = loading.putIfAbsent(key, loader);
+        if (running != null) {
+            return await(running);
+        }
+
+        var raced = getCached(key);
+        if (raced != null) { // loaded by another request in the meantime
+            loading.remove(key, loader);
+            loader.complete(raced.snapshot());
+            return raced.snapshot();
+        }
+        return load(build, key, loader);
+    }
+
+    /**
+     * Returns the snapshot of the specified build if it is cached or has been stored in the build folder. Unlike
+     * {@link #get(Run)}, this method never queries the metrics providers, so it is cheap enough for views that show
+     * the metrics of many builds.
+     *
+     * @param build
+     *         the build to get the snapshot for
+     *
+     * @return the snapshot of the build, or an empty {@link Optional} if the snapshot has not been stored yet
+     */
+    public Optional<MetricsSnapshot> find(final Run<?, ?> build) {
+        var key = build.getExternalizableId();
+        var cached = getCached(key);
+        if (cached != null) {
+            return Optional.of(cached.snapshot());
+        }
+
+        var stored = store.load(build);
+        stored.ifPresent(snapshot -> put(key, snapshot, false));
+        return stored;
+    }
+
+    /**
+     * Computes the snapshot of a completed build in the background, using the executor that refreshes outdated
+     * snapshots. The new snapshot is cached and then passed to the specified consumer, e.g. to store it. So a slow
+     * provider does not delay the thread that completed the build. Requests for the snapshot that arrive while the
+     * snapshot is computed wait for this computation rather than starting another one.
+     *
+     * @param build
+     *         the completed build
+     * @param onCreated
+     *         receives the new snapshot
+     */
+    public void createInBackground(final Run<?, ?> build, final Consumer<MetricsSnapshot> onCreated) {
+        var key = build.getExternalizableId();
+        Authentication authentication = Jenkins.getAuthentication2();
+        try {
+            refresher.execute(() -> {
+                var loader = new CompletableFuture<MetricsSnapshot>();
+                boolean registered = loading.putIfAbsent(key, loader) == null;
+                try (var ignored = ACL.as2(authentication)) {
+                    var snapshot = store.create(build);
+                    put(key, snapshot, !snapshot.isComplete());
+                    loader.complete(snapshot);
+                    onCreated.accept(snapshot);
+                }
+                catch (RuntimeException exception) {
+                    loader.completeExceptionally(exception);
+                    LOGGER.log(Level.WARNING, "Can't aggregate metrics of build " + key, exception);
+                }
+                finally {
+                    if (registered) {
+                        loading.remove(key, loader);
+                    }
+                }
+            });
+        }
+        catch (RejectedExecutionException exception) {
+            LOGGER.log(Level.INFO, "Skipping aggregation of metrics of build {0}, too many pending aggregations. "
+                    + "The metrics are aggregated when the build is opened.", key);
+        }
+    }
+
+    /**
+     * Returns the diff of the snapshots of a build and its reference build. If the diff is not yet cached, it is
+     * computed using the specified comparison. The diff is cached only if the cached snapshots of both builds are
+     * final, i.e., if they are complete snapshots of completed builds. Otherwise, the rows of the diff might not match
+     * the rows of the snapshots that are loaded later on.
+     *
+     * @param build
+     *         the build
+     * @param referenceBuild
+     *         the reference build, or {@code null} if there is none
+     * @param comparison
+     *         computes the diff of the snapshots of the two builds
+     *
+     * @return the diff
+     */
+    public MetricsDiff getDiff(final Run<?, ?> build, final Run<?, ?> referenceBuild,
+            final Supplier<MetricsDiff> comparison) {
+        var key = new DiffKey(build.getExternalizableId(),
+                referenceBuild == null ? "" : referenceBuild.getExternalizableId());
+        boolean cacheable;
+        synchronized (this) {
+            var cached = diffs.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            cacheable = isFinal(key);
+        }
+
+        var diff = comparison.get();
+        synchronized (this) {
+            if (cacheable && isFinal(key)) {
+                diffs.put(key, diff);
+            }
+        }
+        return diff;
+    }
+
+    private boolean isFinal(final DiffKey key) {
+        return isFinal(key.build()) && (key.referenceBuild().isEmpty() || isFinal(key.referenceBuild()));
+    }
+
+    private boolean isFinal(final String key) {
+        var entry = entries.get(key);
+        return entry != null && !entry.temporary && entry.reference.get() != null;
+    }
+
+    private void removeDiffs(final String key) {
+        diffs.keySet().removeIf(diff -> diff.contains(key));
+    }
+
+    private MetricsSnapshot load(final Run<?, ?> build, final String key,
+            final CompletableFuture<MetricsSnapshot> loader) {
+        try {
+            boolean building = build.isBuilding();
+            var snapshot = store.getOrCreate(build);
+            put(key, snapshot, building || !snapshot.isComplete());
+            loader.complete(snapshot);
+            return snapshot;
+        }
+        catch (RuntimeException exception) {
+            loader.completeExceptionally(exception);
+            throw exception;
+        }
+        finally {
+            loading.remove(key, loader);
+        }
+    }
+
+    private void refresh(final Run<?, ?> build, final String key, final MetricsSnapshot outdated) {
+        var loader = new CompletableFuture<MetricsSnapshot>();
+        if (loading.putIfAbsent(key, loader) != null) {
+            return; // already loading
+        }
+
+        Authentication authentication = Jenkins.getAuthentication2();
+        try {
+            refresher.execute(() -> {
+                try (var ignored = ACL.as2(authentication)) {
+                    load(build, key, loader);
+                }
+                catch (RuntimeException exception) {
+                    LOGGER.log(Level.WARNING, "Can't refresh metrics snapshot of " + key, exception);
+                }
+            });
+        }
+        catch (RejectedExecutionException exception) {
+            LOGGER.log(Level.FINE, "Skipping refresh of metrics snapshot of {0}, too many pending refreshes", key);
+            loading.remove(key, loader);
+            loader.complete(outdated);
+        }
+    }
+
+    private MetricsSnapshot await(final CompletableFuture<MetricsSnapshot> running) {
+        try {
+            return running.join();
+        }
+        catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Removes the snapshot of the specified build from the cache.
+     *
+     * @param build
+     *         the build to remove the snapshot for
+     */
+    public synchronized void invalidate(final Run<?, ?> build) {
+        var key = build.getExternalizableId();
+        var removed = entries.remove(key);
+        if (removed != null) {
+            size -= removed.size;
+        }
+        removeDiffs(key);
+    }
+
+    /**
+     * Returns the estimated heap size of all cached snapshots.
+     *
+     * @return the size in bytes
+     */
+    synchronized long getSize() {
+        return size;
+    }
+
+    private synchronized Cached getCached(final String key) {
+        var entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        var snapshot = entry.reference.get();
+        if (snapshot == null) { // reclaimed by the garbage collector
+            entries.remove(key);
+            size -= entry.size;
+            return null;
+        }
+        return new Cached(snapshot, entry.isOutdated(clock.getAsLong()));
+    }
+
+    private synchronized void put(final String key, final MetricsSnapshot snapshot, final boolean temporary) {
+        var entry = new CacheEntry(snapshot, temporary, clock.getAsLong() + retryNanos);
+        if (entry.size > maxSize) {
+            return; // would evict everything else
+        }
+
+        var previous = entries.put(key, entry);
+        if (previous != null) {
+            size -= previous.size;
+            removeDiffs(key);
+        }
+        size += entry.size;
+
+        Iterator<Entry<String, CacheEntry>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (size > maxSize && leastRecentlyUsed.hasNext()) {
+            var eldest = leastRecentlyUsed.next();
+            if (!eldest.getKey().equals(key)) {
+                size -= eldest.getValue().size;
+                leastRecentlyUsed.remove();
+            }
+        }
+    }
+
+    private record Cached(MetricsSnapshot snapshot, boolean outdated) {
+    }
+
+    private record DiffKey(String build, String referenceBuild) {
+        boolean contains(final String key) {
+            return build.equals(key) || referenceBuild.equals(key);
+        }
+    }
+
+    private static final class CacheEntry {
+        private final SoftReference<MetricsSnapshot> reference;
+        private final long size;
+        private final boolean temporary;
+        private final long retryAt;
+
+        CacheEntry(final MetricsSnapshot snapshot, final boolean temporary, final long retryAt) {
+            reference = new SoftReference<>(snapshot);
+            size = snapshot.getEstimatedSize();
+            this.temporary = temporary;
+            this.retryAt = retryAt;
+        }
+
+        boolean isOutdated(final long now) {
+            return temporary && now - retryAt >= 0;
+        }
+    }
+
+    /**
+     * Lazily creates the executor that refreshes outdated snapshots in the background. The executor uses a single
+     * thread and skips refreshes if too many are pending.
+     */
+    private static final class RefreshHolder {
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            var executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(MAX_PENDING_REFRESHES),
+                    new NamingThreadFactory(new DaemonThreadFactory(), "metrics-snapshot-refresh"));
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
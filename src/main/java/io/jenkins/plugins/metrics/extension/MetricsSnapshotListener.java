@@ -0,0 +1,97 @@
+package io.jenkins.plugins.metrics.extension;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+/**
+ * Aggregates the metrics of a build once the build has been completed and stores the resulting snapshot in the build
+ * folder. The metrics views then just need to read the snapshot instead of querying all metrics providers again. The
+ * metrics are aggregated in the background (see {@link MetricsSnapshotCache#createInBackground}), so that slow metrics
+ * providers do not block the executor of the build. Empty snapshots are not stored.
+ * Additionally, the project metrics of the build are appended to the trend of the job (see {@link MetricsTrendStore})
+ * and replace the summary of the job (see {@link MetricsSummaryStore}), and the changed class metrics are appended to
+ * the history of the job (see {@link MetricsHistoryStore}). The cached metrics of the folders that contain the job
+ * are discarded (see {@link FolderMetricsAggregator}). Deleted builds are removed from the trend and the history of the
+ * job.
+ */
+@Extension
+@SuppressWarnings({"rawtypes", "unused"}) // used via the extension
+public class MetricsSnapshotListener extends RunListener<Run> {
+    private static final Logger LOGGER = Logger.getLogger(MetricsSnapshotListener.class.getName());
+
+    private final MetricsSnapshotStore store;
+    private final MetricsTrendStore trendStore;
+    private final MetricsHistoryStore historyStore;
+    private final MetricsSummaryStore summaryStore;
+
+    /**
+     * Creates a new instance of {@link MetricsSnapshotListener}.
+     */
+    public MetricsSnapshotListener() {
+        this(new MetricsSnapshotStore(), new MetricsTrendStore(), new MetricsHistoryStore(),
+                new MetricsSummaryStore());
+    }
+
+    MetricsSnapshotListener(final MetricsSnapshotStore store, final MetricsTrendStore trendStore,
+            final MetricsHistoryStore historyStore, final MetricsSummaryStore summaryStore) {
+        super();
+
+        this.store = store;
+        this.trendStore = trendStore;
+        this.historyStore = historyStore;
+        this.summaryStore = summaryStore;
+    }
+
+    @Override
+    public void onCompleted(final Run run, @NonNull final TaskListener listener) {
+        Run<?, ?> build = run;
+        MetricsSnapshotCache.getInstance().invalidate(build);
+        FolderMetricsAggregator.getInstance().invalidate(build.getParent());
+        MetricsSnapshotCache.getInstance().createInBackground(build, snapshot -> persist(build, snapshot));
+    }
+
+    /**
+     * Stores the snapshot of a completed build and appends its metrics to the files of the job. Empty snapshots (of
+     * jobs that are not analyzed by any metrics provider) are not stored at all.
+     *
+     * @param build
+     *         the completed build
+     * @param snapshot
+     *         the snapshot of the build
+     */
+    void persist(final Run<?, ?> build, final MetricsSnapshot snapshot) {
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        try {
+            if (snapshot.isComplete()) {
+                store.save(build, snapshot);
+                trendStore.append(build, snapshot.getProjectMetrics());
+                historyStore.append(build, snapshot.getClasses());
+                summaryStore.save(build, snapshot.getProjectMetrics());
+            }
+            FolderMetricsAggregator.getInstance().invalidate(build.getParent());
+        }
+        catch (RuntimeException exception) {
+            // a metrics provider should never break a build, the snapshot will be computed on demand later
+            LOGGER.log(Level.WARNING, "Can't store metrics of build " + build, exception);
+        }
+    }
+
+    @Override
+    public void onDeleted(final Run run) {
+        trendStore.remove(run);
+        historyStore.remove(run);
+        MetricsSnapshotCache.getInstance().invalidate(run);
+        FolderMetricsAggregator.getInstance().invalidate(run.getParent());
+    }
+}
@@ -0,0 +1,310 @@
+package io.jenkins.plugins.metrics.extension;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import hudson.model.Run;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+import io.jenkins.plugins.metrics.extension.MetricsProviderFactory.Contribution;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.DuplicateMetricPolicy;
+import io.jenkins.plugins.metrics.model.MeasurementAggregator;
+import io.jenkins.plugins.metrics.model.Metric;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+import io.jenkins.plugins.metrics.model.MetricsMeasurement;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+/**
+ * Creates, stores and loads the {@link MetricsSnapshot} of a build. The snapshot is written as a compressed file into
+ * the build folder when the build completes (see {@link MetricsSnapshotListener}). Builds that have been recorded
+ * before the snapshot file has been introduced get their snapshot computed (and stored) on first access.
+ */
+public class MetricsSnapshotStore {
+    /** The name of the snapshot file in the build folder. */
+    static final String SNAPSHOT_FILE_NAME = "metrics-aggregation.ser.gz";
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsSnapshotStore.class.getName());
+    private static final ObjectInputFilter MODEL_FILTER = ObjectInputFilter.Config.createFilter(
+            "io.jenkins.plugins.metrics.model.*;java.lang.*;java.util.*");
+    private static final DuplicateMetricPolicy DUPLICATE_METRIC_POLICY = parsePolicy(
+            SystemProperties.getString(MetricsSnapshotStore.class.getName() + ".duplicateMetricPolicy"));
+
+    /**
+     * Parses the configured {@link DuplicateMetricPolicy}. Invalid values are logged and replaced by
+     * {@link DuplicateMetricPolicy#KEEP_FIRST}, so that a mistyped system property does not break the metrics views.
+     *
+     * @param value
+     *         the name of the policy, might be {@code null}
+     *
+     * @return the policy
+     */
+    static DuplicateMetricPolicy parsePolicy(@CheckForNull final String value) {
+        if (value == null || value.isBlank()) {
+            return DuplicateMetricPolicy.KEEP_FIRST;
+        }
+        try {
+            return DuplicateMetricPolicy.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+        }
+        catch (IllegalArgumentException exception) {
+            LOGGER.log(Level.WARNING, "Invalid duplicate metric policy ''{0}'', using {1} instead (valid: {2})",
+                    new Object[] {value, DuplicateMetricPolicy.KEEP_FIRST,
+                            Arrays.toString(DuplicateMetricPolicy.values())});
+
+            return DuplicateMetricPolicy.KEEP_FIRST;
+        }
+    }
+
+    /**
+     * Returns the snapshot of the specified build. If the snapshot has been stored already, then it will be read from
+     * the build folder. Otherwise, the snapshot will be computed from all registered {@link MetricsProviderFactory}
+     * instances and stored in the build folder, if the build has been completed and all providers delivered their
+     * results in time.
+     *
+     * @param build
+     *         the build to get the snapshot for
+     *
+     * @return the snapshot of the build
+     */
+    public MetricsSnapshot getOrCreate(final Run<?, ?> build) {
+        var stored = load(build);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        var snapshot = create(build);
+        if (!build.isBuilding() && snapshot.isComplete()) {
+            save(build, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Computes the snapshot of the specified build from all registered {@link MetricsProviderFactory} instances. The
+     * providers and the available metrics of all factories are collected in a single concurrent call of all
+     * factories.
+     *
+     * @param build
+     *         the build to compute the snapshot for
+     *
+     * @return the snapshot of the build
+     */
+    public MetricsSnapshot create(final Run<?, ?> build) {
+        var contributions = MetricsProviderFactory.collectContributionsFor(build);
+        var providers = contributions.getResults().stream()
+                .map(Contribution::provider)
+                .toList();
+        var supportedMetrics = contributions.getResults().stream()
+                .map(Contribution::availableMetrics)
+                .flatMap(Collection::stream)
+                .sorted()
+                .toList();
+
+        var snapshot = aggregate(providers, supportedMetrics);
+        if (contributions.isComplete()) {
+            return snapshot;
+        }
+        return new MetricsSnapshot(snapshot.getClasses(), snapshot.getMethodMeasurements(),
+                snapshot.getSupportedMetrics(), snapshot.getProjectOverview(), snapshot.getProjectMetrics(),
+                contributions.getIncompleteFactories());
+    }
+
+    /**
+     * Aggregates the results of the specified {@link MetricsProvider}s into a single {@link MetricsSnapshot}. The
+     * measurements of the different providers are merged by class (or method, respectively). Metrics that are
+     * reported twice for the same class (or method) are resolved using the {@link DuplicateMetricPolicy} that is
+     * configured by the system property {@code <class name>.duplicateMetricPolicy} (default: keep the first metric).
+     * Finally, the line metrics of the providers are attributed to the merged methods.
+     *
+     * @param providers
+     *         the providers to aggregate
+     * @param supportedMetrics
+     *         the metrics that are available for the build
+     *
+     * @return the aggregated snapshot
+     */
+    static MetricsSnapshot aggregate(final List<MetricsProvider> providers,
+            final List<MetricDefinition> supportedMetrics) {
+        int size = 0;
+        for (MetricsProvider provider : providers) {
+            size += provider.getMetricsMeasurements().size();
+        }
+        var aggregator = new MeasurementAggregator(size, DUPLICATE_METRIC_POLICY);
+        for (MetricsProvider provider : providers) {
+            aggregator.addAll(provider.getMetricsMeasurements());
+        }
+        aggregator.attribute(providers.stream()
+                .map(MetricsProvider::getLineMetrics)
+                .flatMap(List::stream)
+                .toList());
+        if (aggregator.getDuplicateCount() > 0) {
+            LOGGER.log(Level.FINE, "Resolved {0} duplicate metrics using policy {1}",
+                    new Object[] {aggregator.getDuplicateCount(), DUPLICATE_METRIC_POLICY});
+        }
+
+        List<String> projectOverview = providers.stream()
+                .map(MetricsProvider::getProjectSummaryEntries)
+                .reduce(new LinkedList<>(), (acc, summary) -> {
+                    acc.addAll(summary);
+                    return acc;
+                });
+
+        List<Metric> projectMetrics = providers.stream()
+                .map(MetricsProvider::getProjectMetrics)
+                .flatMap(List::stream)
+                .toList();
+
+        return new MetricsSnapshot(ClassMetricsTable.create(aggregator.getClassMeasurements()),
+                aggregator.getMethodMeasurements(), supportedMetrics, projectOverview, projectMetrics);
+    }
+
+    /**
+     * Loads the stored snapshot of the specified build. Besides the model of this plugin, the snapshot might contain
+     * the metrics and measurements of other plugins. Snapshots with other classes are rejected.
+     *
+     * @param build
+     *         the build to load the snapshot for
+     *
+     * @return the stored snapshot, or an empty {@link Optional} if there is no (readable) snapshot file
+     */
+    public Optional<MetricsSnapshot> load(final Run<?, ?> build) {
+        var file = getSnapshotFile(build);
+        var filter = new SnapshotFilter();
+        try (var input = new SnapshotInputStream(new GZIPInputStream(
+                new BufferedInputStream(Files.newInputStream(file))))) {
+            input.setObjectInputFilter(filter);
+
+            return Optional.of((MetricsSnapshot) input.readObject());
+        }
+        catch (NoSuchFileException exception) {
+            return Optional.empty();
+        }
+        catch (InvalidClassException exception) {
+            if (filter.rejected == null) {
+                LOGGER.log(Level.FINE, "Ignoring metrics snapshot of an older format: " + file, exception);
+            }
+            else {
+                LOGGER.log(Level.WARNING, "Ignoring metrics snapshot " + file + ", it contains the class "
+                        + filter.rejected.getName() + " which is neither a metric nor a measurement", exception);
+            }
+
+            return Optional.empty();
+        }
+        catch (IOException | ClassNotFoundException | ClassCastException exception) {
+            LOGGER.log(Level.WARNING, "Can't read metrics snapshot " + file, exception);
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Saves the snapshot of the specified build in the build folder. The file is written atomically so that
+     * concurrent readers never see a partially written snapshot.
+     *
+     * @param build
+     *         the build to save the snapshot for
+     * @param snapshot
+     *         the snapshot to save
+     */
+    public void save(final Run<?, ?> build, final MetricsSnapshot snapshot) {
+        var file = getSnapshotFile(build);
+        try {
+            var temp = Files.createTempFile(file.getParent(), SNAPSHOT_FILE_NAME, ".tmp");
+            try {
+                try (var output = new ObjectOutputStream(new GZIPOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temp))))) {
+                    output.writeObject(snapshot);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Can't write metrics snapshot " + file, exception);
+        }
+    }
+
+    private Path getSnapshotFile(final Run<?, ?> build) {
+        return build.getRootDir().toPath().resolve(SNAPSHOT_FILE_NAME);
+    }
+
+    /**
+     * Accepts the classes of the model of this plugin and the metrics and measurements of other plugins. All other
+     * classes are rejected, the first rejected class is recorded.
+     */
+    private static final class SnapshotFilter implements ObjectInputFilter {
+        private Class<?> rejected;
+
+        @Override
+        public Status checkInput(final FilterInfo info) {
+            var status = MODEL_FILTER.checkInput(info);
+            if (status != Status.UNDECIDED || info.serialClass() == null) {
+                return status;
+            }
+
+            Class<?> type = info.serialClass();
+            while (type.isArray()) {
+                type = type.getComponentType();
+            }
+            if (type.isPrimitive() || Metric.class.isAssignableFrom(type)
+                    || MetricsMeasurement.class.isAssignableFrom(type)) {
+                return Status.UNDECIDED;
+            }
+            if (rejected == null) {
+                rejected = type;
+            }
+            return Status.REJECTED;
+        }
+    }
+
+    /**
+     * Resolves the classes of other plugins (e.g., the metrics of third-party providers) using the class loader of all
+     * plugins.
+     */
+    private static final class SnapshotInputStream extends ObjectInputStream {
+        SnapshotInputStream(final InputStream input) throws IOException {
+            super(input);
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass descriptor)
+                throws IOException, ClassNotFoundException {
+            try {
+                return super.resolveClass(descriptor);
+            }
+            catch (ClassNotFoundException exception) {
+                var jenkins = Jenkins.getInstanceOrNull();
+                if (jenkins == null) {
+                    throw exception;
+                }
+                return Class.forName(descriptor.getName(), false, jenkins.getPluginManager().uberClassLoader);
+            }
+        }
+    }
+}
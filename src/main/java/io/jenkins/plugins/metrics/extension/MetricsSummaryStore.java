@@ -0,0 +1,330 @@
+package io.jenkins.plugins.metrics.extension;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.util.SystemProperties;
+
+import io.jenkins.plugins.metrics.model.Metric;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+/**
+ * Stores the rendered project metrics of the latest completed build of a job in a small file in the job folder. List
+ * views show a project metric for each job (see {@code ProjectMetricsColumn}), so reading it must neither load the
+ * snapshot of the build nor query the metrics providers. The summary is written when a build completes (see
+ * {@link MetricsSnapshotListener}) and is kept in memory after the first read.
+ *
+ * <p>
+ * Jobs whose latest build has no summary yet (e.g., builds that completed before this plugin has been installed) are
+ * backfilled in the background: the first request schedules the computation and gets no value, the following
+ * requests get the value from memory. The backfills run on a small pool of their own, if too many backfills are
+ * pending (e.g., when a list view with hundreds of jobs is opened for the first time), then the remaining jobs are
+ * backfilled on a later request.
+ * </p>
+ *
+ * <p>
+ * Only the metrics of complete snapshots are stored, regardless of whether the summary is written when the build
+ * completes or by a backfill. If some providers did not finish in time, then the job has no summary for the build, and
+ * a later backfill stores the summary once the snapshot cache has obtained a complete snapshot.
+ * </p>
+ */
+public class MetricsSummaryStore {
+    /** The name of the summary file in the job folder. */
+    static final String SUMMARY_FILE_NAME = "metrics-aggregation-summary.bin";
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsSummaryStore.class.getName());
+
+    private static final int MAGIC = 0x4D53_554D; // MSUM
+    private static final int VERSION = 1;
+
+    private static final int BACKFILL_THREADS = 2;
+    private static final int MAX_PENDING_BACKFILLS = SystemProperties.getInteger(
+            MetricsSummaryStore.class.getName() + ".maxPendingBackfills", 16);
+
+    /** The summaries that have been read or written, an empty summary marks a job without summary file. */
+    private static final Map<Path, MetricsSummary> SUMMARIES = new ConcurrentHashMap<>();
+    /** The summary files that are currently backfilled. */
+    private static final Set<Path> BACKFILLS = ConcurrentHashMap.newKeySet();
+
+    private static final MetricsSummary NO_SUMMARY = new MetricsSummary(-1, Map.of());
+
+    private final Executor backfiller;
+    private final Function<Run<?, ?>, MetricsSnapshot> snapshotLoader;
+
+    /**
+     * Creates a new instance of {@link MetricsSummaryStore}.
+     */
+    public MetricsSummaryStore() {
+        this(command -> BackfillHolder.EXECUTOR.execute(command),
+                build -> MetricsSnapshotCache.getInstance().get(build));
+    }
+
+    MetricsSummaryStore(final Executor backfiller, final Function<Run<?, ?>, MetricsSnapshot> snapshotLoader) {
+        this.backfiller = backfiller;
+        this.snapshotLoader = snapshotLoader;
+    }
+
+    /**
+     * Saves the project metrics of the specified build as summary of its job.
+     *
+     * @param build
+     *         the completed build
+     * @param projectMetrics
+     *         the project metrics of the build
+     */
+    public void save(final Run<?, ?> build, final List<Metric> projectMetrics) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Metric metric : projectMetrics) {
+            values.putIfAbsent(metric.getId(), metric.renderValue()); // several providers might report a metric
+        }
+        var summary = new MetricsSummary(build.getNumber(), Collections.unmodifiableMap(values));
+
+        var file = getSummaryFile(build.getParent());
+        synchronized (FileLocks.get(file)) {
+            write(file, summary);
+            SUMMARIES.put(file, summary);
+        }
+    }
+
+    private void write(final Path file, final MetricsSummary summary) {
+        try {
+            var temp = Files.createTempFile(file.getParent(), SUMMARY_FILE_NAME, ".tmp");
+            try {
+                try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    output.writeInt(MAGIC);
+                    output.writeInt(VERSION);
+                    output.writeInt(summary.getBuild());
+                    output.writeInt(summary.values.size());
+                    for (Map.Entry<String, String> value : summary.values.entrySet()) {
+                        output.writeUTF(value.getKey());
+                        output.writeUTF(value.getValue());
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Can't write metrics summary " + file, exception);
+        }
+    }
+
+    /**
+     * Returns the summary of the project metrics of the specified job. The summary is read from memory, or from the
+     * summary file in the job folder on first access.
+     *
+     * @param job
+     *         the job
+     *
+     * @return the summary, or an empty {@link Optional} if the job has no summary
+     */
+    public Optional<MetricsSummary> get(final Job<?, ?> job) {
+        var file = getSummaryFile(job);
+        var summary = SUMMARIES.get(file);
+        if (summary == null) {
+            var read = read(file); // outside the map, so that reading the file does not block other jobs
+            var saved = SUMMARIES.putIfAbsent(file, read); // a summary saved in the meantime is newer
+            summary = saved == null ? read : saved;
+        }
+        return summary == NO_SUMMARY ? Optional.empty() : Optional.of(summary);
+    }
+
+    /**
+     * Returns the summary of the project metrics of the specified build. If the summary of its job belongs to another
+     * build (or if there is none), then the summary of the build is computed in the background and an empty result is
+     * returned.
+     *
+     * @param build
+     *         the latest completed build of a job
+     *
+     * @return the summary, or an empty {@link Optional} if the summary is not yet available
+     */
+    public Optional<MetricsSummary> getOrBackfill(final Run<?, ?> build) {
+        var summary = findSummary(build);
+        if (summary.isPresent()) {
+            return summary;
+        }
+
+        var file = getSummaryFile(build.getParent());
+        if (BACKFILLS.add(file)) {
+            try {
+                backfiller.execute(() -> backfill(file, build));
+            }
+            catch (RejectedExecutionException exception) {
+                BACKFILLS.remove(file); // a later request will try again
+                LOGGER.log(Level.FINE, "Postponing metrics summary of build {0}, too many pending backfills", build);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<MetricsSummary> findSummary(final Run<?, ?> build) {
+        return get(build.getParent()).filter(summary -> summary.getBuild() == build.getNumber());
+    }
+
+    private void backfill(final Path file, final Run<?, ?> build) {
+        try {
+            if (findSummary(build).isPresent()) {
+                return; // the build has completed in the meantime
+            }
+            var snapshot = snapshotLoader.apply(build);
+            if (snapshot.isComplete()) {
+                save(build, snapshot.getProjectMetrics());
+            }
+            else {
+                LOGGER.log(Level.FINE, "Postponing metrics summary of build {0}, some providers did not finish",
+                        build);
+            }
+        }
+        catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "Can't compute metrics summary of build " + build, exception);
+        }
+        finally {
+            BACKFILLS.remove(file);
+        }
+    }
+
+    private MetricsSummary read(final Path file) {
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Unsupported format of metrics summary");
+            }
+            int build = input.readInt();
+            int size = input.readInt();
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                values.put(input.readUTF(), input.readUTF());
+            }
+            return new MetricsSummary(build, Collections.unmodifiableMap(values));
+        }
+        catch (NoSuchFileException exception) {
+            return NO_SUMMARY;
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Can't read metrics summary " + file, exception);
+
+            return NO_SUMMARY;
+        }
+    }
+
+    private Path getSummaryFile(final Job<?, ?> job) {
+        return job.getRootDir().toPath().resolve(SUMMARY_FILE_NAME);
+    }
+
+    /**
+     * Discards the summaries of the jobs in the specified folder.
+     *
+     * @param folder
+     *         the root folder of a deleted job or folder
+     */
+    static void discard(final Path folder) {
+        SUMMARIES.keySet().removeIf(file -> file.startsWith(folder));
+    }
+
+    /**
+     * Discards the summaries of the jobs whose folders do not exist anymore, e.g., because the jobs have been renamed
+     * or moved.
+     */
+    static void discardMissing() {
+        SUMMARIES.keySet().removeIf(file -> !Files.isDirectory(file.getParent()));
+    }
+
+    /**
+     * Discards the summaries of deleted, renamed, and moved jobs.
+     */
+    @Extension
+    @SuppressWarnings("unused") // used via the extension
+    public static class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onDeleted(final Item item) {
+            discard(item.getRootDir().toPath());
+        }
+
+        @Override
+        public void onLocationChanged(final Item item, final String oldFullName, final String newFullName) {
+            discardMissing();
+        }
+    }
+
+    /**
+     * The rendered project metrics of a build.
+     */
+    public static final class MetricsSummary {
+        private final int build;
+        private final Map<String, String> values;
+
+        MetricsSummary(final int build, final Map<String, String> values) {
+            this.build = build;
+            this.values = values;
+        }
+
+        /**
+         * Returns the number of the build that the summary belongs to.
+         *
+         * @return the build number
+         */
+        public int getBuild() {
+            return build;
+        }
+
+        /**
+         * Returns the rendered value of the specified project metric.
+         *
+         * @param metricId
+         *         the ID of the metric
+         *
+         * @return the rendered value, or an empty {@link Optional} if the build has no value for this metric
+         */
+        public Optional<String> getValue(final String metricId) {
+            return Optional.ofNullable(values.get(metricId));
+        }
+
+        @Override
+        public String toString() {
+            return "MetricsSummary[build %d, %d metrics]".formatted(build, values.size());
+        }
+    }
+
+    private static final class BackfillHolder {
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            var executor = new ThreadPoolExecutor(BACKFILL_THREADS, BACKFILL_THREADS, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(MAX_PENDING_BACKFILLS),
+                    new NamingThreadFactory(new DaemonThreadFactory(), "metrics-summary-backfill"));
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package io.jenkins.plugins.metrics.extension;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.model.Job;
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.Metric;
+import io.jenkins.plugins.metrics.model.MetricsTrend;
+
+/**
+ * Stores the project metrics of all builds of a job in a single append-only file in the job folder. When a build
+ * completes, one compact record with the project metrics of the build is appended (see
+ * {@link MetricsSnapshotListener}). A trend chart of any number of builds then needs just one sequential read of this
+ * file, rather than loading every single {@link Run}.
+ *
+ * <p>
+ * The file starts with a magic number and the format version, followed by a sequence of records. Each record starts
+ * with its type:
+ * </p>
+ * <ul>
+ *     <li>metric: the index of the metric (int16), its ID and its display name (UTF-8 strings with an int16 length
+ *     prefix). Each metric is defined once, before the first build that uses it.</li>
+ *     <li>build: the build number (int32), the timestamp of the build (int64), the number of values (int16) and then
+ *     for each value the index of the metric (int16) and the value (float64).</li>
+ *     <li>removed build: the number of a deleted build (int32).</li>
+ * </ul>
+ *
+ * <p>
+ * Builds are appended in the order they complete, readers sort them by build number. If an append has been
+ * interrupted (e.g., by a crash of the controller), then the incomplete record at the end of the file is ignored by
+ * readers and overwritten by the next append.
+ * </p>
+ *
+ * <p>
+ * The metric dictionary and the length of the valid content of the recently appended files are kept in memory, so
+ * that an append just needs to read the records that other processes might have added. Each file is guarded by its
+ * own lock (see {@link FileLocks}).
+ * </p>
+ */
+public class MetricsTrendStore {
+    /** The name of the trend file in the job folder. */
+    static final String TREND_FILE_NAME = "metrics-aggregation-trend.bin";
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsTrendStore.class.getName());
+
+    private static final int MAGIC = 0x4D54_5244; // MTRD
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final byte METRIC_RECORD = 1;
+    private static final byte BUILD_RECORD = 2;
+    private static final byte REMOVED_RECORD = 3;
+    private static final int VALUE_SIZE = Short.BYTES + Double.BYTES;
+    private static final int MAX_CACHED_INDICES = 256;
+
+    /** The indices of the recently appended trend files, guarded by the map itself. */
+    private static final Map<Path, TrendIndex> INDICES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Entry<Path, TrendIndex> eldest) {
+            return size() > MAX_CACHED_INDICES;
+        }
+    };
+
+    /**
+     * Appends the project metrics of the specified build to the trend file of its job. Appends of several builds of
+     * the same job are serialized, so that the metric indices of the file stay consistent.
+     *
+     * @param build
+     *         the completed build
+     * @param projectMetrics
+     *         the project metrics of the build
+     */
+    public void append(final Run<?, ?> build, final List<Metric> projectMetrics) {
+        var file = getTrendFile(build.getParent());
+        synchronized (FileLocks.get(file)) {
+            try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                var index = getIndex(file, channel);
+                write(channel, index, createRecord(build, projectMetrics, index));
+            }
+            catch (IOException | RuntimeException exception) {
+                removeIndex(file);
+                LOGGER.log(Level.WARNING, "Can't append metrics of build " + build + " to " + file, exception);
+            }
+        }
+    }
+
+    /**
+     * Removes the specified build from the trend of its job, e.g., because the build has been deleted.
+     *
+     * @param build
+     *         the deleted build
+     */
+    public void remove(final Run<?, ?> build) {
+        var file = getTrendFile(build.getParent());
+        synchronized (FileLocks.get(file)) {
+            if (!Files.exists(file)) {
+                return;
+            }
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                var index = getIndex(file, channel);
+                if (index.builds.get(build.getNumber())) {
+                    write(channel, index, ByteBuffer.allocate(1 + Integer.BYTES)
+                            .put(REMOVED_RECORD).putInt(build.getNumber()).flip());
+                }
+            }
+            catch (IOException | RuntimeException exception) {
+                removeIndex(file);
+                LOGGER.log(Level.WARNING, "Can't remove metrics of build " + build + " from " + file, exception);
+            }
+        }
+    }
+
+    private void write(final FileChannel channel, final TrendIndex index, final ByteBuffer record)
+            throws IOException {
+        channel.truncate(index.validLength);
+        channel.position(index.validLength);
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        index.update(channel);
+    }
+
+    private ByteBuffer createRecord(final Run<?, ?> build, final List<Metric> projectMetrics,
+            final TrendIndex index) {
+        Map<String, Metric> metrics = new LinkedHashMap<>();
+        for (Metric metric : projectMetrics) {
+            metrics.putIfAbsent(metric.getId(), metric); // several providers might report the same metric
+        }
+
+        boolean isNewFile = index.validLength == 0;
+        Map<String, Integer> indices = new HashMap<>(index.metricIndices);
+        List<byte[]> strings = new ArrayList<>();
+        int size = (isNewFile ? HEADER_SIZE : 0) + 1 + Integer.BYTES + Long.BYTES + Short.BYTES
+                + metrics.size() * VALUE_SIZE;
+        for (Metric metric : metrics.values()) {
+            if (!indices.containsKey(metric.getId())) {
+                var id = metric.getId().getBytes(StandardCharsets.UTF_8);
+                var displayName = metric.getMetricDefinition().getDisplayName().getBytes(StandardCharsets.UTF_8);
+                strings.add(id);
+                strings.add(displayName);
+                size += 1 + Short.BYTES + 2 * Short.BYTES + id.length + displayName.length;
+            }
+        }
+
+        var record = ByteBuffer.allocate(size);
+        if (isNewFile) {
+            record.putInt(MAGIC).putInt(VERSION);
+        }
+        int string = 0;
+        for (Metric metric : metrics.values()) {
+            if (!indices.containsKey(metric.getId())) {
+                indices.put(metric.getId(), indices.size());
+                record.put(METRIC_RECORD).putShort((short) (indices.size() - 1));
+                putString(record, strings.get(string++));
+                putString(record, strings.get(string++));
+            }
+        }
+        record.put(BUILD_RECORD).putInt(build.getNumber()).putLong(build.getTimeInMillis())
+                .putShort((short) metrics.size());
+        for (Metric metric : metrics.values()) {
+            record.putShort(indices.get(metric.getId()).shortValue()).putDouble(metric.rawValue().doubleValue());
+        }
+        return record.flip();
+    }
+
+    private void putString(final ByteBuffer buffer, final byte[] value) {
+        buffer.putShort((short) value.length).put(value);
+    }
+
+    /**
+     * Reads the project metrics of the latest builds of the specified job. The builds are sorted by build number,
+     * deleted builds are skipped.
+     *
+     * @param job
+     *         the job to read the trend for
+     * @param maxBuilds
+     *         the maximum number of builds to read, the latest builds are returned. Use 0 to read all builds.
+     *
+     * @return the trend, the trend is empty if there is no (readable) trend file
+     */
+    public MetricsTrend read(final Job<?, ?> job, final int maxBuilds) {
+        var file = getTrendFile(job);
+        try {
+            var collector = new TrendCollector();
+            scan(ByteBuffer.wrap(Files.readAllBytes(file)), collector);
+            return collector.createTrend(maxBuilds);
+        }
+        catch (NoSuchFileException exception) {
+            return createEmptyTrend();
+        }
+        catch (IOException exception) {
+            LOGGER.log(Level.WARNING, "Can't read metrics trend " + file, exception);
+
+            return createEmptyTrend();
+        }
+    }
+
+    /**
+     * Returns whether there is a trend file for the specified job.
+     *
+     * @param job
+     *         the job
+     *
+     * @return {@code true} if the job has a trend, {@code false} otherwise
+     */
+    public boolean hasTrend(final Job<?, ?> job) {
+        return Files.exists(getTrendFile(job));
+    }
+
+    private static MetricsTrend createEmptyTrend() {
+        return new MetricsTrend(new int[0], new long[0], Map.of(), Map.of());
+    }
+
+    /**
+     * Reads all complete records of the specified buffer and passes them to the handler.
+     *
+     * @param content
+     *         the content of the trend file
+     * @param handler
+     *         the handler of the records
+     *
+     * @return the length of the valid content, i.e., the position after the last complete record
+     * @throws IOException
+     *         if the content is not a trend file
+     */
+    private static int scan(final ByteBuffer content, final RecordHandler handler) throws IOException {
+        try {
+            if (content.getInt() != MAGIC || content.getInt() != VERSION) {
+                throw new IOException("Unsupported format of metrics trend");
+            }
+        }
+        catch (BufferUnderflowException exception) {
+            return 0;
+        }
+        return scanRecords(content, handler);
+    }
+
+    /**
+     * Reads all complete records of the specified buffer, starting at its current position, and passes them to the
+     * handler.
+     *
+     * @param content
+     *         the records of the trend file
+     * @param handler
+     *         the handler of the records
+     *
+     * @return the position after the last complete record
+     * @throws IOException
+     *         if the content contains an invalid record
+     */
+    private static int scanRecords(final ByteBuffer content, final RecordHandler handler) throws IOException {
+        int valid = content.position();
+        try {
+            while (content.hasRemaining()) {
+                byte type = content.get();
+                if (type == METRIC_RECORD) {
+                    int index = content.getShort();
+                    var id = getString(content);
+                    var displayName = getString(content);
+                    handler.metric(index, id, displayName);
+                }
+                else if (type == BUILD_RECORD) {
+                    int number = content.getInt();
+                    long timestamp = content.getLong();
+                    int count = content.getShort();
+                    if (content.remaining() < count * VALUE_SIZE) {
+                        break;
+                    }
+                    handler.build(number, timestamp, content.slice(content.position(), count * VALUE_SIZE), count);
+                    content.position(content.position() + count * VALUE_SIZE);
+                }
+                else if (type == REMOVED_RECORD) {
+                    handler.removed(content.getInt());
+                }
+                else {
+                    throw new IOException("Invalid record in metrics trend at position " + valid);
+                }
+                valid = content.position();
+            }
+        }
+        catch (BufferUnderflowException exception) {
+            // the last record is incomplete
+        }
+        return valid;
+    }
+
+    private static String getString(final ByteBuffer content) {
+        var bytes = new byte[content.getShort()];
+        content.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static TrendIndex getIndex(final Path file, final FileChannel channel) throws IOException {
+        TrendIndex index;
+        synchronized (INDICES) {
+            index = INDICES.get(file);
+        }
+        if (index == null || channel.size() < index.validLength) { // not yet indexed or replaced
+            index = new TrendIndex();
+            synchronized (INDICES) {
+                INDICES.put(file, index);
+            }
+        }
+        index.update(channel);
+        return index;
+    }
+
+    private static void removeIndex(final Path file) {
+        synchronized (INDICES) {
+            INDICES.remove(file);
+        }
+    }
+
+    private Path getTrendFile(final Job<?, ?> job) {
+        return job.getRootDir().toPath().resolve(TREND_FILE_NAME);
+    }
+
+    /**
+     * Receives the records of a trend file.
+     */
+    private interface RecordHandler {
+        default void metric(final int index, final String id, final String displayName) {
+            // ignore
+        }
+
+        default void build(final int number, final long timestamp, final ByteBuffer values, final int count) {
+            // ignore
+        }
+
+        default void removed(final int number) {
+            // ignore
+        }
+    }
+
+    /**
+     * The metric dictionary, the recorded builds, and the length of the valid content of a trend file.
+     */
+    private static final class TrendIndex implements RecordHandler {
+        private final Map<String, Integer> metricIndices = new HashMap<>();
+        private final BitSet builds = new BitSet();
+        private long validLength;
+
+        /**
+         * Reads the records that have been appended since the last update.
+         */
+        void update(final FileChannel channel) throws IOException {
+            if (channel.size() <= validLength) {
+                return;
+            }
+
+            var content = ByteBuffer.allocate((int) (channel.size() - validLength));
+            while (content.hasRemaining() && channel.read(content, validLength + content.position()) >= 0) {
+                // read the new records
+            }
+            content.flip();
+
+            validLength += validLength == 0 ? scan(content, this) : scanRecords(content, this);
+        }
+
+        @Override
+        public void metric(final int index, final String id, final String displayName) {
+            metricIndices.put(id, index);
+        }
+
+        @Override
+        public void build(final int number, final long timestamp, final ByteBuffer values, final int count) {
+            builds.set(number);
+        }
+
+        @Override
+        public void removed(final int number) {
+            builds.clear(number);
+        }
+    }
+
+    /**
+     * The values of a build record.
+     */
+    private record BuildValues(long timestamp, ByteBuffer values, int count) {
+    }
+
+    private static final class TrendCollector implements RecordHandler {
+        private final Map<Integer, String> idsByIndex = new HashMap<>();
+        private final Map<String, String> displayNames = new LinkedHashMap<>();
+        private final NavigableMap<Integer, BuildValues> builds = new TreeMap<>();
+
+        @Override
+        public void metric(final int index, final String id, final String displayName) {
+            idsByIndex.put(index, id);
+            displayNames.put(id, displayName);
+        }
+
+        @Override
+        public void build(final int number, final long timestamp, final ByteBuffer values, final int count) {
+            builds.put(number, new BuildValues(timestamp, values, count));
+        }
+
+        @Override
+        public void removed(final int number) {
+            builds.remove(number);
+        }
+
+        MetricsTrend createTrend(final int maxBuilds) {
+            int size = maxBuilds > 0 ? Math.min(maxBuilds, builds.size()) : builds.size();
+            var buildNumbers = new int[size];
+            var timestamps = new long[size];
+            Map<String, double[]> valuesByMetric = new HashMap<>();
+
+            int index = size - builds.size(); // skip the older builds
+            for (Entry<Integer, BuildValues> build : builds.entrySet()) {
+                if (index >= 0) {
+                    buildNumbers[index] = build.getKey();
+                    timestamps[index] = build.getValue().timestamp();
+                    var values = build.getValue().values();
+                    for (int i = 0; i < build.getValue().count(); i++) {
+                        var id = idsByIndex.get((int) values.getShort());
+                        double value = values.getDouble();
+                        if (id != null) {
+                            valuesByMetric.computeIfAbsent(id, key -> createMissingValues(size))[index] = value;
+                        }
+                    }
+                }
+                index++;
+            }
+
+            Map<String, String> names = new LinkedHashMap<>();
+            displayNames.forEach((id, name) -> {
+                if (valuesByMetric.containsKey(id)) { // skip metrics of older builds
+                    names.put(id, name);
+                }
+            });
+            return new MetricsTrend(buildNumbers, timestamps, names, valuesByMetric);
+        }
+
+        private static double[] createMissingValues(final int size) {
+            var values = new double[size];
+            Arrays.fill(values, Double.NaN);
+            return values;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package io.jenkins.plugins.metrics.extension;
+
+import edu.hm.hafner.analysis.Issue;
+import edu.hm.hafner.analysis.Severity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import io.jenkins.plugins.analysis.core.model.AnalysisResult;
+import io.jenkins.plugins.analysis.core.model.ResultAction;
+import io.jenkins.plugins.forensics.miner.RepositoryStatistics;
+import io.jenkins.plugins.metrics.model.LineMetrics;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+
+/**
+ * Counts the warnings of the analysis results of a build in a single pass over their issues. Each analysis result
+ * belongs to a static analysis tool, so the warnings are counted in a dense cube of files x tools x severities that is
+ * stored in a single {@code int} array. Additionally, the file, severity, lines, and category (of a tool) of each issue
+ * are recorded in primitive arrays, so that the warnings of the most frequent categories can be counted per file and
+ * the warnings can be attributed to methods afterwards without visiting the issues again.
+ */
+final class WarningsCounter {
+    /** The severities that are counted, the index of a severity is used as index in the cube. */
+    static final List<Severity> SEVERITIES = List.of(Severity.ERROR, Severity.WARNING_HIGH,
+            Severity.WARNING_NORMAL, Severity.WARNING_LOW);
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final List<String> toolIds = new ArrayList<>();
+    private final List<String> toolNames = new ArrayList<>();
+    private final List<RepositoryStatistics> statistics = new ArrayList<>();
+
+    private final Map<String, Integer> files = new HashMap<>();
+    private final List<String> fileNames = new ArrayList<>();
+    private final List<String> packageNames = new ArrayList<>();
+    private final List<String> classNames = new ArrayList<>();
+    private final int stride;
+    private int[] cube = new int[0];
+    private final int[] totals = new int[SEVERITIES.size()];
+
+    private final Map<String, Integer> categories = new HashMap<>();
+    private final List<Category> categoryList = new ArrayList<>();
+    private int[] categoryTotals = new int[INITIAL_CAPACITY];
+    private int[] issueFiles = new int[INITIAL_CAPACITY];
+    private int[] issueSeverities = new int[INITIAL_CAPACITY];
+    private int[] issueBeginLines = new int[INITIAL_CAPACITY];
+    private int[] issueEndLines = new int[INITIAL_CAPACITY];
+    private int[] issueCategories = new int[INITIAL_CAPACITY];
+    private int issueCount;
+
+    /**
+     * Counts the warnings of the specified analysis results.
+     *
+     * @param actions
+     *         the actions of the analysis results of a build
+     */
+    WarningsCounter(final List<ResultAction> actions) {
+        Map<String, Integer> tools = new HashMap<>();
+        List<AnalysisResult> results = new ArrayList<>(actions.size());
+        List<Integer> resultTools = new ArrayList<>(actions.size());
+        for (ResultAction action : actions) {
+            var result = action.getResult();
+            results.add(result);
+            statistics.add(result.getForensics());
+            resultTools.add(tools.computeIfAbsent(result.getId(), id -> {
+                toolIds.add(id);
+                toolNames.add(action.getDisplayName());
+                return toolIds.size() - 1;
+            }));
+        }
+        stride = toolIds.size() * SEVERITIES.size();
+
+        for (int i = 0; i < results.size(); i++) {
+            count(results.get(i), resultTools.get(i));
+        }
+    }
+
+    private void count(final AnalysisResult result, final int tool) {
+        for (Issue issue : result.getIssues()) {
+            int severity = SEVERITIES.indexOf(issue.getSeverity());
+            if (severity < 0) {
+                continue;
+            }
+            int file = getFileIndex(issue);
+            cube[file * stride + tool * SEVERITIES.size() + severity]++;
+            totals[severity]++;
+
+            var category = issue.getCategory();
+            if (category == null || category.isEmpty()) {
+                record(issue, file, severity, -1);
+            }
+            else {
+                record(issue, file, severity, getCategoryIndex(tool, category));
+            }
+        }
+    }
+
+    private int getFileIndex(final Issue issue) {
+        var fileName = issue.getFileName();
+        var index = files.get(fileName);
+        if (index != null) {
+            return index;
+        }
+
+        int file = fileNames.size();
+        files.put(fileName, file);
+        fileNames.add(fileName);
+        packageNames.add(issue.getPackageName());
+        classNames.add(issue.getBaseName().replace(".java", ""));
+        if ((file + 1) * stride > cube.length) {
+            cube = Arrays.copyOf(cube, Math.max(INITIAL_CAPACITY, file + 1) * 2 * stride);
+        }
+        return file;
+    }
+
+    private int getCategoryIndex(final int tool, final String category) {
+        return categories.computeIfAbsent(toolIds.get(tool) + '\0' + category, key -> {
+            categoryList.add(new Category(tool, category));
+            if (categoryList.size() > categoryTotals.length) {
+                categoryTotals = Arrays.copyOf(categoryTotals, categoryTotals.length * 2);
+            }
+            return categoryList.size() - 1;
+        });
+    }
+
+    private void record(final Issue issue, final int file, final int severity, final int category) {
+        if (issueCount == issueFiles.length) {
+            int capacity = issueCount * 2;
+            issueFiles = Arrays.copyOf(issueFiles, capacity);
+            issueSeverities = Arrays.copyOf(issueSeverities, capacity);
+            issueBeginLines = Arrays.copyOf(issueBeginLines, capacity);
+            issueEndLines = Arrays.copyOf(issueEndLines, capacity);
+            issueCategories = Arrays.copyOf(issueCategories, capacity);
+        }
+        issueFiles[issueCount] = file;
+        issueSeverities[issueCount] = severity;
+        issueBeginLines[issueCount] = issue.getLineStart();
+        issueEndLines[issueCount] = issue.getLineEnd();
+        issueCategories[issueCount] = category;
+        issueCount++;
+        if (category >= 0) {
+            categoryTotals[category]++;
+        }
+    }
+
+    int getToolCount() {
+        return toolIds.size();
+    }
+
+    String getToolId(final int tool) {
+        return toolIds.get(tool);
+    }
+
+    String getToolName(final int tool) {
+        return toolNames.get(tool);
+    }
+
+    int getFileCount() {
+        return fileNames.size();
+    }
+
+    String getFileName(final int file) {
+        return fileNames.get(file);
+    }
+
+    String getPackageName(final int file) {
+        return packageNames.get(file);
+    }
+
+    String getClassName(final int file) {
+        return classNames.get(file);
+    }
+
+    /**
+     * Returns the number of warnings of the specified severity over all files and tools.
+     *
+     * @param severity
+     *         the index of the severity in {@link #SEVERITIES}
+     *
+     * @return the number of warnings
+     */
+    int getTotal(final int severity) {
+        return totals[severity];
+    }
+
+    /**
+     * Returns the number of warnings of the specified severity in a file, over all tools.
+     *
+     * @param file
+     *         the index of the file
+     * @param severity
+     *         the index of the severity in {@link #SEVERITIES}
+     *
+     * @return the number of warnings
+     */
+    int getCount(final int file, final int severity) {
+        int count = 0;
+        for (int tool = 0; tool < toolIds.size(); tool++) {
+            count += cube[file * stride + tool * SEVERITIES.size() + severity];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of warnings of a tool in a file, over all severities.
+     *
+     * @param file
+     *         the index of the file
+     * @param tool
+     *         the index of the tool
+     *
+     * @return the number of warnings
+     */
+    int getCountOfTool(final int file, final int tool) {
+        int count = 0;
+        int offset = file * stride + tool * SEVERITIES.size();
+        for (int severity = 0; severity < SEVERITIES.size(); severity++) {
+            count += cube[offset + severity];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the statistics of the specified file from the forensics of the analysis results. If several results
+     * contain statistics for the file, then the statistics of the last result are returned.
+     *
+     * @param fileName
+     *         the name of the file
+     *
+     * @return the statistics of the file, or {@code null} if there are none
+     */
+    RepositoryStatistics findStatistics(final String fileName) {
+        for (int i = statistics.size() - 1; i >= 0; i--) {
+            var stats = statistics.get(i);
+            if (stats.contains(fileName)) {
+                return stats;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the categories with the most warnings, the category with the most warnings first.
+     *
+     * @param maxCategories
+     *         the maximum number of categories
+     *
+     * @return the categories
+     */
+    List<Category> getTopCategories(final int maxCategories) {
+        return IntStream.range(0, categoryList.size())
+                .boxed()
+                .sorted(Comparator.comparingInt((Integer category) -> categoryTotals[category]).reversed())
+                .limit(maxCategories)
+                .map(categoryList::get)
+                .toList();
+    }
+
+    /**
+     * Counts the warnings of the specified categories per file.
+     *
+     * @param selected
+     *         the categories to count
+     *
+     * @return the counts, indexed by file and selected category
+     */
+    int[] countCategories(final List<Category> selected) {
+        var columns = new int[categoryList.size()];
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < selected.size(); i++) {
+            columns[categoryList.indexOf(selected.get(i))] = i;
+        }
+
+        var counts = new int[fileNames.size() * selected.size()];
+        for (int i = 0; i < issueCount; i++) {
+            int column = issueCategories[i] < 0 ? -1 : columns[issueCategories[i]];
+            if (column >= 0) {
+                counts[issueFiles[i] * selected.size() + column]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the lines of the warnings of each file, so that the warnings can be attributed to the methods of the
+     * files. Warnings without a line are skipped.
+     *
+     * @param severityDefinitions
+     *         the metrics of the severities, in the order of {@link #SEVERITIES}
+     *
+     * @return the lines of the warnings, one element per file that contains warnings with lines
+     */
+    List<LineMetrics> createLineMetrics(final List<MetricDefinition> severityDefinitions) {
+        var lineMetrics = new LineMetrics[fileNames.size()];
+        for (int i = 0; i < issueCount; i++) {
+            if (issueBeginLines[i] > 0) {
+                int file = issueFiles[i];
+                if (lineMetrics[file] == null) {
+                    lineMetrics[file] = new LineMetrics(packageNames.get(file), classNames.get(file),
+                            severityDefinitions);
+                }
+                lineMetrics[file].add(issueSeverities[i], issueBeginLines[i], issueEndLines[i]);
+            }
+        }
+        return Arrays.stream(lineMetrics).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * A category of the warnings of a tool.
+     *
+     * @param tool
+     *         the index of the tool
+     * @param name
+     *         the name of the category
+     */
+    record Category(int tool, String name) {
+    }
+}
@@ -1,20 +1,18 @@
 package io.jenkins.plugins.metrics.extension;
 
-import edu.hm.hafner.analysis.Report;
-import edu.hm.hafner.analysis.Severity;
-
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Locale;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 import hudson.Extension;
 import hudson.model.Run;
+import jenkins.util.SystemProperties;
 
-import io.jenkins.plugins.analysis.core.model.AnalysisResult;
 import io.jenkins.plugins.analysis.core.model.ResultAction;
-import io.jenkins.plugins.forensics.miner.RepositoryStatistics;
-import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
+import io.jenkins.plugins.metrics.extension.WarningsCounter.Category;
 import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
 import io.jenkins.plugins.metrics.model.IntegerMetric;
 import io.jenkins.plugins.metrics.model.MetricDefinition;
@@ -25,6 +23,13 @@ import io.jenkins.plugins.metrics.model.MetricsMeasurement;
 /**
  * {@link MetricsProviderFactory} for the number of warnings and git forensics data. Uses the warnings-ng-plugin and
  * forensics-api-plugin as sources.
+ *
+ * <p>
+ * Besides the number of warnings per severity, the number of warnings of each static analysis tool and of the most
+ * frequent categories of the tools are reported. The metrics of the tools and categories are created on the fly, the
+ * number of categories can be configured using the system property
+ * {@code io.jenkins.plugins.metrics.extension.WarningsMetricsProviderFactory.maxCategories} (default: 10).
+ * </p>
  */
 @Extension
 @SuppressWarnings("unused") // used via the extension
@@ -73,66 +78,103 @@ public class WarningsMetricsProviderFactory extends MetricsProviderFactory {
             .withScopes(Scope.CLASS)
             .build();
 
+    private static final int ERROR_INDEX = 0;
+    private static final int HIGH_INDEX = 1;
+    private static final int NORMAL_INDEX = 2;
+    private static final int LOW_INDEX = 3;
+
+    private static final int TOOL_PRIORITY = 11;
+    private static final int CATEGORY_PRIORITY = 12;
+    private static final int MAX_CATEGORIES = SystemProperties.getInteger(
+            WarningsMetricsProviderFactory.class.getName() + ".maxCategories", 10);
+    private static final Pattern INVALID_ID_CHARACTERS = Pattern.compile("[^A-Z0-9_]");
+
+    /**
+     * Counts the warnings of all analysis results of the build in a single pass over their issues (see
+     * {@link WarningsCounter}). Besides the number of warnings per severity, the number of warnings of each tool and
+     * of the most frequent categories are reported for each class. The lines of the warnings are reported as well, so
+     * that the number of warnings per severity can be attributed to the methods that other providers report.
+     *
+     * @param build
+     *         the build to get the metrics for
+     *
+     * @return the metrics of the build
+     */
     @Override
     public MetricsProvider getMetricsProviderFor(final Run<?, ?> build) {
+        return createProvider(new WarningsCounter(build.getActions(ResultAction.class)));
+    }
+
+    /**
+     * Counts the warnings of all analysis results of the build only once, and creates the metrics and the available
+     * metrics from the same counts.
+     *
+     * @param build
+     *         the build to get the metrics for
+     *
+     * @return the metrics and the available metrics of the build
+     */
+    @Override
+    Contribution getContributionFor(final Run<?, ?> build) {
+        var actions = build.getActions(ResultAction.class);
+        var counter = new WarningsCounter(actions);
+        return new Contribution(createProvider(counter),
+                actions.isEmpty() ? Set.of() : createDefinitions(counter));
+    }
+
+    private MetricsProvider createProvider(final WarningsCounter counter) {
         var provider = new MetricsProvider();
         provider.setOrigin("warnings-ng-plugin");
 
-        var actions = build.getActions(ResultAction.class);
-        var stats = actions.stream()
-                .map(ResultAction::getResult)
-                .map(AnalysisResult::getForensics)
-                .reduce(new RepositoryStatistics(), (acc, r) -> {
-                    acc.addAll(r);
-                    return acc;
-                });
-
-        var allIssues = actions.stream()
-                .map(ResultAction::getResult)
-                .map(AnalysisResult::getIssues)
-                .reduce(new Report(), Report::addAll);
-
-        provider.addProjectSummaryEntry("%d Errors".formatted(allIssues.getSizeOf(Severity.ERROR)));
+        provider.addProjectSummaryEntry("%d Errors".formatted(counter.getTotal(ERROR_INDEX)));
         provider.addProjectSummaryEntry("%d Warnings (%d high, %d normal, %d low)".formatted(
-                allIssues.getSizeOf(Severity.WARNING_HIGH)
-                        + allIssues.getSizeOf(Severity.WARNING_NORMAL)
-                        + allIssues.getSizeOf(Severity.WARNING_LOW),
-                allIssues.getSizeOf(Severity.WARNING_HIGH),
-                allIssues.getSizeOf(Severity.WARNING_NORMAL),
-                allIssues.getSizeOf(Severity.WARNING_LOW)));
-
-        List<MetricsMeasurement> metricsMeasurements = allIssues
-                .groupByProperty("fileName")
-                .entrySet().stream()
-                .map(entry -> createMetric(entry, stats))
-                .collect(Collectors.toList());
+                counter.getTotal(HIGH_INDEX) + counter.getTotal(NORMAL_INDEX) + counter.getTotal(LOW_INDEX),
+                counter.getTotal(HIGH_INDEX), counter.getTotal(NORMAL_INDEX), counter.getTotal(LOW_INDEX)));
+
+        List<MetricDefinition> tools = createToolDefinitions(counter);
+        var categories = counter.getTopCategories(MAX_CATEGORIES);
+        List<MetricDefinition> categoryDefinitions = createCategoryDefinitions(counter, categories);
+        var categoryCounts = counter.countCategories(categories);
+
+        List<MetricsMeasurement> metricsMeasurements = new ArrayList<>(counter.getFileCount());
+        for (int file = 0; file < counter.getFileCount(); file++) {
+            var measurement = createMetric(counter, file);
+            for (int tool = 0; tool < tools.size(); tool++) {
+                measurement.withMetric(new IntegerMetric(tools.get(tool), counter.getCountOfTool(file, tool)));
+            }
+            for (int category = 0; category < categoryDefinitions.size(); category++) {
+                measurement.withMetric(new IntegerMetric(categoryDefinitions.get(category),
+                        categoryCounts[file * categoryDefinitions.size() + category]));
+            }
+            metricsMeasurements.add(measurement.build());
+        }
 
         provider.setMetricsMeasurements(metricsMeasurements);
+        provider.setLineMetrics(counter.createLineMetrics(
+                List.of(ERRORS, WARNINGS_HIGH, WARNINGS_NORMAL, WARNINGS_LOW)));
         return provider;
     }
 
-    private ClassMetricsMeasurement createMetric(final Entry<String, Report> entry,
-            final RepositoryStatistics stats) {
+    private ClassMetricsMeasurementBuilder createMetric(final WarningsCounter counter, final int file) {
         var measurement = new ClassMetricsMeasurementBuilder();
-        measurement.withFileName(entry.getKey());
-
-        var report = entry.getValue();
-        var first = report.get(0);
-        measurement.withPackageName(first.getPackageName());
-        measurement.withClassName(first.getBaseName().replace(".java", ""));
-
-        measurement.withMetric(new IntegerMetric(ERRORS, report.getSizeOf(Severity.ERROR)));
-        measurement.withMetric(new IntegerMetric(WARNINGS_HIGH, report.getSizeOf(Severity.WARNING_HIGH)));
-        measurement.withMetric(new IntegerMetric(WARNINGS_NORMAL, report.getSizeOf(Severity.WARNING_NORMAL)));
-        measurement.withMetric(new IntegerMetric(WARNINGS_LOW, report.getSizeOf(Severity.WARNING_LOW)));
-
-        if (stats.contains(entry.getKey())) {
-            var fileStatistics = stats.get(entry.getKey());
+        var fileName = counter.getFileName(file);
+        measurement.withFileName(fileName);
+        measurement.withPackageName(counter.getPackageName(file));
+        measurement.withClassName(counter.getClassName(file));
+
+        measurement.withMetric(new IntegerMetric(ERRORS, counter.getCount(file, ERROR_INDEX)));
+        measurement.withMetric(new IntegerMetric(WARNINGS_HIGH, counter.getCount(file, HIGH_INDEX)));
+        measurement.withMetric(new IntegerMetric(WARNINGS_NORMAL, counter.getCount(file, NORMAL_INDEX)));
+        measurement.withMetric(new IntegerMetric(WARNINGS_LOW, counter.getCount(file, LOW_INDEX)));
+
+        var stats = counter.findStatistics(fileName);
+        if (stats != null) {
+            var fileStatistics = stats.get(fileName);
             measurement.withMetric(new IntegerMetric(AUTHORS, fileStatistics.getNumberOfAuthors()));
             measurement.withMetric(new IntegerMetric(COMMITS, fileStatistics.getNumberOfCommits()));
         }
 
-        return measurement.build();
+        return measurement;
     }
 
     @Override
@@ -142,7 +184,55 @@ public class WarningsMetricsProviderFactory extends MetricsProviderFactory {
             return Set.of();
         }
 
-        // TODO: we should report by report ID as well
-        return Set.of(ERRORS, WARNINGS_HIGH, WARNINGS_NORMAL, WARNINGS_LOW, AUTHORS, COMMITS);
+        return createDefinitions(new WarningsCounter(actions));
+    }
+
+    private Set<MetricDefinition> createDefinitions(final WarningsCounter counter) {
+        Set<MetricDefinition> definitions = new LinkedHashSet<>(
+                List.of(ERRORS, WARNINGS_HIGH, WARNINGS_NORMAL, WARNINGS_LOW, AUTHORS, COMMITS));
+        definitions.addAll(createToolDefinitions(counter));
+        definitions.addAll(createCategoryDefinitions(counter, counter.getTopCategories(MAX_CATEGORIES)));
+        return definitions;
+    }
+
+    private List<MetricDefinition> createToolDefinitions(final WarningsCounter counter) {
+        List<MetricDefinition> definitions = new ArrayList<>();
+        for (int tool = 0; tool < counter.getToolCount(); tool++) {
+            var name = counter.getToolName(tool);
+            definitions.add(new MetricDefinitionBuilder(createId(counter.getToolId(tool)))
+                    .withDisplayName(name)
+                    .withDescription("The number of warnings reported by %s.".formatted(name))
+                    .withReportedBy("warnings-ng-plugin")
+                    .withPriority(TOOL_PRIORITY)
+                    .withScopes(Scope.CLASS)
+                    .build());
+        }
+        return definitions;
+    }
+
+    private List<MetricDefinition> createCategoryDefinitions(final WarningsCounter counter,
+            final List<Category> categories) {
+        List<MetricDefinition> definitions = new ArrayList<>();
+        for (Category category : categories) {
+            var tool = counter.getToolName(category.tool());
+            definitions.add(new MetricDefinitionBuilder(createId(counter.getToolId(category.tool()), category.name()))
+                    .withDisplayName("%s: %s".formatted(tool, category.name()))
+                    .withDescription("The number of warnings of category %s reported by %s.".formatted(
+                            category.name(), tool))
+                    .withReportedBy("warnings-ng-plugin")
+                    .withPriority(CATEGORY_PRIORITY)
+                    .withScopes(Scope.CLASS)
+                    .build());
+        }
+        return definitions;
+    }
+
+    /**
+     * Creates the ID of a dynamic metric. The ID is a valid identifier of a filter expression, e.g.,
+     * {@code WARNINGS_CHECKSTYLE} or {@code WARNINGS_PMD_BEST_PRACTICES}.
+     */
+    private static String createId(final String... parts) {
+        return INVALID_ID_CHARACTERS.matcher(("WARNINGS_" + String.join("_", parts)).toUpperCase(Locale.ENGLISH))
+                .replaceAll("_");
     }
 }
@@ -0,0 +1,176 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of the class metrics of the last build of a single job, e.g., a branch of a multibranch project. The summary
+ * contains the total of each metric, the distribution of its values and the classes with the highest values, so that
+ * the metrics of many jobs can be combined without keeping their {@link MetricsSnapshot snapshots} in memory.
+ */
+public final class BranchMetrics {
+    private final String name;
+    private final String url;
+    private final int build;
+    private final int classCount;
+    private final Map<String, String> displayNames;
+    private final Map<String, Double> totals;
+    private final Map<String, QuantileSketch> sketches;
+    private final Map<String, List<ClassValue>> topClasses;
+
+    /**
+     * Creates the summary of the class metrics of a build.
+     *
+     * @param name
+     *         the name of the job
+     * @param url
+     *         the URL of the build, relative to the context root of Jenkins
+     * @param build
+     *         the number of the build
+     * @param classes
+     *         the class metrics of the build
+     * @param maxClasses
+     *         the maximum number of classes with the highest values for each metric
+     *
+     * @return the summary
+     */
+    public static BranchMetrics create(final String name, final String url, final int build,
+            final ClassMetricsTable classes, final int maxClasses) {
+        Map<String, String> displayNames = new LinkedHashMap<>();
+        Map<String, Double> totals = new LinkedHashMap<>();
+        Map<String, QuantileSketch> sketches = new LinkedHashMap<>();
+        Map<String, List<ClassValue>> topClasses = new LinkedHashMap<>();
+        for (MetricColumn column : classes.getColumns()) {
+            var id = column.getId();
+            displayNames.put(id, column.getMetricDefinition().getDisplayName());
+
+            var sketch = new QuantileSketch();
+            sketch.merge(column.getSketch()); // the sketch of the column belongs to the (cached) snapshot
+            sketches.put(id, sketch);
+
+            double total = 0;
+            var rows = new Integer[column.getCount()];
+            int size = 0;
+            for (int row = 0; row < classes.getRowCount(); row++) {
+                if (column.isPresent(row)) {
+                    total += column.getValue(row);
+                    rows[size++] = row;
+                }
+            }
+            totals.put(id, total);
+
+            Arrays.sort(rows, 0, size, (first, second) -> Double.compare(column.getValue(second),
+                    column.getValue(first)));
+            List<ClassValue> top = new ArrayList<>();
+            for (int i = 0; i < Math.min(size, maxClasses); i++) {
+                top.add(new ClassValue(classes.getQualifiedClassName(rows[i]), column.getValue(rows[i])));
+            }
+            topClasses.put(id, top);
+        }
+        return new BranchMetrics(name, url, build, classes.getRowCount(), displayNames, totals, sketches,
+                topClasses);
+    }
+
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    private BranchMetrics(final String name, final String url, final int build, final int classCount,
+            final Map<String, String> displayNames, final Map<String, Double> totals,
+            final Map<String, QuantileSketch> sketches, final Map<String, List<ClassValue>> topClasses) {
+        this.name = name;
+        this.url = url;
+        this.build = build;
+        this.classCount = classCount;
+        this.displayNames = displayNames;
+        this.totals = totals;
+        this.sketches = sketches;
+        this.topClasses = topClasses;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getBuild() {
+        return build;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * Returns the display names of the metrics of the build, keyed by metric ID.
+     *
+     * @return the display names
+     */
+    public Map<String, String> getDisplayNames() {
+        return Collections.unmodifiableMap(displayNames);
+    }
+
+    /**
+     * Returns the sum of the values of the specified metric over all classes.
+     *
+     * @param metricId
+     *         the ID of the metric
+     *
+     * @return the total, or {@link Double#NaN} if the build has no value for this metric
+     */
+    public double getTotal(final String metricId) {
+        return totals.getOrDefault(metricId, Double.NaN);
+    }
+
+    QuantileSketch getSketch(final String metricId) {
+        return sketches.get(metricId);
+    }
+
+    /**
+     * Returns the classes with the highest values of the specified metric, the highest value first.
+     *
+     * @param metricId
+     *         the ID of the metric
+     *
+     * @return the classes
+     */
+    public List<ClassValue> getTopClasses(final String metricId) {
+        return Collections.unmodifiableList(topClasses.getOrDefault(metricId, List.of()));
+    }
+
+    /**
+     * Returns a rough estimation of the heap memory that is occupied by this summary.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getEstimatedSize() {
+        long size = 0;
+        for (QuantileSketch sketch : sketches.values()) {
+            size += sketch.getEstimatedSize();
+        }
+        for (List<ClassValue> classes : topClasses.values()) {
+            size += classes.size() * 96L;
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "BranchMetrics[%s #%d, %d classes]".formatted(name, build, classCount);
+    }
+
+    /**
+     * The value of a metric for a class.
+     *
+     * @param className
+     *         the qualified name of the class
+     * @param value
+     *         the value of the metric
+     */
+    public record ClassValue(String className, double value) {
+    }
+}
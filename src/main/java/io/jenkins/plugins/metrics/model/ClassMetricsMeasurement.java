@@ -27,7 +27,7 @@ public final class ClassMetricsMeasurement extends MetricsMeasurement {
     @Override
     public ClassMetricsMeasurement merge(final MetricsMeasurement metricsMeasurement) {
         if (metricsMeasurement instanceof ClassMetricsMeasurement) {
-            metricsMeasurement.getMetrics().values().forEach(this::merge);
+            metricsMeasurement.forEachMetric(this::merge);
         }
         return this;
     }
@@ -0,0 +1,162 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Columnar representation of the metrics of all classes of a build. Each class is identified by an integer row ID,
+ * the values of each metric are stored in a {@link MetricColumn} using primitive arrays. This avoids creating an
+ * object for each metric of each class.
+ */
+public final class ClassMetricsTable implements Serializable {
+    @Serial
+    private static final long serialVersionUID = -1553216549232582376L;
+
+    private static final int STRING_SIZE = 64;
+
+    private final String[] fileNames;
+    private final String[] packageNames;
+    private final String[] classNames;
+    @SuppressWarnings("PMD.LooseCoupling")
+    private final LinkedHashMap<String, MetricColumn> columns;
+
+    private transient volatile Map<String, Integer> rowsByClassName;
+
+    /**
+     * Creates a new {@link ClassMetricsTable} with one row for each of the specified measurements.
+     *
+     * @param measurements
+     *         the measurements of the classes
+     *
+     * @return the created table
+     */
+    public static ClassMetricsTable create(final List<ClassMetricsMeasurement> measurements) {
+        int size = measurements.size();
+        var fileNames = new String[size];
+        var packageNames = new String[size];
+        var classNames = new String[size];
+        Map<MetricDefinition, Metric[]> metrics = new LinkedHashMap<>();
+        for (int row = 0; row < size; row++) {
+            var measurement = measurements.get(row);
+            fileNames[row] = measurement.getFileName();
+            packageNames[row] = measurement.getPackageName();
+            classNames[row] = measurement.getClassName();
+            int index = row;
+            measurement.forEachMetric(metric -> metrics.computeIfAbsent(metric.getMetricDefinition(),
+                    definition -> new Metric[size])[index] = metric);
+        }
+
+        var columns = new LinkedHashMap<String, MetricColumn>();
+        metrics.forEach((definition, values) -> columns.put(definition.getId(),
+                MetricColumn.create(definition, values)));
+        return new ClassMetricsTable(fileNames, packageNames, classNames, columns);
+    }
+
+    private ClassMetricsTable(final String[] fileNames, final String[] packageNames, final String[] classNames,
+            final LinkedHashMap<String, MetricColumn> columns) {
+        this.fileNames = fileNames;
+        this.packageNames = packageNames;
+        this.classNames = classNames;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns the number of rows (i.e., classes) of this table.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return classNames.length;
+    }
+
+    public String getFileName(final int row) {
+        return fileNames[row];
+    }
+
+    public String getPackageName(final int row) {
+        return packageNames[row];
+    }
+
+    public String getClassName(final int row) {
+        return classNames[row];
+    }
+
+    /**
+     * Returns the fully qualified name of the class in the specified row.
+     *
+     * @param row
+     *         the row
+     *
+     * @return the qualified class name
+     */
+    public String getQualifiedClassName(final int row) {
+        return packageNames[row] + '.' + classNames[row];
+    }
+
+    /**
+     * Finds the row of the specified class.
+     *
+     * @param qualifiedClassName
+     *         the fully qualified name of the class
+     *
+     * @return the row of the class, or an empty result if the class is not part of this table
+     */
+    public OptionalInt findRow(final String qualifiedClassName) {
+        var row = getRowsByClassName().get(qualifiedClassName);
+        return row == null ? OptionalInt.empty() : OptionalInt.of(row);
+    }
+
+    private Map<String, Integer> getRowsByClassName() {
+        var rows = rowsByClassName;
+        if (rows == null) {
+            rows = new HashMap<>(getRowCount() * 4 / 3 + 1);
+            for (int row = 0; row < getRowCount(); row++) {
+                rows.put(getQualifiedClassName(row), row);
+            }
+            rowsByClassName = rows;
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the column with the values of the specified metric.
+     *
+     * @param metricId
+     *         the ID of the metric
+     *
+     * @return the column, or an empty result if no class has a value for this metric
+     */
+    public Optional<MetricColumn> getColumn(final String metricId) {
+        return Optional.ofNullable(columns.get(metricId));
+    }
+
+    public Collection<MetricColumn> getColumns() {
+        return Collections.unmodifiableCollection(columns.values());
+    }
+
+    /**
+     * Returns a rough estimation of the heap memory that is occupied by this table.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getEstimatedSize() {
+        long size = 3L * STRING_SIZE * getRowCount();
+        for (MetricColumn column : columns.values()) {
+            size += column.getEstimatedSize();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassMetricsTable[%d classes, %d metrics]".formatted(getRowCount(), columns.size());
+    }
+}
@@ -0,0 +1,13 @@
+package io.jenkins.plugins.metrics.model;
+
+/**
+ * Defines what happens if several measurements of the same class (or method) report a metric with the same ID.
+ */
+public enum DuplicateMetricPolicy {
+    /** Throws an {@link IllegalArgumentException}. */
+    FAIL,
+    /** Keeps the metric that has been reported first. */
+    KEEP_FIRST,
+    /** Keeps the metric that has been reported last. */
+    KEEP_LAST
+}
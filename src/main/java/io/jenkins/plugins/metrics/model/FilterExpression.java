@@ -0,0 +1,684 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Filter expression for the classes of a {@link ClassMetricsTable}, e.g. {@code LOC > 10 and ISSUES > 1}. The syntax
+ * is the subset of the math.js expression syntax that makes sense for numeric metrics:
+ * <ul>
+ *     <li>the IDs of metrics as variables, numbers, and the constants {@code true}, {@code false}, {@code pi} and
+ *     {@code e}</li>
+ *     <li>the arithmetic operators {@code + - * / % mod ^}</li>
+ *     <li>the comparison operators {@code == != < <= > >=}, comparisons can be chained as in {@code 1 < LOC < 10}</li>
+ *     <li>the logical operators {@code and}, {@code or}, {@code xor} and {@code not}</li>
+ *     <li>the conditional operator {@code condition ? a : b}</li>
+ *     <li>the functions {@code abs, ceil, floor, round, sqrt, exp, log, log10, pow, min} and {@code max}</li>
+ * </ul>
+ * The operators have the same precedence as in math.js, e.g. {@code not} binds stronger than a comparison.
+ *
+ * <p>
+ * The expression is parsed once. For a given table it is then compiled into a tree of primitive lambdas that read the
+ * primitive arrays of the {@link MetricColumn columns} directly, so that filtering neither boxes values nor looks up
+ * columns per row. Classes that do not have a value for a metric that is used in the expression are filtered out,
+ * just like math.js fails for undefined variables.
+ * </p>
+ */
+public final class FilterExpression {
+    private static final FilterExpression ACCEPT_ALL = new FilterExpression("true", new Constant(1));
+
+    private final String expression;
+    private final Node root;
+
+    /**
+     * Parses the specified filter expression.
+     *
+     * @param expression
+     *         the expression to parse, an empty expression accepts all classes
+     *
+     * @return the parsed expression
+     * @throws IllegalArgumentException
+     *         if the expression is not valid
+     */
+    public static FilterExpression parse(final String expression) {
+        if (expression == null || expression.isBlank()) {
+            return ACCEPT_ALL;
+        }
+        return new FilterExpression(expression, new Parser(expression).parse());
+    }
+
+    private FilterExpression(final String expression, final Node root) {
+        this.expression = expression;
+        this.root = root;
+    }
+
+    /**
+     * Returns the IDs of all metrics that are used in this expression.
+     *
+     * @return the IDs of the metrics, in the order of their first occurrence
+     */
+    public Set<String> getVariables() {
+        Set<String> variables = new LinkedHashSet<>();
+        root.collectVariables(variables);
+        return variables;
+    }
+
+    /**
+     * Returns all rows of the specified table that are accepted by this expression.
+     *
+     * @param classes
+     *         the table to filter
+     *
+     * @return the accepted rows
+     * @throws IllegalArgumentException
+     *         if the expression uses a metric that is not part of the table
+     */
+    public BitSet select(final ClassMetricsTable classes) {
+        var rows = getCandidates(classes);
+        var condition = root.compileCondition(getValueFunctions(classes));
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (!condition.test(row)) {
+                rows.clear(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the rows that have a value for all metrics of this expression.
+     */
+    private BitSet getCandidates(final ClassMetricsTable classes) {
+        var rows = new BitSet(classes.getRowCount());
+        rows.set(0, classes.getRowCount());
+        for (String variable : getVariables()) {
+            getColumn(classes, variable).retainPresent(rows);
+        }
+        return rows;
+    }
+
+    private Map<String, IntToDoubleFunction> getValueFunctions(final ClassMetricsTable classes) {
+        Map<String, IntToDoubleFunction> functions = new HashMap<>();
+        for (String variable : getVariables()) {
+            functions.put(variable, getColumn(classes, variable).getValueFunction());
+        }
+        return functions;
+    }
+
+    private MetricColumn getColumn(final ClassMetricsTable classes, final String variable) {
+        return classes.getColumn(variable).orElseThrow(() -> new IllegalArgumentException(
+                "Undefined symbol %s in filter '%s'".formatted(variable, expression)));
+    }
+
+    private static boolean isTrue(final double value) {
+        return value != 0 && !Double.isNaN(value);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * A node of the syntax tree. Each node compiles itself into a lambda that evaluates the node for a given row.
+     * Boolean values are represented by 1 and 0 when used as numbers.
+     */
+    private interface Node {
+        IntToDoubleFunction compileValue(Map<String, IntToDoubleFunction> columns);
+
+        default IntPredicate compileCondition(final Map<String, IntToDoubleFunction> columns) {
+            var value = compileValue(columns);
+            return row -> isTrue(value.applyAsDouble(row));
+        }
+
+        default void collectVariables(final Set<String> variables) {
+            // no variables
+        }
+
+        default boolean isConstant() {
+            return false;
+        }
+    }
+
+    /**
+     * A node whose natural result is a boolean rather than a number.
+     */
+    private interface Condition extends Node {
+        @Override
+        default IntToDoubleFunction compileValue(final Map<String, IntToDoubleFunction> columns) {
+            var condition = compileCondition(columns);
+            return row -> condition.test(row) ? 1 : 0;
+        }
+
+        @Override
+        IntPredicate compileCondition(Map<String, IntToDoubleFunction> columns);
+    }
+
+    private record Constant(double value) implements Node {
+        @Override
+        public IntToDoubleFunction compileValue(final Map<String, IntToDoubleFunction> columns) {
+            return row -> value;
+        }
+
+        @Override
+        public IntPredicate compileCondition(final Map<String, IntToDoubleFunction> columns) {
+            boolean result = isTrue(value);
+            return row -> result;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+    }
+
+    private record Variable(String metricId) implements Node {
+        @Override
+        public IntToDoubleFunction compileValue(final Map<String, IntToDoubleFunction> columns) {
+            return columns.get(metricId);
+        }
+
+        @Override
+        public void collectVariables(final Set<String> variables) {
+            variables.add(metricId);
+        }
+    }
+
+    private record Negate(Node operand) implements Node {
+        @Override
+        public IntToDoubleFunction compileValue(final Map<String, IntToDoubleFunction> columns) {
+            var value = operand.compileValue(columns);
+            return row -> -value.applyAsDouble(row);
+        }
+
+        @Override
+        public void collectVariables(final Set<String> variables) {
+            operand.collectVariables(variables);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return operand.isConstant();
+        }
+    }
+
+    private record Not(Node operand) implements Condition {
+        @Override
+        public IntPredicate compileCondition(final Map<String, IntToDoubleFunction> columns) {
+            return operand.compileCondition(columns).negate();
+        }
+
+        @Override
+        public void collectVariables(final Set<String> variables) {
+            operand.collectVariables(variables);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return operand.isConstant();
+        }
+    }
+
+    private record Arithmetic(String operator, Node left, Node right) implements Node {
+        @Override
+        public IntToDoubleFunction compileValue(final Map<String, IntToDoubleFunction> columns) {
+            var l = left.compileValue(columns);
+            var r = right.compileValue(columns);
+            return switch (operator) {
+                case "+" -> row -> l.applyAsDouble(row) + r.applyAsDouble(row);
+                case "-" -> row -> l.applyAsDouble(row) - r.applyAsDouble(row);
+                case "*" -> row -> l.applyAsDouble(row) * r.applyAsDouble(row);
+                case "/" -> row -> l.applyAsDouble(row) / r.applyAsDouble(row);
+                case "mod" -> row -> mod(l.applyAsDouble(row), r.applyAsDouble(row));
+                case "^" -> row -> Math.pow(l.applyAsDouble(row), r.applyAsDouble(row));
+                default -> throw new IllegalStateException("Unknown operator " + operator);
+            };
+        }
+
+        /**
+         * Computes the modulus as math.js does: the result has the sign of the divisor.
+         */
+        private static double mod(final double x, final double y) {
+            return y == 0 ? x : x - y * Math.floor(x / y);
+        }
+
+        @Override
+        public void collectVariables(final Set<String> variables) {
+            left.collectVariables(variables);
+            right.collectVariables(variables);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return left.isConstant() && right.isConstant();
+        }
+    }
+
+    private record Comparison(String operator, Node left, Node right) implements Condition {
+        @Override
+        public IntPredicate compileCondition(final Map<String, IntToDoubleFunction> columns) {
+            var l = left.compileValue(columns);
+            if (right.isConstant()) {
+                // the most common case: a metric is compared with a number
+                double r = right.compileValue(columns).applyAsDouble(0);
+                return switch (operator) {
+                    case "==" -> row -> l.applyAsDouble(row) == r;
+                    case "!=" -> row -> l.applyAsDouble(row) != r;
+                    case "<" -> row -> l.applyAsDouble(row) < r;
+                    case "<=" -> row -> l.applyAsDouble(row) <= r;
+                    case ">" -> row -> l.applyAsDouble(row) > r;
+                    case ">=" -> row -> l.applyAsDouble(row) >= r;
+                    default -> throw new IllegalStateException("Unknown operator " + operator);
+                };
+            }
+            var r = right.compileValue(columns);
+            return switch (operator) {
+                case "==" -> row -> l.applyAsDouble(row) == r.applyAsDouble(row);
+                case "!=" -> row -> l.applyAsDouble(row) != r.applyAsDouble(row);
+                case "<" -> row -> l.applyAsDouble(row) < r.applyAsDouble(row);
+                case "<=" -> row -> l.applyAsDouble(row) <= r.applyAsDouble(row);
+                case ">" -> row -> l.applyAsDouble(row) > r.applyAsDouble(row);
+                case ">=" -> row -> l.applyAsDouble(row) >= r.applyAsDouble(row);
+                default -> throw new IllegalStateException("Unknown operator " + operator);
+            };
+        }
+
+        @Override
+        public void collectVariables(final Set<String> variables) {
+            left.collectVariables(variables);
+            right.collectVariables(variables);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return left.isConstant() && right.isConstant();
+        }
+    }
+
+    private record Logical(String operator, Node left, Node right) implements Condition {
+        @Override
+        public IntPredicate compileCondition(final Map<String, IntToDoubleFunction> columns) {
+            var l = left.compileCondition(columns);
+            var r = right.compileCondition(columns);
+            return switch (operator) {
+                case "and" -> l.and(r);
+                case "or" -> l.or(r);
+                case "xor" -> row -> l.test(row) ^ r.test(row);
+                default -> throw new IllegalStateException("Unknown operator " + operator);
+            };
+        }
+
+        @Override
+        public void collectVariables(final Set<String> variables) {
+            left.collectVariables(variables);
+            right.collectVariables(variables);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return left.isConstant() && right.isConstant();
+        }
+    }
+
+    private record Conditional(Node condition, Node whenTrue, Node whenFalse) implements Node {
+        @Override
+        public IntToDoubleFunction compileValue(final Map<String, IntToDoubleFunction> columns) {
+            var test = condition.compileCondition(columns);
+            var t = whenTrue.compileValue(columns);
+            var f = whenFalse.compileValue(columns);
+            return row -> test.test(row) ? t.applyAsDouble(row) : f.applyAsDouble(row);
+        }
+
+        @Override
+        public void collectVariables(final Set<String> variables) {
+            condition.collectVariables(variables);
+            whenTrue.collectVariables(variables);
+            whenFalse.collectVariables(variables);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return condition.isConstant() && whenTrue.isConstant() && whenFalse.isConstant();
+        }
+    }
+
+    private record Call(String function, List<Node> arguments) implements Node {
+        @Override
+        public IntToDoubleFunction compileValue(final Map<String, IntToDoubleFunction> columns) {
+            var first = arguments.get(0).compileValue(columns);
+            return switch (function) {
+                case "abs" -> row -> Math.abs(first.applyAsDouble(row));
+                case "ceil" -> row -> Math.ceil(first.applyAsDouble(row));
+                case "floor" -> row -> Math.floor(first.applyAsDouble(row));
+                case "round" -> row -> Math.round(first.applyAsDouble(row));
+                case "sqrt" -> row -> Math.sqrt(first.applyAsDouble(row));
+                case "exp" -> row -> Math.exp(first.applyAsDouble(row));
+                case "log10" -> row -> Math.log10(first.applyAsDouble(row));
+                case "log" -> arguments.size() == 1
+                        ? row -> Math.log(first.applyAsDouble(row))
+                        : reduce(first, columns, (x, base) -> Math.log(x) / Math.log(base));
+                case "pow" -> reduce(first, columns, Math::pow);
+                case "min" -> reduce(first, columns, Math::min);
+                case "max" -> reduce(first, columns, Math::max);
+                default -> throw new IllegalStateException("Unknown function " + function);
+            };
+        }
+
+        /**
+         * Combines the first argument with all other arguments from left to right using the specified operator.
+         */
+        private IntToDoubleFunction reduce(final IntToDoubleFunction first,
+                final Map<String, IntToDoubleFunction> columns, final DoubleBinaryOperator operator) {
+            var result = first;
+            for (Node argument : arguments.subList(1, arguments.size())) {
+                var previous = result;
+                var next = argument.compileValue(columns);
+                result = row -> operator.applyAsDouble(previous.applyAsDouble(row), next.applyAsDouble(row));
+            }
+            return result;
+        }
+
+        @Override
+        public void collectVariables(final Set<String> variables) {
+            arguments.forEach(argument -> argument.collectVariables(variables));
+        }
+
+        @Override
+        public boolean isConstant() {
+            return arguments.stream().allMatch(Node::isConstant);
+        }
+    }
+
+    /**
+     * Recursive descent parser for filter expressions. The grammar follows the operator precedence of math.js, from
+     * lowest to highest: conditional, or, xor, and, comparison, addition, multiplication, unary operators,
+     * exponentiation. Subexpressions that do not use any metric are folded into constants while parsing.
+     */
+    private static final class Parser {
+        private static final Map<String, int[]> FUNCTIONS = Map.ofEntries(
+                Map.entry("abs", new int[] {1, 1}),
+                Map.entry("ceil", new int[] {1, 1}),
+                Map.entry("floor", new int[] {1, 1}),
+                Map.entry("round", new int[] {1, 1}),
+                Map.entry("sqrt", new int[] {1, 1}),
+                Map.entry("exp", new int[] {1, 1}),
+                Map.entry("log", new int[] {1, 2}),
+                Map.entry("log10", new int[] {1, 1}),
+                Map.entry("pow", new int[] {2, 2}),
+                Map.entry("min", new int[] {1, Integer.MAX_VALUE}),
+                Map.entry("max", new int[] {1, Integer.MAX_VALUE}));
+        private static final Set<String> KEYWORDS = Set.of("and", "or", "xor", "not", "mod");
+        private static final String[] COMPARISONS = {"==", "!=", "<=", ">=", "<", ">"};
+
+        private final String input;
+        private int position;
+
+        Parser(final String input) {
+            this.input = input;
+        }
+
+        Node parse() {
+            var node = parseConditional();
+            skipWhitespace();
+            if (position < input.length()) {
+                throw error("Unexpected character '%c'".formatted(input.charAt(position)));
+            }
+            return node;
+        }
+
+        private Node parseConditional() {
+            var node = parseOr();
+            if (accept("?")) {
+                var whenTrue = parseConditional();
+                if (!accept(":")) {
+                    throw error("False part of conditional expression expected");
+                }
+                return fold(new Conditional(node, whenTrue, parseConditional()));
+            }
+            return node;
+        }
+
+        private Node parseOr() {
+            var node = parseXor();
+            while (acceptKeyword("or")) {
+                node = fold(new Logical("or", node, parseXor()));
+            }
+            return node;
+        }
+
+        private Node parseXor() {
+            var node = parseAnd();
+            while (acceptKeyword("xor")) {
+                node = fold(new Logical("xor", node, parseAnd()));
+            }
+            return node;
+        }
+
+        private Node parseAnd() {
+            var node = parseComparison();
+            while (acceptKeyword("and")) {
+                node = fold(new Logical("and", node, parseComparison()));
+            }
+            return node;
+        }
+
+        /**
+         * Parses a chain of comparisons: {@code a < b < c} is evaluated as {@code a < b and b < c}.
+         */
+        private Node parseComparison() {
+            var left = parseSum();
+            Node result = null;
+            for (var operator = acceptComparison(); operator != null; operator = acceptComparison()) {
+                var right = parseSum();
+                var comparison = fold(new Comparison(operator, left, right));
+                result = result == null ? comparison : fold(new Logical("and", result, comparison));
+                left = right;
+            }
+            return result == null ? left : result;
+        }
+
+        private String acceptComparison() {
+            for (String operator : COMPARISONS) {
+                if (accept(operator)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private Node parseSum() {
+            var node = parseProduct();
+            while (true) {
+                if (accept("+")) {
+                    node = fold(new Arithmetic("+", node, parseProduct()));
+                }
+                else if (accept("-")) {
+                    node = fold(new Arithmetic("-", node, parseProduct()));
+                }
+                else {
+                    return node;
+                }
+            }
+        }
+
+        private Node parseProduct() {
+            var node = parseUnary();
+            while (true) {
+                if (accept("*")) {
+                    node = fold(new Arithmetic("*", node, parseUnary()));
+                }
+                else if (accept("/")) {
+                    node = fold(new Arithmetic("/", node, parseUnary()));
+                }
+                else if (accept("%") || acceptKeyword("mod")) {
+                    node = fold(new Arithmetic("mod", node, parseUnary()));
+                }
+                else {
+                    return node;
+                }
+            }
+        }
+
+        private Node parseUnary() {
+            if (accept("-")) {
+                return fold(new Negate(parseUnary()));
+            }
+            if (accept("+")) {
+                return parseUnary();
+            }
+            if (acceptKeyword("not")) {
+                return fold(new Not(parseUnary()));
+            }
+            return parsePower();
+        }
+
+        private Node parsePower() {
+            var base = parsePrimary();
+            if (accept("^")) {
+                return fold(new Arithmetic("^", base, parseUnary()));
+            }
+            return base;
+        }
+
+        private Node parsePrimary() {
+            skipWhitespace();
+            if (accept("(")) {
+                var node = parseConditional();
+                if (!accept(")")) {
+                    throw error("Parenthesis ) expected");
+                }
+                return node;
+            }
+            if (position < input.length()) {
+                char current = input.charAt(position);
+                if (Character.isDigit(current) || current == '.') {
+                    return parseNumber();
+                }
+                if (Character.isLetter(current) || current == '_') {
+                    return parseIdentifier();
+                }
+            }
+            throw error("Value expected");
+        }
+
+        private Node parseNumber() {
+            int start = position;
+            while (position < input.length()
+                    && (Character.isDigit(input.charAt(position)) || input.charAt(position) == '.')) {
+                position++;
+            }
+            if (position < input.length() && (input.charAt(position) == 'e' || input.charAt(position) == 'E')) {
+                position++;
+                if (position < input.length() && (input.charAt(position) == '+' || input.charAt(position) == '-')) {
+                    position++;
+                }
+                while (position < input.length() && Character.isDigit(input.charAt(position))) {
+                    position++;
+                }
+            }
+            try {
+                return new Constant(Double.parseDouble(input.substring(start, position)));
+            }
+            catch (NumberFormatException exception) {
+                throw error("Invalid number '%s'".formatted(input.substring(start, position)));
+            }
+        }
+
+        private Node parseIdentifier() {
+            int start = position;
+            var identifier = readIdentifier();
+            if (KEYWORDS.contains(identifier)) {
+                position = start;
+                throw error("Value expected");
+            }
+            if (accept("(")) {
+                return parseCall(identifier);
+            }
+            return switch (identifier) {
+                case "true" -> new Constant(1);
+                case "false" -> new Constant(0);
+                case "pi" -> new Constant(Math.PI);
+                case "e" -> new Constant(Math.E);
+                default -> new Variable(identifier);
+            };
+        }
+
+        private Node parseCall(final String function) {
+            var arity = FUNCTIONS.get(function);
+            if (arity == null) {
+                throw error("Undefined function %s".formatted(function));
+            }
+            List<Node> arguments = new ArrayList<>();
+            if (!accept(")")) {
+                do {
+                    arguments.add(parseConditional());
+                }
+                while (accept(","));
+                if (!accept(")")) {
+                    throw error("Parenthesis ) expected");
+                }
+            }
+            if (arguments.size() < arity[0] || arguments.size() > arity[1]) {
+                throw error("Wrong number of arguments in function %s (%d provided)".formatted(function,
+                        arguments.size()));
+            }
+            return fold(new Call(function, List.copyOf(arguments)));
+        }
+
+        /**
+         * Replaces a subexpression that does not use any metric with its value.
+         */
+        private Node fold(final Node node) {
+            if (node.isConstant()) {
+                return new Constant(node.compileValue(Map.of()).applyAsDouble(0));
+            }
+            return node;
+        }
+
+        private String readIdentifier() {
+            int start = position;
+            while (position < input.length()
+                    && (Character.isLetterOrDigit(input.charAt(position)) || input.charAt(position) == '_')) {
+                position++;
+            }
+            return input.substring(start, position);
+        }
+
+        private boolean acceptKeyword(final String keyword) {
+            skipWhitespace();
+            int start = position;
+            if (position < input.length() && Character.isLetter(input.charAt(position))
+                    && keyword.equals(readIdentifier())) {
+                return true;
+            }
+            position = start;
+            return false;
+        }
+
+        private boolean accept(final String token) {
+            skipWhitespace();
+            if (input.startsWith(token, position)) {
+                position += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(final String message) {
+            return new IllegalArgumentException("%s (char %d) in filter '%s'".formatted(message, position + 1, input));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The combined class metrics of the jobs of a folder, e.g., the branches of a multibranch project. The metrics of the
+ * jobs are reduced using {@link #add(BranchMetrics)} and {@link #combine(FolderMetrics)}: both operations are
+ * associative, so the jobs can be split into several parts that are reduced independently and combined afterwards.
+ * The distribution of each metric is the merged {@link QuantileSketch sketch} of all jobs.
+ */
+public final class FolderMetrics {
+    private final List<BranchMetrics> branches = new ArrayList<>();
+    private final Map<String, String> displayNames = new LinkedHashMap<>();
+    private final Map<String, Double> totals = new LinkedHashMap<>();
+    private final Map<String, QuantileSketch> sketches = new LinkedHashMap<>();
+    private int classCount;
+    private int missingCount;
+
+    /**
+     * Adds the metrics of the specified job.
+     *
+     * @param branch
+     *         the metrics of the job
+     *
+     * @return this
+     */
+    public FolderMetrics add(final BranchMetrics branch) {
+        branches.add(branch);
+        classCount += branch.getClassCount();
+        for (Map.Entry<String, String> metric : branch.getDisplayNames().entrySet()) {
+            var id = metric.getKey();
+            displayNames.putIfAbsent(id, metric.getValue());
+            totals.merge(id, branch.getTotal(id), Double::sum);
+            sketches.computeIfAbsent(id, key -> new QuantileSketch()).merge(branch.getSketch(id));
+        }
+        return this;
+    }
+
+    /**
+     * Adds a job whose metrics are not available yet.
+     *
+     * @return this
+     */
+    public FolderMetrics addMissing() {
+        missingCount++;
+        return this;
+    }
+
+    /**
+     * Combines the specified metrics with these metrics. The jobs of the specified metrics are appended to the jobs of
+     * these metrics.
+     *
+     * @param other
+     *         the metrics to combine
+     *
+     * @return this
+     */
+    public FolderMetrics combine(final FolderMetrics other) {
+        branches.addAll(other.branches);
+        classCount += other.classCount;
+        missingCount += other.missingCount;
+        for (Map.Entry<String, String> metric : other.displayNames.entrySet()) {
+            var id = metric.getKey();
+            displayNames.putIfAbsent(id, metric.getValue());
+            totals.merge(id, other.totals.get(id), Double::sum);
+            sketches.computeIfAbsent(id, key -> new QuantileSketch()).merge(other.sketches.get(id));
+        }
+        return this;
+    }
+
+    /**
+     * Returns the metrics of the jobs, in the order in which they have been added.
+     *
+     * @return the metrics of the jobs
+     */
+    public List<BranchMetrics> getBranches() {
+        return Collections.unmodifiableList(branches);
+    }
+
+    /**
+     * Returns the IDs of all metrics that are reported by at least one job.
+     *
+     * @return the IDs of the metrics
+     */
+    public List<String> getMetricIds() {
+        return List.copyOf(displayNames.keySet());
+    }
+
+    /**
+     * Returns the display name of the specified metric.
+     *
+     * @param metricId
+     *         the ID of the metric
+     *
+     * @return the display name, or the ID if no job reports this metric
+     */
+    public String getDisplayName(final String metricId) {
+        return displayNames.getOrDefault(metricId, metricId);
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * Returns the number of jobs whose metrics are not available yet, e.g., because the snapshot of their last
+     * completed build has not been stored yet.
+     *
+     * @return the number of jobs without metrics
+     */
+    public int getMissingCount() {
+        return missingCount;
+    }
+
+    /**
+     * Returns the sum of the values of the specified metric over all classes of all jobs.
+     *
+     * @param metricId
+     *         the ID of the metric
+     *
+     * @return the total, or {@link Double#NaN} if no job reports this metric
+     */
+    public double getTotal(final String metricId) {
+        return totals.getOrDefault(metricId, Double.NaN);
+    }
+
+    /**
+     * Returns the distribution of the values of the specified metric over all classes of all jobs.
+     *
+     * @param metricId
+     *         the ID of the metric
+     *
+     * @return the distribution, or an empty {@link Optional} if no job reports this metric
+     */
+    public Optional<QuantileSketch> getSketch(final String metricId) {
+        return Optional.ofNullable(sketches.get(metricId));
+    }
+
+    /**
+     * Returns the jobs with the highest total of the specified metric, the highest total first.
+     *
+     * @param metricId
+     *         the ID of the metric
+     * @param maxBranches
+     *         the maximum number of jobs
+     *
+     * @return the jobs
+     */
+    public List<BranchMetrics> getWorstBranches(final String metricId, final int maxBranches) {
+        return branches.stream()
+                .filter(branch -> !Double.isNaN(branch.getTotal(metricId)))
+                .sorted(Comparator.comparingDouble((BranchMetrics branch) -> branch.getTotal(metricId)).reversed())
+                .limit(maxBranches)
+                .toList();
+    }
+
+    @Override
+    public String toString() {
+        return "FolderMetrics[%d jobs, %d classes, %d missing]".formatted(branches.size(), classCount, missingCount);
+    }
+}
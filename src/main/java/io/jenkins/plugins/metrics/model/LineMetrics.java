@@ -0,0 +1,109 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Metrics of a class that are located at lines of its source file, e.g., warnings. Each entry counts once for its
+ * metric. Providers usually do not know the methods of a class, so the entries are attributed to the methods that
+ * other providers report once the measurements of all providers have been merged (see
+ * {@link MeasurementAggregator#attribute(java.util.Collection)}).
+ *
+ * <p>
+ * The entries are stored in primitive arrays, the metric of an entry is stored as index into the list of definitions.
+ * </p>
+ */
+public final class LineMetrics {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final String packageName;
+    private final String className;
+    private final List<MetricDefinition> definitions;
+
+    private int[] metrics = new int[INITIAL_CAPACITY];
+    private int[] beginLines = new int[INITIAL_CAPACITY];
+    private int[] endLines = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Creates new and empty {@link LineMetrics}.
+     *
+     * @param packageName
+     *         the package of the class
+     * @param className
+     *         the name of the class
+     * @param definitions
+     *         the metrics of the entries, each metric is counted for all methods of the class
+     */
+    public LineMetrics(final String packageName, final String className, final List<MetricDefinition> definitions) {
+        this.packageName = packageName;
+        this.className = className;
+        this.definitions = List.copyOf(definitions);
+    }
+
+    /**
+     * Adds an entry.
+     *
+     * @param metric
+     *         the index of the metric of the entry in the list of definitions
+     * @param beginLine
+     *         the first line of the entry
+     * @param endLine
+     *         the last line of the entry, values smaller than {@code beginLine} are ignored
+     */
+    public void add(final int metric, final int beginLine, final int endLine) {
+        if (metric < 0 || metric >= definitions.size()) {
+            throw new IndexOutOfBoundsException("No such metric: " + metric);
+        }
+        if (size == metrics.length) {
+            metrics = Arrays.copyOf(metrics, size * 2);
+            beginLines = Arrays.copyOf(beginLines, size * 2);
+            endLines = Arrays.copyOf(endLines, size * 2);
+        }
+        metrics[size] = metric;
+        beginLines[size] = beginLine;
+        endLines[size] = Math.max(beginLine, endLine);
+        size++;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public List<MetricDefinition> getDefinitions() {
+        return definitions;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the metric of the specified entry in the list of definitions.
+     *
+     * @param entry
+     *         the index of the entry
+     *
+     * @return the index of the metric
+     */
+    public int getMetric(final int entry) {
+        return metrics[entry];
+    }
+
+    public int getBeginLine(final int entry) {
+        return beginLines[entry];
+    }
+
+    public int getEndLine(final int entry) {
+        return endLines[entry];
+    }
+
+    @Override
+    public String toString() {
+        return "LineMetrics[%s.%s, %d entries]".formatted(packageName, className, size);
+    }
+}
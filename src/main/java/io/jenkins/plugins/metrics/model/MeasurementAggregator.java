@@ -0,0 +1,163 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the measurements of several providers in a single pass. All measurements of the same class (or the same
+ * method) are merged into the first measurement that has been added for this class (or method), so that each class
+ * and method is represented by exactly one measurement. Metrics that are reported twice for the same class (or method)
+ * are resolved using a {@link DuplicateMetricPolicy}.
+ *
+ * <p>
+ * Note that the first measurement of each class (or method) is modified in place.
+ * </p>
+ */
+public final class MeasurementAggregator {
+    private final DuplicateMetricPolicy policy;
+    private final Map<Location, ClassMetricsMeasurement> classes;
+    private final Map<Location, MethodMetricsMeasurement> methods;
+    private int duplicates;
+
+    /**
+     * Creates a new {@link MeasurementAggregator}.
+     *
+     * @param expectedSize
+     *         the expected number of measurements, used to size the internal maps
+     * @param policy
+     *         the policy for metrics that are reported twice
+     */
+    public MeasurementAggregator(final int expectedSize, final DuplicateMetricPolicy policy) {
+        this.policy = policy;
+
+        int capacity = (int) Math.min(Integer.MAX_VALUE / 2, expectedSize * 4L / 3 + 1);
+        classes = new LinkedHashMap<>(capacity);
+        methods = new LinkedHashMap<>(capacity);
+    }
+
+    /**
+     * Adds the specified measurements.
+     *
+     * @param measurements
+     *         the measurements to add
+     */
+    public void addAll(final Collection<? extends MetricsMeasurement> measurements) {
+        for (MetricsMeasurement measurement : measurements) {
+            add(measurement);
+        }
+    }
+
+    /**
+     * Adds the specified measurement. If there is already a measurement for the same class (or method), then the
+     * metrics of the specified measurement are merged into the existing one.
+     *
+     * @param measurement
+     *         the measurement to add
+     */
+    public void add(final MetricsMeasurement measurement) {
+        if (measurement instanceof ClassMetricsMeasurement classMeasurement) {
+            var location = new Location(measurement.getPackageName(), measurement.getClassName(), null);
+            merge(classes.putIfAbsent(location, classMeasurement), measurement);
+        }
+        else if (measurement instanceof MethodMetricsMeasurement methodMeasurement) {
+            var location = new Location(measurement.getPackageName(), measurement.getClassName(),
+                    methodMeasurement.getMethodName());
+            merge(methods.putIfAbsent(location, methodMeasurement), measurement);
+        }
+    }
+
+    private void merge(final MetricsMeasurement existing, final MetricsMeasurement measurement) {
+        if (existing != null && existing != measurement) {
+            measurement.forEachMetric(metric -> {
+                if (existing.merge(metric, policy)) {
+                    duplicates++;
+                }
+            });
+        }
+    }
+
+    /**
+     * Attributes the specified line metrics to the methods of the added measurements. Each entry is counted for the
+     * innermost method that contains its lines, entries outside any method are skipped. All methods of a class with
+     * line metrics get a value for each metric of the line metrics, even if no entry has been counted for them.
+     *
+     * @param lineMetrics
+     *         the line metrics of the classes
+     */
+    public void attribute(final Collection<LineMetrics> lineMetrics) {
+        if (lineMetrics.isEmpty() || methods.isEmpty()) {
+            return;
+        }
+
+        Map<Location, List<MethodMetricsMeasurement>> methodsByClass = new HashMap<>();
+        for (MethodMetricsMeasurement method : methods.values()) {
+            methodsByClass.computeIfAbsent(new Location(method.getPackageName(), method.getClassName(), null),
+                    key -> new ArrayList<>()).add(method);
+        }
+
+        Map<Location, MethodIntervalTree> trees = new HashMap<>();
+        for (LineMetrics metrics : lineMetrics) {
+            var location = new Location(metrics.getPackageName(), metrics.getClassName(), null);
+            var classMethods = methodsByClass.get(location);
+            if (classMethods != null) {
+                attribute(metrics, trees.computeIfAbsent(location, key -> new MethodIntervalTree(classMethods)));
+            }
+        }
+    }
+
+    private void attribute(final LineMetrics lineMetrics, final MethodIntervalTree tree) {
+        var definitions = lineMetrics.getDefinitions();
+        var classMethods = tree.getMethods();
+        var counts = new int[classMethods.size() * definitions.size()];
+        for (int entry = 0; entry < lineMetrics.size(); entry++) {
+            int method = tree.findInnermost(lineMetrics.getBeginLine(entry), lineMetrics.getEndLine(entry));
+            if (method >= 0) {
+                counts[method * definitions.size() + lineMetrics.getMetric(entry)]++;
+            }
+        }
+
+        for (int method = 0; method < classMethods.size(); method++) {
+            var measurement = classMethods.get(method);
+            for (int metric = 0; metric < definitions.size(); metric++) {
+                var count = new IntegerMetric(definitions.get(metric), counts[method * definitions.size() + metric]);
+                if (measurement.merge(count, policy)) {
+                    duplicates++;
+                }
+            }
+        }
+    }
+
+    public List<ClassMetricsMeasurement> getClassMeasurements() {
+        return new ArrayList<>(classes.values());
+    }
+
+    public List<MethodMetricsMeasurement> getMethodMeasurements() {
+        return new ArrayList<>(methods.values());
+    }
+
+    /**
+     * Returns the number of metrics that have been reported twice for the same class (or method).
+     *
+     * @return the number of duplicate metrics
+     */
+    public int getDuplicateCount() {
+        return duplicates;
+    }
+
+    /**
+     * Identifies a class or a method without concatenating the names.
+     *
+     * @param packageName
+     *         the package of the class
+     * @param className
+     *         the name of the class
+     * @param methodName
+     *         the name of the method, or {@code null} for classes
+     */
+    private record Location(String packageName, String className, String methodName) {
+    }
+}
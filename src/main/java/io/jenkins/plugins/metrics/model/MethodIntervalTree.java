@@ -0,0 +1,94 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Interval tree of the line ranges of the methods of a class. The tree is stored implicitly in arrays that are sorted
+ * by the first line of the methods: the root of each subtree is the middle element of its range, and each node knows
+ * the largest last line in its subtree. Finding the methods that contain a line range therefore takes
+ * {@code O(log m + k)} steps for {@code m} methods and {@code k} matches rather than a scan over all methods.
+ *
+ * <p>
+ * Methods without a valid line range are ignored.
+ * </p>
+ */
+final class MethodIntervalTree {
+    private final MethodMetricsMeasurement[] methods;
+    private final int[] beginLines;
+    private final int[] endLines;
+    private final int[] maxEndLines;
+
+    MethodIntervalTree(final List<MethodMetricsMeasurement> measurements) {
+        methods = measurements.stream()
+                .filter(method -> method.getBeginLine() > 0 && method.getEndLine() >= method.getBeginLine())
+                .sorted(Comparator.comparingInt(MethodMetricsMeasurement::getBeginLine))
+                .toArray(MethodMetricsMeasurement[]::new);
+        beginLines = new int[methods.length];
+        endLines = new int[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            beginLines[i] = methods[i].getBeginLine();
+            endLines[i] = methods[i].getEndLine();
+        }
+        maxEndLines = new int[methods.length];
+        computeMaxEndLines(0, methods.length);
+    }
+
+    private int computeMaxEndLines(final int low, final int high) {
+        if (low >= high) {
+            return Integer.MIN_VALUE;
+        }
+        int middle = (low + high) >>> 1;
+        maxEndLines[middle] = Math.max(endLines[middle],
+                Math.max(computeMaxEndLines(low, middle), computeMaxEndLines(middle + 1, high)));
+        return maxEndLines[middle];
+    }
+
+    /**
+     * Returns all methods with a valid line range, sorted by their first line.
+     *
+     * @return the methods
+     */
+    List<MethodMetricsMeasurement> getMethods() {
+        return List.of(methods);
+    }
+
+    /**
+     * Returns the innermost method that contains the specified line range, i.e., the shortest of the methods that
+     * contain the range. Methods might contain other methods, e.g., the methods of local or anonymous classes.
+     *
+     * @param beginLine
+     *         the first line of the range
+     * @param endLine
+     *         the last line of the range
+     *
+     * @return the index of the method in {@link #getMethods()}, or -1 if no method contains the range
+     */
+    int findInnermost(final int beginLine, final int endLine) {
+        return findInnermost(0, methods.length, beginLine, endLine, -1);
+    }
+
+    private int findInnermost(final int low, final int high, final int beginLine, final int endLine,
+            final int innermost) {
+        if (low >= high) {
+            return innermost;
+        }
+        int middle = (low + high) >>> 1;
+        if (maxEndLines[middle] < endLine) {
+            return innermost; // no method of this subtree reaches the end of the range
+        }
+
+        int result = findInnermost(low, middle, beginLine, endLine, innermost);
+        if (beginLines[middle] <= beginLine) { // otherwise, all methods on the right start after the range
+            if (endLines[middle] >= endLine && (result < 0 || getLength(middle) < getLength(result))) {
+                result = middle;
+            }
+            result = findInnermost(middle + 1, high, beginLine, endLine, result);
+        }
+        return result;
+    }
+
+    private int getLength(final int method) {
+        return endLines[method] - beginLines[method];
+    }
+}
@@ -64,7 +64,7 @@ public class MethodMetricsMeasurement extends MetricsMeasurement {
     @Override
     public MethodMetricsMeasurement merge(final MetricsMeasurement metricsMeasurement) {
         if (metricsMeasurement instanceof MethodMetricsMeasurement) {
-            metricsMeasurement.getMetrics().values().forEach(this::merge);
+            metricsMeasurement.forEachMetric(this::merge);
         }
         return this;
     }
@@ -94,7 +94,7 @@ public class MethodMetricsMeasurement extends MetricsMeasurement {
                 && this.endLine == other.endLine
                 && this.endColumn == other.endColumn
                 && Objects.equals(methodName, other.methodName)
-                && Objects.equals(getMetrics(), other.getMetrics())
+                && Objects.equals(getMetricsView(), other.getMetricsView())
                 && Objects.equals(getClassName(), other.getClassName())
                 && Objects.equals(getFileName(), other.getFileName())
                 && Objects.equals(getPackageName(), other.getPackageName());
@@ -103,7 +103,7 @@ public class MethodMetricsMeasurement extends MetricsMeasurement {
     @Override
     public int hashCode() {
         return Objects.hash(beginColumn, beginLine, endLine, endColumn, methodName,
-                getClassName(), getFileName(), getPackageName(), getMetrics());
+                getClassName(), getFileName(), getPackageName(), getMetricsView());
     }
 
     /**
@@ -0,0 +1,387 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * The values of a single metric for all rows of a {@link ClassMetricsTable}. The values are stored in a primitive
+ * array, a bitmap marks the rows that actually have a value, so that sparse metrics do not need boxed placeholders.
+ * Additionally, each column contains a {@link QuantileSketch} of its values that summarizes the distribution of the
+ * metric.
+ */
+public abstract class MetricColumn implements Serializable {
+    @Serial
+    private static final long serialVersionUID = -1818950290460957618L;
+
+    private final MetricDefinition metricDefinition;
+    private final BitSet presence;
+    private final QuantileSketch sketch;
+
+    /**
+     * Creates a new {@link MetricColumn} for the given metrics. The type of the column (and the primitive storage) is
+     * derived from the types of the metrics.
+     *
+     * @param metricDefinition
+     *         the definition of the metric
+     * @param metrics
+     *         the metrics of each row, rows without a value contain {@code null}
+     *
+     * @return the created column
+     */
+    static MetricColumn create(final MetricDefinition metricDefinition, final Metric[] metrics) {
+        var presence = new BitSet(metrics.length);
+        var sketch = new QuantileSketch();
+        Class<?> type = null;
+        for (int row = 0; row < metrics.length; row++) {
+            if (metrics[row] != null) {
+                presence.set(row);
+                sketch.add(metrics[row].rawValue().doubleValue());
+                if (type == null) {
+                    type = metrics[row].getClass();
+                }
+                else if (type != metrics[row].getClass()) {
+                    type = Metric.class;
+                }
+            }
+        }
+
+        if (type == IntegerMetric.class) {
+            var values = new int[metrics.length];
+            presence.stream().forEach(row -> values[row] = metrics[row].rawValue().intValue());
+            return new IntegerColumn(metricDefinition, presence, sketch, values);
+        }
+        if (type == DoubleMetric.class || type == PercentageMetric.class) {
+            return new DoubleColumn(metricDefinition, presence, sketch, toDoubles(metrics, presence),
+                    type == PercentageMetric.class);
+        }
+        return new RenderedColumn(metricDefinition, presence, sketch, metrics);
+    }
+
+    private static double[] toDoubles(final Metric[] metrics, final BitSet presence) {
+        var values = new double[metrics.length];
+        presence.stream().forEach(row -> values[row] = metrics[row].rawValue().doubleValue());
+        return values;
+    }
+
+    MetricColumn(final MetricDefinition metricDefinition, final BitSet presence, final QuantileSketch sketch) {
+        this.metricDefinition = metricDefinition;
+        this.presence = presence;
+        this.sketch = sketch;
+    }
+
+    public final MetricDefinition getMetricDefinition() {
+        return metricDefinition;
+    }
+
+    public final String getId() {
+        return metricDefinition.getId();
+    }
+
+    /**
+     * Returns whether the specified row has a value for this metric.
+     *
+     * @param row
+     *         the row
+     *
+     * @return {@code true} if there is a value, {@code false} otherwise
+     */
+    public final boolean isPresent(final int row) {
+        return presence.get(row);
+    }
+
+    /**
+     * Removes all rows from the specified set that do not have a value for this metric.
+     *
+     * @param rows
+     *         the set of rows to restrict
+     */
+    final void retainPresent(final BitSet rows) {
+        rows.and(presence);
+    }
+
+    /**
+     * Returns the number of rows that have a value for this metric.
+     *
+     * @return the number of values
+     */
+    public final int getCount() {
+        return presence.cardinality();
+    }
+
+    /**
+     * Returns the sketch of the distribution of the values of this column.
+     *
+     * @return the quantile sketch
+     */
+    public final QuantileSketch getSketch() {
+        return sketch;
+    }
+
+    /**
+     * Returns the value of the specified row.
+     *
+     * @param row
+     *         the row
+     *
+     * @return the value, or {@link Double#NaN} if the row has no value for this metric
+     */
+    public final double getValue(final int row) {
+        return isPresent(row) ? value(row) : Double.NaN;
+    }
+
+    /**
+     * Returns the value of the specified row. The row must have a value for this metric.
+     *
+     * @param row
+     *         the row
+     *
+     * @return the value
+     */
+    abstract double value(int row);
+
+    /**
+     * Returns a function that reads the value of a row directly from the primitive storage of this column. Like
+     * {@link #value(int)}, the function must only be called for rows that have a value for this metric.
+     *
+     * @return the function
+     */
+    abstract IntToDoubleFunction getValueFunction();
+
+    /**
+     * Returns the raw value of the specified row, see {@link Metric#rawValue()}. The row must have a value for this
+     * metric.
+     *
+     * @param row
+     *         the row
+     *
+     * @return the raw value
+     */
+    public abstract Number getRawValue(int row);
+
+    /**
+     * Returns the value of the specified row that should be displayed in the UI, see {@link Metric#renderValue()}.
+     * The row must have a value for this metric.
+     *
+     * @param row
+     *         the row
+     *
+     * @return the value to display
+     */
+    public abstract String renderValue(int row);
+
+    /**
+     * Returns the type of the values of this column, i.e. how the values are rendered.
+     *
+     * @return the value type
+     */
+    public abstract ValueType getValueType();
+
+    /**
+     * Indicates whether the values of this metric need rounding when displayed.
+     *
+     * @return {@code true} if rounding is needed, {@code false} otherwise
+     */
+    public abstract boolean needsRounding();
+
+    /**
+     * Returns a rough estimation of the heap memory that is occupied by this column.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getEstimatedSize() {
+        return presence.size() / Byte.SIZE + sketch.getEstimatedSize();
+    }
+
+    @Override
+    public String toString() {
+        return "MetricColumn %s (%d values)".formatted(getId(), getCount());
+    }
+
+    /**
+     * Determines how the values of a column are rendered.
+     */
+    public enum ValueType {
+        /** Integer values, rendered as is. */
+        INTEGER,
+        /** Floating point values, rendered with two decimal places. */
+        DOUBLE,
+        /** Percentages, rendered as rounded integers with a percent sign. */
+        PERCENTAGE,
+        /** Values of custom metric types, the rendered values are stored in the column. */
+        CUSTOM
+    }
+
+    /**
+     * Column of {@link IntegerMetric} values.
+     */
+    private static final class IntegerColumn extends MetricColumn {
+        @Serial
+        private static final long serialVersionUID = -5424385546318452735L;
+
+        private final int[] values;
+
+        IntegerColumn(final MetricDefinition metricDefinition, final BitSet presence, final QuantileSketch sketch,
+                final int[] values) {
+            super(metricDefinition, presence, sketch);
+
+            this.values = values;
+        }
+
+        @Override
+        double value(final int row) {
+            return values[row];
+        }
+
+        @Override
+        IntToDoubleFunction getValueFunction() {
+            var array = values;
+            return row -> array[row];
+        }
+
+        @Override
+        public Number getRawValue(final int row) {
+            return values[row];
+        }
+
+        @Override
+        public String renderValue(final int row) {
+            return String.valueOf(values[row]);
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return ValueType.INTEGER;
+        }
+
+        @Override
+        public boolean needsRounding() {
+            return true;
+        }
+
+        @Override
+        public long getEstimatedSize() {
+            return super.getEstimatedSize() + (long) values.length * Integer.BYTES;
+        }
+    }
+
+    /**
+     * Column of {@link DoubleMetric} or {@link PercentageMetric} values.
+     */
+    private static final class DoubleColumn extends MetricColumn {
+        @Serial
+        private static final long serialVersionUID = 6150862372436420516L;
+
+        private final double[] values;
+        private final boolean percentage;
+
+        DoubleColumn(final MetricDefinition metricDefinition, final BitSet presence, final QuantileSketch sketch,
+                final double[] values, final boolean percentage) {
+            super(metricDefinition, presence, sketch);
+
+            this.values = values;
+            this.percentage = percentage;
+        }
+
+        @Override
+        double value(final int row) {
+            return values[row];
+        }
+
+        @Override
+        IntToDoubleFunction getValueFunction() {
+            var array = values;
+            return row -> array[row];
+        }
+
+        @Override
+        public Number getRawValue(final int row) {
+            return percentage ? Float.valueOf((float) values[row]) : Double.valueOf(values[row]);
+        }
+
+        @Override
+        public String renderValue(final int row) {
+            if (percentage) {
+                return String.format(Locale.ENGLISH, "%d%%", Math.round((float) values[row]));
+            }
+            return String.format(Locale.ENGLISH, "%.2f", values[row]);
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return percentage ? ValueType.PERCENTAGE : ValueType.DOUBLE;
+        }
+
+        @Override
+        public boolean needsRounding() {
+            return false;
+        }
+
+        @Override
+        public long getEstimatedSize() {
+            return super.getEstimatedSize() + (long) values.length * Double.BYTES;
+        }
+    }
+
+    /**
+     * Column of custom {@link Metric} implementations (or mixed types): the rendered values are stored as well.
+     */
+    private static final class RenderedColumn extends MetricColumn {
+        @Serial
+        private static final long serialVersionUID = 4520766467398838925L;
+
+        private static final int STRING_SIZE = 48;
+
+        private final double[] values;
+        private final String[] renderedValues;
+        private final boolean rounding;
+
+        RenderedColumn(final MetricDefinition metricDefinition, final BitSet presence, final QuantileSketch sketch,
+                final Metric[] metrics) {
+            super(metricDefinition, presence, sketch);
+
+            values = toDoubles(metrics, presence);
+            renderedValues = new String[metrics.length];
+            presence.stream().forEach(row -> renderedValues[row] = metrics[row].renderValue());
+            rounding = presence.stream().allMatch(row -> metrics[row].needsRounding());
+        }
+
+        @Override
+        double value(final int row) {
+            return values[row];
+        }
+
+        @Override
+        IntToDoubleFunction getValueFunction() {
+            var array = values;
+            return row -> array[row];
+        }
+
+        @Override
+        public Number getRawValue(final int row) {
+            return values[row];
+        }
+
+        @Override
+        public String renderValue(final int row) {
+            return renderedValues[row];
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return ValueType.CUSTOM;
+        }
+
+        @Override
+        public boolean needsRounding() {
+            return rounding;
+        }
+
+        @Override
+        public long getEstimatedSize() {
+            return super.getEstimatedSize() + (long) values.length * (Double.BYTES + STRING_SIZE);
+        }
+    }
+}
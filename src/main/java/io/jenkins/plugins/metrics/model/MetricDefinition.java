@@ -12,7 +12,8 @@ import java.util.Objects;
 import java.util.Set;
 
 /**
- * A definition of a metric.
+ * A definition of a metric. Instances are interned: the {@link MetricDefinitionBuilder} and deserialization return
+ * the canonical instance of a definition, see {@link MetricDefinitionRegistry}.
  */
 public final class MetricDefinition implements Serializable, Comparable<MetricDefinition> {
     @Serial
@@ -34,6 +35,8 @@ public final class MetricDefinition implements Serializable, Comparable<MetricDe
     @SuppressWarnings("PMD.LooseCoupling")
     private final EnumSet<Scope> scopes;
 
+    private final transient int ordinal;
+
     /**
      * Creates a new {@link MetricDefinition}. See {@link MetricDefinitionBuilder} for building instances.
      *
@@ -58,6 +61,19 @@ public final class MetricDefinition implements Serializable, Comparable<MetricDe
         this.reportedBy = reportedBy;
         this.priority = priority;
         this.scopes = EnumSet.copyOf(scopes);
+        this.ordinal = MetricDefinitionRegistry.getOrdinal(id);
+    }
+
+    /**
+     * Returns the canonical instance of this definition, so that deserialized metrics share the definitions and get
+     * the ordinal of the running JVM.
+     *
+     * @return the canonical instance
+     */
+    @Serial
+    private Object readResolve() {
+        return MetricDefinitionRegistry.intern(
+                new MetricDefinition(id, displayName, description, reportedBy, priority, scopes));
     }
 
     public String getDisplayName() {
@@ -84,6 +100,24 @@ public final class MetricDefinition implements Serializable, Comparable<MetricDe
         return scopes;
     }
 
+    /**
+     * Returns the dense ordinal of the ID of this metric. The ordinal is only valid within the running JVM.
+     *
+     * @return the ordinal
+     */
+    int getOrdinal() {
+        return ordinal;
+    }
+
+    boolean hasSameProperties(final MetricDefinition other) {
+        return id.equals(other.id)
+                && priority == other.priority
+                && Objects.equals(displayName, other.displayName)
+                && Objects.equals(description, other.description)
+                && Objects.equals(reportedBy, other.reportedBy)
+                && scopes.equals(other.scopes);
+    }
+
     /**
      * Determine if this {@link MetricDefinition} is valid for a certain {@link Scope}.
      *
@@ -228,7 +262,8 @@ public final class MetricDefinition implements Serializable, Comparable<MetricDe
          * @return the created {@link MetricDefinition} instance
          */
         public MetricDefinition build() {
-            return new MetricDefinition(id, displayName, description, reportedBy, priority, scopes);
+            return MetricDefinitionRegistry.intern(
+                    new MetricDefinition(id, displayName, description, reportedBy, priority, scopes));
         }
     }
 }
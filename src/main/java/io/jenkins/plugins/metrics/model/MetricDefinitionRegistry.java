@@ -0,0 +1,106 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of all {@link MetricDefinition} instances known to this controller. Each metric ID gets a dense integer
+ * ordinal that is used to store the metrics of a {@link MetricsMeasurement} in an array rather than in a map. Moreover,
+ * the registry interns the definitions, so that all metrics with the same definition share a single instance, even if
+ * they have been deserialized from different builds.
+ *
+ * <p>
+ * Ordinals are assigned in the order the metric IDs are seen and are never reused. They are only valid within the
+ * running JVM and must not be persisted. Measurements store their metrics sorted by ordinal, so a growing number of
+ * IDs does not increase the size of the measurements. Since providers might create metrics on the fly, at most
+ * {@value #MAX_DEFINITIONS} ordinals are assigned and at most {@value #MAX_DEFINITIONS} definitions are interned. All
+ * other IDs share the ordinal {@link #UNREGISTERED}: measurements keep these metrics behind the registered ones and
+ * find them by comparing the IDs. Definitions with such IDs are used as they are.
+ * </p>
+ */
+final class MetricDefinitionRegistry {
+    static final int MAX_DEFINITIONS = 4096;
+    /** The ordinal of all metric IDs that have been seen after the registry was full. */
+    static final int UNREGISTERED = Integer.MAX_VALUE;
+
+    private static final Ordinals ORDINALS = new Ordinals(MAX_DEFINITIONS);
+    private static final Map<String, MetricDefinition> DEFINITIONS = new ConcurrentHashMap<>();
+
+    private MetricDefinitionRegistry() {
+        // prevents instantiation
+    }
+
+    /**
+     * Returns the ordinal of the specified metric ID. If the ID has not been seen yet, a new ordinal is assigned. If
+     * the registry is full, then {@link #UNREGISTERED} is returned for new IDs.
+     *
+     * @param id
+     *         the ID of the metric
+     *
+     * @return the ordinal
+     */
+    static int getOrdinal(final String id) {
+        return ORDINALS.get(id);
+    }
+
+    /**
+     * Returns the ordinal of the specified metric ID, without assigning a new one.
+     *
+     * @param id
+     *         the ID of the metric
+     *
+     * @return the ordinal, {@link #UNREGISTERED} if the ID might have been seen after the registry was full, or -1 if
+     *         the ID has not been seen yet
+     */
+    static int findOrdinal(final String id) {
+        return ORDINALS.find(id);
+    }
+
+    /**
+     * Returns the canonical instance of the specified definition. If there is already a definition with the same ID
+     * and the same properties, then that instance is returned. Otherwise, the specified definition becomes the
+     * canonical instance for its ID. If the registry is full, then definitions with new IDs are not interned.
+     *
+     * @param definition
+     *         the definition to intern
+     *
+     * @return the canonical instance
+     */
+    static MetricDefinition intern(final MetricDefinition definition) {
+        if (DEFINITIONS.size() >= MAX_DEFINITIONS && !DEFINITIONS.containsKey(definition.getId())) {
+            return definition;
+        }
+        return DEFINITIONS.compute(definition.getId(),
+                (id, existing) -> existing != null && existing.hasSameProperties(definition) ? existing : definition);
+    }
+
+    /**
+     * Assigns dense ordinals to a bounded number of IDs.
+     */
+    static final class Ordinals {
+        private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+        private final AtomicInteger nextOrdinal = new AtomicInteger();
+        private final int capacity;
+
+        Ordinals(final int capacity) {
+            this.capacity = capacity;
+        }
+
+        int get(final String id) {
+            var ordinal = ordinals.computeIfAbsent(id, key -> {
+                int next = nextOrdinal.getAndUpdate(value -> value < capacity ? value + 1 : value);
+                return next < capacity ? next : null;
+            });
+            return ordinal == null ? UNREGISTERED : ordinal;
+        }
+
+        int find(final String id) {
+            var ordinal = ordinals.get(id);
+            if (ordinal != null) {
+                return ordinal;
+            }
+            return ordinals.size() >= capacity ? UNREGISTERED : -1;
+        }
+    }
+}
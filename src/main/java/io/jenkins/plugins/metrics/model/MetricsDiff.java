@@ -0,0 +1,349 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Differences between the class metrics of two builds. The diff is computed by a single hash join of the two
+ * {@link ClassMetricsTable tables}: the classes of the current build are probed against the index of the reference
+ * build by their qualified name. Classes that have no partner are new (or removed, respectively); for all other
+ * classes the values of the metrics that are part of both builds are compared.
+ *
+ * <p>
+ * The classes with the biggest changes of each metric are collected in bounded heaps while probing, so the diff
+ * never sorts all classes. Since the metric definitions do not specify whether larger values are better or worse,
+ * the biggest increases and the biggest decreases are collected separately.
+ * </p>
+ *
+ * <p>
+ * The diff refers to the classes by their rows in the two tables, it does not keep the tables themselves. So a diff is
+ * small and can be cached without keeping the tables in memory.
+ * </p>
+ */
+public final class MetricsDiff {
+    private final int[] addedRows;
+    private final int[] removedRows;
+    private final int[] changedRows;
+    private final int[] changedReferenceRows;
+    private final int unchangedCount;
+    private final Map<String, MetricChanges> changes;
+
+    /**
+     * Compares the class metrics of two builds.
+     *
+     * @param current
+     *         the metrics of the current build
+     * @param reference
+     *         the metrics of the reference build
+     * @param maxChanges
+     *         the maximum number of classes in the lists of the biggest increases and decreases of each metric
+     *
+     * @return the diff
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    public static MetricsDiff compare(final ClassMetricsTable current, final ClassMetricsTable reference,
+            final int maxChanges) {
+        List<MetricColumn> currentColumns = new ArrayList<>();
+        List<MetricColumn> referenceColumns = new ArrayList<>();
+        for (MetricColumn column : current.getColumns()) {
+            reference.getColumn(column.getId()).ifPresent(referenceColumn -> {
+                currentColumns.add(column);
+                referenceColumns.add(referenceColumn);
+            });
+        }
+        int metricCount = currentColumns.size();
+        var increases = new TopChanges[metricCount];
+        var decreases = new TopChanges[metricCount];
+        for (int metric = 0; metric < metricCount; metric++) {
+            increases[metric] = new TopChanges(maxChanges, 1);
+            decreases[metric] = new TopChanges(maxChanges, -1);
+        }
+
+        var matched = new BitSet(reference.getRowCount());
+        var added = new IntList();
+        var changed = new IntList();
+        var changedReference = new IntList();
+        for (int row = 0; row < current.getRowCount(); row++) {
+            var partner = reference.findRow(current.getQualifiedClassName(row));
+            if (partner.isEmpty()) {
+                added.add(row);
+                continue;
+            }
+
+            int referenceRow = partner.getAsInt();
+            matched.set(referenceRow);
+            boolean isChanged = false;
+            for (int metric = 0; metric < metricCount; metric++) {
+                double value = currentColumns.get(metric).getValue(row);
+                double referenceValue = referenceColumns.get(metric).getValue(referenceRow);
+                double delta = value - referenceValue;
+                if (Double.isNaN(delta)) {
+                    isChanged |= Double.isNaN(value) != Double.isNaN(referenceValue);
+                }
+                else if (delta > 0) {
+                    increases[metric].offer(row, referenceRow, delta);
+                    isChanged = true;
+                }
+                else if (delta < 0) {
+                    decreases[metric].offer(row, referenceRow, -delta);
+                    isChanged = true;
+                }
+            }
+            if (isChanged) {
+                changed.add(row);
+                changedReference.add(referenceRow);
+            }
+        }
+
+        var removed = new IntList();
+        for (int row = matched.nextClearBit(0); row < reference.getRowCount(); row = matched.nextClearBit(row + 1)) {
+            removed.add(row);
+        }
+
+        Map<String, MetricChanges> changes = new LinkedHashMap<>();
+        for (int metric = 0; metric < metricCount; metric++) {
+            changes.put(currentColumns.get(metric).getId(),
+                    new MetricChanges(increases[metric].toEntries(), decreases[metric].toEntries()));
+        }
+        int unchanged = current.getRowCount() - added.size() - changed.size();
+        return new MetricsDiff(added.toArray(), removed.toArray(), changed.toArray(), changedReference.toArray(),
+                unchanged, changes);
+    }
+
+    private MetricsDiff(final int[] addedRows, final int[] removedRows, final int[] changedRows,
+            final int[] changedReferenceRows, final int unchangedCount, final Map<String, MetricChanges> changes) {
+        this.addedRows = addedRows;
+        this.removedRows = removedRows;
+        this.changedRows = changedRows;
+        this.changedReferenceRows = changedReferenceRows;
+        this.unchangedCount = unchangedCount;
+        this.changes = changes;
+    }
+
+    /**
+     * Returns the rows of the classes that are part of the current build only.
+     *
+     * @return the rows in the current table
+     */
+    public int[] getAddedRows() {
+        return addedRows.clone();
+    }
+
+    /**
+     * Returns the rows of the classes that are part of the reference build only.
+     *
+     * @return the rows in the reference table
+     */
+    public int[] getRemovedRows() {
+        return removedRows.clone();
+    }
+
+    /**
+     * Returns the rows of the classes that are part of both builds and have at least one changed metric.
+     *
+     * @return the rows in the current table
+     * @see #getChangedReferenceRows()
+     */
+    public int[] getChangedRows() {
+        return changedRows.clone();
+    }
+
+    /**
+     * Returns the rows of the changed classes in the reference table, in the same order as {@link #getChangedRows()}.
+     *
+     * @return the rows in the reference table
+     */
+    public int[] getChangedReferenceRows() {
+        return changedReferenceRows.clone();
+    }
+
+    public int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    /**
+     * Returns the IDs of the metrics that are part of both builds, i.e., the metrics that have been compared.
+     *
+     * @return the IDs of the metrics
+     */
+    public List<String> getMetricIds() {
+        return new ArrayList<>(changes.keySet());
+    }
+
+    /**
+     * Returns the biggest changes of the specified metric.
+     *
+     * @param metricId
+     *         the ID of the metric
+     *
+     * @return the changes, the lists of changes are empty if the metric is not part of both builds
+     */
+    public MetricChanges getChanges(final String metricId) {
+        var metricChanges = changes.get(metricId);
+        if (metricChanges == null) {
+            return new MetricChanges(List.of(), List.of());
+        }
+        return metricChanges;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsDiff[%d added, %d removed, %d changed, %d unchanged]".formatted(addedRows.length,
+                removedRows.length, changedRows.length, unchangedCount);
+    }
+
+    /**
+     * The biggest increases and decreases of a metric.
+     */
+    public static final class MetricChanges {
+        private final List<Change> increases;
+        private final List<Change> decreases;
+
+        MetricChanges(final List<Change> increases, final List<Change> decreases) {
+            this.increases = increases;
+            this.decreases = decreases;
+        }
+
+        /**
+         * Returns the classes with the biggest increase of the metric, the biggest increase first.
+         *
+         * @return the increases
+         */
+        public List<Change> getIncreases() {
+            return Collections.unmodifiableList(increases);
+        }
+
+        /**
+         * Returns the classes with the biggest decrease of the metric, the biggest decrease first.
+         *
+         * @return the decreases
+         */
+        public List<Change> getDecreases() {
+            return Collections.unmodifiableList(decreases);
+        }
+    }
+
+    /**
+     * The change of a metric of a class.
+     *
+     * @param row
+     *         the row of the class in the current table
+     * @param referenceRow
+     *         the row of the class in the reference table
+     * @param delta
+     *         the difference of the values, positive for increases and negative for decreases
+     */
+    public record Change(int row, int referenceRow, double delta) {
+    }
+
+    /**
+     * Min-heap of the rows with the biggest magnitudes of change. The heap is bounded: once it is full, a new change
+     * replaces the smallest change of the heap if it is bigger.
+     */
+    private static final class TopChanges {
+        private final int[] rows;
+        private final int[] referenceRows;
+        private final double[] magnitudes;
+        private final int sign;
+        private int size;
+
+        TopChanges(final int capacity, final int sign) {
+            this.sign = sign;
+            rows = new int[capacity];
+            referenceRows = new int[capacity];
+            magnitudes = new double[capacity];
+        }
+
+        void offer(final int row, final int referenceRow, final double magnitude) {
+            if (size < magnitudes.length) {
+                set(size, row, referenceRow, magnitude);
+                siftUp(size++);
+            }
+            else if (size > 0 && magnitude > magnitudes[0]) {
+                set(0, row, referenceRow, magnitude);
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(final int index) {
+            int child = index;
+            while (child > 0) {
+                int parent = (child - 1) / 2;
+                if (magnitudes[parent] <= magnitudes[child]) {
+                    return;
+                }
+                swap(parent, child);
+                child = parent;
+            }
+        }
+
+        private void siftDown(final int index) {
+            int parent = index;
+            while (2 * parent + 1 < size) {
+                int child = 2 * parent + 1;
+                if (child + 1 < size && magnitudes[child + 1] < magnitudes[child]) {
+                    child++;
+                }
+                if (magnitudes[parent] <= magnitudes[child]) {
+                    return;
+                }
+                swap(parent, child);
+                parent = child;
+            }
+        }
+
+        private void swap(final int first, final int second) {
+            int row = rows[first];
+            int referenceRow = referenceRows[first];
+            double magnitude = magnitudes[first];
+            set(first, rows[second], referenceRows[second], magnitudes[second]);
+            set(second, row, referenceRow, magnitude);
+        }
+
+        private void set(final int index, final int row, final int referenceRow, final double magnitude) {
+            rows[index] = row;
+            referenceRows[index] = referenceRow;
+            magnitudes[index] = magnitude;
+        }
+
+        /**
+         * Returns the changes of the heap, the biggest change first.
+         */
+        List<Change> toEntries() {
+            var entries = new Change[size];
+            for (int i = 0; i < size; i++) {
+                entries[i] = new Change(rows[i], referenceRows[i], sign * magnitudes[i]);
+            }
+            Arrays.sort(entries, (first, second) -> Double.compare(Math.abs(second.delta()), Math.abs(first.delta())));
+            return Arrays.asList(entries);
+        }
+    }
+
+    /**
+     * Growable list of primitive ints.
+     */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -4,26 +4,52 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
 import edu.hm.hafner.util.Generated;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Measurement point of metrics. Combines the location of the measurement with the metrics measured there.
+ *
+ * <p>
+ * The metrics are stored in an array that is sorted by the ordinal of the metric ID (see
+ * {@link MetricDefinitionRegistry}), the ordinals are stored in a parallel array. So the size of a measurement depends
+ * on the number of its metrics only, not on the number of metrics known to the controller. Since ordinals are only
+ * valid within the running JVM, the metrics are serialized as a plain sequence and sorted again on deserialization.
+ * </p>
  */
 public abstract class MetricsMeasurement implements Serializable {
     @Serial
-    private static final long serialVersionUID = 7472039462715167623L;
+    private static final long serialVersionUID = -4012870862264000921L;
 
-    @SuppressWarnings("PMD.LooseCoupling")
-    private final HashMap<String, Metric> metrics;
+    private static final Metric[] NO_METRICS = new Metric[0];
+    private static final int[] NO_ORDINALS = new int[0];
+    private static final int MIN_CAPACITY = 4;
+
+    private transient int[] ordinals = NO_ORDINALS;
+    private transient Metric[] metrics = NO_METRICS;
+    private transient int count;
     private final String fileName;
     private final String packageName;
     private final String className;
 
+    private transient Map<String, Metric> metricsView;
+
     /**
      * Creates a new empty {@link MetricsMeasurement}.
      *
@@ -38,7 +64,7 @@ public abstract class MetricsMeasurement implements Serializable {
      */
     protected MetricsMeasurement(final Map<String, Metric> metrics, final String fileName, final String packageName,
             final String className) {
-        this.metrics = new HashMap<>(metrics);
+        metrics.values().forEach(this::put);
         this.fileName = fileName;
         this.packageName = packageName;
         this.className = className;
@@ -61,12 +87,49 @@ public abstract class MetricsMeasurement implements Serializable {
     }
 
     /**
-     * The metrics reported for this measurement.
+     * The metrics reported for this measurement. Returns a copy of the metrics, use {@link #getMetricsView()} or
+     * {@link #forEachMetric(Consumer)} for read-only access.
      *
      * @return the metrics mapping from metric id to metric
      */
     public Map<String, Metric> getMetrics() {
-        return Map.copyOf(metrics);
+        return new HashMap<>(getMetricsView());
+    }
+
+    /**
+     * Returns an unmodifiable view of the metrics reported for this measurement. In contrast to {@link #getMetrics()}
+     * the metrics are not copied: the view reflects subsequent merges into this measurement.
+     *
+     * @return the metrics mapping from metric id to metric
+     */
+    public Map<String, Metric> getMetricsView() {
+        var view = metricsView;
+        if (view == null) {
+            view = new MetricsMap();
+            metricsView = view;
+        }
+        return view;
+    }
+
+    /**
+     * Performs the given action for each metric of this measurement.
+     *
+     * @param action
+     *         the action to perform
+     */
+    public void forEachMetric(final Consumer<Metric> action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(metrics[i]);
+        }
+    }
+
+    /**
+     * Returns the number of metrics reported for this measurement.
+     *
+     * @return the number of metrics
+     */
+    public int getMetricCount() {
+        return count;
     }
 
     /**
@@ -76,10 +139,76 @@ public abstract class MetricsMeasurement implements Serializable {
      *         the metric to merge
      */
     protected void merge(final Metric metric) {
-        if (metrics.containsKey(metric.getId())) {
+        put(metric);
+    }
+
+    private void put(final Metric metric) {
+        merge(metric, DuplicateMetricPolicy.FAIL);
+    }
+
+    /**
+     * Merges the given metric into this measurement. If this measurement already contains a metric with the same ID,
+     * then the specified policy decides which metric is kept.
+     *
+     * @param metric
+     *         the metric to merge
+     * @param policy
+     *         the policy for duplicate metrics
+     *
+     * @return {@code true} if this measurement already contained a metric with the same ID, {@code false} otherwise
+     * @throws IllegalArgumentException
+     *         if there is a duplicate metric and the policy is {@link DuplicateMetricPolicy#FAIL}
+     */
+    boolean merge(final Metric metric, final DuplicateMetricPolicy policy) {
+        int ordinal = metric.getMetricDefinition().getOrdinal();
+        int index = indexOf(ordinal, metric.getId());
+        if (index < 0) {
+            insert(-index - 1, ordinal, metric);
+            return false;
+        }
+        if (policy == DuplicateMetricPolicy.FAIL) {
             throw new IllegalArgumentException("Metric with id '%s' is already present".formatted(metric.getId()));
         }
-        this.metrics.put(metric.getId(), metric);
+        if (policy == DuplicateMetricPolicy.KEEP_LAST) {
+            metrics[index] = metric;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the metric with the specified ordinal and ID. Metrics with IDs that have not been registered
+     * share the largest ordinal, so they are stored at the end of the array and are compared by ID.
+     *
+     * @param ordinal
+     *         the ordinal of the metric ID
+     * @param id
+     *         the ID of the metric
+     *
+     * @return the index of the metric, or {@code -(insertion point) - 1} if there is no such metric
+     */
+    private int indexOf(final int ordinal, final String id) {
+        if (ordinal != MetricDefinitionRegistry.UNREGISTERED) {
+            return Arrays.binarySearch(ordinals, 0, count, ordinal);
+        }
+        for (int i = count - 1; i >= 0 && ordinals[i] == ordinal; i--) {
+            if (metrics[i].getId().equals(id)) {
+                return i;
+            }
+        }
+        return -count - 1;
+    }
+
+        private void insert(final int index, final int ordinal, final Metric metric) {
+        if (count == metrics.length) {
+            int capacity = Math.max(MIN_CAPACITY, count + (count >> 1));
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            metrics = Arrays.copyOf(metrics, capacity);
+        }
+        System.arraycopy(ordinals, index, ordinals, index + 1, count - index);
+        System.arraycopy(metrics, index, metrics, index + 1, count - index);
+        ordinals[index] = ordinal;
+        metrics[index] = metric;
+        count++;
     }
 
     /**
@@ -92,7 +221,50 @@ public abstract class MetricsMeasurement implements Serializable {
      *         otherwise
      */
     public Optional<Number> getMetric(final String id) {
-        return Optional.ofNullable(getMetrics().get(id)).map(Metric::rawValue);
+        return findMetric(id).map(Metric::rawValue);
+    }
+
+    /**
+     * Finds the metric with the specified id.
+     *
+     * @param id
+     *         the id of the metric to look for
+     *
+     * @return the metric, or an empty {@link Optional} if there is no such metric
+     */
+    public Optional<Metric> findMetric(final String id) {
+        return Optional.ofNullable(lookup(id));
+    }
+
+    private Metric lookup(final Object id) {
+        if (id instanceof String key) {
+            int ordinal = MetricDefinitionRegistry.findOrdinal(key);
+            if (ordinal >= 0) {
+                int index = indexOf(ordinal, key);
+                if (index >= 0) {
+                    return metrics[index];
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of the metric with the specified id as a primitive {@code double}.
+     *
+     * @param id
+     *         the id of the metric to look for
+     * @param defaultValue
+     *         the value to return if there is no such metric
+     *
+     * @return the value of the metric, or the default value if there is no such metric
+     */
+    public double getDouble(final String id, final double defaultValue) {
+        var metric = lookup(id);
+        if (metric == null) {
+            return defaultValue;
+        }
+        return metric.rawValue().doubleValue();
     }
 
     /**
@@ -112,7 +284,7 @@ public abstract class MetricsMeasurement implements Serializable {
             return false;
         }
         var that = (MetricsMeasurement) o;
-        return Objects.equals(metrics, that.metrics)
+        return Objects.equals(getMetricsView(), that.getMetricsView())
                 && Objects.equals(fileName, that.fileName)
                 && Objects.equals(packageName, that.packageName)
                 && Objects.equals(className, that.className);
@@ -121,7 +293,83 @@ public abstract class MetricsMeasurement implements Serializable {
     @Override
     @Generated
     public int hashCode() {
-        return Objects.hash(metrics, fileName, packageName, className);
+        return Objects.hash(getMetricsView(), fileName, packageName, className);
+    }
+
+    @Serial
+    private void writeObject(final ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject();
+        output.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            output.writeObject(metrics[i]);
+        }
+    }
+
+    @Serial
+    private void readObject(final ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        ordinals = NO_ORDINALS;
+        metrics = NO_METRICS;
+        int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            put((Metric) input.readObject());
+        }
+    }
+
+    /**
+     * Read-only {@link Map} view of the metrics array, mapping from metric ID to metric.
+     */
+    private final class MetricsMap extends AbstractMap<String, Metric> {
+        @Override
+        public Metric get(final Object key) {
+            return lookup(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return lookup(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public Set<Entry<String, Metric>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Metric>> iterator() {
+                    return new MetricsIterator();
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            };
+        }
+    }
+
+    /**
+     * Iterates over the metrics array.
+     */
+    private final class MetricsIterator implements Iterator<Entry<String, Metric>> {
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+            return next < count;
+        }
+
+        @Override
+        public Entry<String, Metric> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more metrics in " + getQualifiedClassName());
+            }
+            var metric = metrics[next++];
+            return new SimpleImmutableEntry<>(metric.getId(), metric);
+        }
     }
 
     /**
@@ -0,0 +1,245 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+
+/**
+ * Aggregated metrics of a build. Contains the merged measurements of all metrics providers, so that the views do not
+ * need to query and merge the providers again for every request. Instances are immutable after creation.
+ */
+public final class MetricsSnapshot implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 2093418792616470231L;
+
+    private static final int STRING_SIZE = 64;
+    private static final int METRIC_SIZE = 80;
+    private static final int MEASUREMENT_SIZE = 3 * STRING_SIZE + 128;
+
+    private final ClassMetricsTable classes;
+    private final List<MethodMetricsMeasurement> methodMeasurements;
+    private final int[] methodOffsets;
+    private final List<MetricDefinition> supportedMetrics;
+    private final List<String> projectOverview;
+    private final List<Metric> projectMetrics;
+    private final List<String> incompleteProviders;
+
+    private transient volatile PackageTree packageTree;
+
+    /**
+     * Creates a new {@link MetricsSnapshot}.
+     *
+     * @param classes
+     *         the merged metrics of all classes
+     * @param methodMeasurements
+     *         the merged measurements of all methods
+     * @param supportedMetrics
+     *         the metrics that are available for the build, ordered by their priorities
+     * @param projectOverview
+     *         the project summary entries of all providers
+     * @param projectMetrics
+     *         the project metrics of all providers
+     */
+    public MetricsSnapshot(final ClassMetricsTable classes,
+            final List<MethodMetricsMeasurement> methodMeasurements,
+            final List<MetricDefinition> supportedMetrics,
+            final List<String> projectOverview, final List<Metric> projectMetrics) {
+        this(classes, methodMeasurements, supportedMetrics, projectOverview, projectMetrics, List.of());
+    }
+
+    /**
+     * Creates a new {@link MetricsSnapshot}.
+     *
+     * @param classes
+     *         the merged metrics of all classes
+     * @param methodMeasurements
+     *         the merged measurements of all methods
+     * @param supportedMetrics
+     *         the metrics that are available for the build, ordered by their priorities
+     * @param projectOverview
+     *         the project summary entries of all providers
+     * @param projectMetrics
+     *         the project metrics of all providers
+     * @param incompleteProviders
+     *         the names of the providers that did not deliver their results in time
+     */
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public MetricsSnapshot(final ClassMetricsTable classes,
+            final List<MethodMetricsMeasurement> methodMeasurements,
+            final List<MetricDefinition> supportedMetrics,
+            final List<String> projectOverview, final List<Metric> projectMetrics,
+            final List<String> incompleteProviders) {
+        this.classes = classes;
+        this.methodOffsets = new int[classes.getRowCount() + 1];
+        this.methodMeasurements = groupByClass(classes, methodMeasurements, methodOffsets);
+        this.supportedMetrics = new ArrayList<>(supportedMetrics);
+        this.projectOverview = new ArrayList<>(projectOverview);
+        this.projectMetrics = new ArrayList<>(projectMetrics);
+        this.incompleteProviders = new ArrayList<>(incompleteProviders);
+    }
+
+    /**
+     * Orders the method measurements by the rows of their classes, so that the methods of each class are stored in a
+     * contiguous range. The ranges are recorded in the specified offsets: the methods of the class in row {@code r}
+     * are stored at the positions {@code offsets[r]} (inclusive) to {@code offsets[r + 1]} (exclusive). Methods of
+     * classes that are not part of the class table are stored at the end.
+     */
+    private static List<MethodMetricsMeasurement> groupByClass(final ClassMetricsTable classes,
+            final List<MethodMetricsMeasurement> methods, final int[] offsets) {
+        int rows = classes.getRowCount();
+        var rowOfMethod = new int[methods.size()];
+        var counts = new int[rows + 1];
+        for (int i = 0; i < methods.size(); i++) {
+            rowOfMethod[i] = classes.findRow(methods.get(i).getQualifiedClassName()).orElse(rows);
+            counts[rowOfMethod[i]]++;
+        }
+        for (int row = 0; row < rows; row++) {
+            offsets[row + 1] = offsets[row] + counts[row];
+        }
+
+        var next = Arrays.copyOf(offsets, rows + 1);
+        var grouped = new MethodMetricsMeasurement[methods.size()];
+        for (int i = 0; i < methods.size(); i++) {
+            grouped[next[rowOfMethod[i]]++] = methods.get(i);
+        }
+        return new ArrayList<>(Arrays.asList(grouped));
+    }
+
+    public ClassMetricsTable getClasses() {
+        return classes;
+    }
+
+    /**
+     * Returns the package hierarchy of all classes with the aggregated values of all metrics. The tree is created on
+     * first access and then kept with this snapshot.
+     *
+     * @return the package tree
+     */
+    public PackageTree getPackageTree() {
+        var tree = packageTree;
+        if (tree == null) {
+            tree = PackageTree.create(classes);
+            packageTree = tree;
+        }
+        return tree;
+    }
+
+    /**
+     * Returns the measurements of all methods, grouped by their classes.
+     *
+     * @return the method measurements
+     */
+    public List<MethodMetricsMeasurement> getMethodMeasurements() {
+        return Collections.unmodifiableList(methodMeasurements);
+    }
+
+    /**
+     * Returns the measurements of the methods of the specified class. For classes that are part of the class table
+     * the cost of this lookup is independent of the total number of methods.
+     *
+     * @param qualifiedClassName
+     *         the fully qualified name of the class
+     *
+     * @return the method measurements of the class
+     */
+    public List<MethodMetricsMeasurement> getMethodMeasurements(final String qualifiedClassName) {
+        var row = classes.findRow(qualifiedClassName);
+        if (row.isPresent()) {
+            return Collections.unmodifiableList(
+                    methodMeasurements.subList(methodOffsets[row.getAsInt()], methodOffsets[row.getAsInt() + 1]));
+        }
+        return methodMeasurements.subList(methodOffsets[classes.getRowCount()], methodMeasurements.size())
+                .stream()
+                .filter(method -> method.getQualifiedClassName().equals(qualifiedClassName))
+                .toList();
+    }
+
+    public List<MetricDefinition> getSupportedMetrics() {
+        return Collections.unmodifiableList(supportedMetrics);
+    }
+
+    /**
+     * Returns the metrics that are available for the build and valid for the specified {@link Scope}.
+     *
+     * @param scope
+     *         the scope to get the metrics for
+     *
+     * @return the supported metrics of the given scope, ordered by their priorities
+     */
+    public List<MetricDefinition> getSupportedMetrics(final Scope scope) {
+        return supportedMetrics.stream()
+                .filter(metricDefinition -> metricDefinition.isValidForScope(scope))
+                .collect(Collectors.toList());
+    }
+
+    public List<String> getProjectOverview() {
+        return Collections.unmodifiableList(projectOverview);
+    }
+
+    public List<Metric> getProjectMetrics() {
+        return Collections.unmodifiableList(projectMetrics);
+    }
+
+    /**
+     * Returns the names of the metrics providers that did not deliver their results in time. The metrics of these
+     * providers are missing in this snapshot.
+     *
+     * @return the names of the incomplete providers
+     */
+    public List<String> getIncompleteProviders() {
+        return Collections.unmodifiableList(incompleteProviders);
+    }
+
+    /**
+     * Returns whether this snapshot contains neither class metrics nor project metrics, e.g. since the build has not
+     * been analyzed by any metrics provider.
+     *
+     * @return {@code true} if this snapshot is empty, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return classes.getRowCount() == 0 && projectMetrics.isEmpty();
+    }
+
+    /**
+     * Returns whether all metrics providers did deliver their results.
+     *
+     * @return {@code true} if this snapshot is complete, {@code false} if some metrics are missing
+     */
+    public boolean isComplete() {
+        return incompleteProviders.isEmpty();
+    }
+
+    /**
+     * Returns a rough estimation of the heap memory that is occupied by this snapshot. The estimation is used to limit
+     * the number of snapshots that are held in memory.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getEstimatedSize() {
+        // the package tree (created on demand) is about as large as the class table
+        return 2 * classes.getEstimatedSize() + estimateSize(methodMeasurements)
+                + (long) methodOffsets.length * Integer.BYTES
+                + (long) projectOverview.size() * STRING_SIZE
+                + (long) (supportedMetrics.size() + projectMetrics.size()) * METRIC_SIZE;
+    }
+
+    private long estimateSize(final List<MethodMetricsMeasurement> measurements) {
+        long size = 0;
+        for (MethodMetricsMeasurement measurement : measurements) {
+            size += MEASUREMENT_SIZE + (long) measurement.getMetricCount() * METRIC_SIZE;
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot[%d classes, %d methods, %d metrics]".formatted(
+                classes.getRowCount(), methodMeasurements.size(), supportedMetrics.size());
+    }
+}
@@ -0,0 +1,94 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Project metrics of a sequence of builds of a job, ordered by build number. The values of each metric are stored in
+ * a primitive array that has one entry per build; builds without a value for a metric have the value
+ * {@link Double#NaN}.
+ */
+public final class MetricsTrend {
+    private final int[] buildNumbers;
+    private final long[] timestamps;
+    private final Map<String, String> displayNames;
+    private final Map<String, double[]> valuesByMetric;
+
+    /**
+     * Creates a new {@link MetricsTrend}.
+     *
+     * @param buildNumbers
+     *         the numbers of the builds
+     * @param timestamps
+     *         the timestamps of the builds
+     * @param displayNames
+     *         the display names of the metrics, keyed by metric ID, in the order the metrics should be shown
+     * @param valuesByMetric
+     *         the values of the metrics, keyed by metric ID
+     */
+    public MetricsTrend(final int[] buildNumbers, final long[] timestamps, final Map<String, String> displayNames,
+            final Map<String, double[]> valuesByMetric) {
+        this.buildNumbers = buildNumbers;
+        this.timestamps = timestamps;
+        this.displayNames = displayNames;
+        this.valuesByMetric = valuesByMetric;
+    }
+
+    /**
+     * Returns the number of builds in this trend.
+     *
+     * @return the number of builds
+     */
+    public int size() {
+        return buildNumbers.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int getBuildNumber(final int index) {
+        return buildNumbers[index];
+    }
+
+    public long getTimestamp(final int index) {
+        return timestamps[index];
+    }
+
+    public List<String> getMetricIds() {
+        return new ArrayList<>(displayNames.keySet());
+    }
+
+    /**
+     * Returns the display name of the specified metric.
+     *
+     * @param metricId
+     *         the ID of the metric
+     *
+     * @return the display name, or the ID if the metric is unknown
+     */
+    public String getDisplayName(final String metricId) {
+        return displayNames.getOrDefault(metricId, metricId);
+    }
+
+    /**
+     * Returns the value of the specified metric for a build of this trend.
+     *
+     * @param metricId
+     *         the ID of the metric
+     * @param index
+     *         the index of the build in this trend
+     *
+     * @return the value, or {@link Double#NaN} if the build has no value for this metric
+     */
+    public double getValue(final String metricId, final int index) {
+        var values = valuesByMetric.get(metricId);
+        return values == null ? Double.NaN : values[index];
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsTrend[%d builds, %d metrics]".formatted(size(), displayNames.size());
+    }
+}
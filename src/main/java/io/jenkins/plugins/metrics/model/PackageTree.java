@@ -0,0 +1,237 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * Package hierarchy of all classes of a {@link ClassMetricsTable}, with the aggregated values of all metrics. The
+ * qualified class names are split at each dot: inner nodes represent packages, leaves represent classes. Each node
+ * stores the sum of each metric over all classes below the node, using one primitive array per metric. Hence, the tree
+ * is built once and can be used to render the tree map of any metric.
+ *
+ * <p>
+ * Nodes are identified by an integer ID, the root has the ID {@link #ROOT}. The root has an empty name.
+ * </p>
+ */
+public final class PackageTree {
+    /** The ID of the root node. */
+    public static final int ROOT = 0;
+
+    private static final int[] LEAF = new int[0];
+
+    private final String[] names;
+    private final int[] parents;
+    private final int[][] children;
+    private final Map<String, double[]> valuesByMetric;
+
+    /**
+     * Creates the package tree for the specified classes.
+     *
+     * @param classes
+     *         the classes
+     *
+     * @return the package tree
+     */
+    public static PackageTree create(final ClassMetricsTable classes) {
+        List<String> names = new ArrayList<>();
+        List<Integer> parents = new ArrayList<>();
+        List<Map<String, Integer>> childIndex = new ArrayList<>();
+        names.add("");
+        parents.add(-1);
+        childIndex.add(new HashMap<>());
+
+        var leafOfRow = new int[classes.getRowCount()];
+        for (int row = 0; row < classes.getRowCount(); row++) {
+            int node = ROOT;
+            var qualifiedName = classes.getQualifiedClassName(row);
+            int start = 0;
+            while (start <= qualifiedName.length()) {
+                int end = qualifiedName.indexOf('.', start);
+                if (end < 0) {
+                    end = qualifiedName.length();
+                }
+                var name = qualifiedName.substring(start, end);
+                var child = childIndex.get(node).get(name);
+                if (child == null) {
+                    child = names.size();
+                    names.add(name);
+                    parents.add(node);
+                    childIndex.add(new HashMap<>());
+                    childIndex.get(node).put(name, child);
+                }
+                node = child;
+                start = end + 1;
+            }
+            leafOfRow[row] = node;
+        }
+
+        int size = names.size();
+        var parentArray = new int[size];
+        for (int node = 0; node < size; node++) {
+            parentArray[node] = parents.get(node);
+        }
+        var childCounts = new int[size];
+        for (int node = 1; node < size; node++) {
+            childCounts[parentArray[node]]++;
+        }
+        var childArrays = new int[size][];
+        for (int node = 0; node < size; node++) {
+            childArrays[node] = childCounts[node] == 0 ? LEAF : new int[childCounts[node]];
+            childCounts[node] = 0;
+        }
+        for (int node = 1; node < size; node++) {
+            int parent = parentArray[node];
+            childArrays[parent][childCounts[parent]++] = node;
+        }
+
+        Map<String, double[]> valuesByMetric = new HashMap<>();
+        for (MetricColumn column : classes.getColumns()) {
+            var values = new double[size];
+            for (int row = 0; row < classes.getRowCount(); row++) {
+                double value = column.getValue(row);
+                if (Double.isFinite(value)) {
+                    for (int node = leafOfRow[row]; node >= 0; node = parentArray[node]) {
+                        values[node] += value;
+                    }
+                }
+            }
+            valuesByMetric.put(column.getId(), values);
+        }
+
+        return new PackageTree(names.toArray(new String[0]), parentArray, childArrays, valuesByMetric);
+    }
+
+    private PackageTree(final String[] names, final int[] parents, final int[][] children,
+            final Map<String, double[]> valuesByMetric) {
+        this.names = names;
+        this.parents = parents;
+        this.children = children;
+        this.valuesByMetric = valuesByMetric;
+    }
+
+    /**
+     * Returns the number of nodes in this tree.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(final int node) {
+        return names[node];
+    }
+
+    /**
+     * Returns the parent of the specified node.
+     *
+     * @param node
+     *         the node
+     *
+     * @return the ID of the parent, or -1 for the root
+     */
+    public int getParent(final int node) {
+        return parents[node];
+    }
+
+    public int getChildCount(final int node) {
+        return children[node].length;
+    }
+
+    /**
+     * Returns the child at the specified position.
+     *
+     * @param node
+     *         the parent node
+     * @param index
+     *         the position of the child
+     *
+     * @return the ID of the child
+     */
+    public int getChild(final int node, final int index) {
+        return children[node][index];
+    }
+
+    /**
+     * Returns the aggregated value of the specified metric for the specified node, i.e., the sum of the metric over all
+     * classes below the node.
+     *
+     * @param metricId
+     *         the ID of the metric
+     * @param node
+     *         the node
+     *
+     * @return the aggregated value, or 0 if the metric is unknown
+     */
+    public double getValue(final String metricId, final int node) {
+        var values = valuesByMetric.get(metricId);
+        return values == null ? 0.0 : values[node];
+    }
+
+    /**
+     * Returns the path of the specified node, i.e., the names of all nodes from the root to the node, joined by dots.
+     *
+     * @param node
+     *         the node
+     *
+     * @return the path of the node, or an empty string for the root
+     */
+    public String getPath(final int node) {
+        if (node == ROOT) {
+            return "";
+        }
+        var parentPath = getPath(parents[node]);
+        return parentPath.isEmpty() ? names[node] : parentPath + '.' + names[node];
+    }
+
+    /**
+     * Finds the node with the specified path.
+     *
+     * @param path
+     *         the path of the node, see {@link #getPath(int)}
+     *
+     * @return the ID of the node, or an empty result if there is no such node
+     */
+    public OptionalInt findNode(final String path) {
+        int node = ROOT;
+        int start = 0;
+        while (!path.isEmpty() && start <= path.length()) {
+            int end = path.indexOf('.', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            node = findChild(node, path.substring(start, end));
+            if (node < 0) {
+                return OptionalInt.empty();
+            }
+            start = end + 1;
+        }
+        return OptionalInt.of(node);
+    }
+
+    private int findChild(final int node, final String name) {
+        for (int child : children[node]) {
+            if (names[child].equals(name)) {
+                return child;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a rough estimation of the heap memory that is occupied by this tree.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getEstimatedSize() {
+        return (long) size() * (64 + 3 * Integer.BYTES + valuesByMetric.size() * Double.BYTES);
+    }
+
+    @Override
+    public String toString() {
+        return "PackageTree[%d nodes, %d metrics]".formatted(size(), valuesByMetric.size());
+    }
+}
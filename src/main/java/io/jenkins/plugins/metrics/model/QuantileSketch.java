@@ -0,0 +1,292 @@
+package io.jenkins.plugins.metrics.model;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Mergeable sketch of the distribution of the values of a metric, based on the KLL algorithm (Karnin, Lang, Liberty:
+ * Optimal Quantile Approximation in Streams). The sketch keeps a bounded number of values, organized in levels: each
+ * value of level {@code h} represents {@code 2^h} original values. If a level exceeds its capacity, then it is sorted
+ * and every second value is promoted to the next level. Thus, the size of the sketch (and the cost of all queries)
+ * depends only on the accuracy parameter {@code k}, not on the number of values added. As long as fewer than
+ * {@code k} values have been added, the sketch is exact.
+ *
+ * <p>
+ * The minimum, the maximum and the number of values are tracked exactly.
+ * </p>
+ */
+public final class QuantileSketch implements Serializable {
+    @Serial
+    private static final long serialVersionUID = -7107713417829758311L;
+
+    /** The default accuracy parameter, yields a rank error of roughly 1.5%. */
+    public static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 2;
+
+    private final int k;
+    private double[][] levels = {new double[0]};
+    private int[] sizes = {0};
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private boolean compactOdd;
+
+    /**
+     * Creates a new empty sketch with the default accuracy.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates a new empty sketch.
+     *
+     * @param k
+     *         the accuracy parameter: larger values yield more accurate results but require more memory
+     */
+    public QuantileSketch(final int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("Accuracy parameter must be at least %d: %d".formatted(MIN_CAPACITY, k));
+        }
+        this.k = k;
+    }
+
+    /**
+     * Adds the specified value. Values that are not finite are ignored.
+     *
+     * @param value
+     *         the value to add
+     */
+    public void add(final double value) {
+        if (!Double.isFinite(value)) {
+            return;
+        }
+        min = count == 0 ? value : Math.min(min, value);
+        max = count == 0 ? value : Math.max(max, value);
+        count++;
+
+        append(0, value);
+        compress();
+    }
+
+    /**
+     * Merges the specified sketch into this sketch.
+     *
+     * @param other
+     *         the sketch to merge
+     */
+    public void merge(final QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        compress();
+    }
+
+    private void append(final int level, final double value) {
+        ensureLevel(level);
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_CAPACITY, sizes[level] * 2));
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void ensureLevel(final int level) {
+        if (level >= levels.length) {
+            int previous = levels.length;
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            for (int i = previous; i <= level; i++) {
+                levels[i] = new double[0];
+            }
+        }
+    }
+
+    private int getCapacity(final int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            if (sizes[level] > getCapacity(level)) {
+                compact(level);
+            }
+        }
+    }
+
+    private void compact(final int level) {
+        var values = levels[level];
+        int size = sizes[level];
+        Arrays.sort(values, 0, size);
+
+        // an odd number of values: the largest value stays on this level
+        int pairs = size / 2;
+        int offset = compactOdd ? 1 : 0;
+        compactOdd = !compactOdd;
+        for (int i = 0; i < pairs; i++) {
+            append(level + 1, values[2 * i + offset]);
+        }
+        if (size % 2 == 1) {
+            values[0] = values[size - 1];
+            sizes[level] = 1;
+        }
+        else {
+            sizes[level] = 0;
+        }
+    }
+
+    /**
+     * Returns the number of values that have been added.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the smallest value that has been added.
+     *
+     * @return the minimum, or {@link Double#NaN} if the sketch is empty
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value that has been added.
+     *
+     * @return the maximum, or {@link Double#NaN} if the sketch is empty
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns an estimation of the specified quantile.
+     *
+     * @param quantile
+     *         the quantile, in the range {@code [0, 1]}
+     *
+     * @return the estimated value of the quantile, or {@link Double#NaN} if the sketch is empty
+     */
+    public double getQuantile(final double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (quantile <= 0) {
+            return min;
+        }
+        if (quantile >= 1) {
+            return max;
+        }
+
+        var sorted = getSortedValues();
+        double rank = quantile * count; // the weights sum up to the count
+        long weight = 0;
+        for (int i = 0; i < sorted.values.length; i++) {
+            weight += sorted.weights[i];
+            if (weight >= rank) {
+                return sorted.values[i];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Performs the given action for each value retained in this sketch. Each retained value represents a number of
+     * the original values (its weight). The sum of all weights equals the number of added values.
+     *
+     * @param action
+     *         the action to perform
+     */
+    public void forEachValue(final WeightedValueConsumer action) {
+        for (int level = 0; level < levels.length; level++) {
+            long weight = 1L << level;
+            for (int i = 0; i < sizes[level]; i++) {
+                action.accept(levels[level][i], weight);
+            }
+        }
+    }
+
+    private WeightedValues getSortedValues() {
+        int size = 0;
+        for (int level = 0; level < levels.length; level++) {
+            size += sizes[level];
+        }
+        var values = new double[size];
+        var weights = new long[size];
+        var index = new int[] {0};
+        forEachValue((value, weight) -> {
+            values[index[0]] = value;
+            weights[index[0]++] = weight;
+        });
+
+        var order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        var sortedValues = new double[size];
+        var sortedWeights = new long[size];
+        for (int i = 0; i < size; i++) {
+            sortedValues[i] = values[order[i]];
+            sortedWeights[i] = weights[order[i]];
+        }
+        return new WeightedValues(sortedValues, sortedWeights);
+    }
+
+    /**
+     * Returns a rough estimation of the heap memory that is occupied by this sketch.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getEstimatedSize() {
+        long size = 0;
+        for (double[] level : levels) {
+            size += (long) level.length * Double.BYTES;
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch[count=%d, min=%s, max=%s]".formatted(count, min, max);
+    }
+
+    /**
+     * Consumer of the weighted values of a {@link QuantileSketch}.
+     */
+    @FunctionalInterface
+    public interface WeightedValueConsumer {
+        /**
+         * Performs this operation on the given value.
+         *
+         * @param value
+         *         the value
+         * @param weight
+         *         the number of original values represented by the value
+         */
+        void accept(double value, long weight);
+    }
+
+    private record WeightedValues(double[] values, long[] weights) {
+    }
+}
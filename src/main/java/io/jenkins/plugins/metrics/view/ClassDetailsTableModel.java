@@ -1,5 +1,8 @@
 package io.jenkins.plugins.metrics.view;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +68,26 @@ public class ClassDetailsTableModel extends TableModel {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Writes all rows of the table as the property {@code rows} of a JSON object. The rows are created one at a time
+     * while writing, so that they do not need to be kept in memory.
+     *
+     * @param generator
+     *         the generator to write to
+     *
+     * @throws IOException
+     *         if the rows cannot be written
+     */
+    void writeRows(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("rows");
+        for (MethodMetricsMeasurement measurement : metricsMeasurements) {
+            generator.writeObject(new Row(measurement));
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
     @Override
     public TableConfiguration getTableConfiguration() {
         return new TableConfiguration()
@@ -101,7 +124,7 @@ public class ClassDetailsTableModel extends TableModel {
          * @return the map of metrics
          */
         public Map<String, String> getMetricsDisplay() {
-            return metricsMeasurement.getMetrics()
+            return metricsMeasurement.getMetricsView()
                     .values().stream()
                     .collect(Collectors.toMap(Metric::getId, Metric::renderValue));
         }
@@ -112,7 +135,7 @@ public class ClassDetailsTableModel extends TableModel {
          * @return the map of metrics
          */
         public Map<String, Number> getMetricsRaw() {
-            return metricsMeasurement.getMetrics()
+            return metricsMeasurement.getMetricsView()
                     .values().stream()
                     .collect(Collectors.toMap(Metric::getId, Metric::rawValue));
         }
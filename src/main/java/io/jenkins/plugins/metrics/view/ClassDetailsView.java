@@ -1,27 +1,26 @@
 package io.jenkins.plugins.metrics.view;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
 import org.kohsuke.stapler.export.ExportedBean;
+import org.kohsuke.stapler.verb.GET;
 import hudson.model.ModelObject;
 import hudson.model.Run;
 
 import io.jenkins.plugins.datatables.DefaultAsyncTableContentProvider;
 import io.jenkins.plugins.datatables.TableModel;
-import io.jenkins.plugins.metrics.extension.MetricsProvider;
-import io.jenkins.plugins.metrics.extension.MetricsProviderFactory;
-import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
-import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.extension.MetricsHistoryStore;
 import io.jenkins.plugins.metrics.model.MethodMetricsMeasurement;
-import io.jenkins.plugins.metrics.model.MethodMetricsMeasurement.MethodMetricsMeasurementBuilder;
-import io.jenkins.plugins.metrics.model.Metric;
+import io.jenkins.plugins.metrics.model.MetricColumn;
 import io.jenkins.plugins.metrics.model.MetricDefinition;
 import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
-import io.jenkins.plugins.metrics.model.MetricsMeasurement;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
 
 /**
  * Detail view for displaying metrics information for a specific class.
@@ -30,67 +29,71 @@ import io.jenkins.plugins.metrics.model.MetricsMeasurement;
  */
 @ExportedBean
 public class ClassDetailsView extends DefaultAsyncTableContentProvider implements ModelObject {
+    private static final JacksonFacade JACKSON = new JacksonFacade();
+    private static final MetricsHistoryStore HISTORY = new MetricsHistoryStore();
+    private static final int HISTORY_BUILDS = 50;
+
     private final Run<?, ?> owner;
+    private final String link;
     private final List<MethodMetricsMeasurement> methodMetricsMeasurements;
-    private final ClassMetricsMeasurement classMetricsMeasurement;
+    private final String packageName;
+    private final String className;
     private final List<MetricDefinition> supportedMetrics;
     private final Map<String, String> classOverview;
+    private final boolean complete;
 
     /**
      * Details view for a class.
      *
      * @param owner
      *         the owning {@link Run}
+     * @param snapshot
+     *         the aggregated metrics of the build
      * @param className
      *         the className for which the metrics should be shown
      */
-    public ClassDetailsView(final Run<?, ?> owner, final String className) {
+    public ClassDetailsView(final Run<?, ?> owner, final MetricsSnapshot snapshot, final String className) {
         super();
 
         this.owner = owner;
-
-        List<MetricsMeasurement> allMeasurements = MetricsProviderFactory.findAllFor(owner)
-                .stream()
-                .map(MetricsProvider::getMetricsMeasurements)
-                .flatMap(List::stream)
-                .filter(m -> m.getQualifiedClassName().equals(className))
-                .filter(Objects::nonNull)
-                .toList();
-
-        methodMetricsMeasurements = allMeasurements.stream()
-                .filter(MethodMetricsMeasurement.class::isInstance)
-                .map(MethodMetricsMeasurement.class::cast)
-                .collect(Collectors.groupingBy(MethodMetricsMeasurement::getMethodName))
-                .values().stream()
-                .map(measurementsPerMethod -> measurementsPerMethod.stream()
-                        .reduce(MethodMetricsMeasurement::merge)
-                        .orElse(new MethodMetricsMeasurementBuilder().build()))
-                .collect(Collectors.toList());
-
-        classMetricsMeasurement = allMeasurements.stream()
-                .filter(ClassMetricsMeasurement.class::isInstance)
-                .map(ClassMetricsMeasurement.class::cast)
-                .reduce(ClassMetricsMeasurement::merge)
-                .orElse(new ClassMetricsMeasurementBuilder().build());
-
-        supportedMetrics = MetricsProviderFactory.findAllAvailableMetricsFor(owner)
-                .stream()
-                .filter(metricDefinition -> metricDefinition.isValidForScope(Scope.METHOD))
-                .collect(Collectors.toList());
-
-        classOverview = classMetricsMeasurement.getMetrics()
-                .values().stream()
-                .collect(Collectors.toMap(metric -> metric.getMetricDefinition().getDisplayName(),
-                        Metric::renderValue));
+        this.link = className;
+        this.complete = snapshot.isComplete();
+
+        methodMetricsMeasurements = snapshot.getMethodMeasurements(className);
+
+        supportedMetrics = snapshot.getSupportedMetrics(Scope.METHOD);
+
+        classOverview = new HashMap<>();
+        var classes = snapshot.getClasses();
+        var row = classes.findRow(className);
+        if (row.isPresent()) {
+            this.packageName = classes.getPackageName(row.getAsInt());
+            this.className = classes.getClassName(row.getAsInt());
+            for (MetricColumn column : classes.getColumns()) {
+                if (column.isPresent(row.getAsInt())) {
+                    classOverview.put(column.getMetricDefinition().getDisplayName(),
+                            column.renderValue(row.getAsInt()));
+                }
+            }
+        }
+        else {
+            this.packageName = "";
+            this.className = "";
+        }
     }
 
     @Override
     public String getDisplayName() {
-        return Messages.metrics_for(classMetricsMeasurement.getClassName());
+        return Messages.metrics_for(className);
     }
 
     public String getPackageName() {
-        return classMetricsMeasurement.getPackageName();
+        return packageName;
+    }
+
+    @SuppressWarnings("unused") // used by jelly view
+    public String getQualifiedClassName() {
+        return link;
     }
 
     /**
@@ -103,6 +106,17 @@ public class ClassDetailsView extends DefaultAsyncTableContentProvider implement
         return owner;
     }
 
+    /**
+     * Returns the URL of this view, relative to the context root of Jenkins. The streaming endpoints of this view are
+     * located below this URL.
+     *
+     * @return the URL of this view
+     */
+    @SuppressWarnings("unused") // used by jelly view
+    public String getUrl() {
+        return owner.getUrl() + MetricsViewAction.ID + "/" + link + "/";
+    }
+
     @JavaScriptMethod
     @SuppressWarnings("unused") // used by jelly view
     public List<MetricDefinition> getSupportedMetrics() {
@@ -119,15 +133,50 @@ public class ClassDetailsView extends DefaultAsyncTableContentProvider implement
         return classOverview;
     }
 
-    @JavaScriptMethod
-    @SuppressWarnings("unused") // used by jelly view
-    public String getMetricsJSON() {
-        return toJson(new ClassDetailsTableModel(supportedMetrics, methodMetricsMeasurements));
+    /**
+     * Streams the history of all metrics of the class in the latest builds, up to the build of this view.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     *
+     * @throws IOException
+     *         if the response cannot be written
+     */
+    @GET
+    @SuppressWarnings("unused") // used by trend-chart.js
+    public void doHistory(final StaplerRequest2 request, final StaplerResponse2 response) throws IOException {
+        if (ConditionalRequests.isNotModified(request, response, owner, () -> complete)) {
+            return;
+        }
+        var history = HISTORY.read(owner.getParent(), link, owner.getNumber(), HISTORY_BUILDS);
+        JsonResponse.send(request, response, generator -> MetricsJobAction.writeTrend(generator, history));
+    }
+
+    /**
+     * Streams the rows of the methods table.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     *
+     * @throws IOException
+     *         if the response cannot be written
+     */
+    @GET
+    @SuppressWarnings("unused") // used by table.js
+    public void doMetrics(final StaplerRequest2 request, final StaplerResponse2 response) throws IOException {
+        if (ConditionalRequests.isNotModified(request, response, owner, () -> complete)) {
+            return;
+        }
+        JsonResponse.send(request, response,
+                new ClassDetailsTableModel(supportedMetrics, methodMetricsMeasurements)::writeRows);
     }
 
     private String toJson(final Object object) {
-        var facade = new JacksonFacade();
-        return facade.toJson(object);
+        return JACKSON.toJson(object);
     }
 
     @Override
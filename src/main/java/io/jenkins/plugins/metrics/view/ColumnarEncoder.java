@@ -0,0 +1,193 @@
+package io.jenkins.plugins.metrics.view;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.MetricColumn;
+import io.jenkins.plugins.metrics.model.MetricColumn.ValueType;
+
+/**
+ * Encodes rows and columns of a {@link ClassMetricsTable} into a compact binary columnar format, that is decoded by
+ * {@code columnar.js}. Rather than repeating the metric IDs and rendered values in each row, the values of each metric
+ * are sent as a single typed array, and the package names are dictionary encoded.
+ *
+ * <p>
+ * All numbers are little-endian. Every section starts at a multiple of 8 bytes, so that the browser can map the
+ * sections onto typed arrays without copying. The layout is:
+ * </p>
+ * <ol>
+ *     <li>the magic bytes {@code MCOL}, the format version and the length of the header (int32 each)</li>
+ *     <li>the header as UTF-8 JSON object: the number of rows ({@code rowCount}), the package dictionary
+ *     ({@code packages}), the simple class name of each row ({@code classes}), the columns ({@code columns} with
+ *     {@code id}, {@code type} and for custom metrics the {@code rendered} values), plus additional metadata</li>
+ *     <li>the index of the package of each row in the dictionary (int32 per row)</li>
+ *     <li>for each column, in the order of the header: {@link ValueType#INTEGER integer} columns as int32 values
+ *     followed by a presence bitmap (one bit per row, least significant bit first), all other columns as float64
+ *     values with {@code NaN} for missing values</li>
+ * </ol>
+ */
+final class ColumnarEncoder {
+    /** The version of the format. */
+    static final int VERSION = 1;
+    /** The content type of the format. */
+    static final String CONTENT_TYPE = "application/octet-stream";
+
+    private static final byte[] MAGIC = "MCOL".getBytes(StandardCharsets.US_ASCII);
+    private static final int ALIGNMENT = 8;
+    private static final int BUFFER_SIZE = 8192;
+    private static final JacksonFacade JACKSON = new JacksonFacade();
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final OutputStream output;
+    private long position;
+
+    /**
+     * Writes the specified rows and columns of a table.
+     *
+     * @param classes
+     *         the table
+     * @param rows
+     *         the rows to write, in the order of the output
+     * @param columns
+     *         the columns to write
+     * @param metadata
+     *         additional properties of the header
+     * @param output
+     *         the stream to write to, the stream is not closed
+     *
+     * @throws IOException
+     *         if the content cannot be written
+     */
+    static void write(final ClassMetricsTable classes, final int[] rows, final Collection<MetricColumn> columns,
+            final Map<String, Object> metadata, final OutputStream output) throws IOException {
+        var encoder = new ColumnarEncoder(output);
+
+        List<String> packages = new ArrayList<>();
+        Map<String, Integer> packageIndex = new HashMap<>();
+        var packageOfRow = new int[rows.length];
+        var classNames = new String[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            packageOfRow[i] = packageIndex.computeIfAbsent(classes.getPackageName(rows[i]), name -> {
+                packages.add(name);
+                return packages.size() - 1;
+            });
+            classNames[i] = classes.getClassName(rows[i]);
+        }
+
+        Map<String, Object> header = new LinkedHashMap<>(metadata);
+        header.put("rowCount", rows.length);
+        header.put("packages", packages);
+        header.put("classes", classNames);
+        header.put("columns", columns.stream().map(column -> createColumnHeader(column, rows)).toList());
+
+        var headerBytes = JACKSON.toJson(header).getBytes(StandardCharsets.UTF_8);
+        encoder.putBytes(MAGIC);
+        encoder.putInt(VERSION);
+        encoder.putInt(headerBytes.length);
+        encoder.putBytes(headerBytes);
+        encoder.align();
+
+        for (int index : packageOfRow) {
+            encoder.putInt(index);
+        }
+        encoder.align();
+
+        for (MetricColumn column : columns) {
+            if (column.getValueType() == ValueType.INTEGER) {
+                encoder.putIntegers(column, rows);
+            }
+            else {
+                encoder.putDoubles(column, rows);
+            }
+            encoder.align();
+        }
+        encoder.flush();
+    }
+
+    private static Map<String, Object> createColumnHeader(final MetricColumn column, final int[] rows) {
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("id", column.getId());
+        header.put("type", column.getValueType().name());
+        if (column.getValueType() == ValueType.CUSTOM) {
+            var rendered = new String[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                rendered[i] = column.isPresent(rows[i]) ? column.renderValue(rows[i]) : null;
+            }
+            header.put("rendered", rendered);
+        }
+        return header;
+    }
+
+    private ColumnarEncoder(final OutputStream output) {
+        this.output = output;
+    }
+
+    private void putIntegers(final MetricColumn column, final int[] rows) throws IOException {
+        for (int row : rows) {
+            putInt(column.isPresent(row) ? column.getRawValue(row).intValue() : 0);
+        }
+        align();
+
+        var presence = new byte[(rows.length + Byte.SIZE - 1) / Byte.SIZE];
+        for (int i = 0; i < rows.length; i++) {
+            if (column.isPresent(rows[i])) {
+                presence[i / Byte.SIZE] |= (byte) (1 << (i % Byte.SIZE));
+            }
+        }
+        putBytes(presence);
+    }
+
+    private void putDoubles(final MetricColumn column, final int[] rows) throws IOException {
+        for (int row : rows) {
+            ensureCapacity(Double.BYTES);
+            buffer.putDouble(column.getValue(row));
+            position += Double.BYTES;
+        }
+    }
+
+    private void putInt(final int value) throws IOException {
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(value);
+        position += Integer.BYTES;
+    }
+
+    private void putBytes(final byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensureCapacity(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        position += bytes.length;
+    }
+
+    private void align() throws IOException {
+        while (position % ALIGNMENT != 0) {
+            ensureCapacity(1);
+            buffer.put((byte) 0);
+            position++;
+        }
+    }
+
+    private void ensureCapacity(final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        output.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+}
@@ -0,0 +1,150 @@
+package io.jenkins.plugins.metrics.view;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.extension.MetricsProviderFactory;
+import io.jenkins.plugins.util.JenkinsFacade;
+
+/**
+ * Handles conditional requests (HTTP {@code If-None-Match}) for the streaming endpoints of the metrics views. The
+ * metrics of a completed build never change, as long as the same set of {@link MetricsProviderFactory} extensions and
+ * the same version of this plugin are installed. Hence, the responses get a strong ETag that is derived from these
+ * three values, and a request that already has the current content is answered with 304 (Not Modified) before the
+ * metrics are even loaded.
+ *
+ * <p>
+ * Responses of running builds and of incomplete snapshots (where some providers did not finish in time) get no ETag,
+ * since their content might change with the next request. Development builds of the plugin (without an implementation
+ * version in the manifest) do not use ETags either.
+ * </p>
+ */
+final class ConditionalRequests {
+    private static final String PLUGIN_VERSION = ConditionalRequests.class.getPackage().getImplementationVersion();
+
+    /**
+     * Responses are specific to the permissions of the user, so shared caches must not store them. Browsers store the
+     * responses, but revalidate them on each use: the content changes if the plugin or a provider is installed or
+     * updated, and revalidation costs just a comparison of the ETag.
+     */
+    static final String CACHE_CONTROL = "private, no-cache";
+
+    private ConditionalRequests() {
+        // prevents instantiation
+    }
+
+    /**
+     * Answers the specified request with 304 (Not Modified) if the client already has the current content. Otherwise,
+     * the validators of the content are added to the response if the content can be cached.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     * @param build
+     *         the build that is shown
+     * @param isComplete
+     *         determines whether the content of the response is complete, i.e., whether all metrics providers
+     *         finished in time. Called only if the request is not answered with 304.
+     *
+     * @return {@code true} if the request has been answered with 304, {@code false} if the content needs to be sent
+     */
+    static boolean isNotModified(final StaplerRequest2 request, final StaplerResponse2 response,
+            final Run<?, ?> build, final BooleanSupplier isComplete) {
+        var etag = createETag(request, build);
+        if (etag.isEmpty()) {
+            return false;
+        }
+
+        if (matches(request.getHeader("If-None-Match"), etag.get())) {
+            addValidators(response, etag.get());
+            response.setStatus(StaplerResponse2.SC_NOT_MODIFIED);
+            return true;
+        }
+        if (isComplete.getAsBoolean()) {
+            addValidators(response, etag.get());
+        }
+        return false;
+    }
+
+    private static void addValidators(final StaplerResponse2 response, final String etag) {
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+        response.setHeader("Vary", "Accept-Encoding");
+    }
+
+    private static Optional<String> createETag(final StaplerRequest2 request, final Run<?, ?> build) {
+        if (build.isBuilding() || PLUGIN_VERSION == null) {
+            return Optional.empty();
+        }
+
+        var providers = new JenkinsFacade().getExtensionsFor(MetricsProviderFactory.class).stream()
+                .map(factory -> factory.getClass().getName())
+                .toList();
+        // the compressed and the uncompressed response are different representations of the content
+        var encoding = StringUtils.contains(request.getHeader("Accept-Encoding"), "gzip") ? "gzip" : "identity";
+
+        return Optional.of(createETag(build.getExternalizableId(), providers, PLUGIN_VERSION, encoding));
+    }
+
+    /**
+     * Creates a strong ETag for the metrics of a build.
+     *
+     * @param buildId
+     *         the external ID of the build
+     * @param providers
+     *         the names of all installed metrics providers
+     * @param version
+     *         the version of this plugin
+     * @param encoding
+     *         the content encoding of the response
+     *
+     * @return the ETag, including the quotes
+     */
+    static String createETag(final String buildId, final Collection<String> providers, final String version,
+            final String encoding) {
+        var identity = String.join("\n", buildId, String.join(",", providers.stream().sorted().toList()), version);
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(identity.getBytes(StandardCharsets.UTF_8));
+            return '"' + HexFormat.of().formatHex(hash, 0, 16) + '-' + encoding + '"';
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", exception);
+        }
+    }
+
+    /**
+     * Determines whether the specified {@code If-None-Match} header matches the ETag. As defined by RFC 9110, the
+     * header contains a list of ETags or {@code *}, and the ETags are compared using the weak comparison function.
+     *
+     * @param ifNoneMatch
+     *         the value of the header, might be {@code null}
+     * @param etag
+     *         the current ETag
+     *
+     * @return {@code true} if the header matches, {@code false} otherwise
+     */
+    static boolean matches(final String ifNoneMatch, final String etag) {
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : StringUtils.split(ifNoneMatch, ',')) {
+            var tag = StringUtils.removeStart(candidate.trim(), "W/");
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,263 @@
+package io.jenkins.plugins.metrics.view;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.verb.GET;
+import hudson.Extension;
+import hudson.model.AbstractItem;
+import hudson.model.Action;
+import hudson.model.ItemGroup;
+import hudson.model.Job;
+import jenkins.model.TransientActionFactory;
+
+import io.jenkins.plugins.metrics.extension.FolderMetricsAggregator;
+import io.jenkins.plugins.metrics.model.BranchMetrics;
+import io.jenkins.plugins.metrics.model.BranchMetrics.ClassValue;
+import io.jenkins.plugins.metrics.model.FolderMetrics;
+
+import static io.jenkins.plugins.metrics.view.MetricsJobAction.*;
+
+/**
+ * A folder action that shows the combined class metrics of the last completed builds of all jobs of the folder, e.g.,
+ * of all branches of a multibranch project. The metrics are combined by the {@link FolderMetricsAggregator} and
+ * streamed to the view as JSON.
+ */
+public class FolderMetricsAction implements Action {
+    private final AbstractItem owner;
+    private final ItemGroup<?> folder;
+
+    private FolderMetrics metrics;
+
+    /**
+     * Creates a new instance of {@link FolderMetricsAction}.
+     *
+     * @param owner
+     *         the folder that owns this action
+     */
+    public FolderMetricsAction(final AbstractItem owner) {
+        this.owner = owner;
+        this.folder = (ItemGroup<?>) owner;
+    }
+
+    public AbstractItem getOwner() {
+        return owner;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return MetricsViewAction.NAME;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return METRICS_ICON;
+    }
+
+    @Override
+    public String getUrlName() {
+        return MetricsViewAction.ID;
+    }
+
+    /**
+     * Returns the URL of this action, relative to the context root of Jenkins.
+     *
+     * @return the URL
+     */
+    @SuppressWarnings("unused") // used by jelly view
+    public String getUrl() {
+        return owner.getUrl() + MetricsViewAction.ID + "/";
+    }
+
+    /**
+     * Returns the combined metrics of the jobs of the folder. Only the jobs that are visible to the current user are
+     * combined.
+     *
+     * @return the combined metrics
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    synchronized FolderMetrics getMetrics() {
+        if (metrics == null) {
+            List<Job<?, ?>> jobs = (List) folder.getAllItems(Job.class);
+            metrics = FolderMetricsAggregator.getInstance().aggregate(owner.getFullName(), jobs);
+        }
+        return metrics;
+    }
+
+    /**
+     * Streams the totals and the distribution of each metric over all classes of all jobs.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     *
+     * @throws IOException
+     *         if the response cannot be written
+     */
+    @GET
+    @SuppressWarnings("unused") // used by folder.js
+    public void doSummary(final StaplerRequest2 request, final StaplerResponse2 response) throws IOException {
+        JsonResponse.send(request, response, this::writeSummary);
+    }
+
+    private void writeSummary(final JsonGenerator generator) throws IOException {
+        var folderMetrics = getMetrics();
+        generator.writeStartObject();
+        generator.writeNumberField("jobs", folderMetrics.getBranches().size());
+        generator.writeNumberField("classes", folderMetrics.getClassCount());
+        generator.writeNumberField("missing", folderMetrics.getMissingCount());
+        generator.writeArrayFieldStart("metrics");
+        for (String metricId : folderMetrics.getMetricIds()) {
+            generator.writeStartObject();
+            generator.writeStringField("id", metricId);
+            generator.writeStringField("name", folderMetrics.getDisplayName(metricId));
+            generator.writeNumberField("total", folderMetrics.getTotal(metricId));
+            var sketch = folderMetrics.getSketch(metricId).filter(values -> !values.isEmpty());
+            if (sketch.isPresent()) {
+                generator.writeNumberField("count", sketch.get().getCount());
+                generator.writeArrayFieldStart("percentiles");
+                generator.writeNumber(sketch.get().getMin());
+                generator.writeNumber(sketch.get().getQuantile(0.25));
+                generator.writeNumber(sketch.get().getQuantile(0.5));
+                generator.writeNumber(sketch.get().getQuantile(0.75));
+                generator.writeNumber(sketch.get().getMax());
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Streams the totals of each metric for each job.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     *
+     * @throws IOException
+     *         if the response cannot be written
+     */
+    @GET
+    @SuppressWarnings("unused") // used by folder.js
+    public void doBranches(final StaplerRequest2 request, final StaplerResponse2 response) throws IOException {
+        JsonResponse.send(request, response, this::writeBranches);
+    }
+
+    private void writeBranches(final JsonGenerator generator) throws IOException {
+        var folderMetrics = getMetrics();
+        var metricIds = folderMetrics.getMetricIds();
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("metrics");
+        for (String metricId : metricIds) {
+            generator.writeStartObject();
+            generator.writeStringField("id", metricId);
+            generator.writeStringField("name", folderMetrics.getDisplayName(metricId));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("rows");
+        for (BranchMetrics branch : folderMetrics.getBranches()) {
+            generator.writeStartArray();
+            generator.writeString(branch.getName());
+            generator.writeString(branch.getUrl());
+            generator.writeNumber(branch.getBuild());
+            generator.writeNumber(branch.getClassCount());
+            for (String metricId : metricIds) {
+                double total = branch.getTotal(metricId);
+                if (Double.isNaN(total)) {
+                    generator.writeNull();
+                }
+                else {
+                    generator.writeNumber(total);
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Streams the classes with the highest values of the specified metric of each job.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     * @param metricId
+     *         the ID of the metric
+     *
+     * @throws IOException
+     *         if the response cannot be written
+     */
+    @GET
+    @SuppressWarnings("unused") // used by folder.js
+    public void doClasses(final StaplerRequest2 request, final StaplerResponse2 response,
+            @QueryParameter("metric") final String metricId) throws IOException {
+        JsonResponse.send(request, response, generator -> writeClasses(generator, metricId));
+    }
+
+    private void writeClasses(final JsonGenerator generator, final String metricId) throws IOException {
+        List<BranchClass> classes = new ArrayList<>();
+        for (BranchMetrics branch : getMetrics().getBranches()) {
+            for (ClassValue value : branch.getTopClasses(metricId)) {
+                classes.add(new BranchClass(branch, value));
+            }
+        }
+        classes.sort(Comparator.comparingDouble((BranchClass value) -> value.value.value()).reversed());
+
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("rows");
+        for (BranchClass value : classes) {
+            generator.writeStartArray();
+            generator.writeString(value.branch.getName());
+            generator.writeString(value.branch.getUrl());
+            generator.writeString(value.value.className());
+            generator.writeNumber(value.value.value());
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private record BranchClass(BranchMetrics branch, ClassValue value) {
+    }
+
+    /**
+     * Provides the metrics action for folders, e.g., multibranch projects or organization folders.
+     */
+    @Extension
+    public static class FolderActionFactory extends TransientActionFactory<AbstractItem> {
+        @Override
+        public Class<AbstractItem> type() {
+            return AbstractItem.class;
+        }
+
+        @NonNull
+        @Override
+        public Collection<? extends Action> createFor(@NonNull final AbstractItem target) {
+            // jobs that contain other jobs (e.g., matrix projects) already have the job action
+            if (target instanceof ItemGroup && !(target instanceof Job)) {
+                return Set.of(new FolderMetricsAction(target));
+            }
+            return Collections.emptySet();
+        }
+    }
+}
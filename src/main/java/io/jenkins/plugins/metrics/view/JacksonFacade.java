@@ -1,13 +1,24 @@
 package io.jenkins.plugins.metrics.view;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 
 /**
- * Facade for Jackson that does wrap an exception into a {@link RuntimeException}.
+ * Facade for Jackson that does wrap an exception into a {@link RuntimeException}. All instances share a single,
+ * pre-configured {@link ObjectMapper}, since creating a mapper (and its serializer caches) is expensive.
  */
 public class JacksonFacade {
-    private final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    private static final ObjectWriter WRITER = MAPPER.writer();
 
     /**
      * Creates a JSON representation of the specified object using Jackson data binding.
@@ -19,11 +30,100 @@ public class JacksonFacade {
      */
     public String toJson(final Object object) {
         try {
-            return mapper.writeValueAsString(object);
+            return WRITER.writeValueAsString(object);
         }
         catch (JsonProcessingException exception) {
             throw new IllegalArgumentException(
                     "Can't convert %s to JSON object".formatted(object), exception);
         }
     }
+
+    /**
+     * Creates a JSON representation using the specified streaming writer.
+     *
+     * @param body
+     *         the writer that produces the JSON content
+     *
+     * @return the JSON representation (as a String)
+     */
+    public String toJson(final JsonBody body) {
+        var json = new StringWriter();
+        try (var generator = MAPPER.createGenerator(json)) {
+            body.write(generator);
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException("Can't create JSON content", exception);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Writes the JSON representation of the specified object to the specified stream. The stream is not closed.
+     *
+     * @param object
+     *         the object to convert
+     * @param output
+     *         the stream to write to
+     *
+     * @throws IOException
+     *         if the object cannot be written
+     */
+    public void writeJson(final Object object, final OutputStream output) throws IOException {
+        WRITER.writeValue(output, object);
+    }
+
+    /**
+     * Writes JSON content to the specified stream using the specified streaming writer. The content is written in
+     * chunks of the generator buffer size, so the heap usage does not depend on the size of the content. The stream is
+     * not closed.
+     *
+     * @param body
+     *         the writer that produces the JSON content
+     * @param output
+     *         the stream to write to
+     *
+     * @throws IOException
+     *         if the content cannot be written
+     */
+    public void writeJson(final JsonBody body, final OutputStream output) throws IOException {
+        try (var generator = MAPPER.createGenerator(output)) {
+            body.write(generator);
+        }
+    }
+
+    /**
+     * Parses the specified JSON string into a tree of {@link JsonNode} instances.
+     *
+     * @param json
+     *         the JSON string to parse
+     *
+     * @return the root of the tree
+     */
+    public JsonNode fromJson(final String json) {
+        try {
+            return MAPPER.readTree(json);
+        }
+        catch (JsonProcessingException exception) {
+            throw new IllegalArgumentException(
+                    "Can't parse JSON object %s".formatted(json), exception);
+        }
+    }
+
+    /**
+     * Writes JSON content using a {@link JsonGenerator}, so that large content can be streamed without creating an
+     * intermediate object model.
+     */
+    @FunctionalInterface
+    public interface JsonBody {
+        /**
+         * Writes the content.
+         *
+         * @param generator
+         *         the generator to write to
+         *
+         * @throws IOException
+         *         if the content cannot be written
+         */
+        void write(JsonGenerator generator) throws IOException;
+    }
 }
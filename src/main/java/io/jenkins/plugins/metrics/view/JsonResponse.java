@@ -0,0 +1,59 @@
+package io.jenkins.plugins.metrics.view;
+
+import java.io.IOException;
+
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+
+import io.jenkins.plugins.metrics.view.JacksonFacade.JsonBody;
+
+/**
+ * Sends JSON content directly to the output stream of a Stapler response. The content is compressed with gzip if the
+ * client supports it.
+ */
+final class JsonResponse {
+    private static final JacksonFacade JACKSON = new JacksonFacade();
+
+    private JsonResponse() {
+        // prevents instantiation
+    }
+
+    /**
+     * Sends the JSON representation of the specified object.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     * @param object
+     *         the object to send
+     *
+     * @throws IOException
+     *         if the response cannot be written
+     */
+    static void send(final StaplerRequest2 request, final StaplerResponse2 response, final Object object)
+            throws IOException {
+        send(request, response, generator -> generator.writeObject(object));
+    }
+
+    /**
+     * Sends the JSON content that is produced by the specified streaming writer.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     * @param body
+     *         the writer that produces the JSON content
+     *
+     * @throws IOException
+     *         if the response cannot be written
+     */
+    static void send(final StaplerRequest2 request, final StaplerResponse2 response, final JsonBody body)
+            throws IOException {
+        response.setContentType("application/json;charset=UTF-8");
+        try (var output = response.getCompressedOutputStream(request)) {
+            JACKSON.writeJson(body, output);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package io.jenkins.plugins.metrics.view;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.verb.GET;
+import hudson.model.ModelObject;
+import hudson.model.Run;
+
+import io.jenkins.plugins.forensics.reference.ReferenceBuild;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.MetricColumn;
+import io.jenkins.plugins.metrics.model.MetricsDiff;
+import io.jenkins.plugins.metrics.model.MetricsDiff.Change;
+import io.jenkins.plugins.metrics.model.MetricsDiff.MetricChanges;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+/**
+ * Build view that compares the class metrics of a build with the metrics of its reference build. The reference build
+ * is the build that has been selected by the forensics plugin, or the previous completed build if there is none.
+ */
+public class MetricsDiffView implements ModelObject {
+    private static final int MAX_CHANGES = 10;
+
+    private final Run<?, ?> owner;
+    private final Run<?, ?> referenceBuild;
+    private final Function<Run<?, ?>, MetricsSnapshot> snapshotLoader;
+    private final Function<Supplier<MetricsDiff>, MetricsDiff> diffCache;
+
+    private ClassMetricsTable current;
+    private ClassMetricsTable reference;
+    private MetricsDiff diff;
+
+    /**
+     * Creates a new {@link MetricsDiffView}.
+     *
+     * @param owner
+     *         the build that is shown in the view
+     * @param snapshotLoader
+     *         loads the aggregated metrics of a build
+     */
+    public MetricsDiffView(final Run<?, ?> owner, final Function<Run<?, ?>, MetricsSnapshot> snapshotLoader) {
+        this(owner, findReferenceBuild(owner).orElse(null), snapshotLoader);
+    }
+
+    MetricsDiffView(final Run<?, ?> owner, final Run<?, ?> referenceBuild,
+            final Function<Run<?, ?>, MetricsSnapshot> snapshotLoader) {
+        this(owner, referenceBuild, snapshotLoader, Supplier::get);
+    }
+
+    /**
+     * Creates a new {@link MetricsDiffView} that obtains the diff of the two builds from a cache.
+     *
+     * @param owner
+     *         the build that is shown in the view
+     * @param referenceBuild
+     *         the reference build, or {@code null} if there is none
+     * @param snapshotLoader
+     *         loads the aggregated metrics of a build
+     * @param diffCache
+     *         returns the cached diff of the two builds, or computes it using the specified comparison
+     */
+    MetricsDiffView(final Run<?, ?> owner, final Run<?, ?> referenceBuild,
+            final Function<Run<?, ?>, MetricsSnapshot> snapshotLoader,
+            final Function<Supplier<MetricsDiff>, MetricsDiff> diffCache) {
+        this.owner = owner;
+        this.referenceBuild = referenceBuild;
+        this.snapshotLoader = snapshotLoader;
+        this.diffCache = diffCache;
+    }
+
+    static Optional<Run<?, ?>> findReferenceBuild(final Run<?, ?> build) {
+        var action = build.getAction(ReferenceBuild.class);
+        if (action != null) {
+            var reference = action.getReferenceBuild();
+            if (reference.isPresent()) {
+                return reference;
+            }
+        }
+        return Optional.ofNullable(build.getPreviousCompletedBuild());
+    }
+
+    /**
+     * Returns the diff of the two builds. The snapshots of both builds are loaded on first access. The rows of the
+     * diff refer to the tables of these snapshots, see {@link #getCurrent()} and {@link #getReference()}.
+     *
+     * @return the diff
+     */
+    synchronized MetricsDiff getDiff() {
+        if (diff == null) {
+            current = snapshotLoader.apply(owner).getClasses();
+            reference = hasReferenceBuild() ? snapshotLoader.apply(referenceBuild).getClasses()
+                    : ClassMetricsTable.create(List.of());
+            var currentClasses = current;
+            var referenceClasses = reference;
+            diff = diffCache.apply(() -> MetricsDiff.compare(currentClasses, referenceClasses, MAX_CHANGES));
+        }
+        return diff;
+    }
+
+    private synchronized ClassMetricsTable getCurrent() {
+        getDiff();
+        return current;
+    }
+
+    private synchronized ClassMetricsTable getReference() {
+        getDiff();
+        return reference;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return hasReferenceBuild() ? Messages.metrics_diff(referenceBuild.getDisplayName()) : Messages.metrics();
+    }
+
+    /**
+     * Returns the build as owner of this object.
+     *
+     * @return the owner
+     */
+    @SuppressWarnings("unused") // used by jelly view
+    public final Run<?, ?> getOwner() {
+        return owner;
+    }
+
+    @SuppressWarnings("unused") // used by jelly view
+    public boolean hasReferenceBuild() {
+        return referenceBuild != null;
+    }
+
+    @SuppressWarnings("unused") // used by jelly view
+    public Run<?, ?> getReferenceBuild() {
+        return referenceBuild;
+    }
+
+    /**
+     * Returns the URL of this view, relative to the context root of Jenkins. The streaming endpoints of this view are
+     * located below this URL.
+     *
+     * @return the URL of this view
+     */
+    @SuppressWarnings("unused") // used by jelly view
+    public String getUrl() {
+        return owner.getUrl() + MetricsViewAction.ID + "/diff/";
+    }
+
+    /**
+     * Returns the URL of the metrics of the reference build, relative to the context root of Jenkins.
+     *
+     * @return the URL of the metrics of the reference build, or an empty string if there is no reference build
+     */
+    @SuppressWarnings("unused") // used by jelly view
+    public String getReferenceUrl() {
+        return hasReferenceBuild() ? referenceBuild.getUrl() + MetricsViewAction.ID + "/" : "";
+    }
+
+    @SuppressWarnings("unused") // used by jelly view
+    public int getAddedCount() {
+        return getDiff().getAddedRows().length;
+    }
+
+    @SuppressWarnings("unused") // used by jelly view
+    public int getRemovedCount() {
+        return getDiff().getRemovedRows().length;
+    }
+
+    @SuppressWarnings("unused") // used by jelly view
+    public int getChangedCount() {
+        return getDiff().getChangedRows().length;
+    }
+
+    @SuppressWarnings("unused") // used by jelly view
+    public int getUnchangedCount() {
+        return getDiff().getUnchangedCount();
+    }
+
+    /**
+     * Returns the biggest changes of all metrics that are part of both builds.
+     *
+     * @return the changes of each metric
+     */
+    @SuppressWarnings("unused") // used by jelly view
+    public List<MetricChangesModel> getMetricChanges() {
+        var metricsDiff = getDiff();
+        var currentClasses = getCurrent();
+        var referenceClasses = getReference();
+        List<MetricChangesModel> models = new ArrayList<>();
+        for (String metricId : metricsDiff.getMetricIds()) {
+            var column = currentClasses.getColumn(metricId).orElseThrow();
+            var referenceColumn = referenceClasses.getColumn(metricId).orElseThrow();
+            models.add(new MetricChangesModel(column, referenceColumn, currentClasses,
+                    metricsDiff.getChanges(metricId)));
+        }
+        return models;
+    }
+
+    /**
+     * Streams the per-class deltas of all new, removed, and changed classes. Each row is an array that contains the
+     * status ({@code added}, {@code removed}, or {@code changed}), the package name, the class name, and then the
+     * delta of each metric in the order of {@code metrics}. Deltas are {@code null} for new and removed classes and
+     * for metrics that are missing in one of the builds.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     *
+     * @throws IOException
+     *         if the response cannot be written
+     */
+    @GET
+    @SuppressWarnings("unused") // used by diff.js
+    public void doClasses(final StaplerRequest2 request, final StaplerResponse2 response) throws IOException {
+        JsonResponse.send(request, response, this::writeClasses);
+    }
+
+    private void writeClasses(final JsonGenerator generator) throws IOException {
+        var metricsDiff = getDiff();
+        var current = getCurrent();
+        var reference = getReference();
+        List<MetricColumn> columns = new ArrayList<>();
+        List<MetricColumn> referenceColumns = new ArrayList<>();
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("metrics");
+        for (String metricId : metricsDiff.getMetricIds()) {
+            var column = current.getColumn(metricId).orElseThrow();
+            columns.add(column);
+            referenceColumns.add(reference.getColumn(metricId).orElseThrow());
+            generator.writeStartObject();
+            generator.writeStringField("id", metricId);
+            generator.writeStringField("name", column.getMetricDefinition().getDisplayName());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("rows");
+        for (int row : metricsDiff.getAddedRows()) {
+            writeClass(generator, "added", current, row, columns.size());
+        }
+        for (int row : metricsDiff.getRemovedRows()) {
+            writeClass(generator, "removed", reference, row, columns.size());
+        }
+        var changedRows = metricsDiff.getChangedRows();
+        var changedReferenceRows = metricsDiff.getChangedReferenceRows();
+        for (int i = 0; i < changedRows.length; i++) {
+            generator.writeStartArray();
+            generator.writeString("changed");
+            generator.writeString(current.getPackageName(changedRows[i]));
+            generator.writeString(current.getClassName(changedRows[i]));
+            for (int metric = 0; metric < columns.size(); metric++) {
+                double delta = columns.get(metric).getValue(changedRows[i])
+                        - referenceColumns.get(metric).getValue(changedReferenceRows[i]);
+                if (Double.isNaN(delta)) {
+                    generator.writeNull();
+                }
+                else {
+                    generator.writeNumber(delta);
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the row of a new or removed class, the class has no deltas.
+     */
+    private void writeClass(final JsonGenerator generator, final String status, final ClassMetricsTable classes,
+            final int row, final int metricCount) throws IOException {
+        generator.writeStartArray();
+        generator.writeString(status);
+        generator.writeString(classes.getPackageName(row));
+        generator.writeString(classes.getClassName(row));
+        for (int metric = 0; metric < metricCount; metric++) {
+            generator.writeNull();
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * The biggest increases and decreases of a metric, rendered for the jelly view.
+     */
+    public static final class MetricChangesModel {
+        private final MetricColumn column;
+        private final List<ChangeModel> increases = new ArrayList<>();
+        private final List<ChangeModel> decreases = new ArrayList<>();
+
+        MetricChangesModel(final MetricColumn column, final MetricColumn referenceColumn,
+                final ClassMetricsTable classes, final MetricChanges changes) {
+            this.column = column;
+            for (Change change : changes.getIncreases()) {
+                increases.add(new ChangeModel(classes, column, referenceColumn, change));
+            }
+            for (Change change : changes.getDecreases()) {
+                decreases.add(new ChangeModel(classes, column, referenceColumn, change));
+            }
+        }
+
+        public String getId() {
+            return column.getId();
+        }
+
+        public String getDisplayName() {
+            return column.getMetricDefinition().getDisplayName();
+        }
+
+        public List<ChangeModel> getIncreases() {
+            return increases;
+        }
+
+        public List<ChangeModel> getDecreases() {
+            return decreases;
+        }
+
+        public boolean isEmpty() {
+            return increases.isEmpty() && decreases.isEmpty();
+        }
+    }
+
+    /**
+     * The change of a metric of a single class, rendered for the jelly view.
+     */
+    public static final class ChangeModel {
+        private final String qualifiedClassName;
+        private final String className;
+        private final String referenceValue;
+        private final String value;
+        private final double delta;
+
+        ChangeModel(final ClassMetricsTable classes, final MetricColumn column, final MetricColumn referenceColumn,
+                final Change change) {
+            qualifiedClassName = classes.getQualifiedClassName(change.row());
+            className = classes.getClassName(change.row());
+            referenceValue = referenceColumn.renderValue(change.referenceRow());
+            value = column.renderValue(change.row());
+            delta = change.delta();
+        }
+
+        public String getQualifiedClassName() {
+            return qualifiedClassName;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getReferenceValue() {
+            return referenceValue;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * Returns the delta of the values, formatted with a sign and up to two decimal places.
+         *
+         * @return the formatted delta
+         */
+        public String getDelta() {
+            return new DecimalFormat("+#,##0.##;-#,##0.##", DecimalFormatSymbols.getInstance(Locale.ENGLISH))
+                    .format(delta);
+        }
+    }
+}
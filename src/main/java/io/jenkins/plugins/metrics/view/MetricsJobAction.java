@@ -1,5 +1,7 @@
 package io.jenkins.plugins.metrics.view;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
 import edu.umd.cs.findbugs.annotations.NonNull;
 
 import java.io.IOException;
@@ -7,14 +9,19 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 
+import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest2;
 import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.verb.GET;
 import hudson.Extension;
 import hudson.model.Action;
 import hudson.model.Job;
 import hudson.model.Run;
 import jenkins.model.TransientActionFactory;
 
+import io.jenkins.plugins.metrics.extension.MetricsTrendStore;
+import io.jenkins.plugins.metrics.model.MetricsTrend;
+
 /**
  * A job action, displaying a link on the side panel of a job.
  *
@@ -25,6 +32,7 @@ public class MetricsJobAction implements Action {
     static final String METRICS_ICON = "symbol-solid/scale-unbalanced plugin-font-awesome-api";
 
     private final Job<?, ?> owner;
+    private final MetricsTrendStore trendStore;
 
     /**
      * Creates a new instance of {@link MetricsJobAction}.
@@ -33,7 +41,16 @@ public class MetricsJobAction implements Action {
      *         the job that owns this action
      */
     public MetricsJobAction(final Job<?, ?> owner) {
+        this(owner, new MetricsTrendStore());
+    }
+
+    MetricsJobAction(final Job<?, ?> owner, final MetricsTrendStore trendStore) {
         this.owner = owner;
+        this.trendStore = trendStore;
+    }
+
+    public Job<?, ?> getOwner() {
+        return owner;
     }
 
     @Override
@@ -76,6 +93,73 @@ public class MetricsJobAction implements Action {
         }
     }
 
+    /**
+     * Returns whether the project metrics of the builds of the job have been recorded, i.e., whether the trend chart
+     * can be shown.
+     *
+     * @return {@code true} if the trend is available, {@code false} otherwise
+     */
+    @SuppressWarnings("unused") // Called by jelly view
+    public boolean isTrendAvailable() {
+        return trendStore.hasTrend(owner);
+    }
+
+    /**
+     * Streams the project metrics of the latest builds of the job, as used by the trend chart. The metrics are read
+     * from the trend file of the job, so the builds themselves are not loaded.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     * @param builds
+     *         the maximum number of builds, use 0 to get all builds
+     *
+     * @throws IOException
+     *         if the response cannot be written
+     */
+    @GET
+    @SuppressWarnings("unused") // used by trend-chart.js
+    public void doTrend(final StaplerRequest2 request, final StaplerResponse2 response,
+            @QueryParameter final int builds) throws IOException {
+        var trend = trendStore.read(owner, builds);
+        JsonResponse.send(request, response, generator -> writeTrend(generator, trend));
+    }
+
+    static void writeTrend(final JsonGenerator generator, final MetricsTrend trend) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("builds");
+        for (int i = 0; i < trend.size(); i++) {
+            generator.writeNumber(trend.getBuildNumber(i));
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("timestamps");
+        for (int i = 0; i < trend.size(); i++) {
+            generator.writeNumber(trend.getTimestamp(i));
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("series");
+        for (String metricId : trend.getMetricIds()) {
+            generator.writeStartObject();
+            generator.writeStringField("id", metricId);
+            generator.writeStringField("name", trend.getDisplayName(metricId));
+            generator.writeArrayFieldStart("values");
+            for (int i = 0; i < trend.size(); i++) {
+                double value = trend.getValue(metricId, i);
+                if (Double.isNaN(value)) {
+                    generator.writeNull();
+                }
+                else {
+                    generator.writeNumber(value);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
     /**
      * Provides the metrics action for a job, i.e. the link in the side panel.
      */
@@ -1,6 +1,16 @@
 package io.jenkins.plugins.metrics.view;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -8,8 +18,9 @@ import java.util.stream.Collectors;
 import io.jenkins.plugins.datatables.TableColumn;
 import io.jenkins.plugins.datatables.TableConfiguration;
 import io.jenkins.plugins.datatables.TableModel;
-import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
-import io.jenkins.plugins.metrics.model.Metric;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.FilterExpression;
+import io.jenkins.plugins.metrics.model.MetricColumn;
 import io.jenkins.plugins.metrics.model.MetricDefinition;
 
 import static j2html.TagCreator.*;
@@ -19,8 +30,10 @@ import static j2html.TagCreator.*;
  */
 @SuppressWarnings("deprecation")
 public class MetricsTableModel extends TableModel {
+    private static final String METRICS_DISPLAY = "metricsDisplay.";
+
     private final List<MetricDefinition> supportedMetrics;
-    private final List<ClassMetricsMeasurement> metricsMeasurements;
+    private final ClassMetricsTable classes;
     private final String id;
 
     /**
@@ -30,16 +43,16 @@ public class MetricsTableModel extends TableModel {
      *         the id of the table
      * @param supportedMetrics
      *         the metrics supported for this table
-     * @param metricsMeasurements
-     *         the {@link ClassMetricsMeasurement}s to display in the table
+     * @param classes
+     *         the metrics of the classes to display in the table
      */
     public MetricsTableModel(final String id, final List<MetricDefinition> supportedMetrics,
-            final List<ClassMetricsMeasurement> metricsMeasurements) {
+            final ClassMetricsTable classes) {
         super();
 
         this.id = id;
         this.supportedMetrics = supportedMetrics;
-        this.metricsMeasurements = metricsMeasurements;
+        this.classes = classes;
     }
 
     @Override
@@ -55,7 +68,7 @@ public class MetricsTableModel extends TableModel {
         columns.addAll(supportedMetrics
                 .stream()
                 .map(metricDefinition -> new TableColumn(metricDefinition.getDisplayName(),
-                        "metricsDisplay." + metricDefinition.getId()))
+                        METRICS_DISPLAY + metricDefinition.getId()))
                 .collect(Collectors.toList())
         );
 
@@ -64,9 +77,113 @@ public class MetricsTableModel extends TableModel {
 
     @Override
     public List<Object> getRows() {
-        return metricsMeasurements.stream()
-                .map(MetricsRow::new)
-                .collect(Collectors.toList());
+        List<Object> rows = new ArrayList<>(classes.getRowCount());
+        for (int row = 0; row < classes.getRowCount(); row++) {
+            rows.add(new MetricsRow(classes, row));
+        }
+        return rows;
+    }
+
+    /**
+     * Writes all rows of the table as the property {@code rows} of a JSON object. The rows are created one at a time
+     * while writing, so that they do not need to be kept in memory.
+     *
+     * @param generator
+     *         the generator to write to
+     *
+     * @throws IOException
+     *         if the rows cannot be written
+     */
+    void writeRows(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("rows");
+        for (int row = 0; row < classes.getRowCount(); row++) {
+            generator.writeObject(new MetricsRow(classes, row));
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Returns a single page of the table. The rows are filtered and sorted according to the query, and only the rows
+     * of the requested page are rendered. Rather than sorting all matching rows, just the rows up to the end of the
+     * requested page are selected and sorted, see {@link TopRows}.
+     *
+     * @param query
+     *         the query that specifies the page
+     *
+     * @return the page
+     */
+    MetricsTablePage getPage(final MetricsTableQuery query) {
+        BitSet selection;
+        try {
+            selection = FilterExpression.parse(query.getFilter()).select(classes);
+        }
+        catch (IllegalArgumentException exception) {
+            return new MetricsTablePage(query.getDraw(), classes, 0, new int[0], exception.getMessage());
+        }
+
+        var search = query.getSearch();
+        var matches = new int[selection.cardinality()];
+        int size = 0;
+        for (int row = selection.nextSetBit(0); row >= 0; row = selection.nextSetBit(row + 1)) {
+            if (search.isEmpty() || StringUtils.containsIgnoreCase(classes.getQualifiedClassName(row), search)) {
+                matches[size++] = row;
+            }
+        }
+
+        int start = Math.max(0, query.getStart());
+        int end = (int) Math.min(size, (long) start + query.getLength());
+        if (end <= start) {
+            return new MetricsTablePage(query.getDraw(), classes, size, new int[0], null);
+        }
+        int[] sorted = matches;
+        if (!query.getOrders().isEmpty()) {
+            var topRows = new TopRows(end, createComparator(query.getOrders(), matches, size));
+            for (int i = 0; i < size; i++) {
+                topRows.offer(matches[i]);
+            }
+            sorted = topRows.toSortedArray();
+        }
+        return new MetricsTablePage(query.getDraw(), classes, size, Arrays.copyOfRange(sorted, start, end), null);
+    }
+
+    private RowComparator createComparator(final List<MetricsTableQuery.Order> orders, final int[] rows,
+            final int size) {
+        var comparators = new RowComparator[orders.size()];
+        for (int i = 0; i < comparators.length; i++) {
+            var order = orders.get(i);
+            var comparator = createComparator(order.column(), rows, size);
+            comparators[i] = order.ascending() ? comparator : (left, right) -> comparator.compare(right, left);
+        }
+        return (left, right) -> {
+            for (RowComparator comparator : comparators) {
+                int result = comparator.compare(left, right);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return Integer.compare(left, right);
+        };
+    }
+
+    private RowComparator createComparator(final String column, final int[] rows, final int size) {
+        var metric = classes.getColumn(StringUtils.removeStart(column, METRICS_DISPLAY));
+        if (column.startsWith(METRICS_DISPLAY) && metric.isPresent()) {
+            // the values are read once per row rather than twice per comparison
+            var values = metric.get();
+            var keys = new double[classes.getRowCount()];
+            for (int i = 0; i < size; i++) {
+                double value = values.getValue(rows[i]);
+                // missing values are sorted like empty cells, i.e. before all other values
+                keys[rows[i]] = Double.isNaN(value) ? Double.NEGATIVE_INFINITY : value;
+            }
+            return (left, right) -> Double.compare(keys[left], keys[right]);
+        }
+        if ("name".equals(column)) {
+            return (left, right) -> classes.getClassName(left).compareTo(classes.getClassName(right));
+        }
+        return (left, right) -> 0;
     }
 
     @Override
@@ -78,14 +195,95 @@ public class MetricsTableModel extends TableModel {
                 .buttons("colvis");
     }
 
+    /**
+     * Compares two rows of the table by their row numbers, without boxing.
+     */
+    @FunctionalInterface
+    private interface RowComparator {
+        int compare(int left, int right);
+    }
+
+    /**
+     * Max-heap of the first rows in the order of a {@link RowComparator}. The heap is bounded: once it is full, a new
+     * row replaces the last row of the heap if it comes before that row. So selecting the rows of a page needs
+     * {@code O(n log k)} comparisons for {@code k} rows up to the end of the page, rather than sorting all rows.
+     */
+    private static final class TopRows {
+        private final int[] rows;
+        private final RowComparator comparator;
+        private int size;
+
+        TopRows(final int capacity, final RowComparator comparator) {
+            rows = new int[capacity];
+            this.comparator = comparator;
+        }
+
+        void offer(final int row) {
+            if (size < rows.length) {
+                rows[size] = row;
+                siftUp(size++);
+            }
+            else if (size > 0 && comparator.compare(row, rows[0]) < 0) {
+                rows[0] = row;
+                siftDown(0, size);
+            }
+        }
+
+        private void siftUp(final int index) {
+            int child = index;
+            while (child > 0) {
+                int parent = (child - 1) / 2;
+                if (comparator.compare(rows[parent], rows[child]) >= 0) {
+                    return;
+                }
+                swap(parent, child);
+                child = parent;
+            }
+        }
+
+        private void siftDown(final int index, final int length) {
+            int parent = index;
+            while (2 * parent + 1 < length) {
+                int child = 2 * parent + 1;
+                if (child + 1 < length && comparator.compare(rows[child + 1], rows[child]) > 0) {
+                    child++;
+                }
+                if (comparator.compare(rows[parent], rows[child]) >= 0) {
+                    return;
+                }
+                swap(parent, child);
+                parent = child;
+            }
+        }
+
+        private void swap(final int first, final int second) {
+            int row = rows[first];
+            rows[first] = rows[second];
+            rows[second] = row;
+        }
+
+        /**
+         * Sorts the rows of the heap in place (heap sort) and returns them, the first row first.
+         */
+        int[] toSortedArray() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            return Arrays.copyOf(rows, size);
+        }
+    }
+
     /**
      * A row in the table in the metrics overview. Contains the name of the class plus all available metrics.
      */
     public static class MetricsRow {
-        private final ClassMetricsMeasurement metricsMeasurement;
+        private final ClassMetricsTable classes;
+        private final int row;
 
-        MetricsRow(final ClassMetricsMeasurement metricsMeasurement) {
-            this.metricsMeasurement = metricsMeasurement;
+        MetricsRow(final ClassMetricsTable classes, final int row) {
+            this.classes = classes;
+            this.row = row;
         }
 
         /**
@@ -96,10 +294,10 @@ public class MetricsTableModel extends TableModel {
          */
         public String getName() {
             return span()
-                    .withTitle(metricsMeasurement.getPackageName())
+                    .withTitle(classes.getPackageName(row))
                     .with(a()
-                            .withHref(metricsMeasurement.getQualifiedClassName())
-                            .withText(metricsMeasurement.getClassName())
+                            .withHref(classes.getQualifiedClassName(row))
+                            .withText(classes.getClassName(row))
                             .withTarget("blank")
                     )
                     .render();
@@ -111,20 +309,114 @@ public class MetricsTableModel extends TableModel {
          * @return the map of metrics
          */
         public Map<String, String> getMetricsDisplay() {
-            return metricsMeasurement.getMetrics()
-                    .values().stream()
-                    .collect(Collectors.toMap(Metric::getId, Metric::renderValue));
+            Map<String, String> metrics = new HashMap<>();
+            for (MetricColumn column : classes.getColumns()) {
+                if (column.isPresent(row)) {
+                    metrics.put(column.getId(), column.renderValue(row));
+                }
+            }
+            return metrics;
+        }
+    }
+
+    /**
+     * A page of the table in the format of the DataTables server-side processing mode.
+     */
+    static final class MetricsTablePage {
+        private final int draw;
+        private final ClassMetricsTable classes;
+        private final int recordsFiltered;
+        private final int[] rows;
+        private final String error;
+        private MetricsHistory history;
+
+        MetricsTablePage(final int draw, final ClassMetricsTable classes, final int recordsFiltered,
+                final int[] rows, final String error) {
+            this.draw = draw;
+            this.classes = classes;
+            this.recordsFiltered = recordsFiltered;
+            this.rows = rows;
+            this.error = error;
+        }
+
+        public int getDraw() {
+            return draw;
+        }
+
+        public int getRecordsTotal() {
+            return classes.getRowCount();
+        }
+
+        public int getRecordsFiltered() {
+            return recordsFiltered;
         }
 
         /**
-         * Get the raw metrics of this measurement e.g. for use in filtering.
+         * Returns the rows of this page, rendered for display.
          *
-         * @return the map of metrics
+         * @return the rows
+         */
+        public List<MetricsRow> getData() {
+            List<MetricsRow> data = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                data.add(new MetricsRow(classes, row));
+            }
+            return data;
+        }
+
+        /**
+         * Returns the indices of the rows of this page in the class table.
+         *
+         * @return the rows
+         */
+        int[] getRows() {
+            return rows;
+        }
+
+        /**
+         * Returns the error message if the filter expression of the query is not valid.
+         *
+         * @return the error message, or {@code null} if the query is valid
+         */
+        @JsonInclude(Include.NON_NULL)
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Returns the history of a metric for each row of this page, in the order of the rows.
+         *
+         * @return the history, or {@code null} if no history has been requested
          */
-        public Map<String, Number> getMetricsRaw() {
-            return metricsMeasurement.getMetrics()
-                    .values().stream()
-                    .collect(Collectors.toMap(Metric::getId, Metric::rawValue));
+        @JsonInclude(Include.NON_NULL)
+        public MetricsHistory getHistory() {
+            return history;
+        }
+
+        void setHistory(final MetricsHistory history) {
+            this.history = history;
+        }
+    }
+
+    /**
+     * The values of a metric in the latest builds, for each row of a page. Missing values are {@code null}.
+     *
+     * @param metric
+     *         the ID of the metric
+     * @param values
+     *         the values of each row, one value per build
+     */
+    record MetricsHistory(String metric, List<List<Double>> values) {
+        static MetricsHistory create(final String metric, final double[][] values) {
+            List<List<Double>> rows = new ArrayList<>(values.length);
+            for (double[] row : values) {
+                List<Double> history = new ArrayList<>(row.length);
+                for (double value : row) {
+                    history.add(Double.isNaN(value) ? null : value);
+                }
+                rows.add(history);
+            }
+            return new MetricsHistory(metric, rows);
         }
     }
 }
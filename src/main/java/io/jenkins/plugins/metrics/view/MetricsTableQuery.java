@@ -0,0 +1,117 @@
+package io.jenkins.plugins.metrics.view;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request of a single page of the metrics table, as sent by DataTables in server-side processing mode. Rather than
+ * the column indices of the original DataTables request, the sort order references the data properties of the columns
+ * (e.g. {@code name} or {@code metricsDisplay.LOC}), since the columns can be reordered in the browser.
+ */
+final class MetricsTableQuery {
+    /** Maximum number of rows of a single page. */
+    static final int MAX_PAGE_LENGTH = 1000;
+
+    private final int draw;
+    private final int start;
+    private final int length;
+    private final List<Order> orders;
+    private final String search;
+    private final String filter;
+    private final String history;
+
+    /**
+     * Reads a query from its JSON representation, e.g. {@code {"draw": 1, "start": 0, "length": 10, "order":
+     * [{"column": "name", "dir": "asc"}], "search": "Util", "filter": "LOC > 10", "history": "LOC"}}. Missing
+     * properties are replaced with defaults.
+     *
+     * @param json
+     *         the JSON representation of the query
+     *
+     * @return the query
+     */
+    static MetricsTableQuery fromJson(final JsonNode json) {
+        List<Order> orders = new ArrayList<>();
+        for (JsonNode order : json.path("order")) {
+            orders.add(new Order(order.path("column").asText(), !"desc".equals(order.path("dir").asText())));
+        }
+        int length = json.path("length").asInt(MAX_PAGE_LENGTH);
+        return new MetricsTableQuery(json.path("draw").asInt(), Math.max(0, json.path("start").asInt()),
+                length < 0 || length > MAX_PAGE_LENGTH ? MAX_PAGE_LENGTH : length, orders,
+                json.path("search").asText(""), json.path("filter").asText(""), json.path("history").asText(""));
+    }
+
+    MetricsTableQuery(final int draw, final int start, final int length, final List<Order> orders,
+            final String search, final String filter) {
+        this(draw, start, length, orders, search, filter, "");
+    }
+
+    MetricsTableQuery(final int draw, final int start, final int length, final List<Order> orders,
+            final String search, final String filter, final String history) {
+        this.draw = draw;
+        this.start = start;
+        this.length = length;
+        this.orders = orders;
+        this.search = search;
+        this.filter = filter;
+        this.history = history;
+    }
+
+    int getDraw() {
+        return draw;
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    List<Order> getOrders() {
+        return orders;
+    }
+
+    /**
+     * Returns the text of the global search field. Only classes whose qualified name contains this text (ignoring
+     * case) are part of the result.
+     *
+     * @return the search text, or an empty string if the classes should not be searched
+     */
+    String getSearch() {
+        return search;
+    }
+
+    /**
+     * Returns the filter expression of the table filter, see {@link
+     * io.jenkins.plugins.metrics.model.FilterExpression}.
+     *
+     * @return the filter expression, or an empty string if the classes should not be filtered
+     */
+    String getFilter() {
+        return filter;
+    }
+
+    /**
+     * Returns the ID of the metric whose history should be shown for each class of the page.
+     *
+     * @return the ID of the metric, or an empty string if no history should be shown
+     */
+    String getHistory() {
+        return history;
+    }
+
+    /**
+     * Sort order for a single column.
+     *
+     * @param column
+     *         the data property of the column
+     * @param ascending
+     *         determines whether to sort in ascending or descending order
+     */
+    record Order(String column, boolean ascending) {
+    }
+}
@@ -1,32 +1,40 @@
 package io.jenkins.plugins.metrics.view;
 
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import com.fasterxml.jackson.core.JsonGenerator;
 
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
 import java.text.DecimalFormat;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.Supplier;
 
+import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest2;
 import org.kohsuke.stapler.StaplerResponse2;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
 import org.kohsuke.stapler.export.ExportedBean;
+import org.kohsuke.stapler.verb.GET;
 import hudson.model.ModelObject;
 import hudson.model.Run;
 
 import io.jenkins.plugins.datatables.DefaultAsyncTableContentProvider;
 import io.jenkins.plugins.datatables.TableModel;
-import io.jenkins.plugins.metrics.extension.MetricsProvider;
-import io.jenkins.plugins.metrics.extension.MetricsProviderFactory;
-import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
-import io.jenkins.plugins.metrics.model.Metric;
+import io.jenkins.plugins.metrics.extension.MetricsHistoryStore;
+import io.jenkins.plugins.metrics.extension.MetricsSnapshotCache;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.FilterExpression;
+import io.jenkins.plugins.metrics.model.MetricColumn;
 import io.jenkins.plugins.metrics.model.MetricDefinition;
 import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
-import io.jenkins.plugins.metrics.model.MetricsMeasurement;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+import io.jenkins.plugins.metrics.model.PackageTree;
+import io.jenkins.plugins.metrics.view.MetricsTableModel.MetricsHistory;
+import io.jenkins.plugins.metrics.view.MetricsTableModel.MetricsTablePage;
 
 /**
  * Build view for displaying metrics.
@@ -35,43 +43,59 @@ import io.jenkins.plugins.metrics.model.MetricsMeasurement;
  */
 @ExportedBean
 public class MetricsView extends DefaultAsyncTableContentProvider implements ModelObject {
+    private static final int MAX_POINT_BUDGET = 10_000;
+    private static final int MAX_TREE_DEPTH = 10;
+    private static final JacksonFacade JACKSON = new JacksonFacade();
+    private static final String COLUMNAR_FORMAT = "columnar";
+    private static final int HISTORY_BUILDS = 50;
+    private static final MetricsHistoryStore HISTORY = new MetricsHistoryStore();
+
     private final Run<?, ?> owner;
-    private final List<ClassMetricsMeasurement> metricsMeasurements;
-    private final List<MetricDefinition> supportedMetrics;
-    private final List<String> projectOverview;
+    private final Supplier<MetricsSnapshot> snapshotLoader;
+
+    private MetricsSnapshot snapshot;
 
     /**
      * Create a new {@link MetricsView}.
      *
      * @param build
      *         the {@link Run} that is shown in the view
+     * @param snapshot
+     *         the aggregated metrics of the build
      */
-    public MetricsView(final Run<?, ?> build) {
+    public MetricsView(final Run<?, ?> build, final MetricsSnapshot snapshot) {
+        this(build, () -> snapshot);
+    }
+
+    /**
+     * Create a new {@link MetricsView} that loads the metrics of the build on first access. Conditional requests for
+     * unchanged content are answered without loading the metrics at all, see {@link ConditionalRequests}.
+     *
+     * @param build
+     *         the {@link Run} that is shown in the view
+     * @param snapshotLoader
+     *         loads the aggregated metrics of the build
+     */
+    public MetricsView(final Run<?, ?> build, final Supplier<MetricsSnapshot> snapshotLoader) {
         super();
 
         this.owner = build;
-        metricsMeasurements = MetricsProviderFactory.findAllFor(build).stream()
-                .map(MetricsProvider::getMetricsMeasurements)
-                .flatMap(List::stream)
-                .filter(ClassMetricsMeasurement.class::isInstance)
-                .collect(Collectors.groupingBy(MetricsMeasurement::getQualifiedClassName))
-                .values().stream()
-                .map(measurementsPerFile -> (ClassMetricsMeasurement) measurementsPerFile.stream()
-                        .reduce(MetricsMeasurement::merge).orElse(null))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-
-        supportedMetrics = MetricsProviderFactory.findAllAvailableMetricsFor(build)
-                .stream()
-                .filter(metricDefinition -> metricDefinition.isValidForScope(Scope.CLASS))
-                .collect(Collectors.toList());
-
-        projectOverview = MetricsProviderFactory.findAllFor(build).stream()
-                .map(MetricsProvider::getProjectSummaryEntries)
-                .reduce(new LinkedList<>(), (acc, summary) -> {
-                    acc.addAll(summary);
-                    return acc;
-                });
+        this.snapshotLoader = snapshotLoader;
+    }
+
+    private synchronized MetricsSnapshot getSnapshot() {
+        if (snapshot == null) {
+            snapshot = snapshotLoader.get();
+        }
+        return snapshot;
+    }
+
+    private ClassMetricsTable getClasses() {
+        return getSnapshot().getClasses();
+    }
+
+    private boolean isNotModified(final StaplerRequest2 request, final StaplerResponse2 response) {
+        return ConditionalRequests.isNotModified(request, response, owner, () -> getSnapshot().isComplete());
     }
 
     @Override
@@ -89,111 +113,309 @@ public class MetricsView extends DefaultAsyncTableContentProvider implements Mod
         return owner;
     }
 
+    /**
+     * Returns the URL of this view, relative to the context root of Jenkins. The streaming endpoints of this view are
+     * located below this URL.
+     *
+     * @return the URL of this view
+     */
+    @SuppressWarnings("unused") // used by jelly view
+    public String getUrl() {
+        return owner.getUrl() + MetricsViewAction.ID + "/";
+    }
+
     @JavaScriptMethod
     @SuppressWarnings("unused") // used by jelly view
     public List<MetricDefinition> getSupportedMetrics() {
-        return supportedMetrics;
+        return getSnapshot().getSupportedMetrics(Scope.CLASS);
     }
 
     @SuppressWarnings("unused") // used by jelly view
     public String getSupportedMetricsJSON() {
-        return toJson(supportedMetrics);
+        return toJson(getSupportedMetrics());
     }
 
     @SuppressWarnings("unused") // used by jelly view
     public List<String> getProjectOverview() {
-        return projectOverview;
+        return getSnapshot().getProjectOverview();
+    }
+
+    @SuppressWarnings("unused") // used by jelly view
+    public List<String> getIncompleteProviders() {
+        return getSnapshot().getIncompleteProviders();
+    }
+
+    private MetricsTablePage getPage(final String id, final MetricsTableQuery query) {
+        var page = new MetricsTableModel(id, getSupportedMetrics(), getClasses()).getPage(query);
+        if (StringUtils.isNotBlank(query.getHistory()) && page.getRows().length > 0) {
+            List<String> classNames = new ArrayList<>();
+            for (int row : page.getRows()) {
+                classNames.add(getClasses().getQualifiedClassName(row));
+            }
+            page.setHistory(MetricsHistory.create(query.getHistory(), HISTORY.read(owner.getParent(), classNames,
+                    query.getHistory(), owner.getNumber(), HISTORY_BUILDS)));
+        }
+        return page;
     }
 
     /**
-     * Get all metrics for the table as JSON.
+     * Streams the rows of the metrics table. If the request contains the parameter {@code query}, then a single page
+     * is returned, using the format of the DataTables server-side processing mode: filtering, sorting and paging are
+     * done on the server, so that only the rows of the visible page are rendered. Otherwise, all rows are streamed one
+     * by one. With the parameter {@code format=columnar}, the page is sent in the binary format of
+     * {@link ColumnarEncoder}.
      *
-     * @return the JSON string
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     * @param query
+     *         the query for the page as JSON, see {@link MetricsTableQuery#fromJson}
+     * @param format
+     *         the format of the response, either {@code json} (default) or {@code columnar}
+     *
+     * @throws IOException
+     *         if the response cannot be written
      */
-    @JavaScriptMethod
-    @SuppressWarnings("unused") // used by jelly view
-    public String getMetricsJSON() {
-        //return toJson(metricsMeasurements);
-        return toJson(new MetricsTableModel("metrics-table", supportedMetrics, metricsMeasurements));
+    @GET
+    @SuppressWarnings("unused") // used by table.js
+    public void doMetrics(final StaplerRequest2 request, final StaplerResponse2 response,
+            @QueryParameter final String query, @QueryParameter final String format) throws IOException {
+        if (isNotModified(request, response)) {
+            return;
+        }
+        if (query == null) {
+            var model = new MetricsTableModel("metrics-table", getSupportedMetrics(), getClasses());
+            JsonResponse.send(request, response, model::writeRows);
+        }
+        else {
+            var page = getPage("metrics-table", MetricsTableQuery.fromJson(JACKSON.fromJson(query)));
+            if (COLUMNAR_FORMAT.equals(format)) {
+                Map<String, Object> metadata = new HashMap<>();
+                metadata.put("draw", page.getDraw());
+                metadata.put("recordsTotal", page.getRecordsTotal());
+                metadata.put("recordsFiltered", page.getRecordsFiltered());
+                if (page.getError() != null) {
+                    metadata.put("error", page.getError());
+                }
+                if (page.getHistory() != null) {
+                    metadata.put("history", page.getHistory());
+                }
+                sendColumns(request, response, page.getRows(), getSupportedColumns(), metadata);
+            }
+            else {
+                JsonResponse.send(request, response, page);
+            }
+        }
+    }
+
+    /**
+     * Sends the values of the selected metrics for all classes that match a filter, in the binary format of
+     * {@link ColumnarEncoder}. Clients that need the raw values of many classes should prefer this endpoint over the
+     * table rows, since the values of each metric are sent as a single typed array.
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
+     * @param metrics
+     *         the IDs of the metrics, separated by commas, or an empty value to select all metrics of the table
+     * @param filter
+     *         the filter expression, see {@link FilterExpression}, or an empty value to select all classes
+     *
+     * @throws IOException
+     *         if the response cannot be written
+     */
+    @GET
+    @SuppressWarnings("unused") // used by columnar.js
+    public void doColumns(final StaplerRequest2 request, final StaplerResponse2 response,
+            @QueryParameter final String metrics, @QueryParameter final String filter) throws IOException {
+        if (isNotModified(request, response)) {
+            return;
+        }
+        List<MetricColumn> columns = new ArrayList<>();
+        if (StringUtils.isBlank(metrics)) {
+            columns.addAll(getSupportedColumns());
+        }
+        else {
+            for (String metricId : StringUtils.split(metrics, ',')) {
+                getClasses().getColumn(metricId.trim()).ifPresent(columns::add);
+            }
+        }
+
+        Map<String, Object> metadata = new HashMap<>();
+        int[] rows;
+        try {
+            rows = FilterExpression.parse(StringUtils.defaultString(filter)).select(getClasses()).stream().toArray();
+        }
+        catch (IllegalArgumentException exception) {
+            metadata.put("error", exception.getMessage());
+            rows = new int[0];
+        }
+        sendColumns(request, response, rows, columns, metadata);
+    }
+
+    private List<MetricColumn> getSupportedColumns() {
+        return getSupportedMetrics().stream()
+                .map(metric -> getClasses().getColumn(metric.getId()))
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    private void sendColumns(final StaplerRequest2 request, final StaplerResponse2 response, final int[] rows,
+            final List<MetricColumn> columns, final Map<String, Object> metadata) throws IOException {
+        response.setContentType(ColumnarEncoder.CONTENT_TYPE);
+        try (var output = response.getCompressedOutputStream(request)) {
+            ColumnarEncoder.write(getClasses(), rows, columns, metadata, output);
+        }
     }
 
     /**
-     * Get a tree consisting of {@link MetricsTreeNode}s for a specific metric.
+     * Streams a part of the tree of a specific metric. The JSON format of the nodes is the format of {@link
+     * MetricsTreeNode}, extended by the path of each node. The returned tree starts at the package (or class) with the
+     * specified path and contains the nodes up to the specified depth below this node. Nodes at the depth limit that
+     * have children are marked as {@code lazy}, their children can be loaded using another request.
      *
+     * <p>
+     * If the path is empty, the tree starts at the root. The top level packages that contain only a single child are
+     * collapsed into the root. The depth is limited to {@value #MAX_TREE_DEPTH} levels, a depth of 0 (or a missing
+     * depth) streams this maximum number of levels.
+     * </p>
+     *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
      * @param metricId
      *         the id of the metric to show
+     * @param path
+     *         the path of the root of the subtree
+     * @param depth
+     *         the number of levels below the root of the subtree to include
      *
-     * @return a string containing the tree's JSON
+     * @throws IOException
+     *         if the response cannot be written
      */
-    @JavaScriptMethod
-    @SuppressWarnings("unused") // used by jelly view
-    public String getMetricsTree(final String metricId) {
-        List<MetricsTreeNode> nodes = metricsMeasurements.stream()
-                .map(measurement -> {
-                    double value = measurement.getMetric(metricId).orElse(0.0).doubleValue();
-                    if (!Double.isFinite(value)) {
-                        value = 0.0;
-                    }
-                    return new MetricsTreeNode(measurement.getQualifiedClassName(), value);
-                })
-                .collect(Collectors.toList());
-
-        var root = new MetricsTreeNode("");
-        nodes.forEach(root::insertNode);
-        root.collapsePackage();
-
-        return toJson(root);
+    @GET
+    @SuppressWarnings("unused") // used by metrics.js
+    public void doTree(final StaplerRequest2 request, final StaplerResponse2 response,
+            @QueryParameter("metric") final String metricId, @QueryParameter final String path,
+            @QueryParameter final int depth) throws IOException {
+        if (isNotModified(request, response)) {
+            return;
+        }
+        JsonResponse.send(request, response,
+                generator -> writeSubtree(generator, metricId, path, clampTreeDepth(depth)));
+    }
+
+    static int clampTreeDepth(final int depth) {
+        return depth > 0 ? Math.min(depth, MAX_TREE_DEPTH) : MAX_TREE_DEPTH;
     }
 
-    private List<Double> getAllMetrics(final String metricId) {
-        return metricsMeasurements.stream()
-                .map(m -> m.getMetric(metricId).orElse(Double.NaN))
-                .map(Number::doubleValue)
-                .filter(Double::isFinite)
-                .collect(Collectors.toList());
+    void writeSubtree(final JsonGenerator generator, final String metricId, final String path,
+            final int depth) throws IOException {
+        var tree = getSnapshot().getPackageTree();
+        var start = tree.findNode(StringUtils.defaultString(path));
+        if (start.isEmpty()) {
+            generator.writeStartObject();
+            generator.writeStringField("name", path);
+            generator.writeNumberField("value", 0);
+            generator.writeArrayFieldStart("children");
+            generator.writeEndArray();
+            generator.writeEndObject();
+            return;
+        }
+
+        int node = start.getAsInt();
+        var name = new StringBuilder(tree.getName(node));
+        if (node == PackageTree.ROOT) {
+            while (tree.getChildCount(node) == 1) {
+                node = tree.getChild(node, 0);
+                if (name.length() > 0) {
+                    name.append('.');
+                }
+                name.append(tree.getName(node));
+            }
+        }
+        writeTreeNode(generator, tree, metricId, node, name.toString(), tree.getPath(node), depth);
     }
 
-    private boolean needsRounding(final String metricId) {
-        return metricsMeasurements.stream()
-                .map(m -> m.getMetrics().get(metricId))
-                .findFirst().map(Metric::needsRounding).orElse(false);
+    /**
+     * Writes a node of the package tree and its children up to the specified depth. Nodes at the depth limit that
+     * have children are marked as lazy.
+     */
+    private void writeTreeNode(final JsonGenerator generator, final PackageTree tree, final String metricId,
+            final int node, final String name, final String path, final int depth) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", name);
+        generator.writeNumberField("value", tree.getValue(metricId, node));
+        generator.writeStringField("path", path);
+        if (depth == 0 && tree.getChildCount(node) > 0) {
+            generator.writeBooleanField("lazy", true);
+        }
+        generator.writeArrayFieldStart("children");
+        if (depth != 0) {
+            for (int i = 0; i < tree.getChildCount(node); i++) {
+                int child = tree.getChild(node, i);
+                var childName = tree.getName(child);
+                writeTreeNode(generator, tree, metricId, child, childName,
+                        path.isEmpty() ? childName : path + '.' + childName, depth - 1);
+            }
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
     }
 
     /**
-     * Get the histogram for a specific metric.
+     * Streams the histogram for a specific metric.
      *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
      * @param metricId
      *         the id of the metric to show
      *
-     * @return the contents of the histogram as JSON
+     * @throws IOException
+     *         if the response cannot be written
      */
-    @JavaScriptMethod
-    @SuppressWarnings({"unused", "PMD.CyclomaticComplexity"}) // used by jelly view
-    public String getHistogram(final String metricId) {
-        List<Double> values = getAllMetrics(metricId);
-
-        if (values.isEmpty()) {
-            return "{\"data\": [], \"labels\":[]}";
+    @GET
+    @SuppressWarnings("unused") // used by metrics.js
+    public void doHistogram(final StaplerRequest2 request, final StaplerResponse2 response,
+            @QueryParameter("metric") final String metricId) throws IOException {
+        if (isNotModified(request, response)) {
+            return;
         }
+        JsonResponse.send(request, response, createHistogram(metricId));
+    }
 
-        var statistics = new DescriptiveStatistics();
-        values.forEach(statistics::addValue);
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    private Map<String, Object> createHistogram(final String metricId) {
+        var column = getClasses().getColumn(metricId);
+        if (column.isEmpty() || column.get().getSketch().isEmpty()) {
+            return Map.of("data", List.of(), "labels", List.of());
+        }
 
-        final double min = statistics.getMin();
-        final double max = statistics.getMax();
-        final double iqr = statistics.getPercentile(75) - statistics.getPercentile(25);
+        var sketch = column.get().getSketch();
+        final long count = sketch.getCount();
+        final double min = sketch.getMin();
+        final double max = sketch.getMax();
+        final double lowerQuartile = sketch.getQuantile(0.25);
+        final double median = sketch.getQuantile(0.5);
+        final double upperQuartile = sketch.getQuantile(0.75);
+        final double iqr = upperQuartile - lowerQuartile;
 
         final int numBins;
         double binWidth;
         if (iqr > 0) {
             // Freedman-Diaconis rule for calculating the binWidth
-            binWidth = 2 * iqr / Math.cbrt(values.size());
+            binWidth = 2 * iqr / Math.cbrt(count);
             numBins = (int) Math.round((max - min) / binWidth);
         }
         else if (max - min > 0) {
             // fall back to Sturges rule, if the binWidth would become 0
             // Sturges Rule
-            numBins = (int) (1 + Math.log(values.size()) / Math.log(2));
+            numBins = (int) (1 + Math.log(count) / Math.log(2));
             binWidth = (max - min) / numBins;
         }
         else {
@@ -203,7 +425,7 @@ public class MetricsView extends DefaultAsyncTableContentProvider implements Mod
         }
 
         // round the binWidth, if an integer metric is requested
-        if (needsRounding(metricId)) {
+        if (column.get().needsRounding()) {
             binWidth = Math.round(binWidth);
             // the binWidth should not be smaller than 1
             if (binWidth < 1) {
@@ -211,9 +433,10 @@ public class MetricsView extends DefaultAsyncTableContentProvider implements Mod
             }
         }
 
-        final int[] histogramData = new int[numBins];
-        for (double v : values) {
-            int binId = (int) ((v - min) / binWidth);
+        final long[] histogramData = new long[numBins];
+        final double width = binWidth;
+        sketch.forEachValue((value, weight) -> {
+            int binId = (int) ((value - min) / width);
             if (binId < 0) {
                 binId = 0;
             }
@@ -221,8 +444,8 @@ public class MetricsView extends DefaultAsyncTableContentProvider implements Mod
                 binId = numBins - 1;
             }
 
-            histogramData[binId] += 1;
-        }
+            histogramData[binId] += weight;
+        });
 
         final var labelFormat = new DecimalFormat("#.##");
         final String[] binLabels = new String[numBins];
@@ -235,34 +458,71 @@ public class MetricsView extends DefaultAsyncTableContentProvider implements Mod
         Map<String, Object> result = new HashMap<>();
         result.put("data", histogramData);
         result.put("labels", binLabels);
-        return toJson(result);
+        result.put("percentiles", new double[] {min, lowerQuartile, median, upperQuartile, max});
+        result.put("count", count);
+        return result;
     }
 
     /**
-     * Get a scatterplot for two metrics.
+     * Streams a downsampled scatter plot for two metrics. If there are more classes than the specified point budget,
+     * then dense regions of the plot are aggregated into grid cells and only the classes in sparse regions are
+     * returned as individual points. See {@link ScatterPlotDensity} for details.
      *
+     * @param request
+     *         Stapler request
+     * @param response
+     *         Stapler response
      * @param metricId
-     *         the id of the first metric to include
+     *         the id of the metric on the x-axis
      * @param secondMetricId
-     *         the id of the second metric to include
+     *         the id of the metric on the y-axis
+     * @param pointBudget
+     *         the maximum number of individual points to return
      *
-     * @return the contens of the scatter plot as JSON
+     * @throws IOException
+     *         if the response cannot be written
      */
-    @JavaScriptMethod
-    @SuppressWarnings("unused") // used by jelly view
-    public String getScatterPlot(final String metricId, final String secondMetricId) {
-        List<ScatterPlotDataItem> data = metricsMeasurements.stream()
-                .map(m -> new ScatterPlotDataItem(m.getClassName(),
-                        m.getMetric(metricId).orElse(Double.NaN),
-                        m.getMetric(secondMetricId).orElse(Double.NaN)))
-                .collect(Collectors.toList());
-
-        return toJson(data);
+    @GET
+    @SuppressWarnings("unused") // used by metrics.js
+    public void doScatterPlot(final StaplerRequest2 request, final StaplerResponse2 response,
+            @QueryParameter("metric") final String metricId,
+            @QueryParameter("secondMetric") final String secondMetricId, @QueryParameter final int pointBudget)
+            throws IOException {
+        if (isNotModified(request, response)) {
+            return;
+        }
+        JsonResponse.send(request, response, createScatterPlotDensity(metricId, secondMetricId, pointBudget));
+    }
+
+    private Object createScatterPlotDensity(final String metricId, final String secondMetricId,
+            final int pointBudget) {
+        var firstColumn = getClasses().getColumn(metricId);
+        var secondColumn = getClasses().getColumn(secondMetricId);
+        if (firstColumn.isEmpty() || secondColumn.isEmpty()) {
+            return Map.of("points", List.of(), "cells", List.of(), "total", 0);
+        }
+
+        int budget = Math.max(1, Math.min(pointBudget, MAX_POINT_BUDGET));
+        return ScatterPlotDensity.create(getClasses(), firstColumn.get(), secondColumn.get(), budget);
     }
 
     private String toJson(final Object object) {
-        var facade = new JacksonFacade();
-        return facade.toJson(object);
+        return JACKSON.toJson(object);
+    }
+
+    /**
+     * Returns the view that compares the metrics of this build with the metrics of its reference build. The diff of
+     * the two builds is obtained from the {@link MetricsSnapshotCache}, so that the diff that has been computed for the
+     * page is reused by the requests of the page (e.g., the changed classes).
+     *
+     * @return the diff view
+     */
+    @SuppressWarnings("unused") // used by jelly view
+    public MetricsDiffView getDiff() {
+        var referenceBuild = MetricsDiffView.findReferenceBuild(owner).orElse(null);
+        var cache = MetricsSnapshotCache.getInstance();
+        return new MetricsDiffView(owner, referenceBuild, cache::get,
+                comparison -> cache.getDiff(owner, referenceBuild, comparison));
     }
 
     /**
@@ -279,7 +539,7 @@ public class MetricsView extends DefaultAsyncTableContentProvider implements Mod
      */
     @SuppressWarnings("unused") // Called by jelly view
     public Object getDynamic(final String link, final StaplerRequest2 request, final StaplerResponse2 response) {
-        return new ClassDetailsView(owner, link);
+        return new ClassDetailsView(owner, getSnapshot(), link);
     }
 
     /**
@@ -292,36 +552,6 @@ public class MetricsView extends DefaultAsyncTableContentProvider implements Mod
      */
     @Override
     public TableModel getTableModel(final String id) {
-        return new MetricsTableModel(id, supportedMetrics, metricsMeasurements);
-    }
-
-    /**
-     * Data class for points in a scatter plot.
-     */
-    private static final class ScatterPlotDataItem {
-        private final String name;
-        private final List<Number> value;
-
-        /**
-         * Create a new data point with a name and a list of values. The first two values will be the coordinates of the
-         * item.
-         *
-         * @param name
-         *         the name for the data point
-         * @param values
-         *         the values for the data point
-         */
-        private ScatterPlotDataItem(final String name, final Number... values) {
-            this.name = name;
-            this.value = Arrays.asList(values);
-        }
-
-        public String getName() {
-            return name;
-        }
-
-        public List<Number> getValue() {
-            return value;
-        }
+        return new MetricsTableModel(id, getSupportedMetrics(), getClasses());
     }
 }
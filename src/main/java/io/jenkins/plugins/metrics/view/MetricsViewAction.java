@@ -12,6 +12,8 @@ import hudson.model.Run;
 import jenkins.model.RunAction2;
 import jenkins.model.TransientActionFactory;
 
+import io.jenkins.plugins.metrics.extension.MetricsSnapshotCache;
+
 import static io.jenkins.plugins.metrics.view.MetricsJobAction.*;
 
 /**
@@ -68,13 +70,14 @@ public class MetricsViewAction implements RunAction2, StaplerProxy {
     }
 
     /**
-     * Returns the detail view for metrics for all Stapler requests.
+     * Returns the detail view for metrics for all Stapler requests. The metrics are loaded on first access, so that
+     * conditional requests for unchanged content can be answered without loading them.
      *
      * @return the detail view for metrics
      */
     @Override
     public Object getTarget() {
-        return new MetricsView(owner);
+        return new MetricsView(owner, () -> MetricsSnapshotCache.getInstance().get(owner));
     }
 
     /**
@@ -0,0 +1,203 @@
+package io.jenkins.plugins.metrics.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.MetricColumn;
+
+/**
+ * Downsampled model of a scatter plot. If the number of classes exceeds the point budget, then the plot area is
+ * divided into a grid: dense grid cells are reported as aggregated cells (center and number of classes), while the
+ * classes in sparse cells (the outliers) are reported as individual points. The size of the model therefore depends
+ * only on the grid size and the point budget, not on the number of classes.
+ */
+final class ScatterPlotDensity {
+    /** Number of grid cells along each axis. */
+    static final int GRID_SIZE = 50;
+
+    private final List<Point> points;
+    private final List<double[]> cells;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int total;
+
+    /**
+     * Creates the downsampled scatter plot of the specified metrics.
+     *
+     * @param classes
+     *         the classes to plot
+     * @param x
+     *         the metric on the x-axis
+     * @param y
+     *         the metric on the y-axis
+     * @param pointBudget
+     *         the maximum number of individual points
+     *
+     * @return the scatter plot model
+     */
+    static ScatterPlotDensity create(final ClassMetricsTable classes, final MetricColumn x, final MetricColumn y,
+            final int pointBudget) {
+        int rows = classes.getRowCount();
+        var plotted = new int[rows];
+        int size = 0;
+        double minX = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < rows; row++) {
+            double valueX = x.getValue(row);
+            double valueY = y.getValue(row);
+            if (Double.isFinite(valueX) && Double.isFinite(valueY)) {
+                plotted[size++] = row;
+                minX = Math.min(minX, valueX);
+                maxX = Math.max(maxX, valueX);
+                minY = Math.min(minY, valueY);
+                maxY = Math.max(maxY, valueY);
+            }
+        }
+
+        if (size <= pointBudget) {
+            List<Point> points = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                points.add(createPoint(classes, x, y, plotted[i]));
+            }
+            return new ScatterPlotDensity(points, List.of(), 0, 0, size);
+        }
+
+        double cellWidth = getCellSize(minX, maxX);
+        double cellHeight = getCellSize(minY, maxY);
+        var cellOfRow = new int[size];
+        var counts = new int[GRID_SIZE * GRID_SIZE];
+        for (int i = 0; i < size; i++) {
+            int column = getCell(x.getValue(plotted[i]), minX, cellWidth);
+            int line = getCell(y.getValue(plotted[i]), minY, cellHeight);
+            cellOfRow[i] = line * GRID_SIZE + column;
+            counts[cellOfRow[i]]++;
+        }
+
+        // the sparsest cells are reported as points until the budget is exhausted
+        int threshold = getOutlierThreshold(counts, pointBudget);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (counts[cellOfRow[i]] <= threshold) {
+                points.add(createPoint(classes, x, y, plotted[i]));
+            }
+        }
+
+        List<double[]> cells = new ArrayList<>();
+        for (int cell = 0; cell < counts.length; cell++) {
+            if (counts[cell] > threshold) {
+                cells.add(new double[] {
+                        minX + (cell % GRID_SIZE + 0.5) * cellWidth,
+                        minY + (cell / GRID_SIZE + 0.5) * cellHeight,
+                        counts[cell]});
+            }
+        }
+        return new ScatterPlotDensity(points, cells, cellWidth, cellHeight, size);
+    }
+
+    private static double getCellSize(final double min, final double max) {
+        return max > min ? (max - min) / GRID_SIZE : 1;
+    }
+
+    private static int getCell(final double value, final double min, final double cellSize) {
+        return Math.min(GRID_SIZE - 1, (int) ((value - min) / cellSize));
+    }
+
+    /**
+     * Returns the largest cell population so that all classes in cells with at most this population fit into the point
+     * budget.
+     */
+    private static int getOutlierThreshold(final int[] counts, final int pointBudget) {
+        int max = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+        }
+        var pointsPerPopulation = new long[max + 1];
+        for (int count : counts) {
+            pointsPerPopulation[count] += count;
+        }
+
+        long points = 0;
+        int threshold = 0;
+        for (int population = 1; population <= max; population++) {
+            points += pointsPerPopulation[population];
+            if (points > pointBudget) {
+                break;
+            }
+            threshold = population;
+        }
+        return threshold;
+    }
+
+    private static Point createPoint(final ClassMetricsTable classes, final MetricColumn x, final MetricColumn y,
+            final int row) {
+        return new Point(classes.getClassName(row), x.getValue(row), y.getValue(row));
+    }
+
+    private ScatterPlotDensity(final List<Point> points, final List<double[]> cells, final double cellWidth,
+            final double cellHeight, final int total) {
+        this.points = points;
+        this.cells = cells;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.total = total;
+    }
+
+    public List<Point> getPoints() {
+        return points;
+    }
+
+    /**
+     * Returns the aggregated cells. Each cell is represented by the coordinates of its center and the number of
+     * classes in the cell.
+     *
+     * @return the aggregated cells
+     */
+    public List<double[]> getCells() {
+        return cells;
+    }
+
+    public double getCellWidth() {
+        return cellWidth;
+    }
+
+    public double getCellHeight() {
+        return cellHeight;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Data class for points in a scatter plot.
+     */
+    static final class Point {
+        private final String name;
+        private final double[] value;
+
+        /**
+         * Create a new data point with a name and a list of values. The first two values will be the coordinates of the
+         * item.
+         *
+         * @param name
+         *         the name for the data point
+         * @param values
+         *         the values for the data point
+         */
+        Point(final String name, final double... values) {
+            this.name = name;
+            this.value = values;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double[] getValue() {
+            return value;
+        }
+    }
+}
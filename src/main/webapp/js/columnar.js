@@ -0,0 +1,76 @@
+/* global jQuery */
+(function ($) {
+    const MAGIC = 'MCOL';
+    const VERSION = 1;
+
+    function align(offset) {
+        return (offset + 7) & ~7;
+    }
+
+    $.extend({
+        /**
+         * Decodes the binary columnar format of the metrics view (see ColumnarEncoder.java). The typed arrays of the
+         * columns are views on the buffer, hence no values are copied.
+         *
+         * @param {ArrayBuffer} buffer - the content of the response
+         * @returns {Object} - the header of the response, with the package index of each row as Int32Array
+         *                     ('packageIndex') and the values of each column as Float64Array ('values', NaN for
+         *                     missing values)
+         */
+        decodeMetricsColumns: function (buffer) {
+            const view = new DataView(buffer);
+            const magic = String.fromCharCode(...new Uint8Array(buffer, 0, MAGIC.length));
+            if (magic !== MAGIC || view.getInt32(4, true) !== VERSION) {
+                throw new Error('Unsupported format of metrics columns');
+            }
+            const headerLength = view.getInt32(8, true);
+            const result = JSON.parse(new TextDecoder().decode(new Uint8Array(buffer, 12, headerLength)));
+            const rowCount = result.rowCount;
+
+            let offset = align(12 + headerLength);
+            result.packageIndex = new Int32Array(buffer, offset, rowCount);
+            offset = align(offset + rowCount * Int32Array.BYTES_PER_ELEMENT);
+
+            result.columns.forEach(column => {
+                if (column.type === 'INTEGER') {
+                    const values = new Int32Array(buffer, offset, rowCount);
+                    offset = align(offset + rowCount * Int32Array.BYTES_PER_ELEMENT);
+                    const presence = new Uint8Array(buffer, offset, (rowCount + 7) >> 3);
+                    offset = align(offset + presence.length);
+                    column.values = Float64Array.from(values,
+                        (value, row) => presence[row >> 3] & (1 << (row & 7)) ? value : NaN);
+                }
+                else {
+                    column.values = new Float64Array(buffer, offset, rowCount);
+                    offset = align(offset + rowCount * Float64Array.BYTES_PER_ELEMENT);
+                }
+            });
+            return result;
+        },
+
+        /**
+         * Formats a value of a decoded column like the server renders it in the JSON rows of the table.
+         *
+         * @param {Object} column - the decoded column
+         * @param {Number} row - the row
+         * @returns {String|undefined} - the formatted value, or undefined if the row has no value for the metric
+         */
+        renderMetricValue: function (column, row) {
+            if (column.type === 'CUSTOM') {
+                return column.rendered[row] === null ? undefined : column.rendered[row];
+            }
+            const value = column.values[row];
+            if (Number.isNaN(value)) {
+                return undefined;
+            }
+            switch (column.type) {
+                case 'INTEGER':
+                    return String(value);
+                case 'PERCENTAGE':
+                    return Math.round(value) + '%';
+                default:
+                    return value.toFixed(2);
+            }
+        }
+    });
+})(jQuery);
@@ -0,0 +1,76 @@
+/* global jQuery */
+(function ($) {
+    const STATUS_COLUMN = 0;
+    const PACKAGE_COLUMN = 1;
+    const CLASS_COLUMN = 2;
+    const FIRST_METRIC_COLUMN = 3;
+
+    /**
+     * Renders the delta of a metric with a sign.
+     *
+     * @param {Number} delta - the delta, null if there is no delta
+     * @returns {String} the rendered delta
+     */
+    function renderDelta(delta) {
+        if (delta === null) {
+            return '';
+        }
+        const value = delta.toLocaleString(undefined, {maximumFractionDigits: 2});
+        return delta > 0 ? '+' + value : value;
+    }
+
+    $(document).ready(function () {
+        const element = $('#diff-table');
+        if (!element.length) {
+            return;
+        }
+
+        const statusLabels = {
+            added: element.data('status-added'),
+            removed: element.data('status-removed'),
+            changed: element.data('status-changed')
+        };
+        $.fetchContent(element.data('url') + 'classes')
+            .then(model => {
+                element.DataTable({
+                    data: model.rows,
+                    deferRender: true,
+                    order: [[STATUS_COLUMN, 'asc']],
+                    columns: [
+                        {
+                            title: element.data('status'),
+                            render: (status, type) => type === 'display' ? statusLabels[status] : status
+                        },
+                        {
+                            title: element.data('package')
+                        },
+                        {
+                            title: element.data('class'),
+                            render: function (name, type, row) {
+                                if (type !== 'display') {
+                                    return name;
+                                }
+                                // removed classes are only part of the reference build
+                                const base = row[STATUS_COLUMN] === 'removed' ? element.data('reference-url') : '../';
+                                const qualifiedName = row[PACKAGE_COLUMN] + '.' + name;
+                                return $('<a/>').attr('href', base + qualifiedName).text(name).prop('outerHTML');
+                            }
+                        },
+                        ...model.metrics.map(({name}, index) => ({
+                            title: name,
+                            className: 'text-right',
+                            defaultContent: '',
+                            render: function (_data, type, row) {
+                                const delta = row[FIRST_METRIC_COLUMN + index];
+                                if (type === 'display') {
+                                    return renderDelta(delta);
+                                }
+                                return delta === null ? 0 : Math.abs(delta); // sort by the size of the change
+                            }
+                        }))
+                    ]
+                });
+            })
+            .catch(error => element.showLoadError(error));
+    });
+})(jQuery);
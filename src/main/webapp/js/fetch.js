@@ -0,0 +1,39 @@
+/* global jQuery */
+(function ($) {
+
+    $.extend({
+        /**
+         * Fetches the content of one of the endpoints of the plugin. In contrast to fetch, the returned promise is
+         * rejected if the server responds with an error status, e.g. if the user is not permitted to read the build.
+         *
+         * @param {String} url - the URL of the endpoint
+         * @param {String} [type] - the type of the content, either 'json' (default) or 'arrayBuffer'
+         * @returns {Promise} - the content of the response
+         */
+        fetchContent: function (url, type) {
+            return fetch(url).then(response => {
+                if (!response.ok) {
+                    throw new Error(response.status + ' ' + response.statusText);
+                }
+                return type === 'arrayBuffer' ? response.arrayBuffer() : response.json();
+            });
+        }
+    });
+
+    $.fn.extend({
+        /**
+         * Shows an error message in front of this element, replacing the message of a previous error. The localized
+         * text of the message is taken from the attribute data-load-error of the page.
+         *
+         * @param {Error} error - the error that occurred while loading the content of this element
+         */
+        showLoadError: function (error) {
+            const element = $(this);
+            const text = $('[data-load-error]').first().data('load-error');
+            console.error(error);
+            element.prev('.load-error').remove();
+            element.before($('<div class="alert alert-danger load-error" role="alert"/>')
+                .text(text ? text.replace('{0}', error.message) : error.message));
+        }
+    });
+})(jQuery);
@@ -0,0 +1,168 @@
+/* global jQuery */
+(function ($) {
+    const NAME_COLUMN = 0;
+    const URL_COLUMN = 1;
+    const FIRST_METRIC_COLUMN = 4;
+    const VALUE_COLUMN = 3;
+
+    /**
+     * Renders a metric value.
+     *
+     * @param {Number} value - the value, null if there is no value
+     * @returns {String} the rendered value
+     */
+    function renderValue(value) {
+        if (value === null || value === undefined) {
+            return '';
+        }
+        return value.toLocaleString(undefined, {maximumFractionDigits: 2});
+    }
+
+    /**
+     * Renders a link to the metrics of the build of a job.
+     *
+     * @param {String} rootUrl - the context root of Jenkins
+     * @param {String} buildUrl - the URL of the build, relative to the context root
+     * @param {String} text - the text of the link
+     * @param {String} [className] - the qualified name of a class of the build
+     * @returns {String} the rendered link
+     */
+    function renderLink(rootUrl, buildUrl, text, className) {
+        const url = rootUrl + buildUrl + 'metrics-aggregation/' + (className || '');
+        return $('<a/>').attr('href', url).text(text).prop('outerHTML');
+    }
+
+    function renderSummary(element, model) {
+        const text = $('#folder-summary-text');
+        text.text(text.data('text').replace('{0}', model.classes.toLocaleString())
+            .replace('{1}', model.jobs.toLocaleString()));
+        if (model.missing > 0) {
+            text.after($('<p class="text-muted"/>').text(
+                text.data('missing').replace('{0}', model.missing.toLocaleString())));
+        }
+
+        const body = element.find('tbody');
+        model.metrics.forEach(metric => {
+            const row = $('<tr/>').append($('<td/>').text(metric.name))
+                .append($('<td class="text-right"/>').text(renderValue(metric.total)));
+            (metric.percentiles || [null, null, null, null, null]).forEach(value => {
+                row.append($('<td class="text-right"/>').text(renderValue(value)));
+            });
+            body.append(row);
+        });
+    }
+
+    function renderBranches(element, model) {
+        const rootUrl = element.data('root-url');
+        element.DataTable({
+            data: model.rows,
+            deferRender: true,
+            order: [[NAME_COLUMN, 'asc']],
+            columns: [
+                {
+                    title: element.data('job'),
+                    render: (name, type, row) => type === 'display' ? renderLink(rootUrl, row[URL_COLUMN], name) : name
+                },
+                {
+                    visible: false
+                },
+                {
+                    title: element.data('build'),
+                    className: 'text-right'
+                },
+                {
+                    title: element.data('classes'),
+                    className: 'text-right',
+                    render: (count, type) => type === 'display' ? renderValue(count) : count
+                },
+                ...model.metrics.map(({name}, index) => ({
+                    title: name,
+                    className: 'text-right',
+                    defaultContent: '',
+                    render: function (_data, type, row) {
+                        const total = row[FIRST_METRIC_COLUMN + index];
+                        if (type === 'display') {
+                            return renderValue(total);
+                        }
+                        return total === null ? 0 : total;
+                    }
+                }))
+            ]
+        });
+    }
+
+    function renderClasses(element, metrics) {
+        const rootUrl = element.data('root-url');
+        const select = $('#folder-classes-metric');
+        metrics.forEach(({id, name}) => select.append($('<option/>').attr('value', id).text(name)));
+
+        const table = element.DataTable({
+            data: [],
+            deferRender: true,
+            order: [[VALUE_COLUMN, 'desc']],
+            columns: [
+                {
+                    title: element.data('job'),
+                    render: (name, type, row) => type === 'display' ? renderLink(rootUrl, row[URL_COLUMN], name) : name
+                },
+                {
+                    visible: false
+                },
+                {
+                    title: element.data('class'),
+                    render: function (className, type, row) {
+                        if (type !== 'display') {
+                            return className;
+                        }
+                        const simpleName = className.substring(className.lastIndexOf('.') + 1);
+                        return renderLink(rootUrl, row[URL_COLUMN], simpleName, className);
+                    }
+                },
+                {
+                    title: element.data('value'),
+                    className: 'text-right',
+                    render: (value, type) => type === 'display' ? renderValue(value) : value
+                }
+            ]
+        });
+
+        function load() {
+            if (!select.val()) {
+                return;
+            }
+            $.fetchContent(element.data('url') + 'classes?metric=' + encodeURIComponent(select.val()))
+                .then(model => {
+                    $(table.table().container()).prev('.load-error').remove();
+                    table.clear().rows.add(model.rows).draw();
+                })
+                .catch(error => {
+                    table.clear().draw();
+                    $(table.table().container()).showLoadError(error);
+                });
+        }
+
+        select.on('change', load);
+        load();
+    }
+
+    $(document).ready(function () {
+        const summary = $('#folder-summary');
+        if (!summary.length) {
+            return;
+        }
+
+        // the metrics of the folder are combined once on the server, all requests read the cached result
+        $.fetchContent(summary.data('url') + 'summary')
+            .then(model => {
+                renderSummary(summary, model);
+
+                const branches = $('#folder-branches');
+                $.fetchContent(branches.data('url') + 'branches')
+                    .then(branchesModel => renderBranches(branches, branchesModel))
+                    .catch(error => branches.showLoadError(error));
+
+                renderClasses($('#folder-classes'), model.metrics);
+            })
+            .catch(error => summary.showLoadError(error));
+    });
+})(jQuery);
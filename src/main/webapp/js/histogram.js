@@ -4,20 +4,27 @@
         /**
          * Renders a histogram using ECharts.
          *
-         * @param {String} model - the chart model
+         * @param {Object} model - the chart model
          * @param {String} metricName - the name of the metric, used e.g. as title for the graph
          * @param {String} logarithmicCheckboxId - the id of the checkbox to use for toggling logarithmic scaling
          */
         renderHistogram: function (model, metricName, logarithmicCheckboxId) {
-            var histogramData = JSON.parse(model);
+            var histogramData = model;
             // replace all `0`s with `null` to enable logarithmic axis scaling
             if (histogramData && histogramData.data) {
                 histogramData.data = histogramData.data.map(x => x > 0 ? x : null);
             }
+            var subtitle = '';
+            if (histogramData && histogramData.percentiles) {
+                // the localized subtitle contains the placeholders {0} to {4} for the percentiles, {5} for the count
+                var values = histogramData.percentiles.map(x => +x.toFixed(2)).concat(histogramData.count);
+                subtitle = ($(this).data('subtitle') || '').replace(/\{(\d)\}/g, (match, index) => values[index]);
+            }
             var chart = echarts.init($(this)[0], 'light');
             var options = {
                 title: {
                     text: 'Histogram of "' + metricName + '"',
+                    subtext: subtitle,
                     left: 'center'
                 },
                 tooltip: {
@@ -1,6 +1,23 @@
 /* global jQuery, view */
 (function ($) {
+    // maximum number of individual points in the scatter plot, dense regions are aggregated into grid cells
+    const SCATTER_PLOT_POINT_BUDGET = 2000;
+    // number of tree map levels that are loaded at once, the tree map shows two levels below the selected node
+    const TREE_CHART_DEPTH = 2;
+
     $(document).ready(function () {
+        const viewUrl = $('#metrics-view').data('url');
+
+        /**
+         * Fetches JSON content from one of the streaming endpoints of the view.
+         *
+         * @param {String} endpoint - the name of the endpoint
+         * @param {Object} parameters - the query parameters
+         * @returns {Promise} - the parsed JSON content, rejected if the request fails
+         */
+        function fetchJson(endpoint, parameters) {
+            return $.fetchContent(viewUrl + endpoint + '?' + new URLSearchParams(parameters));
+        }
 
         /* ------------------------------------------------------------------------------
                                             table
@@ -13,6 +30,20 @@
             });
         }
 
+        /* ------------------------------------------------------------------------------
+                                            class history
+         ------------------------------------------------------------------------------ */
+
+        const historyChart = $('#class-history-chart');
+        if (historyChart.length) {
+            fetchJson('history', {}).then(history => {
+                historyChart.renderTrendChart(history, historyChart.data('title'), function (build) {
+                    window.location.assign(viewUrl + '../../../' + build + '/metrics-aggregation/'
+                        + historyChart.data('class'));
+                });
+            }).catch(error => historyChart.showLoadError(error));
+        }
+
         /* ------------------------------------------------------------------------------
                                             charts
          ------------------------------------------------------------------------------ */
@@ -21,25 +52,33 @@
             var metric = $('#treechart-picker').val();            
             var metricId = $('#treechart-picker :selected').text();
 
-            if (view.getMetricsTree && $('#treechart').length) {
-                view.getMetricsTree(metric, function (res) {
-                    $('#treechart').renderTreeChart(res.responseJSON, metricId);
-                });
+            if ($('#treechart').length) {
+                fetchJson('tree', {metric: metric, depth: TREE_CHART_DEPTH}).then(tree => {
+                    $('#treechart').renderTreeChart(tree, metricId, function (path, callback) {
+                        fetchJson('tree', {metric: metric, path: path, depth: TREE_CHART_DEPTH})
+                            .then(callback)
+                            .catch(error => $('#treechart').showLoadError(error));
+                    });
+                }).catch(error => $('#treechart').showLoadError(error));
             }
 
-            if (view.getHistogram && $('#histogram').length) {
-                view.getHistogram(metric, function (res) {
-                    $('#histogram').renderHistogram(res.responseJSON, metricId, '#histogram-checkbox-log');
-                });
+            if ($('#histogram').length) {
+                fetchJson('histogram', {metric: metric}).then(histogram => {
+                    $('#histogram').renderHistogram(histogram, metricId, '#histogram-checkbox-log');
+                }).catch(error => $('#histogram').showLoadError(error));
             }
 
             var secondMetric = $('#scatterplot-picker').val();
             var secondMetricId = $('#scatterplot-picker :selected').text();
-            if (view.getScatterPlot && $('#scatterplot').length) {
-                view.getScatterPlot(metric, secondMetric, function (res) {
-                    $('#scatterplot').renderScatterPlot(res.responseJSON, metricId, secondMetricId,
+            if ($('#scatterplot').length) {
+                fetchJson('scatterPlot', {
+                    metric: metric,
+                    secondMetric: secondMetric,
+                    pointBudget: SCATTER_PLOT_POINT_BUDGET
+                }).then(scatterPlot => {
+                    $('#scatterplot').renderScatterPlot(scatterPlot, metricId, secondMetricId,
                         '#scatterplot-checkbox-log-x', '#scatterplot-checkbox-log-y');
-                });
+                }).catch(error => $('#scatterplot').showLoadError(error));
             }
         }
 
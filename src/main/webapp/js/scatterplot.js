@@ -4,7 +4,8 @@
         /**
          * Renders a scatter plot using ECharts.
          *
-         * @param {String} model - the chart model
+         * @param {Object} model - the chart model: either an array of points, or a downsampled model with
+         *     individual points and aggregated grid cells
          * @param {String} metricNameX - the name of the metric on the x-axis, used e.g. as title for the graph
          * @param {String} metricNameY - the name of the metric on the y-axis, used e.g. as title for the graph
          * @param {String} logarithmicCheckboxIdX - the id of the checkbox to use for toggling logarithmic scaling on
@@ -13,12 +14,41 @@
          *     the y-axis
          */
         renderScatterPlot: function (model, metricNameX, metricNameY, logarithmicCheckboxIdX, logarithmicCheckboxIdY) {
-            var scatterPlotData = JSON.parse(model);
+            var scatterPlotModel = model;
+            var scatterPlotData = Array.isArray(scatterPlotModel) ? scatterPlotModel : scatterPlotModel.points;
+            var cellData = Array.isArray(scatterPlotModel) ? [] : scatterPlotModel.cells;
+            var maxCellCount = Math.max(1, ...cellData.map(cell => cell[2]));
             // replace all `0`s and `NaN`s with `null` for logarithmic axis scaling
             var dataLogarithmic = scatterPlotData.map(dataPoint => ({
                 name: dataPoint.name,
                 value: dataPoint.value.map(v => v > 0 ? v : null)
             }));
+            var cellDataLogarithmic = cellData.map(cell => [cell[0] > 0 ? cell[0] : null,
+                cell[1] > 0 ? cell[1] : null, cell[2]]);
+
+            /**
+             * Creates the series of the chart: the individual points and (optionally) the aggregated grid cells,
+             * where the size and opacity of a cell symbol reflect the number of classes in the cell.
+             */
+            function createSeries(points, cells) {
+                var series = [{
+                    data: points,
+                    type: 'scatter'
+                }];
+                if (cells.length) {
+                    series.push({
+                        name: 'cells',
+                        data: cells,
+                        type: 'scatter',
+                        symbol: 'rect',
+                        symbolSize: cell => 6 + 14 * Math.sqrt(cell[2] / maxCellCount),
+                        itemStyle: {
+                            opacity: 0.6
+                        }
+                    });
+                }
+                return series;
+            }
             var chart = echarts.init($(this).get(0), 'light');
             var options = {
                 title: {
@@ -28,6 +58,11 @@
                 tooltip: {
                     trigger: 'item',
                     formatter: function (data, _ticket, _callback) {
+                        if (data.seriesName === 'cells') {
+                            return '<b>' + data.value[2] + ' Classes</b><br/>' +
+                                metricNameX + ': ~' + +data.value[0].toFixed(2) + '<br/>' +
+                                metricNameY + ': ~' + +data.value[1].toFixed(2);
+                        }
                         return '<b>' + data.name + '</b><br/>' +
                             metricNameX + ': ' + data.value[0] + '<br/>' +
                             metricNameY + ': ' + data.value[1];
@@ -62,10 +97,7 @@
                     name: metricNameY,
                     type: 'value'
                 },
-                series: [{
-                    data: scatterPlotData,
-                    type: 'scatter'
-                }]
+                series: createSeries(scatterPlotData, cellData)
             };
             chart.setOption(options);
             chart.resize();
@@ -90,10 +122,7 @@
                                 show: true
                             }
                         },
-                        series: [{
-                            data: dataLogarithmic,
-                            type: 'scatter'
-                        }]
+                        series: createSeries(dataLogarithmic, cellDataLogarithmic)
                     })
                 } else {
                     chart.setOption({
@@ -103,10 +132,7 @@
                             nameGap: 30,
                             type: 'value'
                         },
-                        series: [{
-                            data: scatterPlotData,
-                            type: 'scatter'
-                        }]
+                        series: createSeries(scatterPlotData, cellData)
                     })
                 }
             }
@@ -125,10 +151,7 @@
                                 show: true
                             }
                         },
-                        series: [{
-                            data: dataLogarithmic,
-                            type: 'scatter'
-                        }]
+                        series: createSeries(dataLogarithmic, cellDataLogarithmic)
                     })
                 } else {
                     chart.setOption({
@@ -136,10 +159,7 @@
                             name: metricNameY,
                             type: 'value'
                         },
-                        series: [{
-                            data: scatterPlotData,
-                            type: 'scatter'
-                        }]
+                        series: createSeries(scatterPlotData, cellData)
                     })
                 }
             }
@@ -9,6 +9,7 @@
          * @param table - the jQuery reference for the datatable to use
          */
         filterTable: function (supportedMetrics, table) {
+            const input = $(this);
             const emptyData = Object.fromEntries(supportedMetrics.map(({id}) => [id, 0]));
             let filterExpression = math.compile('true');
 
@@ -52,16 +53,35 @@
                 }
             }
 
+            var redrawTableDebounced = debounce(function () {
+                table.DataTable().draw();
+            }, 250);
+
+            if (table.DataTable().page.info().serverSide) {
+                // the filter expression is evaluated on the server, which reports invalid expressions with each page
+                table.on('filter-error', function (_event, error) {
+                    if (error) {
+                        input.next('.invalid-feedback').text(error);
+                        input.addClass('is-invalid');
+                    }
+                    else {
+                        input.removeClass('is-invalid');
+                    }
+                });
+                input.on('input', function () {
+                    table.data('filter', input.val());
+                    redrawTableDebounced();
+                });
+                return;
+            }
+
+            // the rows of client side tables contain the raw values of the metrics, see ClassDetailsTableModel.Row
             $.fn.dataTable.ext.search.push(
                 function (_settings, _searchData, _index, rowData, _counter) {
                     return filterData(rowData.metricsRaw);
                 }
             );
 
-            var redrawTableDebounced = debounce(function () {
-                table.DataTable().draw();
-            }, 250);
-
             $(this).on('input', function () {
                 try {
                     $(this).removeClass('is-invalid');
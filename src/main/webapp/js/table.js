@@ -1,18 +1,138 @@
-/* global jQuery, math, view */
+/* global jQuery */
 (function ($) {
 
+    /**
+     * Converts a page of the table in the columnar format into the rows that are expected by the table columns.
+     *
+     * @param {Object} page - the decoded page, see columnar.js
+     * @returns {Array} - the rows of the page
+     */
+    function toRows(page) {
+        const rows = [];
+        for (let row = 0; row < page.rowCount; row++) {
+            const packageName = page.packages[page.packageIndex[row]];
+            const className = page.classes[row];
+            const link = $('<a>')
+                .attr('href', packageName + '.' + className)
+                .attr('target', 'blank')
+                .text(className);
+            const metricsDisplay = {};
+            page.columns.forEach(column => {
+                const value = $.renderMetricValue(column, row);
+                if (value !== undefined) {
+                    metricsDisplay[column.id] = value;
+                }
+            });
+            rows.push({
+                name: $('<span>').attr('title', packageName).append(link).prop('outerHTML'),
+                metricsDisplay: metricsDisplay
+            });
+        }
+        return rows;
+    }
+
+    /**
+     * Renders the history of a metric as a sparkline.
+     *
+     * @param {Array} values - the values of the metric in the latest builds, missing values are null
+     * @param {String} metricName - the name of the metric
+     * @returns {String} - the SVG element of the sparkline, or an empty string if there are less than two values
+     */
+    function renderSparkline(values, metricName) {
+        const points = values.map((value, index) => [index, value]).filter(([, value]) => value !== null);
+        if (points.length < 2) {
+            return '';
+        }
+        const width = 80;
+        const height = 20;
+        const min = Math.min(...points.map(([, value]) => value));
+        const max = Math.max(...points.map(([, value]) => value));
+        const x = index => 1 + index * (width - 2) / (values.length - 1);
+        const y = value => max === min ? height / 2 : height - 1 - (value - min) * (height - 2) / (max - min);
+        const title = metricName + ': ' + points[0][1] + ' \u2192 ' + points[points.length - 1][1];
+        return '<svg class="sparkline" width="' + width + '" height="' + height + '">'
+            + '<title>' + $('<div>').text(title).html() + '</title>'
+            + '<polyline fill="none" stroke="currentColor" stroke-width="1" points="'
+            + points.map(([index, value]) => x(index).toFixed(1) + ',' + y(value).toFixed(1)).join(' ')
+            + '"/></svg>';
+    }
+
     $.fn.extend({
         /**
-         * Renders the metrics table using datatables.
+         * Renders the metrics table using datatables. The classes table of the metrics view is paged, sorted and
+         * filtered on the server (attribute data-server-side), the methods table of the class details view is
+         * loaded at once and filtered in the browser.
          *
          * @param {Array} supportedMetrics - the metrics supported for this table
          */
         renderMetricsTable: function (supportedMetrics) {
-            const table = $(this).DataTable({
-                ajax: function (_data, callback, _settings) {
-                    view.getMetricsJSON(res => {
-                        callback({data: JSON.parse(res.responseJSON).rows});
-                    });
+            const element = $(this);
+            const url = $('#metrics-view').data('url') + 'metrics';
+            const serverSide = element.data('server-side') === true;
+
+            /**
+             * Shows an error of a request and hides the processing indicator of the table.
+             *
+             * @param {Error} error - the error of the request
+             * @param {Function} callback - the callback of the ajax function of the table
+             * @param {Number} [draw] - the draw counter of the request, server-side processing only
+             */
+            function showError(error, callback, draw) {
+                $(element.DataTable().table().container()).showLoadError(error);
+                callback({draw: draw, recordsTotal: 0, recordsFiltered: 0, data: []});
+            }
+
+            const table = element.DataTable({
+                serverSide: serverSide,
+                ajax: function (data, callback, _settings) {
+                    if (!serverSide) {
+                        // the methods table of the class details view is small enough to be loaded at once, its rows
+                        // contain the raw values for the filter, see ClassDetailsTableModel.Row
+                        $.fetchContent(url)
+                            .then(model => callback({data: model.rows}))
+                            .catch(error => showError(error, callback));
+                        return;
+                    }
+
+                    const query = {
+                        draw: data.draw,
+                        start: data.start,
+                        length: data.length,
+                        order: data.order
+                            .filter(({column}) => data.columns[column].data)
+                            .map(({column, dir}) => ({column: data.columns[column].data, dir: dir})),
+                        search: data.search.value,
+                        filter: element.data('filter') || ''
+                    };
+                    // the sparklines show the history of the sorted metric, or of the first metric otherwise
+                    const sortedMetric = supportedMetrics.find(
+                        ({id}) => query.order.length && query.order[0].column === 'metricsDisplay.' + id);
+                    const historyMetric = sortedMetric || supportedMetrics[0];
+                    query.history = historyMetric ? historyMetric.id : '';
+                    $.fetchContent(url + '?' + new URLSearchParams({query: JSON.stringify(query), format: 'columnar'}),
+                        'arrayBuffer')
+                        .then(buffer => {
+                            const page = $.decodeMetricsColumns(buffer);
+                            // errors of the filter expression are shown by the filter input, see table-filter.js
+                            element.trigger('filter-error', [page.error]);
+                            const rows = toRows(page);
+                            if (page.history) {
+                                rows.forEach((row, index) => {
+                                    row.history = renderSparkline(page.history.values[index],
+                                        historyMetric.displayName);
+                                });
+                                $(element.DataTable().column('history:name').header())
+                                    .text(element.data('history-of').replace('{0}', historyMetric.displayName));
+                            }
+                            $(element.DataTable().table().container()).prev('.load-error').remove();
+                            callback({
+                                draw: page.draw,
+                                recordsTotal: page.recordsTotal,
+                                recordsFiltered: page.recordsFiltered,
+                                data: rows
+                            });
+                        })
+                        .catch(error => showError(error, callback, data.draw));
                 },
                 columns: [
                     {
@@ -36,7 +156,15 @@
                             defaultContent: '',
                             className: 'hideable'
                             })
-                        )
+                        ),
+                    ...(serverSide ? [{
+                        name: 'history',
+                        data: 'history',
+                        title: element.data('history'),
+                        orderable: false,
+                        defaultContent: '',
+                        className: 'hideable'
+                    }] : [])
                 ],
                 order: [[1, 'asc']],
                 responsive: {
@@ -4,11 +4,42 @@
         /**
          * Renders a tree chart using ECharts.
          *
-         * @param {String} treeModel - the tree chart data model
+         * @param {Object} treeModel - the tree chart data model
          * @param {String} metricName - the name of the metric, used e.g. as title for the graph
+         * @param {Function} [loadSubtree] - loads the children of a lazy node: called with the path of the node and a
+         *     callback that receives the subtree model. Required if the model contains lazy nodes.
          */
-        renderTreeChart: function (treeModel, metricName) {
+        renderTreeChart: function (treeModel, metricName, loadSubtree) {
             var chart = echarts.init($(this)[0], 'light');
+            var root = treeModel;
+
+            /**
+             * Uses the path of the nodes as their IDs, so that the chart can zoom to a node after its children have
+             * been loaded.
+             */
+            function assignIds(node) {
+                if (node.path !== undefined) {
+                    node.id = node.path;
+                }
+                (node.children || []).forEach(assignIds);
+            }
+
+            function findNode(node, path) {
+                if (node.path === path) {
+                    return node;
+                }
+                for (const child of node.children || []) {
+                    if (path.startsWith(child.path)) {
+                        const found = findNode(child, path);
+                        if (found) {
+                            return found;
+                        }
+                    }
+                }
+                return null;
+            }
+
+            assignIds(root);
             var options = {
                 title: {
                     text: 'Tree Map for "' + metricName + '"',
@@ -93,7 +124,7 @@
                                 }
                             }
                         ],
-                        data: [JSON.parse(treeModel)]
+                        data: [root]
                     }
                 ]
             };
@@ -103,6 +134,30 @@
                 chart.resize();
             });
             $(this).data('chart', chart);
+
+            if (loadSubtree) {
+                chart.on('click', function (params) {
+                    if (!params.data || !params.data.lazy) {
+                        return;
+                    }
+                    const path = params.data.path;
+                    loadSubtree(path, function (subtree) {
+                        const node = findNode(root, path);
+                        if (!node || !node.lazy) {
+                            return;
+                        }
+                        assignIds(subtree);
+                        node.children = subtree.children;
+                        node.lazy = false;
+                        chart.setOption({series: [{data: [root]}]});
+                        chart.dispatchAction({
+                            type: 'treemapZoomToNode',
+                            seriesIndex: 0,
+                            targetNodeId: path
+                        });
+                    });
+                });
+            }
         }
     });
 })(jQuery);
@@ -0,0 +1,78 @@
+/* global jQuery, echarts */
+(function ($) {
+    // maximum number of builds that are loaded for the trend, the slider initially shows the latest builds only
+    const TREND_BUILDS = 1000;
+    const VISIBLE_BUILDS = 50;
+
+    $.fn.extend({
+        /**
+         * Renders the trend of metrics using ECharts. Each metric is shown as a line, the legend toggles the metrics.
+         *
+         * @param {Object} trend - the trend model, containing the build numbers and the values of each metric
+         * @param {String} title - the title of the chart
+         * @param {Function} openBuild - called with the build number if a build is clicked
+         */
+        renderTrendChart: function (trend, title, openBuild) {
+            const chart = echarts.init($(this)[0], 'light');
+            const builds = trend.builds.map(build => '#' + build);
+            chart.setOption({
+                title: {
+                    text: title,
+                    left: 'center'
+                },
+                tooltip: {
+                    trigger: 'axis'
+                },
+                legend: {
+                    type: 'scroll',
+                    bottom: 0,
+                    // show the first metric only, the metrics usually have very different ranges
+                    selected: Object.fromEntries(trend.series.map(({name}, index) => [name, index === 0]))
+                },
+                grid: {
+                    bottom: 80
+                },
+                dataZoom: [
+                    {
+                        type: 'slider',
+                        bottom: 30,
+                        startValue: Math.max(0, builds.length - VISIBLE_BUILDS)
+                    }
+                ],
+                xAxis: {
+                    type: 'category',
+                    boundaryGap: false,
+                    data: builds
+                },
+                yAxis: {
+                    type: 'value'
+                },
+                series: trend.series.map(({name, values}) => ({
+                    name: name,
+                    type: 'line',
+                    connectNulls: true,
+                    showSymbol: false,
+                    data: values
+                }))
+            });
+            chart.on('click', function (params) {
+                openBuild(trend.builds[params.dataIndex]);
+            });
+            $(window).on('resize', function () {
+                chart.resize();
+            });
+        }
+    });
+
+    $(document).ready(function () {
+        const element = $('#metrics-trend-chart');
+        if (element.length) {
+            const url = element.data('url');
+            $.fetchContent(url + 'trend?' + new URLSearchParams({builds: TREND_BUILDS}))
+                .then(trend => element.renderTrendChart(trend, element.data('title'), function (build) {
+                    window.location.assign(url + '../' + build + '/metrics-aggregation');
+                }))
+                .catch(error => element.showLoadError(error));
+        }
+    });
+})(jQuery);
@@ -0,0 +1,102 @@
+package io.jenkins.plugins.metrics.extension;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import hudson.model.Job;
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.IntegerMetric;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Creates the mocked jobs and builds, and the snapshots of their metrics, that are used by the tests of the metrics
+ * stores, the snapshot cache, and the folder aggregation.
+ */
+final class BuildFixtures {
+    private static final MetricDefinition LINES_OF_CODE = new MetricDefinitionBuilder("LOC")
+            .withScopes(Scope.CLASS)
+            .build();
+
+    private BuildFixtures() {
+        // prevents instantiation
+    }
+
+    /**
+     * Creates a job that stores its files in the specified folder.
+     *
+     * @param jobFolder
+     *         the root folder of the job
+     *
+     * @return the job
+     */
+    static Job<?, ?> createJob(final Path jobFolder) {
+        Job<?, ?> job = mock(Job.class);
+        when(job.getRootDir()).thenReturn(jobFolder.toFile());
+        return job;
+    }
+
+    /**
+     * Creates a job with the specified name.
+     *
+     * @param name
+     *         the full name (and display name) of the job
+     *
+     * @return the job
+     */
+    static Job<?, ?> createJob(final String name) {
+        Job<?, ?> job = mock(Job.class);
+        when(job.getFullName()).thenReturn(name);
+        when(job.getFullDisplayName()).thenReturn(name);
+        return job;
+    }
+
+    /**
+     * Creates a build of the specified job. The build has been started {@code number} seconds after the epoch, its
+     * URL is composed of the name of the job and the build number.
+     *
+     * @param job
+     *         the job of the build
+     * @param number
+     *         the build number
+     *
+     * @return the build
+     */
+    static Run<?, ?> createRun(final Job<?, ?> job, final int number) {
+        var url = job.getFullName() + "/" + number + "/";
+        Run<?, ?> run = mock(Run.class);
+        doReturn(job).when(run).getParent();
+        when(run.getNumber()).thenReturn(number);
+        when(run.getTimeInMillis()).thenReturn(number * 1000L);
+        when(run.getUrl()).thenReturn(url);
+        return run;
+    }
+
+    /**
+     * Creates a complete snapshot with the specified number of classes {@code edu.hm.Class0}, {@code edu.hm.Class1},
+     * and so on. Each class has a single line of code (metric {@code LOC}).
+     *
+     * @param numberOfClasses
+     *         the number of classes
+     *
+     * @return the snapshot
+     */
+    static MetricsSnapshot createSnapshot(final int numberOfClasses) {
+        List<ClassMetricsMeasurement> classes = new ArrayList<>();
+        for (int i = 0; i < numberOfClasses; i++) {
+            classes.add(new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Class" + i)
+                    .withMetric(new IntegerMetric(LINES_OF_CODE, 1))
+                    .build());
+        }
+        return new MetricsSnapshot(ClassMetricsTable.create(classes), List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,103 @@
+package io.jenkins.plugins.metrics.extension;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import hudson.model.Job;
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.BranchMetrics;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+import static io.jenkins.plugins.metrics.extension.BuildFixtures.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FolderMetricsAggregatorTest {
+    private final Map<Run<?, ?>, AtomicInteger> loads = new ConcurrentHashMap<>();
+    private final Function<Run<?, ?>, Optional<MetricsSnapshot>> snapshots = build -> {
+        loads.computeIfAbsent(build, key -> new AtomicInteger()).incrementAndGet();
+        return Optional.of(createSnapshot(build.getNumber()));
+    };
+
+    @Test
+    void shouldCombineAllJobsInOrder() {
+        List<Job<?, ?>> jobs = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            jobs.add(createJob("folder/branch-" + i, i));
+        }
+        jobs.add(createJob("folder/never-built", 0));
+
+        var metrics = new FolderMetricsAggregator(snapshots, 100, 10).aggregate("folder", jobs);
+
+        assertThat(metrics.getBranches()).hasSize(20);
+        assertThat(metrics.getBranches()).extracting(BranchMetrics::getName).startsWith("folder/branch-1",
+                "folder/branch-2").endsWith("folder/branch-20");
+        assertThat(metrics.getClassCount()).isEqualTo(210); // build n has n classes
+        assertThat(metrics.getTotal("LOC")).isEqualTo(210);
+        assertThat(metrics.getWorstBranches("LOC", 1)).extracting(BranchMetrics::getName)
+                .containsExactly("folder/branch-20");
+    }
+
+    @Test
+    void shouldCacheFolderAndJobs() {
+        var first = createJob("folder/first", 1);
+        var second = createJob("folder/second", 2);
+        var aggregator = new FolderMetricsAggregator(snapshots, 100, 10);
+
+        var metrics = aggregator.aggregate("folder", List.of(first, second));
+        assertThat(aggregator.aggregate("folder", List.of(first, second))).isSameAs(metrics);
+
+        // another user might see only some of the jobs
+        assertThat(aggregator.aggregate("folder", List.of(second)).getBranches()).hasSize(1);
+        assertThat(loads.values()).allSatisfy(count -> assertThat(count).hasValue(1));
+
+        var next = createRun(second, 3);
+        doReturn(next).when(second).getLastCompletedBuild();
+        aggregator.invalidate(second);
+
+        var updated = aggregator.aggregate("folder", List.of(first, second));
+        assertThat(updated).isNotSameAs(metrics);
+        assertThat(updated.getTotal("LOC")).isEqualTo(4);
+        assertThat(loads.get(first.getLastCompletedBuild())).hasValue(1);
+        assertThat(loads.get(next)).hasValue(1);
+    }
+
+    @Test
+    void shouldCountJobsWithoutStoredSnapshot() {
+        var stored = createJob("folder/stored", 1);
+        var missing = createJob("folder/missing", 2);
+        Map<Run<?, ?>, MetricsSnapshot> storedSnapshots = new ConcurrentHashMap<>();
+        storedSnapshots.put(stored.getLastCompletedBuild(), createSnapshot(1));
+        var aggregator = new FolderMetricsAggregator(build -> Optional.ofNullable(storedSnapshots.get(build)), 100,
+                10);
+
+        var metrics = aggregator.aggregate("folder", List.of(stored, missing));
+        assertThat(metrics.getBranches()).extracting(BranchMetrics::getName).containsExactly("folder/stored");
+        assertThat(metrics.getMissingCount()).isEqualTo(1);
+
+        // the snapshot is stored once the metrics of the build have been opened
+        storedSnapshots.put(missing.getLastCompletedBuild(), createSnapshot(2));
+
+        var completed = aggregator.aggregate("folder", List.of(stored, missing));
+        assertThat(completed.getBranches()).hasSize(2);
+        assertThat(completed.getMissingCount()).isZero();
+        assertThat(aggregator.aggregate("folder", List.of(stored, missing))).isSameAs(completed);
+    }
+
+    private Job<?, ?> createJob(final String name, final int build) {
+        var job = BuildFixtures.createJob(name);
+        if (build > 0) {
+            var run = createRun(job, build);
+            doReturn(run).when(job).getLastCompletedBuild();
+        }
+        return job;
+    }
+}
@@ -0,0 +1,219 @@
+package io.jenkins.plugins.metrics.extension;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.IntegerMetric;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+import io.jenkins.plugins.metrics.model.MetricsTrend;
+
+import static io.jenkins.plugins.metrics.extension.BuildFixtures.*;
+import static org.assertj.core.api.Assertions.*;
+
+class MetricsHistoryStoreTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC")
+            .withDisplayName("Lines of Code")
+            .withScopes(Scope.CLASS)
+            .build();
+    private static final MetricDefinition WARNINGS = new MetricDefinitionBuilder("WARNINGS")
+            .withScopes(Scope.CLASS)
+            .build();
+
+    @Test
+    void shouldReadHistoryOfClass(@TempDir final Path jobFolder) {
+        var job = createJob(jobFolder);
+        var store = new MetricsHistoryStore();
+
+        store.append(createRun(job, 1), createTable(createClass("Foo", 100, 1), createClass("Bar", 10, 0)));
+        store.append(createRun(job, 2), createTable(createClass("Foo", 100, 1), createClass("Bar", 20, 0)));
+        store.append(createRun(job, 3), createTable(createClass("Foo", 120, 2)));
+        store.append(createRun(job, 5), createTable(createClass("Foo", 120, 2), createClass("Bar", 30, 0)));
+
+        var foo = store.read(job, "edu.hm.Foo", 5, 50);
+        assertThat(foo.size()).isEqualTo(4);
+        assertThat(foo.getBuildNumber(3)).isEqualTo(5);
+        assertThat(foo.getTimestamp(3)).isEqualTo(5000);
+        assertThat(foo.getMetricIds()).containsExactlyInAnyOrder("LOC", "WARNINGS");
+        assertThat(foo.getDisplayName("LOC")).isEqualTo("Lines of Code");
+        assertThat(values(foo, "LOC")).containsExactly(100, 100, 120, 120);
+        assertThat(values(foo, "WARNINGS")).containsExactly(1, 1, 2, 2);
+
+        var bar = store.read(job, "edu.hm.Bar", 5, 50);
+        assertThat(values(bar, "LOC")).containsExactly(10, 20, Double.NaN, 30);
+
+        assertThat(store.read(job, "edu.hm.Missing", 5, 50).getMetricIds()).isEmpty();
+    }
+
+    @Test
+    void shouldWriteChangedClassesOnly(@TempDir final Path jobFolder) throws Exception {
+        var job = createJob(jobFolder);
+        var store = new MetricsHistoryStore();
+        var file = jobFolder.resolve(MetricsHistoryStore.HISTORY_FILE_NAME);
+
+        var classes = createTable(createClass("Foo", 100, 1), createClass("Bar", 10, 0));
+        store.append(createRun(job, 1), classes);
+        long size = Files.size(file);
+        store.append(createRun(job, 2), classes);
+        long unchangedBuildSize = Files.size(file) - size;
+
+        assertThat(unchangedBuildSize).isEqualTo(1 + Integer.BYTES + Long.BYTES + Integer.BYTES);
+    }
+
+    @Test
+    void shouldDetectChangesAfterReadingExistingFile(@TempDir final Path jobFolder, @TempDir final Path copy)
+            throws Exception {
+        var store = new MetricsHistoryStore();
+        store.append(createRun(createJob(jobFolder), 1),
+                createTable(createClass("Foo", 100, 1), createClass("Bar", 10, 0)));
+
+        var file = copy.resolve(MetricsHistoryStore.HISTORY_FILE_NAME);
+        Files.copy(jobFolder.resolve(MetricsHistoryStore.HISTORY_FILE_NAME), file);
+        long size = Files.size(file);
+
+        var job = createJob(copy); // the copy has not been indexed yet
+        store.append(createRun(job, 2), createTable(createClass("Foo", 100, 1), createClass("Bar", 10, 0)));
+        assertThat(Files.size(file) - size).isEqualTo(1 + Integer.BYTES + Long.BYTES + Integer.BYTES);
+
+        store.append(createRun(job, 3), createTable(createClass("Foo", 100, 2), createClass("Bar", 10, 0)));
+        assertThat(values(store.read(job, "edu.hm.Foo", 3, 50), "WARNINGS")).containsExactly(1, 1, 2);
+    }
+
+    @Test
+    void shouldReadRangeOfBuilds(@TempDir final Path jobFolder) {
+        var job = createJob(jobFolder);
+        var store = new MetricsHistoryStore();
+        for (int build = 1; build <= 10; build++) {
+            store.append(createRun(job, build), createTable(createClass("Foo", build < 4 ? 10 : build * 10, 0)));
+        }
+
+        var history = store.read(job, "edu.hm.Foo", 7, 3);
+
+        assertThat(history.size()).isEqualTo(3);
+        assertThat(history.getBuildNumber(0)).isEqualTo(5);
+        assertThat(values(history, "LOC")).containsExactly(50, 60, 70);
+        assertThat(values(store.read(job, "edu.hm.Foo", 3, 5), "LOC")).containsExactly(10, 10, 10);
+    }
+
+    @Test
+    void shouldReadMetricOfSeveralClasses(@TempDir final Path jobFolder) {
+        var job = createJob(jobFolder);
+        var store = new MetricsHistoryStore();
+        store.append(createRun(job, 1), createTable(createClass("Foo", 100, 1)));
+        store.append(createRun(job, 2), createTable(createClass("Foo", 110, 1), createClass("Bar", 10, 0)));
+
+        var values = store.read(job, List.of("edu.hm.Bar", "edu.hm.Foo", "edu.hm.Missing"), "LOC", 2, 50);
+
+        assertThat(values[0]).containsExactly(Double.NaN, 10);
+        assertThat(values[1]).containsExactly(100, 110);
+        assertThat(values[2]).containsExactly(Double.NaN, Double.NaN);
+        assertThat(store.read(job, List.of("edu.hm.Foo"), "MISSING", 2, 50)[0])
+                .containsExactly(Double.NaN, Double.NaN);
+    }
+
+    @Test
+    void shouldIgnoreOlderBuildsAndIncompleteRecords(@TempDir final Path jobFolder) throws Exception {
+        var job = createJob(jobFolder);
+        var store = new MetricsHistoryStore();
+        store.append(createRun(job, 1), createTable(createClass("Foo", 100, 1)));
+        store.append(createRun(job, 2), createTable(createClass("Foo", 110, 1)));
+        store.append(createRun(job, 2), createTable(createClass("Foo", 500, 1)));
+
+        try (var file = new RandomAccessFile(jobFolder.resolve(MetricsHistoryStore.HISTORY_FILE_NAME).toFile(),
+                "rw")) {
+            file.setLength(file.length() - 3); // simulate an interrupted append
+        }
+        store.append(createRun(job, 3), createTable(createClass("Foo", 130, 1)));
+
+        var history = store.read(job, "edu.hm.Foo", 3, 50);
+        assertThat(history.size()).isEqualTo(2);
+        assertThat(history.getBuildNumber(1)).isEqualTo(3);
+        assertThat(values(history, "LOC")).containsExactly(100, 130);
+    }
+
+    @Test
+    void shouldSkipRemovedBuilds(@TempDir final Path jobFolder, @TempDir final Path copy) throws Exception {
+        var job = createJob(jobFolder);
+        var store = new MetricsHistoryStore();
+        for (int build = 1; build <= 5; build++) {
+            store.append(createRun(job, build), createTable(createClass("Foo", build * 10, 0)));
+        }
+
+        var file = jobFolder.resolve(MetricsHistoryStore.HISTORY_FILE_NAME);
+        store.remove(createRun(job, 2));
+        store.remove(createRun(job, 5));
+        long size = Files.size(file);
+        store.remove(createRun(job, 5));
+        store.remove(createRun(job, 9));
+        assertThat(Files.size(file)).as("unknown builds are not removed again").isEqualTo(size);
+
+        var history = store.read(job, "edu.hm.Foo", 5, 3);
+        assertThat(history.size()).isEqualTo(3);
+        assertThat(history.getBuildNumber(0)).isEqualTo(1);
+        assertThat(history.getBuildNumber(2)).isEqualTo(4);
+        assertThat(values(history, "LOC")).containsExactly(10, 30, 40);
+        assertThat(store.read(job, List.of("edu.hm.Foo"), "LOC", 5, 3)[0]).containsExactly(10, 30, 40);
+
+        Files.copy(file, copy.resolve(MetricsHistoryStore.HISTORY_FILE_NAME));
+        assertThat(values(store.read(createJob(copy), "edu.hm.Foo", 5, 50), "LOC")).containsExactly(10, 30, 40);
+    }
+
+    @Test
+    void shouldIndexFileThatIsLargerThanChunk(@TempDir final Path jobFolder, @TempDir final Path copy)
+            throws Exception {
+        var store = new MetricsHistoryStore();
+        var job = createJob(jobFolder);
+        for (int build = 1; build <= 2; build++) {
+            var classes = new ClassMetricsMeasurement[30_000];
+            for (int i = 0; i < classes.length; i++) {
+                classes[i] = createClass("VeryLongClassNameThatMakesTheDictionaryLarge" + i, i + build, build);
+            }
+            store.append(createRun(job, build), createTable(classes));
+        }
+
+        var file = copy.resolve(MetricsHistoryStore.HISTORY_FILE_NAME);
+        Files.copy(jobFolder.resolve(MetricsHistoryStore.HISTORY_FILE_NAME), file);
+        assertThat(Files.size(file)).isGreaterThan(2 * 1024 * 1024);
+
+        var history = store.read(createJob(copy), "edu.hm.VeryLongClassNameThatMakesTheDictionaryLarge29999", 2,
+                50);
+        assertThat(values(history, "LOC")).containsExactly(30_000, 30_001);
+        assertThat(values(history, "WARNINGS")).containsExactly(1, 2);
+    }
+
+    @Test
+    void shouldReturnEmptyHistoryWithoutFile(@TempDir final Path jobFolder) {
+        var job = createJob(jobFolder);
+        var store = new MetricsHistoryStore();
+
+        assertThat(store.read(job, "edu.hm.Foo", 1, 50).isEmpty()).isTrue();
+        assertThat(store.read(job, List.of("edu.hm.Foo"), "LOC", 1, 50)[0]).isEmpty();
+    }
+
+    private double[] values(final MetricsTrend trend, final String metricId) {
+        var values = new double[trend.size()];
+        Arrays.setAll(values, index -> trend.getValue(metricId, index));
+        return values;
+    }
+
+    private ClassMetricsTable createTable(final ClassMetricsMeasurement... classes) {
+        return ClassMetricsTable.create(List.of(classes));
+    }
+
+    private ClassMetricsMeasurement createClass(final String name, final int loc, final int warnings) {
+        return new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName(name)
+                .withMetric(new IntegerMetric(LOC, loc))
+                .withMetric(new IntegerMetric(WARNINGS, warnings))
+                .build();
+    }
+}
@@ -0,0 +1,150 @@
+package io.jenkins.plugins.metrics.extension;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MetricsProviderExecutorTest {
+    private static final CountDownLatch NEVER = new CountDownLatch(1);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldReturnResultsOfAllFactories() {
+        var result = new MetricsProviderExecutor(10_000).fanOut(
+                List.of(new FastFactory("first"), new FastFactory("second")),
+                f -> f.getMetricsProviderFor(null), executor);
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getResults()).extracting(MetricsProvider::getOrigin).containsExactly("first", "second");
+    }
+
+    @Test
+    void shouldSkipFactoriesThatTimeOut() {
+        var result = new MetricsProviderExecutor(200).fanOut(
+                List.of(new FastFactory("fast"), new SlowFactory()),
+                f -> f.getMetricsProviderFor(null), executor);
+
+        assertThat(result.isComplete()).isFalse();
+        assertThat(result.getResults()).extracting(MetricsProvider::getOrigin).containsExactly("fast");
+        assertThat(result.getIncompleteFactories()).containsExactly(SlowFactory.class.getSimpleName());
+    }
+
+    @Test
+    void shouldSkipFactoriesThatFail() {
+        var result = new MetricsProviderExecutor(10_000).fanOut(
+                List.of(new FailingFactory(), new FastFactory("fast")),
+                f -> f.getMetricsProviderFor(null), executor);
+
+        assertThat(result.getResults()).extracting(MetricsProvider::getOrigin).containsExactly("fast");
+        assertThat(result.getIncompleteFactories()).containsExactly(FailingFactory.class.getSimpleName());
+    }
+
+    @Test
+    void shouldApplyTimeLimitAndFailureIsolationToSingleFactory() {
+        var executor = new MetricsProviderExecutor(200);
+
+        var hanging = executor.fanOut(List.of(new SlowFactory()), f -> f.getMetricsProviderFor(null));
+        assertThat(hanging.getResults()).isEmpty();
+        assertThat(hanging.getIncompleteFactories()).containsExactly(SlowFactory.class.getSimpleName());
+
+        var failing = executor.fanOut(List.of(new FailingFactory()), f -> f.getMetricsProviderFor(null));
+        assertThat(failing.getResults()).isEmpty();
+        assertThat(failing.getIncompleteFactories()).containsExactly(FailingFactory.class.getSimpleName());
+    }
+
+    @Test
+    void shouldSkipFactoriesThatFailWhenCalledSequentially() {
+        var result = new MetricsProviderExecutor(200).callSequentially(
+                List.of(new FailingFactory(), new FastFactory("fast")), f -> f.getMetricsProviderFor(null));
+
+        assertThat(result.getResults()).extracting(MetricsProvider::getOrigin).containsExactly("fast");
+        assertThat(result.getIncompleteFactories()).containsExactly(FailingFactory.class.getSimpleName());
+    }
+
+    @Test
+    void shouldRejectFactoriesIfAllThreadsAreBusy() {
+        var singleThread = new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new SynchronousQueue<>());
+        try {
+            var result = new MetricsProviderExecutor(200).fanOut(
+                    List.of(new SlowFactory(), new FastFactory("fast")),
+                    f -> f.getMetricsProviderFor(null), singleThread);
+
+            assertThat(result.getResults()).isEmpty();
+            assertThat(result.getIncompleteFactories()).containsExactly(SlowFactory.class.getSimpleName(),
+                    FastFactory.class.getSimpleName());
+        }
+        finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    private static class FastFactory extends MetricsProviderFactory {
+        private final String origin;
+
+        FastFactory(final String origin) {
+            super();
+
+            this.origin = origin;
+        }
+
+        @Override
+        protected MetricsProvider getMetricsProviderFor(final Run<?, ?> build) {
+            var provider = new MetricsProvider();
+            provider.setOrigin(origin);
+            return provider;
+        }
+
+        @Override
+        public Set<MetricDefinition> getAvailableMetricsFor(final Run<?, ?> build) {
+            return Set.of();
+        }
+    }
+
+    private static class SlowFactory extends FastFactory {
+        SlowFactory() {
+            super("slow");
+        }
+
+        @Override
+        protected MetricsProvider getMetricsProviderFor(final Run<?, ?> build) {
+            try {
+                assertThat(NEVER.await(10, TimeUnit.SECONDS)).isFalse();
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getMetricsProviderFor(build);
+        }
+    }
+
+    private static class FailingFactory extends FastFactory {
+        FailingFactory() {
+            super("failing");
+        }
+
+        @Override
+        protected MetricsProvider getMetricsProviderFor(final Run<?, ?> build) {
+            throw new IllegalStateException("Provider is broken");
+        }
+    }
+}
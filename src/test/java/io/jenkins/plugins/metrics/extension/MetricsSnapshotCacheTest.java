@@ -0,0 +1,233 @@
+package io.jenkins.plugins.metrics.extension;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.MetricsDiff;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+import static io.jenkins.plugins.metrics.extension.BuildFixtures.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MetricsSnapshotCacheTest {
+    private static final long RETRY_NANOS = 1000L;
+
+    private final AtomicLong time = new AtomicLong();
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    @Test
+    void shouldLoadSnapshotOnlyOnce() throws Exception {
+        var run = createRun("job#1");
+        var snapshot = createSnapshot(10);
+
+        var started = new CountDownLatch(1);
+        var proceed = new CountDownLatch(1);
+        var store = mock(MetricsSnapshotStore.class);
+        when(store.getOrCreate(run)).thenAnswer(invocation -> {
+            started.countDown();
+            assertThat(proceed.await(10, TimeUnit.SECONDS)).isTrue();
+            return snapshot;
+        });
+
+        var cache = createCache(store, Long.MAX_VALUE);
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<MetricsSnapshot>> requests = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                requests.add(executor.submit(() -> cache.get(run)));
+            }
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            proceed.countDown();
+
+            for (Future<MetricsSnapshot> request : requests) {
+                assertThat(request.get(10, TimeUnit.SECONDS)).isSameAs(snapshot);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(cache.get(run)).isSameAs(snapshot);
+        verify(store, times(1)).getOrCreate(run);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedSnapshot() {
+        var first = createRun("job#1");
+        var second = createRun("job#2");
+        var third = createRun("job#3");
+
+        var snapshot = createSnapshot(10);
+        var store = mock(MetricsSnapshotStore.class);
+        when(store.getOrCreate(any())).thenReturn(snapshot);
+
+        var cache = createCache(store, 2 * snapshot.getEstimatedSize());
+        cache.get(first);
+        cache.get(second);
+        cache.get(first);
+        cache.get(third); // evicts the second build
+
+        assertThat(cache.getSize()).isEqualTo(2 * snapshot.getEstimatedSize());
+
+        cache.get(first);
+        verify(store, times(1)).getOrCreate(first);
+        cache.get(second);
+        verify(store, times(2)).getOrCreate(second);
+    }
+
+    @Test
+    void shouldRefreshSnapshotsOfRunningBuildsInBackground() {
+        var run = createRun("job#1");
+        when(run.isBuilding()).thenReturn(true);
+
+        var running = createSnapshot(1);
+        var refreshed = createSnapshot(2);
+        var store = mock(MetricsSnapshotStore.class);
+        when(store.getOrCreate(run)).thenReturn(running, refreshed);
+
+        var cache = createCache(store, Long.MAX_VALUE);
+        assertThat(cache.get(run)).isSameAs(running);
+        assertThat(cache.get(run)).isSameAs(running);
+        verify(store, times(1)).getOrCreate(run);
+
+        time.addAndGet(RETRY_NANOS);
+        assertThat(cache.get(run)).as("outdated snapshot while refreshing").isSameAs(running);
+        assertThat(refreshes).hasSize(1);
+        refreshes.remove(0).run();
+
+        assertThat(cache.get(run)).isSameAs(refreshed);
+        verify(store, times(2)).getOrCreate(run);
+    }
+
+    @Test
+    void shouldRetryIncompleteSnapshotsInBackground() {
+        var run = createRun("job#1");
+
+        var incomplete = new MetricsSnapshot(ClassMetricsTable.create(List.of()), List.of(), List.of(), List.of(),
+                List.of(), List.of("SlowFactory"));
+        var complete = createSnapshot(1);
+        var store = mock(MetricsSnapshotStore.class);
+        when(store.getOrCreate(run)).thenReturn(incomplete, complete);
+
+        var cache = createCache(store, Long.MAX_VALUE);
+        assertThat(cache.get(run)).isSameAs(incomplete);
+        assertThat(cache.get(run)).isSameAs(incomplete);
+        assertThat(refreshes).isEmpty();
+
+        time.addAndGet(RETRY_NANOS);
+        assertThat(cache.get(run)).isSameAs(incomplete);
+        assertThat(cache.get(run)).isSameAs(incomplete);
+        assertThat(refreshes).as("only one refresh at a time").hasSize(1);
+        refreshes.remove(0).run();
+
+        time.addAndGet(RETRY_NANOS);
+        assertThat(cache.get(run)).isSameAs(complete);
+        assertThat(refreshes).as("complete snapshots are final").isEmpty();
+        verify(store, times(2)).getOrCreate(run);
+    }
+
+    @Test
+    void shouldCreateSnapshotOfCompletedBuildInBackground() {
+        var run = createRun("job#1");
+        var snapshot = createSnapshot(1);
+        var store = mock(MetricsSnapshotStore.class);
+        when(store.create(run)).thenReturn(snapshot);
+
+        var cache = createCache(store, Long.MAX_VALUE);
+        List<MetricsSnapshot> created = new ArrayList<>();
+        cache.createInBackground(run, created::add);
+
+        verify(store, never()).create(run);
+        assertThat(refreshes).hasSize(1);
+        refreshes.remove(0).run();
+
+        assertThat(created).containsExactly(snapshot);
+        assertThat(cache.get(run)).isSameAs(snapshot);
+        verify(store, never()).getOrCreate(run);
+    }
+
+    @Test
+    void shouldInvalidateSnapshot() {
+        var run = createRun("job#1");
+        var store = mock(MetricsSnapshotStore.class);
+        when(store.getOrCreate(run)).thenReturn(createSnapshot(1));
+
+        var cache = createCache(store, Long.MAX_VALUE);
+        cache.get(run);
+        cache.invalidate(run);
+        cache.get(run);
+
+        verify(store, times(2)).getOrCreate(run);
+    }
+
+    @Test
+    void shouldCacheDiffsOfFinalSnapshotsOnly() {
+        var run = createRun("job#2");
+        var reference = createRun("job#1");
+        var running = createRun("job#3");
+        when(running.isBuilding()).thenReturn(true);
+        var store = mock(MetricsSnapshotStore.class);
+        when(store.getOrCreate(any())).thenReturn(createSnapshot(1));
+
+        var cache = createCache(store, Long.MAX_VALUE);
+        var comparisons = new AtomicInteger();
+        Supplier<MetricsDiff> comparison = () -> {
+            comparisons.incrementAndGet();
+            return MetricsDiff.compare(ClassMetricsTable.create(List.of()), ClassMetricsTable.create(List.of()), 1);
+        };
+
+        var notLoaded = cache.getDiff(run, reference, comparison);
+        assertThat(cache.getDiff(run, reference, comparison)).as("snapshots not loaded yet").isNotSameAs(notLoaded);
+
+        cache.get(run);
+        cache.get(reference);
+        cache.get(running);
+        var diff = cache.getDiff(run, reference, comparison);
+        assertThat(cache.getDiff(run, reference, comparison)).isSameAs(diff);
+        assertThat(cache.getDiff(running, run, comparison)).isNotSameAs(cache.getDiff(running, run, comparison));
+        assertThat(comparisons).hasValue(5);
+    }
+
+    @Test
+    void shouldRemoveDiffsOfInvalidatedSnapshots() {
+        var run = createRun("job#2");
+        var reference = createRun("job#1");
+        var store = mock(MetricsSnapshotStore.class);
+        when(store.getOrCreate(any())).thenReturn(createSnapshot(1));
+
+        var cache = createCache(store, Long.MAX_VALUE);
+        cache.get(run);
+        cache.get(reference);
+        Supplier<MetricsDiff> comparison = () -> MetricsDiff.compare(ClassMetricsTable.create(List.of()),
+                ClassMetricsTable.create(List.of()), 1);
+        var diff = cache.getDiff(run, reference, comparison);
+
+        cache.invalidate(reference);
+        cache.get(reference);
+
+        assertThat(cache.getDiff(run, reference, comparison)).isNotSameAs(diff);
+    }
+
+    private MetricsSnapshotCache createCache(final MetricsSnapshotStore store, final long maxSize) {
+        return new MetricsSnapshotCache(store, maxSize, RETRY_NANOS, refreshes::add, time::get);
+    }
+
+    private Run<?, ?> createRun(final String id) {
+        Run<?, ?> run = mock(Run.class);
+        when(run.getExternalizableId()).thenReturn(id);
+        return run;
+    }
+}
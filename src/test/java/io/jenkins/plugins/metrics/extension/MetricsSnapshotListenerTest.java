@@ -0,0 +1,48 @@
+package io.jenkins.plugins.metrics.extension;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+import static io.jenkins.plugins.metrics.extension.BuildFixtures.*;
+import static org.mockito.Mockito.*;
+
+class MetricsSnapshotListenerTest {
+    private final MetricsSnapshotStore store = mock(MetricsSnapshotStore.class);
+    private final MetricsTrendStore trendStore = mock(MetricsTrendStore.class);
+    private final MetricsHistoryStore historyStore = mock(MetricsHistoryStore.class);
+    private final MetricsSummaryStore summaryStore = mock(MetricsSummaryStore.class);
+    private final MetricsSnapshotListener listener = new MetricsSnapshotListener(store, trendStore, historyStore,
+            summaryStore);
+
+    @Test
+    void shouldNotStoreEmptySnapshots() {
+        Run<?, ?> run = mock(Run.class);
+
+        listener.persist(run, new MetricsSnapshot(ClassMetricsTable.create(List.of()), List.of(), List.of(),
+                List.of(), List.of()));
+
+        verifyNoInteractions(store, trendStore, historyStore, summaryStore);
+    }
+
+    @Test
+    void shouldStoreSnapshotWithClasses() {
+        var run = createRun(createJob("job"), 1);
+        var classes = ClassMetricsTable.create(List.of(
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Foo").build()));
+        var snapshot = new MetricsSnapshot(classes, List.of(), List.of(), List.of(), List.of());
+
+        listener.persist(run, snapshot);
+
+        verify(store).save(run, snapshot);
+        verify(trendStore).append(run, snapshot.getProjectMetrics());
+        verify(historyStore).append(run, classes);
+        verify(summaryStore).save(run, snapshot.getProjectMetrics());
+    }
+}
@@ -0,0 +1,190 @@
+package io.jenkins.plugins.metrics.extension;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.DuplicateMetricPolicy;
+import io.jenkins.plugins.metrics.model.IntegerMetric;
+import io.jenkins.plugins.metrics.model.Metric;
+import io.jenkins.plugins.metrics.model.MethodMetricsMeasurement.MethodMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+import io.jenkins.plugins.metrics.model.MetricsMeasurement;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MetricsSnapshotStoreTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC")
+            .withScopes(Scope.CLASS, Scope.METHOD)
+            .build();
+    private static final MetricDefinition WARNINGS = new MetricDefinitionBuilder("WARNINGS")
+            .withScopes(Scope.CLASS)
+            .build();
+
+    @Test
+    void shouldMergeMeasurementsOfAllProviders() {
+        var first = createProvider("first",
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Foo")
+                        .withMetric(new IntegerMetric(LOC, 100)).build(),
+                new MethodMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Foo")
+                        .withMethodName("bar").withMetric(new IntegerMetric(LOC, 10)).build());
+        var second = createProvider("second",
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Foo")
+                        .withMetric(new IntegerMetric(WARNINGS, 3)).build(),
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Other")
+                        .withMetric(new IntegerMetric(WARNINGS, 1)).build());
+
+        var snapshot = MetricsSnapshotStore.aggregate(List.of(first, second), List.of(LOC, WARNINGS));
+
+        var classes = snapshot.getClasses();
+        assertThat(classes.getRowCount()).isEqualTo(2);
+        assertThat(classes.findRow("edu.hm.Foo")).hasValueSatisfying(foo -> {
+            assertThat(classes.getColumn("LOC")).hasValueSatisfying(
+                    column -> assertThat(column.getValue(foo)).isEqualTo(100));
+            assertThat(classes.getColumn("WARNINGS")).hasValueSatisfying(
+                    column -> assertThat(column.getValue(foo)).isEqualTo(3));
+        });
+        assertThat(snapshot.getMethodMeasurements()).hasSize(1);
+        assertThat(snapshot.getSupportedMetrics(Scope.METHOD)).containsExactly(LOC);
+        assertThat(snapshot.getProjectOverview()).containsExactly("first", "second");
+    }
+
+    @Test
+    void shouldParseDuplicateMetricPolicyLeniently() {
+        assertThat(MetricsSnapshotStore.parsePolicy(null)).isEqualTo(DuplicateMetricPolicy.KEEP_FIRST);
+        assertThat(MetricsSnapshotStore.parsePolicy(" ")).isEqualTo(DuplicateMetricPolicy.KEEP_FIRST);
+        assertThat(MetricsSnapshotStore.parsePolicy("KEEP_LAST")).isEqualTo(DuplicateMetricPolicy.KEEP_LAST);
+        assertThat(MetricsSnapshotStore.parsePolicy(" fail ")).isEqualTo(DuplicateMetricPolicy.FAIL);
+        assertThat(MetricsSnapshotStore.parsePolicy("KEEP_LATEST")).isEqualTo(DuplicateMetricPolicy.KEEP_FIRST);
+    }
+
+    @Test
+    void shouldStoreAndLoadSnapshot(@TempDir final Path buildFolder) {
+        var run = createRun(buildFolder);
+        var store = new MetricsSnapshotStore();
+
+        assertThat(store.load(run)).isEmpty();
+
+        var snapshot = MetricsSnapshotStore.aggregate(List.of(createProvider("summary",
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Foo")
+                        .withMetric(new IntegerMetric(LOC, 100)).build())), List.of(LOC));
+        store.save(run, snapshot);
+
+        assertThat(buildFolder.resolve(MetricsSnapshotStore.SNAPSHOT_FILE_NAME)).exists();
+        assertThat(store.load(run)).hasValueSatisfying(loaded -> {
+            assertThat(loaded.getClasses().findRow("edu.hm.Foo")).hasValue(0);
+            assertThat(loaded.getClasses().getColumn("LOC")).hasValueSatisfying(
+                    column -> assertThat(column.renderValue(0)).isEqualTo("100"));
+            assertThat(loaded.getSupportedMetrics()).containsExactly(LOC);
+            assertThat(loaded.getProjectOverview()).containsExactly("summary");
+        });
+    }
+
+    @Test
+    void shouldLoadMetricsOfOtherPlugins(@TempDir final Path buildFolder) {
+        var run = createRun(buildFolder);
+        var store = new MetricsSnapshotStore();
+        var provider = createProvider("summary");
+        provider.addProjectMetric(new ScoreMetric(LOC, 42));
+
+        store.save(run, MetricsSnapshotStore.aggregate(List.of(provider), List.of(LOC)));
+
+        assertThat(store.load(run)).hasValueSatisfying(loaded -> assertThat(loaded.getProjectMetrics())
+                .singleElement().satisfies(metric -> assertThat(metric.renderValue()).isEqualTo("42 points")));
+    }
+
+    @Test
+    void shouldRejectOtherClasses(@TempDir final Path buildFolder) {
+        var run = createRun(buildFolder);
+        var store = new MetricsSnapshotStore();
+        var provider = createProvider("summary");
+        provider.addProjectMetric(new PayloadMetric(LOC));
+
+        store.save(run, MetricsSnapshotStore.aggregate(List.of(provider), List.of(LOC)));
+
+        assertThat(buildFolder.resolve(MetricsSnapshotStore.SNAPSHOT_FILE_NAME)).exists();
+        assertThat(store.load(run)).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreCorruptSnapshot(@TempDir final Path buildFolder) throws Exception {
+        Files.writeString(buildFolder.resolve(MetricsSnapshotStore.SNAPSHOT_FILE_NAME), "corrupt");
+
+        assertThat(new MetricsSnapshotStore().load(createRun(buildFolder))).isEmpty();
+    }
+
+    private Run<?, ?> createRun(final Path buildFolder) {
+        Run<?, ?> run = mock(Run.class);
+        when(run.getRootDir()).thenReturn(buildFolder.toFile());
+        return run;
+    }
+
+    private MetricsProvider createProvider(final String summary, final MetricsMeasurement... measurements) {
+        var provider = new MetricsProvider();
+        provider.setMetricsMeasurements(List.of(measurements));
+        provider.addProjectSummaryEntry(summary);
+        return provider;
+    }
+
+    /** A metric of another plugin. */
+    private static class ScoreMetric extends Metric {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int score;
+
+        ScoreMetric(final MetricDefinition metricDefinition, final int score) {
+            super(metricDefinition);
+
+            this.score = score;
+        }
+
+        @Override
+        public String renderValue() {
+            return score + " points";
+        }
+
+        @Override
+        public Number rawValue() {
+            return score;
+        }
+    }
+
+    /** A metric of another plugin that references a class that is neither a metric nor a measurement. */
+    private static class PayloadMetric extends Metric {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Payload payload = new Payload();
+
+        PayloadMetric(final MetricDefinition metricDefinition) {
+            super(metricDefinition);
+        }
+
+        @Override
+        public String renderValue() {
+            return payload.toString();
+        }
+
+        @Override
+        public Number rawValue() {
+            return 0;
+        }
+    }
+
+    private static class Payload implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+    }
+}
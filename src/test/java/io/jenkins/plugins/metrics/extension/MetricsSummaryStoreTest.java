@@ -0,0 +1,147 @@
+package io.jenkins.plugins.metrics.extension;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.DoubleMetric;
+import io.jenkins.plugins.metrics.model.IntegerMetric;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+import static io.jenkins.plugins.metrics.extension.BuildFixtures.*;
+import static org.assertj.core.api.Assertions.*;
+
+class MetricsSummaryStoreTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC")
+            .withScopes(Scope.CLASS)
+            .build();
+    private static final MetricDefinition COMPLEXITY = new MetricDefinitionBuilder("COMPLEXITY")
+            .withScopes(Scope.CLASS)
+            .build();
+
+    @Test
+    void shouldSaveAndReadSummary(@TempDir final Path jobFolder) {
+        var job = createJob(jobFolder);
+        var store = new MetricsSummaryStore();
+
+        assertThat(store.get(job)).isEmpty();
+
+        store.save(createRun(job, 1), List.of(new IntegerMetric(LOC, 100)));
+        store.save(createRun(job, 2), List.of(new IntegerMetric(LOC, 120), new DoubleMetric(COMPLEXITY, 2.5),
+                new IntegerMetric(LOC, 1)));
+
+        assertThat(store.get(job)).hasValueSatisfying(summary -> {
+            assertThat(summary.getBuild()).isEqualTo(2);
+            assertThat(summary.getValue("LOC")).hasValue("120");
+            assertThat(summary.getValue("COMPLEXITY")).hasValue("2.50");
+            assertThat(summary.getValue("MISSING")).isEmpty();
+        });
+        assertThat(store.getOrBackfill(createRun(job, 2))).isPresent();
+    }
+
+    @Test
+    void shouldReadSummaryFile(@TempDir final Path folder) throws Exception {
+        var first = Files.createDirectory(folder.resolve("first"));
+        var second = Files.createDirectory(folder.resolve("second"));
+        var store = new MetricsSummaryStore();
+        var job = createJob(first);
+        store.save(createRun(job, 5), List.of(new IntegerMetric(LOC, 100)));
+
+        Files.copy(first.resolve(MetricsSummaryStore.SUMMARY_FILE_NAME),
+                second.resolve(MetricsSummaryStore.SUMMARY_FILE_NAME));
+
+        assertThat(store.get(createJob(second))).hasValueSatisfying(summary -> {
+            assertThat(summary.getBuild()).isEqualTo(5);
+            assertThat(summary.getValue("LOC")).hasValue("100");
+        });
+    }
+
+    @Test
+    void shouldBackfillLaterIfTooManyBackfillsArePending(@TempDir final Path jobFolder) {
+        var job = createJob(jobFolder);
+        var build = createRun(job, 1);
+
+        var saturated = new MetricsSummaryStore(command -> {
+            throw new RejectedExecutionException("saturated");
+        }, run -> createSnapshot(List.of()));
+        assertThat(saturated.getOrBackfill(build)).isEmpty();
+
+        List<Runnable> backfills = new ArrayList<>();
+        var store = new MetricsSummaryStore(backfills::add, run -> createSnapshot(List.of()));
+        assertThat(store.getOrBackfill(build)).isEmpty();
+        assertThat(store.getOrBackfill(build)).isEmpty();
+        assertThat(backfills).hasSize(1);
+
+        store.save(build, List.of(new IntegerMetric(LOC, 100))); // the build completes before the backfill starts
+        backfills.get(0).run();
+
+        assertThat(store.getOrBackfill(build)).hasValueSatisfying(
+                summary -> assertThat(summary.getValue("LOC")).hasValue("100"));
+    }
+
+    @Test
+    void shouldStoreBackfillsOfCompleteSnapshotsOnly(@TempDir final Path jobFolder) {
+        var build = createRun(createJob(jobFolder), 1);
+        var incomplete = createSnapshot(List.of("SlowFactory"));
+        var complete = createSnapshot(List.of());
+
+        List<Runnable> backfills = new ArrayList<>();
+        var store = new MetricsSummaryStore(backfills::add, createSnapshots(build, incomplete, complete));
+        assertThat(store.getOrBackfill(build)).isEmpty();
+        backfills.remove(0).run();
+
+        assertThat(Files.exists(jobFolder.resolve(MetricsSummaryStore.SUMMARY_FILE_NAME))).isFalse();
+        assertThat(store.getOrBackfill(build)).as("retried on the next request").isEmpty();
+        backfills.remove(0).run();
+
+        assertThat(store.getOrBackfill(build)).hasValueSatisfying(
+                summary -> assertThat(summary.getValue("LOC")).hasValue("100"));
+        assertThat(backfills).isEmpty();
+    }
+
+    @Test
+    void shouldDiscardSummariesOfDeletedAndMovedJobs(@TempDir final Path folder) throws Exception {
+        var deleted = Files.createDirectory(folder.resolve("deleted"));
+        var moved = Files.createDirectory(folder.resolve("moved"));
+        var store = new MetricsSummaryStore();
+        store.save(createRun(createJob(deleted), 1), List.of(new IntegerMetric(LOC, 100)));
+        store.save(createRun(createJob(moved), 1), List.of(new IntegerMetric(LOC, 100)));
+
+        Files.delete(deleted.resolve(MetricsSummaryStore.SUMMARY_FILE_NAME));
+        assertThat(store.get(createJob(deleted))).isPresent();
+        MetricsSummaryStore.discard(deleted);
+        assertThat(store.get(createJob(deleted))).isEmpty();
+
+        Files.move(moved, folder.resolve("renamed"));
+        MetricsSummaryStore.discardMissing();
+        assertThat(store.get(createJob(moved))).isEmpty();
+        assertThat(store.get(createJob(folder.resolve("renamed")))).isPresent();
+    }
+
+    private Function<Run<?, ?>, MetricsSnapshot> createSnapshots(final Run<?, ?> build,
+            final MetricsSnapshot... snapshots) {
+        var remaining = new ArrayDeque<>(List.of(snapshots));
+        return run -> {
+            assertThat(run).isSameAs(build);
+            return remaining.remove();
+        };
+    }
+
+    private MetricsSnapshot createSnapshot(final List<String> incompleteProviders) {
+        return new MetricsSnapshot(ClassMetricsTable.create(List.of()), List.of(), List.of(), List.of(),
+                List.of(new IntegerMetric(LOC, 100)), incompleteProviders);
+    }
+}
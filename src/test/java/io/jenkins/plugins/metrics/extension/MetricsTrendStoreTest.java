@@ -0,0 +1,130 @@
+package io.jenkins.plugins.metrics.extension;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.DoubleMetric;
+import io.jenkins.plugins.metrics.model.IntegerMetric;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+
+import static io.jenkins.plugins.metrics.extension.BuildFixtures.*;
+import static org.assertj.core.api.Assertions.*;
+
+class MetricsTrendStoreTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC")
+            .withDisplayName("Lines of Code")
+            .withScopes(Scope.CLASS)
+            .build();
+    private static final MetricDefinition WARNINGS = new MetricDefinitionBuilder("WARNINGS")
+            .withScopes(Scope.CLASS)
+            .build();
+
+    @Test
+    void shouldAppendAndReadProjectMetrics(@TempDir final Path jobFolder) {
+        var job = createJob(jobFolder);
+        var store = new MetricsTrendStore();
+
+        assertThat(store.hasTrend(job)).isFalse();
+        assertThat(store.read(job, 0).isEmpty()).isTrue();
+
+        store.append(createRun(job, 1), List.of(new IntegerMetric(LOC, 100)));
+        store.append(createRun(job, 2), List.of(new IntegerMetric(LOC, 120), new DoubleMetric(WARNINGS, 3)));
+        store.append(createRun(job, 4), List.of(new DoubleMetric(WARNINGS, 1)));
+
+        assertThat(store.hasTrend(job)).isTrue();
+        var trend = store.read(job, 0);
+        assertThat(trend.size()).isEqualTo(3);
+        assertThat(trend.getBuildNumber(2)).isEqualTo(4);
+        assertThat(trend.getTimestamp(2)).isEqualTo(4000);
+        assertThat(trend.getMetricIds()).containsExactly("LOC", "WARNINGS");
+        assertThat(trend.getDisplayName("LOC")).isEqualTo("Lines of Code");
+        assertThat(trend.getValue("LOC", 0)).isEqualTo(100);
+        assertThat(trend.getValue("LOC", 1)).isEqualTo(120);
+        assertThat(trend.getValue("LOC", 2)).isNaN();
+        assertThat(trend.getValue("WARNINGS", 0)).isNaN();
+        assertThat(trend.getValue("WARNINGS", 2)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReadLatestBuilds(@TempDir final Path jobFolder) {
+        var job = createJob(jobFolder);
+        var store = new MetricsTrendStore();
+        for (int build = 1; build <= 10; build++) {
+            store.append(createRun(job, build), List.of(new IntegerMetric(LOC, build * 10)));
+        }
+
+        var trend = store.read(job, 3);
+
+        assertThat(trend.size()).isEqualTo(3);
+        assertThat(trend.getBuildNumber(0)).isEqualTo(8);
+        assertThat(trend.getValue("LOC", 2)).isEqualTo(100);
+    }
+
+    @Test
+    void shouldOverwriteIncompleteRecord(@TempDir final Path jobFolder) throws Exception {
+        var job = createJob(jobFolder);
+        var store = new MetricsTrendStore();
+        store.append(createRun(job, 1), List.of(new IntegerMetric(LOC, 100)));
+        store.append(createRun(job, 2), List.of(new IntegerMetric(LOC, 120)));
+
+        try (var file = new RandomAccessFile(jobFolder.resolve(MetricsTrendStore.TREND_FILE_NAME).toFile(), "rw")) {
+            file.setLength(file.length() - 3); // simulate an interrupted append
+        }
+        assertThat(store.read(job, 0).size()).isEqualTo(1);
+
+        store.append(createRun(job, 3), List.of(new IntegerMetric(LOC, 130)));
+
+        var trend = store.read(job, 0);
+        assertThat(trend.size()).isEqualTo(2);
+        assertThat(trend.getBuildNumber(1)).isEqualTo(3);
+        assertThat(trend.getValue("LOC", 1)).isEqualTo(130);
+    }
+
+    @Test
+    void shouldSortBuildsAndSkipDeletedBuilds(@TempDir final Path jobFolder) {
+        var job = createJob(jobFolder);
+        var store = new MetricsTrendStore();
+        store.append(createRun(job, 1), List.of(new IntegerMetric(LOC, 100)));
+        store.append(createRun(job, 3), List.of(new IntegerMetric(LOC, 130)));
+        store.append(createRun(job, 2), List.of(new IntegerMetric(LOC, 120))); // completed after build 3
+        store.append(createRun(job, 4), List.of(new IntegerMetric(LOC, 140)));
+
+        store.remove(createRun(job, 3));
+        store.remove(createRun(job, 7)); // not recorded
+
+        var trend = store.read(job, 0);
+        assertThat(trend.size()).isEqualTo(3);
+        assertThat(trend.getBuildNumber(0)).isEqualTo(1);
+        assertThat(trend.getBuildNumber(1)).isEqualTo(2);
+        assertThat(trend.getBuildNumber(2)).isEqualTo(4);
+        assertThat(trend.getValue("LOC", 1)).isEqualTo(120);
+
+        var latest = store.read(job, 2);
+        assertThat(latest.getBuildNumber(0)).isEqualTo(2);
+        assertThat(latest.getValue("LOC", 1)).isEqualTo(140);
+    }
+
+    @Test
+    void shouldReuseMetricsOfExistingFile(@TempDir final Path jobFolder, @TempDir final Path copy) throws Exception {
+        var store = new MetricsTrendStore();
+        store.append(createRun(createJob(jobFolder), 1), List.of(new IntegerMetric(LOC, 100)));
+
+        var file = copy.resolve(MetricsTrendStore.TREND_FILE_NAME);
+        Files.copy(jobFolder.resolve(MetricsTrendStore.TREND_FILE_NAME), file);
+        long size = Files.size(file);
+
+        var job = createJob(copy); // the copy has not been indexed yet
+        store.append(createRun(job, 2), List.of(new IntegerMetric(LOC, 120)));
+
+        assertThat(Files.size(file) - size).isEqualTo(
+                1 + Integer.BYTES + Long.BYTES + Short.BYTES + Short.BYTES + Double.BYTES);
+        assertThat(store.read(job, 0).getValue("LOC", 1)).isEqualTo(120);
+    }
+}
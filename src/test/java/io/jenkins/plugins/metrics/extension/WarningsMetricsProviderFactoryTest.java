@@ -13,7 +13,9 @@ import hudson.model.Run;
 
 import io.jenkins.plugins.analysis.core.model.AnalysisResult;
 import io.jenkins.plugins.analysis.core.model.ResultAction;
+import io.jenkins.plugins.forensics.miner.FileStatistics;
 import io.jenkins.plugins.forensics.miner.RepositoryStatistics;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
 
 import static io.jenkins.plugins.metrics.assertions.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -75,11 +77,167 @@ class WarningsMetricsProviderFactoryTest {
         }
     }
 
+    @Test
+    void shouldCountWarningsPerFileOfAllActions() {
+        try (var builder = new IssueBuilder()) {
+            var factory = new WarningsMetricsProviderFactory();
+
+            var first = new Report();
+            first.add(builder.setFileName("Test1.java").setPackageName("edu.hm").setSeverity(Severity.ERROR).build());
+            first.add(builder.setFileName("Test1.java").setSeverity(Severity.WARNING_LOW).build());
+            first.add(builder.setFileName("Test2.java").setSeverity(Severity.WARNING_LOW).build());
+
+            var second = new Report();
+            second.add(builder.setFileName("Test1.java").setSeverity(Severity.WARNING_LOW).build());
+
+            var statistics = mock(RepositoryStatistics.class);
+            var fileStatistics = mock(FileStatistics.class);
+            when(fileStatistics.getNumberOfAuthors()).thenReturn(2);
+            when(fileStatistics.getNumberOfCommits()).thenReturn(5);
+            when(statistics.contains("Test1.java")).thenReturn(true);
+            when(statistics.get("Test1.java")).thenReturn(fileStatistics);
+
+            var run = mock(Run.class);
+            when(run.getActions(ResultAction.class)).thenReturn(
+                    List.of(createAction(first, new RepositoryStatistics()), createAction(second, statistics)));
+
+            var metricsProvider = factory.getMetricsProviderFor(run);
+
+            assertThat(metricsProvider)
+                    .hasProjectSummaryEntries("1 Errors", "3 Warnings (0 high, 0 normal, 3 low)");
+            assertThat(metricsProvider.getMetricsMeasurements()).hasSize(2);
+
+            var test1 = metricsProvider.getMetricsMeasurements().get(0);
+            assertThat(test1.getFileName()).isEqualTo("Test1.java");
+            assertThat(test1.getPackageName()).isEqualTo("edu.hm");
+            assertThat(test1.getClassName()).isEqualTo("Test1");
+            assertThat(test1.getMetric("ERRORS")).contains(1);
+            assertThat(test1.getMetric("WARNING_LOW")).contains(2);
+            assertThat(test1.getMetric("WARNING_HIGH")).contains(0);
+            assertThat(test1.getMetric("AUTHORS")).contains(2);
+            assertThat(test1.getMetric("COMMITS")).contains(5);
+
+            var test2 = metricsProvider.getMetricsMeasurements().get(1);
+            assertThat(test2.getMetric("WARNING_LOW")).contains(1);
+            assertThat(test2.getMetric("AUTHORS")).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldCountWarningsPerToolAndCategory() {
+        try (var builder = new IssueBuilder()) {
+            var factory = new WarningsMetricsProviderFactory();
+
+            var checkstyle = new Report();
+            checkstyle.add(builder.setFileName("Test1.java").setCategory("Design").build());
+            checkstyle.add(builder.setFileName("Test1.java").setCategory("Design").build());
+            checkstyle.add(builder.setFileName("Test2.java").setCategory("Naming").build());
+
+            var pmd = new Report();
+            pmd.add(builder.setFileName("Test2.java").setCategory("Best Practices").build());
+
+            var run = mock(Run.class);
+            when(run.getActions(ResultAction.class)).thenReturn(List.of(
+                    createAction(checkstyle, new RepositoryStatistics(), "checkstyle", "CheckStyle Warnings"),
+                    createAction(pmd, new RepositoryStatistics(), "pmd", "PMD Warnings")));
+
+            assertThat(factory.getAvailableMetricsFor(run)).extracting(MetricDefinition::getId).contains(
+                    "WARNINGS_CHECKSTYLE", "WARNINGS_PMD", "WARNINGS_CHECKSTYLE_DESIGN", "WARNINGS_CHECKSTYLE_NAMING",
+                    "WARNINGS_PMD_BEST_PRACTICES");
+
+            var measurements = factory.getMetricsProviderFor(run).getMetricsMeasurements();
+            assertThat(measurements).hasSize(2);
+
+            var test1 = measurements.get(0);
+            assertThat(test1.getMetric("WARNINGS_CHECKSTYLE")).contains(2);
+            assertThat(test1.getMetric("WARNINGS_PMD")).contains(0);
+            assertThat(test1.getMetric("WARNINGS_CHECKSTYLE_DESIGN")).contains(2);
+            assertThat(test1.getMetric("WARNINGS_PMD_BEST_PRACTICES")).contains(0);
+            assertThat(test1.findMetric("WARNINGS_CHECKSTYLE_DESIGN")).hasValueSatisfying(metric ->
+                    assertThat(metric.getMetricDefinition().getDisplayName())
+                            .isEqualTo("CheckStyle Warnings: Design"));
+
+            var test2 = measurements.get(1);
+            assertThat(test2.getMetric("WARNINGS_CHECKSTYLE")).contains(1);
+            assertThat(test2.getMetric("WARNINGS_PMD")).contains(1);
+            assertThat(test2.getMetric("WARNINGS_CHECKSTYLE_NAMING")).contains(1);
+            assertThat(test2.getMetric("WARNINGS_PMD_BEST_PRACTICES")).contains(1);
+        }
+    }
+
+    @Test
+    void shouldCountWarningsOnceForMetricsAndDefinitions() {
+        try (var builder = new IssueBuilder()) {
+            var factory = new WarningsMetricsProviderFactory();
+
+            var first = new Report();
+            first.add(builder.setFileName("Test1.java").setCategory("Design").build());
+            var second = new Report();
+            second.add(builder.setFileName("Test2.java").setCategory("Naming").build());
+
+            var run = mock(Run.class);
+            when(run.getActions(ResultAction.class)).thenReturn(List.of(createAction(first)));
+
+            var contribution = factory.getContributionFor(run);
+            verify(run, times(1)).getActions(ResultAction.class);
+            assertThat(contribution.provider().getMetricsMeasurements()).hasSize(1);
+            assertThat(contribution.availableMetrics()).extracting(MetricDefinition::getId)
+                    .contains("WARNINGS_JAVA_DESIGN").doesNotContain("WARNINGS_JAVA_NAMING");
+
+            // a running build records more results later on
+            when(run.getActions(ResultAction.class)).thenReturn(List.of(createAction(first), createAction(second)));
+
+            var completed = factory.getContributionFor(run);
+            assertThat(completed.provider().getMetricsMeasurements()).hasSize(2);
+            assertThat(completed.availableMetrics()).extracting(MetricDefinition::getId)
+                    .contains("WARNINGS_JAVA_DESIGN", "WARNINGS_JAVA_NAMING");
+        }
+    }
+
+    @Test
+    void shouldProvideLinesOfWarnings() {
+        try (var builder = new IssueBuilder()) {
+            var factory = new WarningsMetricsProviderFactory();
+
+            var report = new Report();
+            report.add(builder.setFileName("Test1.java").setPackageName("edu.hm").setSeverity(Severity.ERROR)
+                    .setLineStart(10).setLineEnd(12).build());
+            report.add(builder.setFileName("Test1.java").setSeverity(Severity.WARNING_LOW)
+                    .setLineStart(20).setLineEnd(20).build());
+            report.add(builder.setFileName("Test2.java").setLineStart(0).setLineEnd(0).build());
+
+            var run = mock(Run.class);
+            when(run.getActions(ResultAction.class)).thenReturn(List.of(createAction(report)));
+
+            var lineMetrics = factory.getMetricsProviderFor(run).getLineMetrics();
+            assertThat(lineMetrics).hasSize(1).first().satisfies(lines -> {
+                assertThat(lines.getPackageName()).isEqualTo("edu.hm");
+                assertThat(lines.getClassName()).isEqualTo("Test1");
+                assertThat(lines.size()).isEqualTo(2);
+                assertThat(lines.getDefinitions().get(lines.getMetric(0)).getId()).isEqualTo("ERRORS");
+                assertThat(lines.getBeginLine(0)).isEqualTo(10);
+                assertThat(lines.getEndLine(0)).isEqualTo(12);
+                assertThat(lines.getDefinitions().get(lines.getMetric(1)).getId()).isEqualTo("WARNING_LOW");
+            });
+        }
+    }
+
     private ResultAction createAction(final Report first) {
+        return createAction(first, new RepositoryStatistics());
+    }
+
+    private ResultAction createAction(final Report report, final RepositoryStatistics statistics) {
+        return createAction(report, statistics, "java", "Java Warnings");
+    }
+
+    private ResultAction createAction(final Report report, final RepositoryStatistics statistics,
+            final String toolId, final String toolName) {
         ResultAction action = mock(ResultAction.class);
+        when(action.getDisplayName()).thenReturn(toolName);
         AnalysisResult result = mock(AnalysisResult.class);
-        when(result.getForensics()).thenReturn(new RepositoryStatistics());
-        when(result.getIssues()).thenReturn(first);
+        when(result.getId()).thenReturn(toolId);
+        when(result.getForensics()).thenReturn(statistics);
+        when(result.getIssues()).thenReturn(report);
         when(action.getResult()).thenReturn(result);
         return action;
     }
@@ -0,0 +1,48 @@
+package io.jenkins.plugins.metrics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+
+import static io.jenkins.plugins.metrics.model.MetricFixtures.*;
+import static org.assertj.core.api.Assertions.*;
+
+class ClassMetricsTableTest {
+    @Test
+    void shouldStoreMetricsInColumns() {
+        var table = ClassMetricsTable.create(List.of(
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Foo")
+                        .withMetric(new IntegerMetric(LOC, 100))
+                        .withMetric(new PercentageMetric(COVERAGE, 0.5f))
+                        .withMetric(new DoubleMetric(COMPLEXITY, 2.5)).build(),
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Bar")
+                        .withMetric(new IntegerMetric(LOC, 20)).build()));
+
+        assertThat(table.getRowCount()).isEqualTo(2);
+        assertThat(table.getQualifiedClassName(1)).isEqualTo("edu.hm.Bar");
+        assertThat(table.findRow("edu.hm.Bar")).hasValue(1);
+        assertThat(table.findRow("edu.hm.Missing")).isEmpty();
+        assertThat(table.getColumn("MISSING")).isEmpty();
+
+        assertThat(table.getColumn("LOC")).hasValueSatisfying(column -> {
+            assertThat(column.getCount()).isEqualTo(2);
+            assertThat(column.getValue(1)).isEqualTo(20);
+            assertThat(column.getRawValue(0)).isEqualTo(100);
+            assertThat(column.renderValue(0)).isEqualTo("100");
+            assertThat(column.needsRounding()).isTrue();
+        });
+        assertThat(table.getColumn("COVERAGE")).hasValueSatisfying(column -> {
+            assertThat(column.isPresent(0)).isTrue();
+            assertThat(column.isPresent(1)).isFalse();
+            assertThat(column.getValue(1)).isNaN();
+            assertThat(column.renderValue(0)).isEqualTo(new PercentageMetric(COVERAGE, 0.5f).renderValue());
+        });
+        assertThat(table.getColumn("COMPLEXITY")).hasValueSatisfying(column -> {
+            assertThat(column.getValue(0)).isEqualTo(2.5);
+            assertThat(column.renderValue(0)).isEqualTo("2.50");
+            assertThat(column.needsRounding()).isFalse();
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package io.jenkins.plugins.metrics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FilterExpressionTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC").withScopes(Scope.CLASS).build();
+    private static final MetricDefinition ISSUES = new MetricDefinitionBuilder("ISSUES")
+            .withScopes(Scope.CLASS).build();
+
+    private final ClassMetricsTable classes = ClassMetricsTable.create(List.of(
+            new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Small")
+                    .withMetric(new IntegerMetric(LOC, 5)).withMetric(new IntegerMetric(ISSUES, 2)).build(),
+            new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Large")
+                    .withMetric(new IntegerMetric(LOC, 100)).withMetric(new IntegerMetric(ISSUES, 1)).build(),
+            new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Clean")
+                    .withMetric(new IntegerMetric(LOC, 50)).build()));
+
+    @Test
+    void shouldFilterWithComparisonsAndLogicalOperators() {
+        assertThat(filter("LOC > 10 and ISSUES > 0")).containsExactly(1);
+        assertThat(filter("LOC < 10 or ISSUES == 1")).containsExactly(0, 1);
+        assertThat(filter("not (LOC >= 50)")).containsExactly(0);
+        assertThat(filter("LOC / 5 - ISSUES * 2 == 18")).containsExactly(1);
+        assertThat(filter("-LOC < -20")).containsExactly(1, 2);
+        assertThat(filter("LOC >= 1e2")).containsExactly(1);
+    }
+
+    @Test
+    void shouldUseOperatorPrecedenceOfMathJs() {
+        assertThat(filter("-2^2 == -4 and 2^3^2 == 512")).containsExactly(0, 1, 2);
+        assertThat(filter("LOC % 7 == 1 or LOC mod 7 == 2")).containsExactly(1, 2);
+        assertThat(filter("not LOC == 0")).containsExactly(0, 1, 2); // (not LOC) == 0
+        assertThat(filter("1 < LOC < 60")).containsExactly(0, 2);
+        assertThat(filter("LOC > 10 xor ISSUES > 0")).containsExactly(0);
+        assertThat(filter("(LOC > 10 ? LOC : 10 * LOC) == 50")).containsExactly(0, 2);
+    }
+
+    @Test
+    void shouldEvaluateFunctions() {
+        assertThat(filter("max(LOC, 10 * ISSUES) == 20")).containsExactly(0);
+        assertThat(filter("min(LOC, 60, 70) == 50")).containsExactly(2);
+        assertThat(filter("abs(-LOC) == round(sqrt(LOC * LOC))")).containsExactly(0, 1, 2);
+        assertThat(filter("log10(LOC) == 2 and log(LOC, 10) == 2")).containsExactly(1);
+        assertThat(filter("pow(LOC, 2) > floor(pi) * 1000")).containsExactly(1);
+    }
+
+    @Test
+    void shouldReturnVariablesAndSelectRows() {
+        var expression = FilterExpression.parse("LOC > 10 and (ISSUES > 0 or LOC > 1000)");
+
+        assertThat(expression.getVariables()).containsExactly("LOC", "ISSUES");
+        assertThat(expression.select(classes).stream()).containsExactly(1);
+    }
+
+    @Test
+    void shouldFilterLargeTables() {
+        List<ClassMetricsMeasurement> measurements = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("C" + i)
+                    .withMetric(new IntegerMetric(LOC, i)).build());
+        }
+        var large = ClassMetricsTable.create(measurements);
+
+        var rows = FilterExpression.parse("LOC % 1000 == 0 and LOC >= 50000").select(large);
+
+        assertThat(rows.cardinality()).isEqualTo(50);
+        assertThat(rows.nextSetBit(0)).isEqualTo(50_000);
+    }
+
+    @Test
+    void shouldFilterOutClassesWithoutValues() {
+        assertThat(filter("ISSUES < 10")).containsExactly(0, 1);
+        assertThat(filter("not (ISSUES > 1)")).containsExactly(1);
+    }
+
+    @Test
+    void shouldAcceptAllClassesForEmptyExpression() {
+        assertThat(filter(" ")).containsExactly(0, 1, 2);
+        assertThat(filter("")).containsExactly(0, 1, 2);
+        assertThat(filter("true")).containsExactly(0, 1, 2);
+        assertThat(filter("false")).isEmpty();
+    }
+
+    @Test
+    void shouldRejectInvalidExpressions() {
+        assertThatIllegalArgumentException().isThrownBy(() -> FilterExpression.parse("LOC >"))
+                .withMessageContaining("Value expected (char 6)");
+        assertThatIllegalArgumentException().isThrownBy(() -> FilterExpression.parse("(LOC > 1"))
+                .withMessageContaining("Parenthesis ) expected");
+        assertThatIllegalArgumentException().isThrownBy(() -> FilterExpression.parse("LOC > 1 &"))
+                .withMessageContaining("Unexpected character '&'");
+        assertThatIllegalArgumentException().isThrownBy(() -> filter("WMC > 1"))
+                .withMessageContaining("Undefined symbol WMC");
+        assertThatIllegalArgumentException().isThrownBy(() -> FilterExpression.parse("foo(LOC)"))
+                .withMessageContaining("Undefined function foo");
+        assertThatIllegalArgumentException().isThrownBy(() -> FilterExpression.parse("pow(LOC)"))
+                .withMessageContaining("Wrong number of arguments in function pow (1 provided)");
+        assertThatIllegalArgumentException().isThrownBy(() -> FilterExpression.parse("LOC > 1 ? 1"))
+                .withMessageContaining("False part of conditional expression expected");
+    }
+
+    private int[] filter(final String expression) {
+        return FilterExpression.parse(expression).select(classes).stream().toArray();
+    }
+}
@@ -0,0 +1,83 @@
+package io.jenkins.plugins.metrics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.BranchMetrics.ClassValue;
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FolderMetricsTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC")
+            .withScopes(Scope.CLASS)
+            .build();
+
+    @Test
+    void shouldSummarizeBranch() {
+        var branch = createBranch("main", 10, 30, 20);
+
+        assertThat(branch.getName()).isEqualTo("main");
+        assertThat(branch.getUrl()).isEqualTo("job/main/1/");
+        assertThat(branch.getBuild()).isEqualTo(1);
+        assertThat(branch.getClassCount()).isEqualTo(3);
+        assertThat(branch.getTotal("LOC")).isEqualTo(60);
+        assertThat(branch.getTotal("MISSING")).isNaN();
+        assertThat(branch.getTopClasses("LOC")).containsExactly(
+                new ClassValue("edu.hm.C1", 30), new ClassValue("edu.hm.C2", 20));
+        assertThat(branch.getTopClasses("MISSING")).isEmpty();
+    }
+
+    @Test
+    void shouldCombineBranchesInAnyGrouping() {
+        var main = createBranch("main", 10, 30, 20);
+        var feature = createBranch("feature", 5, 100);
+        var fix = createBranch("fix", 1, 2, 3, 4);
+
+        var sequential = new FolderMetrics().add(main).addMissing().add(feature).add(fix);
+        var grouped = new FolderMetrics().add(main)
+                .combine(new FolderMetrics().add(feature).combine(new FolderMetrics().addMissing().add(fix)));
+
+        for (FolderMetrics metrics : List.of(sequential, grouped)) {
+            assertThat(metrics.getBranches()).extracting(BranchMetrics::getName)
+                    .containsExactly("main", "feature", "fix");
+            assertThat(metrics.getClassCount()).isEqualTo(9);
+            assertThat(metrics.getMissingCount()).isEqualTo(1);
+            assertThat(metrics.getMetricIds()).containsExactly("LOC");
+            assertThat(metrics.getDisplayName("LOC")).isEqualTo(LOC.getDisplayName());
+            assertThat(metrics.getTotal("LOC")).isEqualTo(175);
+            assertThat(metrics.getSketch("LOC")).hasValueSatisfying(sketch -> {
+                assertThat(sketch.getCount()).isEqualTo(9);
+                assertThat(sketch.getMin()).isEqualTo(1);
+                assertThat(sketch.getMax()).isEqualTo(100);
+            });
+            assertThat(metrics.getWorstBranches("LOC", 2)).extracting(BranchMetrics::getName)
+                    .containsExactly("feature", "main");
+        }
+        assertThat(main.getSketch("LOC").getCount()).as("branch must not be modified").isEqualTo(3);
+    }
+
+    @Test
+    void shouldHandleEmptyFolder() {
+        var metrics = new FolderMetrics().combine(new FolderMetrics());
+
+        assertThat(metrics.getBranches()).isEmpty();
+        assertThat(metrics.getMetricIds()).isEmpty();
+        assertThat(metrics.getTotal("LOC")).isNaN();
+        assertThat(metrics.getSketch("LOC")).isEmpty();
+    }
+
+    private BranchMetrics createBranch(final String name, final int... linesOfCode) {
+        List<ClassMetricsMeasurement> classes = new ArrayList<>();
+        for (int i = 0; i < linesOfCode.length; i++) {
+            classes.add(new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("C" + i)
+                    .withMetric(new IntegerMetric(LOC, linesOfCode[i]))
+                    .build());
+        }
+        return BranchMetrics.create(name, "job/" + name + "/1/", 1, ClassMetricsTable.create(classes), 2);
+    }
+}
@@ -0,0 +1,125 @@
+package io.jenkins.plugins.metrics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.MethodMetricsMeasurement.MethodMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MeasurementAggregatorTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC")
+            .withScopes(Scope.CLASS, Scope.METHOD)
+            .build();
+    private static final MetricDefinition WARNINGS = new MetricDefinitionBuilder("WARNINGS")
+            .withScopes(Scope.CLASS)
+            .build();
+
+    @Test
+    void shouldMergeClassesAndMethods() {
+        var aggregator = new MeasurementAggregator(4, DuplicateMetricPolicy.FAIL);
+        aggregator.addAll(List.of(
+                createClass("Foo", new IntegerMetric(LOC, 100)),
+                createClass("Bar", new IntegerMetric(LOC, 20)),
+                createMethod("Foo", "run", new IntegerMetric(LOC, 10)),
+                createMethod("Foo", "stop", new IntegerMetric(LOC, 5))));
+        aggregator.addAll(List.of(
+                createClass("Foo", new IntegerMetric(WARNINGS, 3)),
+                createMethod("Foo", "run", new IntegerMetric(WARNINGS, 1))));
+
+        assertThat(aggregator.getClassMeasurements())
+                .extracting(MetricsMeasurement::getClassName).containsExactly("Foo", "Bar");
+        assertThat(aggregator.getClassMeasurements().get(0).getMetricsView()).containsOnlyKeys("LOC", "WARNINGS");
+        assertThat(aggregator.getMethodMeasurements())
+                .extracting(MethodMetricsMeasurement::getMethodName).containsExactly("run", "stop");
+        assertThat(aggregator.getMethodMeasurements().get(0).getMetricCount()).isEqualTo(2);
+        assertThat(aggregator.getDuplicateCount()).isZero();
+    }
+
+    @Test
+    void shouldKeepFirstDuplicate() {
+        var aggregator = new MeasurementAggregator(2, DuplicateMetricPolicy.KEEP_FIRST);
+        aggregator.add(createClass("Foo", new IntegerMetric(LOC, 100)));
+        aggregator.add(createClass("Foo", new IntegerMetric(LOC, 200)));
+
+        assertThat(aggregator.getClassMeasurements()).singleElement()
+                .satisfies(foo -> assertThat(foo.getMetric("LOC")).hasValue(100));
+        assertThat(aggregator.getDuplicateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepLastDuplicate() {
+        var aggregator = new MeasurementAggregator(2, DuplicateMetricPolicy.KEEP_LAST);
+        aggregator.add(createClass("Foo", new IntegerMetric(LOC, 100)));
+        aggregator.add(createClass("Foo", new IntegerMetric(LOC, 200)));
+
+        assertThat(aggregator.getClassMeasurements()).singleElement()
+                .satisfies(foo -> assertThat(foo.getMetric("LOC")).hasValue(200));
+        assertThat(aggregator.getDuplicateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailOnDuplicate() {
+        var aggregator = new MeasurementAggregator(2, DuplicateMetricPolicy.FAIL);
+        aggregator.add(createClass("Foo", new IntegerMetric(LOC, 100)));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> aggregator.add(createClass("Foo", new IntegerMetric(LOC, 200))))
+                .withMessageContaining("LOC");
+    }
+
+    @Test
+    void shouldAttributeLineMetricsToInnermostMethods() {
+        var aggregator = new MeasurementAggregator(4, DuplicateMetricPolicy.FAIL);
+        aggregator.addAll(List.of(
+                createMethod("Foo", "run", 10, 50),
+                createMethod("Foo", "lambda", 20, 30),
+                createMethod("Foo", "stop", 60, 70),
+                createMethod("Bar", "run", 10, 50)));
+
+        var lineMetrics = new LineMetrics("edu.hm", "Foo", List.of(WARNINGS, LOC));
+        lineMetrics.add(0, 15, 15); // run
+        lineMetrics.add(0, 25, 25); // lambda inside run
+        lineMetrics.add(0, 25, 35); // spans the end of the lambda: run
+        lineMetrics.add(1, 65, 0); // stop, the end line is ignored
+        lineMetrics.add(0, 55, 55); // between the methods
+        aggregator.attribute(List.of(lineMetrics, new LineMetrics("edu.hm", "Missing", List.of(WARNINGS))));
+
+        var methods = aggregator.getMethodMeasurements();
+        assertThat(methods.get(0).getMetric("WARNINGS")).hasValue(2);
+        assertThat(methods.get(0).getMetric("LOC")).hasValue(0);
+        assertThat(methods.get(1).getMetric("WARNINGS")).hasValue(1);
+        assertThat(methods.get(2).getMetric("WARNINGS")).hasValue(0);
+        assertThat(methods.get(2).getMetric("LOC")).hasValue(1);
+        assertThat(methods.get(3).getMetricCount()).as("no line metrics for Bar").isZero();
+        assertThat(aggregator.getDuplicateCount()).isZero();
+    }
+
+    @Test
+    void shouldRejectUnknownLineMetric() {
+        var lineMetrics = new LineMetrics("edu.hm", "Foo", List.of(WARNINGS));
+
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> lineMetrics.add(1, 10, 10));
+    }
+
+    private ClassMetricsMeasurement createClass(final String className, final Metric metric) {
+        return new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName(className)
+                .withMetric(metric).build();
+    }
+
+    private MethodMetricsMeasurement createMethod(final String className, final String methodName,
+            final Metric metric) {
+        return new MethodMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName(className)
+                .withMethodName(methodName).withMetric(metric).build();
+    }
+
+    private MethodMetricsMeasurement createMethod(final String className, final String methodName,
+            final int beginLine, final int endLine) {
+        return new MethodMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName(className)
+                .withMethodName(methodName).withBeginLine(beginLine).withEndLine(endLine).build();
+    }
+}
@@ -0,0 +1,71 @@
+package io.jenkins.plugins.metrics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import io.jenkins.plugins.metrics.model.MethodMetricsMeasurement.MethodMetricsMeasurementBuilder;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MethodIntervalTreeTest {
+    @Test
+    void shouldIgnoreMethodsWithoutLines() {
+        var tree = new MethodIntervalTree(List.of(createMethod("a", 0, 0), createMethod("b", 20, 10),
+                createMethod("c", 5, 8)));
+
+        assertThat(tree.getMethods()).extracting(MethodMetricsMeasurement::getMethodName).containsExactly("c");
+        assertThat(tree.findInnermost(6, 6)).isZero();
+        assertThat(tree.findInnermost(4, 6)).isEqualTo(-1);
+        assertThat(tree.findInnermost(9, 9)).isEqualTo(-1);
+        assertThat(new MethodIntervalTree(List.of()).findInnermost(1, 1)).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldFindSameMethodsAsLinearScan() {
+        var random = new Random(42);
+        List<MethodMetricsMeasurement> methods = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int begin = 1 + random.nextInt(5000);
+            methods.add(createMethod("m" + i, begin, begin + random.nextInt(random.nextBoolean() ? 20 : 400)));
+        }
+        var tree = new MethodIntervalTree(methods);
+        var sorted = tree.getMethods();
+
+        for (int i = 0; i < 2000; i++) {
+            int begin = 1 + random.nextInt(5500);
+            int end = begin + random.nextInt(5);
+
+            int expected = -1;
+            for (int method = 0; method < sorted.size(); method++) {
+                var candidate = sorted.get(method);
+                if (candidate.getBeginLine() <= begin && candidate.getEndLine() >= end
+                        && (expected < 0 || getLength(candidate) < getLength(sorted.get(expected)))) {
+                    expected = method;
+                }
+            }
+
+            int actual = tree.findInnermost(begin, end);
+            if (expected < 0) {
+                assertThat(actual).isEqualTo(-1);
+            }
+            else {
+                assertThat(actual).isNotNegative();
+                assertThat(getLength(sorted.get(actual))).isEqualTo(getLength(sorted.get(expected)));
+                assertThat(sorted.get(actual).getBeginLine()).isLessThanOrEqualTo(begin);
+                assertThat(sorted.get(actual).getEndLine()).isGreaterThanOrEqualTo(end);
+            }
+        }
+    }
+
+    private int getLength(final MethodMetricsMeasurement method) {
+        return method.getEndLine() - method.getBeginLine();
+    }
+
+    private MethodMetricsMeasurement createMethod(final String name, final int beginLine, final int endLine) {
+        return new MethodMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Foo")
+                .withMethodName(name).withBeginLine(beginLine).withEndLine(endLine).build();
+    }
+}
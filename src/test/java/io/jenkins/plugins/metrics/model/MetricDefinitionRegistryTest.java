@@ -0,0 +1,36 @@
+package io.jenkins.plugins.metrics.model;
+
+import org.junit.jupiter.api.Test;
+
+import io.jenkins.plugins.metrics.model.MetricDefinitionRegistry.Ordinals;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests the class {@link MetricDefinitionRegistry}.
+ */
+class MetricDefinitionRegistryTest {
+    @Test
+    void shouldAssignDenseOrdinals() {
+        var ordinals = new Ordinals(4);
+
+        assertThat(ordinals.find("LOC")).isEqualTo(-1);
+        assertThat(ordinals.get("LOC")).isZero();
+        assertThat(ordinals.get("NCSS")).isOne();
+        assertThat(ordinals.get("LOC")).isZero();
+        assertThat(ordinals.find("NCSS")).isOne();
+    }
+
+    @Test
+    void shouldNotAssignOrdinalsIfFull() {
+        var ordinals = new Ordinals(2);
+
+        assertThat(ordinals.get("LOC")).isZero();
+        assertThat(ordinals.get("NCSS")).isOne();
+        assertThat(ordinals.get("COMPLEXITY")).isEqualTo(MetricDefinitionRegistry.UNREGISTERED);
+        assertThat(ordinals.get("COHESION")).isEqualTo(MetricDefinitionRegistry.UNREGISTERED);
+
+        assertThat(ordinals.find("COMPLEXITY")).isEqualTo(MetricDefinitionRegistry.UNREGISTERED);
+        assertThat(ordinals.find("LOC")).isZero();
+    }
+}
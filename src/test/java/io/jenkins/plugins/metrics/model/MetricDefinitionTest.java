@@ -2,6 +2,11 @@ package io.jenkins.plugins.metrics.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import nl.jqno.equalsverifier.EqualsVerifier;
 
 import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
@@ -69,6 +74,27 @@ class MetricDefinitionTest {
         return new MetricDefinitionBuilder("ID").withScopes(scopes).build();
     }
 
+    @Test
+    void shouldInternDefinitions() throws Exception {
+        var definition = new MetricDefinitionBuilder("Interned").withDisplayName("Interned").build();
+
+        assertThat(new MetricDefinitionBuilder("Interned").withDisplayName("Interned").build()).isSameAs(definition);
+        assertThat(new MetricDefinitionBuilder("Interned").withDisplayName("Other").build())
+                .isNotSameAs(definition)
+                .satisfies(other -> assertThat(other.getOrdinal()).isEqualTo(definition.getOrdinal()));
+
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)) {
+            output.writeObject(definition);
+        }
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            var deserialized = (MetricDefinition) input.readObject();
+            assertThat(deserialized.getOrdinal()).isEqualTo(definition.getOrdinal());
+            assertThat(deserialized).hasDisplayName("Interned")
+                    .isSameAs(new MetricDefinitionBuilder("Interned").withDisplayName("Interned").build());
+        }
+    }
+
     @Test
     void shouldAdhereToEquals() {
         EqualsVerifier.forClass(MetricDefinition.class).withOnlyTheseFields("id").verify();
@@ -0,0 +1,21 @@
+package io.jenkins.plugins.metrics.model;
+
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+
+/**
+ * Provides the class metric definitions that are used by the tests of the class metrics tables and their diffs.
+ */
+final class MetricFixtures {
+    static final MetricDefinition LOC = createDefinition("LOC");
+    static final MetricDefinition COVERAGE = createDefinition("COVERAGE");
+    static final MetricDefinition COMPLEXITY = createDefinition("COMPLEXITY");
+
+    private MetricFixtures() {
+        // prevents instantiation
+    }
+
+    private static MetricDefinition createDefinition(final String id) {
+        return new MetricDefinitionBuilder(id).withScopes(Scope.CLASS).build();
+    }
+}
@@ -0,0 +1,89 @@
+package io.jenkins.plugins.metrics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.MetricsDiff.Change;
+
+import static io.jenkins.plugins.metrics.model.MetricFixtures.*;
+import static org.assertj.core.api.Assertions.*;
+
+class MetricsDiffTest {
+    @Test
+    void shouldFindAddedRemovedAndChangedClasses() {
+        var reference = ClassMetricsTable.create(List.of(
+                createClass("Foo", 100, 5),
+                createClass("Bar", 50, 2),
+                createClass("Removed", 10, 1),
+                createClass("Same", 20, 1)));
+        var current = ClassMetricsTable.create(List.of(
+                createClass("Same", 20, 1),
+                createClass("Added", 30, 3),
+                createClass("Bar", 40, 2),
+                createClass("Foo", 120, 7)));
+
+        var diff = MetricsDiff.compare(current, reference, 10);
+
+        assertThat(diff.getAddedRows()).containsExactly(1);
+        assertThat(diff.getRemovedRows()).containsExactly(2);
+        assertThat(diff.getChangedRows()).containsExactly(2, 3);
+        assertThat(diff.getChangedReferenceRows()).containsExactly(1, 0);
+        assertThat(diff.getUnchangedCount()).isEqualTo(1);
+        assertThat(diff.getMetricIds()).containsExactly("LOC", "COMPLEXITY");
+
+        var loc = diff.getChanges("LOC");
+        assertThat(loc.getIncreases()).containsExactly(new Change(3, 0, 20));
+        assertThat(loc.getDecreases()).containsExactly(new Change(2, 1, -10));
+        assertThat(diff.getChanges("COMPLEXITY").getIncreases()).containsExactly(new Change(3, 0, 2));
+        assertThat(diff.getChanges("COMPLEXITY").getDecreases()).isEmpty();
+        assertThat(diff.getChanges("MISSING").getIncreases()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepBiggestChangesOnly() {
+        List<ClassMetricsMeasurement> reference = new ArrayList<>();
+        List<ClassMetricsMeasurement> current = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            reference.add(createClass("C" + i, 1000, 1));
+            current.add(createClass("C" + i, 1000 + (i % 2 == 0 ? i : -i), 1));
+        }
+
+        var diff = MetricsDiff.compare(ClassMetricsTable.create(current), ClassMetricsTable.create(reference), 3);
+
+        assertThat(diff.getChangedRows()).hasSize(99);
+        assertThat(diff.getChanges("LOC").getIncreases()).extracting(Change::delta).containsExactly(98.0, 96.0, 94.0);
+        assertThat(diff.getChanges("LOC").getDecreases()).extracting(Change::delta)
+                .containsExactly(-99.0, -97.0, -95.0);
+    }
+
+    @Test
+    void shouldTreatMissingValuesAsChange() {
+        var reference = ClassMetricsTable.create(List.of(
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Foo")
+                        .withMetric(new IntegerMetric(LOC, 10)).build(),
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Bar")
+                        .withMetric(new IntegerMetric(LOC, 10))
+                        .withMetric(new PercentageMetric(COVERAGE, 0.5f)).build()));
+        var current = ClassMetricsTable.create(List.of(
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Foo")
+                        .withMetric(new IntegerMetric(LOC, 10))
+                        .withMetric(new PercentageMetric(COVERAGE, 0.5f)).build(),
+                new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName("Bar")
+                        .withMetric(new IntegerMetric(LOC, 10)).build()));
+
+        var diff = MetricsDiff.compare(current, reference, 10);
+
+        assertThat(diff.getChangedRows()).containsExactly(0, 1);
+        assertThat(diff.getChanges("COVERAGE").getIncreases()).isEmpty();
+    }
+
+    private ClassMetricsMeasurement createClass(final String name, final int loc, final double complexity) {
+        return new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName(name)
+                .withMetric(new IntegerMetric(LOC, loc))
+                .withMetric(new DoubleMetric(COMPLEXITY, complexity))
+                .build();
+    }
+}
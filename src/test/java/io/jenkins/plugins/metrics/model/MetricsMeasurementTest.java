@@ -5,6 +5,8 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
@@ -54,6 +56,31 @@ class MetricsMeasurementTest {
                                 new ClassMetricsMeasurementBuilder())));
     }
 
+    @ParameterizedTest
+    @MethodSource("getMetrics")
+    void shouldStoreMetricsSortedByOrdinal(final MetricsMeasurementBuilder<?> builder) {
+        List<MetricDefinition> definitions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            definitions.add(getMetricDefinition("ORDINAL-" + i));
+        }
+
+        var measurement = builder.build();
+        for (int i = definitions.size() - 1; i >= 0; i -= 50) {
+            measurement.merge(new IntegerMetric(definitions.get(i), i), DuplicateMetricPolicy.FAIL);
+        }
+
+        assertThat(measurement.getMetricCount()).isEqualTo(4);
+        assertThat(measurement.getMetricsView().keySet()).containsExactly(
+                "ORDINAL-49", "ORDINAL-99", "ORDINAL-149", "ORDINAL-199");
+        assertThat(measurement.getMetric("ORDINAL-99")).hasValue(99);
+        assertThat(measurement.getMetric("ORDINAL-98")).isEmpty();
+
+        List<Metric> visited = new ArrayList<>();
+        measurement.forEachMetric(visited::add);
+        assertThat(visited).extracting(Metric::getId).containsExactly(
+                "ORDINAL-49", "ORDINAL-99", "ORDINAL-149", "ORDINAL-199");
+    }
+
     @ParameterizedTest
     @MethodSource("getMetrics")
     void shouldMergeClassMetric(final MetricsMeasurementBuilder<?> builder,
@@ -74,6 +101,27 @@ class MetricsMeasurementTest {
         assertThat(wrongType.getMetrics()).isEmpty();
     }
 
+    @ParameterizedTest
+    @MethodSource("getMetrics")
+    void shouldProvideReadAccessWithoutCopying(final MetricsMeasurementBuilder<?> builder) {
+        var measurement = builder.withMetric(new IntegerMetric(getMetricDefinition(INTEGER_ID), 17)).build();
+
+        var view = measurement.getMetricsView();
+        assertThat(view).containsOnlyKeys(INTEGER_ID).isSameAs(measurement.getMetricsView());
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(view::clear);
+
+        assertThat(measurement.getMetricCount()).isEqualTo(1);
+        assertThat(measurement.findMetric(INTEGER_ID)).hasValueSatisfying(
+                metric -> assertThat(metric.getId()).isEqualTo(INTEGER_ID));
+        assertThat(measurement.findMetric(DOUBLE_ID)).isEmpty();
+        assertThat(measurement.getDouble(INTEGER_ID, -1)).isEqualTo(17.0);
+        assertThat(measurement.getDouble(DOUBLE_ID, -1)).isEqualTo(-1.0);
+
+        List<String> ids = new ArrayList<>();
+        measurement.forEachMetric(metric -> ids.add(metric.getId()));
+        assertThat(ids).containsExactly(INTEGER_ID);
+    }
+
     private MetricDefinition getMetricDefinition(final String id) {
         return new MetricDefinitionBuilder(id)
                 .withScopes(Scope.CLASS, Scope.METHOD)
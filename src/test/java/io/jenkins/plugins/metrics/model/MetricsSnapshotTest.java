@@ -0,0 +1,41 @@
+package io.jenkins.plugins.metrics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.MethodMetricsMeasurement.MethodMetricsMeasurementBuilder;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MetricsSnapshotTest {
+    @Test
+    void shouldFindMethodsOfClass() {
+        var classes = ClassMetricsTable.create(List.of(createClass("Foo"), createClass("Bar"), createClass("Empty")));
+        var snapshot = new MetricsSnapshot(classes, List.of(
+                createMethod("Bar", "first"),
+                createMethod("Foo", "second"),
+                createMethod("Orphan", "third"),
+                createMethod("Bar", "fourth")), List.of(), List.of(), List.of());
+
+        assertThat(snapshot.getMethodMeasurements("edu.hm.Foo"))
+                .extracting(MethodMetricsMeasurement::getMethodName).containsExactly("second");
+        assertThat(snapshot.getMethodMeasurements("edu.hm.Bar"))
+                .extracting(MethodMetricsMeasurement::getMethodName).containsExactly("first", "fourth");
+        assertThat(snapshot.getMethodMeasurements("edu.hm.Empty")).isEmpty();
+        assertThat(snapshot.getMethodMeasurements("edu.hm.Orphan"))
+                .extracting(MethodMetricsMeasurement::getMethodName).containsExactly("third");
+        assertThat(snapshot.getMethodMeasurements("edu.hm.Missing")).isEmpty();
+        assertThat(snapshot.getMethodMeasurements()).hasSize(4);
+    }
+
+    private ClassMetricsMeasurement createClass(final String className) {
+        return new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName(className).build();
+    }
+
+    private MethodMetricsMeasurement createMethod(final String className, final String methodName) {
+        return new MethodMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName(className)
+                .withMethodName(methodName).build();
+    }
+}
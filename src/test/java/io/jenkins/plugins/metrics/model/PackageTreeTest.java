@@ -0,0 +1,49 @@
+package io.jenkins.plugins.metrics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PackageTreeTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC").withScopes(Scope.CLASS).build();
+    private static final MetricDefinition WARNINGS = new MetricDefinitionBuilder("WARNINGS")
+            .withScopes(Scope.CLASS).build();
+
+    @Test
+    void shouldAggregateAllMetricsPerPackage() {
+        List<ClassMetricsMeasurement> measurements = new ArrayList<>();
+        measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("com.example").withClassName("MyClass")
+                .withMetric(new IntegerMetric(LOC, 10)).withMetric(new IntegerMetric(WARNINGS, 1)).build());
+        measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("com.example.other")
+                .withClassName("OtherClass").withMetric(new IntegerMetric(LOC, 20)).build());
+        measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("com.example.other")
+                .withClassName("Third").withMetric(new IntegerMetric(LOC, 30)).build());
+
+        var tree = PackageTree.create(ClassMetricsTable.create(measurements));
+
+        assertThat(tree.size()).isEqualTo(7);
+        assertThat(tree.getValue("LOC", PackageTree.ROOT)).isEqualTo(60);
+        assertThat(tree.getValue("WARNINGS", PackageTree.ROOT)).isEqualTo(1);
+        assertThat(tree.getValue("UNKNOWN", PackageTree.ROOT)).isZero();
+
+        assertThat(tree.findNode("com.example.other")).hasValueSatisfying(other -> {
+            assertThat(tree.getName(other)).isEqualTo("other");
+            assertThat(tree.getPath(other)).isEqualTo("com.example.other");
+            assertThat(tree.getChildCount(other)).isEqualTo(2);
+            assertThat(tree.getValue("LOC", other)).isEqualTo(50);
+            assertThat(tree.getValue("WARNINGS", other)).isZero();
+            assertThat(tree.getName(tree.getParent(other))).isEqualTo("example");
+        });
+        assertThat(tree.findNode("com.example.MyClass")).hasValueSatisfying(
+                myClass -> assertThat(tree.getChildCount(myClass)).isZero());
+        assertThat(tree.findNode("")).hasValue(PackageTree.ROOT);
+        assertThat(tree.findNode("com.missing")).isEmpty();
+    }
+}
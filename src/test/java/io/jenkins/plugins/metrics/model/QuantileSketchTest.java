@@ -0,0 +1,71 @@
+package io.jenkins.plugins.metrics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class QuantileSketchTest {
+    @Test
+    void shouldBeExactForSmallInputs() {
+        var sketch = new QuantileSketch();
+        for (int i = 9; i > 0; i--) {
+            sketch.add(i);
+        }
+        sketch.add(Double.NaN);
+
+        assertThat(sketch.getCount()).isEqualTo(9);
+        assertThat(sketch.getMin()).isEqualTo(1);
+        assertThat(sketch.getMax()).isEqualTo(9);
+        assertThat(sketch.getQuantile(0.5)).isEqualTo(5);
+        assertThat(sketch.getQuantile(0.25)).isEqualTo(3);
+        assertThat(sketch.getQuantile(0.75)).isEqualTo(7);
+    }
+
+    @Test
+    void shouldHandleEmptySketch() {
+        var sketch = new QuantileSketch();
+
+        assertThat(sketch.isEmpty()).isTrue();
+        assertThat(sketch.getMin()).isNaN();
+        assertThat(sketch.getQuantile(0.5)).isNaN();
+    }
+
+    @Test
+    void shouldApproximateQuantilesOfMergedSketches() {
+        var random = new Random(42);
+        var values = new double[100_000];
+        var first = new QuantileSketch();
+        var second = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 1000;
+            if (i % 2 == 0) {
+                first.add(values[i]);
+            }
+            else {
+                second.add(values[i]);
+            }
+        }
+        first.merge(second);
+        Arrays.sort(values);
+
+        assertThat(first.getCount()).isEqualTo(values.length);
+        assertThat(first.getMin()).isEqualTo(values[0]);
+        assertThat(first.getMax()).isEqualTo(values[values.length - 1]);
+        for (double quantile : new double[] {0.1, 0.25, 0.5, 0.75, 0.9}) {
+            assertThat(first.getQuantile(quantile))
+                    .isCloseTo(values[(int) (quantile * values.length)], within(20.0));
+        }
+
+        long[] weight = {0};
+        int[] retained = {0};
+        first.forEachValue((value, w) -> {
+            weight[0] += w;
+            retained[0]++;
+        });
+        assertThat(weight[0]).isEqualTo(values.length);
+        assertThat(retained[0]).isLessThan(1000);
+    }
+}
@@ -0,0 +1,82 @@
+package io.jenkins.plugins.metrics.view;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.DoubleMetric;
+import io.jenkins.plugins.metrics.model.IntegerMetric;
+import io.jenkins.plugins.metrics.model.MetricColumn;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ColumnarEncoderTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC").withScopes(Scope.CLASS).build();
+    private static final MetricDefinition ATFD = new MetricDefinitionBuilder("ATFD").withScopes(Scope.CLASS).build();
+
+    @Test
+    void shouldEncodeAlignedColumns() throws IOException {
+        List<ClassMetricsMeasurement> measurements = new ArrayList<>();
+        measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("com.example").withClassName("First")
+                .withMetric(new IntegerMetric(LOC, 10)).withMetric(new DoubleMetric(ATFD, 1.5)).build());
+        measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("com.other").withClassName("Second")
+                .withMetric(new DoubleMetric(ATFD, 2.5)).build());
+        measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("com.example").withClassName("Third")
+                .withMetric(new IntegerMetric(LOC, 30)).build());
+        var classes = ClassMetricsTable.create(measurements);
+        List<MetricColumn> columns = List.of(classes.getColumn("LOC").orElseThrow(),
+                classes.getColumn("ATFD").orElseThrow());
+
+        var output = new ByteArrayOutputStream();
+        ColumnarEncoder.write(classes, new int[] {2, 0, 1}, columns, Map.of("draw", 4), output);
+
+        var buffer = ByteBuffer.wrap(output.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(new String(output.toByteArray(), 0, 4, StandardCharsets.US_ASCII)).isEqualTo("MCOL");
+        assertThat(buffer.getInt(4)).isEqualTo(ColumnarEncoder.VERSION);
+
+        int headerLength = buffer.getInt(8);
+        var header = new JacksonFacade().fromJson(
+                new String(output.toByteArray(), 12, headerLength, StandardCharsets.UTF_8));
+        assertThat(header.path("draw").asInt()).isEqualTo(4);
+        assertThat(header.path("rowCount").asInt()).isEqualTo(3);
+        assertThat(header.path("packages")).extracting(node -> node.asText())
+                .containsExactly("com.example", "com.other");
+        assertThat(header.path("classes")).extracting(node -> node.asText())
+                .containsExactly("Third", "First", "Second");
+        assertThat(header.path("columns")).extracting(node -> node.path("type").asText())
+                .containsExactly("INTEGER", "DOUBLE");
+
+        int offset = align(12 + headerLength);
+        assertThat(new int[] {buffer.getInt(offset), buffer.getInt(offset + 4), buffer.getInt(offset + 8)})
+                .containsExactly(0, 0, 1);
+
+        offset = align(offset + 12);
+        assertThat(new int[] {buffer.getInt(offset), buffer.getInt(offset + 4), buffer.getInt(offset + 8)})
+                .containsExactly(30, 10, 0);
+        offset = align(offset + 12);
+        assertThat(buffer.get(offset)).isEqualTo((byte) 0b011);
+
+        offset = align(offset + 1);
+        assertThat(buffer.getDouble(offset)).isNaN();
+        assertThat(buffer.getDouble(offset + 8)).isEqualTo(1.5);
+        assertThat(buffer.getDouble(offset + 16)).isEqualTo(2.5);
+        assertThat(buffer.capacity()).isEqualTo(offset + 24);
+    }
+
+    private static int align(final int offset) {
+        return (offset + 7) & ~7;
+    }
+}
@@ -0,0 +1,38 @@
+package io.jenkins.plugins.metrics.view;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConditionalRequestsTest {
+    private static final String BUILD = "job#1";
+    private static final List<String> PROVIDERS = List.of("io.jenkins.A", "io.jenkins.B");
+
+    @Test
+    void shouldCreateStrongETagFromBuildProvidersAndVersion() {
+        var etag = ConditionalRequests.createETag(BUILD, PROVIDERS, "1.0", "gzip");
+
+        assertThat(etag).startsWith("\"").endsWith("-gzip\"").doesNotStartWith("W/");
+        assertThat(ConditionalRequests.createETag(BUILD, List.of("io.jenkins.B", "io.jenkins.A"), "1.0", "gzip"))
+                .isEqualTo(etag);
+
+        assertThat(ConditionalRequests.createETag("job#2", PROVIDERS, "1.0", "gzip")).isNotEqualTo(etag);
+        assertThat(ConditionalRequests.createETag(BUILD, List.of("io.jenkins.A"), "1.0", "gzip")).isNotEqualTo(etag);
+        assertThat(ConditionalRequests.createETag(BUILD, PROVIDERS, "1.1", "gzip")).isNotEqualTo(etag);
+        assertThat(ConditionalRequests.createETag(BUILD, PROVIDERS, "1.0", "identity")).isNotEqualTo(etag);
+    }
+
+    @Test
+    void shouldMatchIfNoneMatchHeader() {
+        var etag = ConditionalRequests.createETag(BUILD, PROVIDERS, "1.0", "gzip");
+
+        assertThat(ConditionalRequests.matches(null, etag)).isFalse();
+        assertThat(ConditionalRequests.matches("", etag)).isFalse();
+        assertThat(ConditionalRequests.matches("\"other\"", etag)).isFalse();
+        assertThat(ConditionalRequests.matches(etag, etag)).isTrue();
+        assertThat(ConditionalRequests.matches("\"other\", W/" + etag, etag)).isTrue();
+        assertThat(ConditionalRequests.matches("*", etag)).isTrue();
+    }
+}
@@ -2,7 +2,11 @@ package io.jenkins.plugins.metrics.view;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,4 +36,36 @@ class JacksonFacadeTest {
         var facade = new JacksonFacade();
         assertThatIllegalArgumentException().isThrownBy(() -> facade.toJson(faultyObject));
     }
+
+    /**
+     * Test if streamed content is written to the target without closing it.
+     */
+    @Test
+    void shouldStreamJsonToOutputStream() throws IOException {
+        var facade = new JacksonFacade();
+        var output = spy(new ByteArrayOutputStream());
+
+        facade.writeJson(generator -> {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("rows");
+            generator.writeObject(List.of(1, 2));
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }, output);
+        facade.writeJson(List.of("next"), output);
+
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("{\"rows\":[[1,2]]}[\"next\"]");
+        verify(output, never()).close();
+    }
+
+    /**
+     * Test if streamed content can be converted to a string.
+     */
+    @Test
+    void shouldConvertStreamedContentToJson() {
+        var facade = new JacksonFacade();
+
+        assertThat(facade.toJson(generator -> generator.writeNumber(42))).isEqualTo("42");
+        assertThat(facade.fromJson("{\"value\": 42}").path("value").asInt()).isEqualTo(42);
+    }
 }
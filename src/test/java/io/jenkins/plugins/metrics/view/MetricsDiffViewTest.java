@@ -0,0 +1,61 @@
+package io.jenkins.plugins.metrics.view;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.IntegerMetric;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MetricsDiffViewTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC").withScopes(Scope.CLASS).build();
+
+    @Test
+    void shouldFormatDeltasIndependentOfDefaultLocale() {
+        Run<?, ?> build = mock(Run.class);
+        Run<?, ?> reference = mock(Run.class);
+        var snapshots = Map.of(
+                build, createSnapshot(createClass("Foo", 2234), createClass("Bar", 40)),
+                reference, createSnapshot(createClass("Foo", 1000), createClass("Bar", 50)));
+
+        var defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            var view = new MetricsDiffView(build, reference, snapshots::get);
+
+            assertThat(view.getMetricChanges()).hasSize(1).first().satisfies(changes -> {
+                assertThat(changes.getIncreases()).extracting(MetricsDiffView.ChangeModel::getDelta)
+                        .containsExactly("+1,234");
+                assertThat(changes.getDecreases()).extracting(MetricsDiffView.ChangeModel::getDelta)
+                        .containsExactly("-10");
+            });
+        }
+        finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private MetricsSnapshot createSnapshot(final ClassMetricsMeasurement... classes) {
+        return new MetricsSnapshot(ClassMetricsTable.create(List.of(classes)), List.of(), List.of(LOC),
+                List.of(), List.of());
+    }
+
+    private ClassMetricsMeasurement createClass(final String name, final int loc) {
+        return new ClassMetricsMeasurementBuilder().withPackageName("edu.hm").withClassName(name)
+                .withMetric(new IntegerMetric(LOC, loc))
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package io.jenkins.plugins.metrics.view;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.IntegerMetric;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+import io.jenkins.plugins.metrics.view.MetricsTableModel.MetricsRow;
+import io.jenkins.plugins.metrics.view.MetricsTableQuery.Order;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MetricsTableModelTest {
+    private static final MetricDefinition LOC = new MetricDefinitionBuilder("LOC").withScopes(Scope.CLASS).build();
+
+    @Test
+    void shouldFilterSortAndPageOnTheServer() {
+        var model = createModel(100);
+
+        var page = model.getPage(new MetricsTableQuery(3, 10, 5,
+                List.of(new Order("metricsDisplay.LOC", false)), "", "LOC < 90 or LOC == 99"));
+
+        assertThat(page.getDraw()).isEqualTo(3);
+        assertThat(page.getRecordsTotal()).isEqualTo(100);
+        assertThat(page.getError()).isNull();
+        assertThat(page.getData()).extracting(row -> row.getMetricsDisplay().get("LOC"))
+                .containsExactly("80", "79", "78", "77", "76");
+    }
+
+    @Test
+    void shouldSortByAllOrdersBeforePaging() {
+        List<ClassMetricsMeasurement> measurements = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("edu.hm")
+                    .withClassName("Class" + i).withMetric(new IntegerMetric(LOC, i % 3)).build());
+        }
+        var model = new MetricsTableModel("metrics-table", List.of(LOC), ClassMetricsTable.create(measurements));
+
+        var page = model.getPage(new MetricsTableQuery(1, 1, 3,
+                List.of(new Order("metricsDisplay.LOC", false), new Order("name", false)), "", ""));
+
+        assertThat(page.getRecordsFiltered()).isEqualTo(30);
+        assertThat(page.getData()).extracting(row -> StringUtils.substringAfterLast(
+                StringUtils.substringBefore(row.getName(), "</a>"), ">"))
+                .containsExactly("Class5", "Class29", "Class26");
+    }
+
+    @Test
+    void shouldSearchClassNames() {
+        var page = createModel(30).getPage(new MetricsTableQuery(1, 0, 100,
+                List.of(new Order("name", true)), "class2", ""));
+
+        assertThat(page.getRecordsFiltered()).isEqualTo(11);
+        assertThat(page.getData()).hasSize(11).first().extracting(MetricsRow::getName).asString()
+                .contains(">Class2<");
+    }
+
+    @Test
+    void shouldReportInvalidFilter() {
+        var page = createModel(10).getPage(new MetricsTableQuery(1, 0, 10, List.of(), "", "LOC >"));
+
+        assertThat(page.getRecordsFiltered()).isZero();
+        assertThat(page.getData()).isEmpty();
+        assertThat(page.getError()).contains("Value expected");
+    }
+
+    @Test
+    void shouldReadQueryFromJson() {
+        var query = MetricsTableQuery.fromJson(new JacksonFacade().fromJson(
+                "{\"draw\": 2, \"start\": 20, \"length\": -1, "
+                        + "\"order\": [{\"column\": \"name\", \"dir\": \"desc\"}], \"filter\": \"LOC > 1\"}"));
+
+        assertThat(query.getDraw()).isEqualTo(2);
+        assertThat(query.getStart()).isEqualTo(20);
+        assertThat(query.getLength()).isEqualTo(MetricsTableQuery.MAX_PAGE_LENGTH);
+        assertThat(query.getOrders()).containsExactly(new Order("name", false));
+        assertThat(query.getSearch()).isEmpty();
+        assertThat(query.getFilter()).isEqualTo("LOC > 1");
+    }
+
+    private MetricsTableModel createModel(final int size) {
+        List<ClassMetricsMeasurement> measurements = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("edu.hm")
+                    .withClassName("Class" + i).withMetric(new IntegerMetric(LOC, i)).build());
+        }
+        return new MetricsTableModel("metrics-table", List.of(LOC), ClassMetricsTable.create(measurements));
+    }
+}
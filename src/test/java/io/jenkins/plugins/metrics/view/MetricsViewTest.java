@@ -6,15 +6,79 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
 
+import hudson.model.Run;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
 import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
 import io.jenkins.plugins.metrics.model.DoubleMetric;
+import io.jenkins.plugins.metrics.model.IntegerMetric;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
 import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
 import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
 import io.jenkins.plugins.metrics.model.MetricsMeasurement;
+import io.jenkins.plugins.metrics.model.MetricsSnapshot;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 class MetricsViewTest {
+    @Test
+    void shouldStreamDepthLimitedSubtree() {
+        var view = createTreeView();
+
+        assertThat(subtree(view, "LOC", "", 1)).isEqualTo("{\"name\":\"edu.hm\",\"value\":15.0,"
+                + "\"path\":\"edu.hm\",\"children\":["
+                + "{\"name\":\"a\",\"value\":10.0,\"path\":\"edu.hm.a\",\"lazy\":true,\"children\":[]},"
+                + "{\"name\":\"b\",\"value\":5.0,\"path\":\"edu.hm.b\",\"lazy\":true,\"children\":[]}]}");
+        assertThat(subtree(view, "LOC", "edu.hm.b", 1)).isEqualTo("{\"name\":\"b\",\"value\":5.0,"
+                + "\"path\":\"edu.hm.b\",\"children\":["
+                + "{\"name\":\"B\",\"value\":5.0,\"path\":\"edu.hm.b.B\",\"children\":[]}]}");
+        assertThat(subtree(view, "LOC", "edu.missing", 1)).isEqualTo(
+                "{\"name\":\"edu.missing\",\"value\":0,\"children\":[]}");
+    }
+
+    @Test
+    void shouldMarkOnlyNodesWithChildrenAsLazy() {
+        var view = createTreeView();
+
+        assertThat(subtree(view, "LOC", "", 2)).isEqualTo("{\"name\":\"edu.hm\",\"value\":15.0,"
+                + "\"path\":\"edu.hm\",\"children\":["
+                + "{\"name\":\"a\",\"value\":10.0,\"path\":\"edu.hm.a\",\"children\":["
+                + "{\"name\":\"A\",\"value\":10.0,\"path\":\"edu.hm.a.A\",\"children\":[]}]},"
+                + "{\"name\":\"b\",\"value\":5.0,\"path\":\"edu.hm.b\",\"children\":["
+                + "{\"name\":\"B\",\"value\":5.0,\"path\":\"edu.hm.b.B\",\"children\":[]}]}]}");
+        assertThat(subtree(view, "LOC", "edu.hm.a", 0)).isEqualTo("{\"name\":\"a\",\"value\":10.0,"
+                + "\"path\":\"edu.hm.a\",\"lazy\":true,\"children\":[]}");
+        assertThat(subtree(view, "LOC", "edu.hm.a.A", 0)).isEqualTo("{\"name\":\"A\",\"value\":10.0,"
+                + "\"path\":\"edu.hm.a.A\",\"children\":[]}");
+    }
+
+    @Test
+    void shouldFindSubtreeOfPath() {
+        var view = createTreeView();
+
+        assertThat(subtree(view, "LOC", "edu", 1)).isEqualTo("{\"name\":\"edu\",\"value\":15.0,"
+                + "\"path\":\"edu\",\"children\":["
+                + "{\"name\":\"hm\",\"value\":15.0,\"path\":\"edu.hm\",\"lazy\":true,\"children\":[]}]}");
+        assertThat(subtree(view, "LOC", "edu.hm.a.A", 1)).isEqualTo("{\"name\":\"A\",\"value\":10.0,"
+                + "\"path\":\"edu.hm.a.A\",\"children\":[]}");
+        assertThat(subtree(view, "LOC", null, 1)).isEqualTo(subtree(view, "LOC", "", 1));
+        assertThat(subtree(view, "LOC", "edu.hm.a.Missing", 1)).isEqualTo(
+                "{\"name\":\"edu.hm.a.Missing\",\"value\":0,\"children\":[]}");
+    }
+
+    @Test
+    void shouldClampTreeDepth() {
+        assertThat(MetricsView.clampTreeDepth(1)).isEqualTo(1);
+        assertThat(MetricsView.clampTreeDepth(3)).isEqualTo(3);
+        assertThat(MetricsView.clampTreeDepth(10)).isEqualTo(10);
+        assertThat(MetricsView.clampTreeDepth(11)).isEqualTo(10);
+        assertThat(MetricsView.clampTreeDepth(Integer.MAX_VALUE)).isEqualTo(10);
+        assertThat(MetricsView.clampTreeDepth(0)).as("missing depth").isEqualTo(10);
+        assertThat(MetricsView.clampTreeDepth(-1)).isEqualTo(10);
+    }
+
     @Test
     void shouldGetHistogram() {
         var key = "key";
@@ -65,6 +129,25 @@ class MetricsViewTest {
         */
     }
 
+    private MetricsView createTreeView() {
+        return new MetricsView(mock(Run.class), createTreeSnapshot());
+    }
+
+    private MetricsSnapshot createTreeSnapshot() {
+        MetricDefinition loc = new MetricDefinitionBuilder("LOC").withScopes(Scope.CLASS).build();
+        List<ClassMetricsMeasurement> measurements = new ArrayList<>();
+        measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("edu.hm.a").withClassName("A")
+                .withMetric(new IntegerMetric(loc, 10)).build());
+        measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("edu.hm.b").withClassName("B")
+                .withMetric(new IntegerMetric(loc, 5)).build());
+        return new MetricsSnapshot(ClassMetricsTable.create(measurements), List.of(), List.of(loc),
+                List.of(), List.of());
+    }
+
+    private String subtree(final MetricsView view, final String metricId, final String path, final int depth) {
+        return new JacksonFacade().toJson(generator -> view.writeSubtree(generator, metricId, path, depth));
+    }
+
     private MetricsMeasurement getMeasurementWithMetric(final String key, final double value) {
         var metricsMeasurement = new ClassMetricsMeasurementBuilder();
         var metricsDefinition = new MetricDefinitionBuilder(key)
@@ -0,0 +1,68 @@
+package io.jenkins.plugins.metrics.view;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement;
+import io.jenkins.plugins.metrics.model.ClassMetricsMeasurement.ClassMetricsMeasurementBuilder;
+import io.jenkins.plugins.metrics.model.ClassMetricsTable;
+import io.jenkins.plugins.metrics.model.IntegerMetric;
+import io.jenkins.plugins.metrics.model.MetricDefinition;
+import io.jenkins.plugins.metrics.model.MetricDefinition.MetricDefinitionBuilder;
+import io.jenkins.plugins.metrics.model.MetricDefinition.Scope;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ScatterPlotDensityTest {
+    private static final MetricDefinition X = new MetricDefinitionBuilder("X").withScopes(Scope.CLASS).build();
+    private static final MetricDefinition Y = new MetricDefinitionBuilder("Y").withScopes(Scope.CLASS).build();
+
+    @Test
+    void shouldReturnAllPointsWithinBudget() {
+        var classes = createTable(List.of(new int[] {1, 2}, new int[] {3, 4}));
+
+        var density = create(classes, 10);
+
+        assertThat(density.getTotal()).isEqualTo(2);
+        assertThat(density.getCells()).isEmpty();
+        assertThat(density.getPoints()).extracting(ScatterPlotDensity.Point::getName)
+                .containsExactly("Class0", "Class1");
+    }
+
+    @Test
+    void shouldAggregateDenseRegionsAndKeepOutliers() {
+        List<int[]> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(new int[] {i % 10, i % 7}); // dense cluster near the origin
+        }
+        values.add(new int[] {1000, 1000}); // outlier
+
+        var density = create(createTable(values), 10);
+
+        assertThat(density.getTotal()).isEqualTo(1001);
+        assertThat(density.getPoints()).singleElement()
+                .satisfies(point -> assertThat(point.getValue()).containsExactly(1000, 1000));
+        assertThat(density.getCells()).isNotEmpty().hasSizeLessThanOrEqualTo(
+                ScatterPlotDensity.GRID_SIZE * ScatterPlotDensity.GRID_SIZE);
+        assertThat(density.getCells().stream().mapToDouble(cell -> cell[2]).sum()).isEqualTo(1000);
+    }
+
+    private ScatterPlotDensity create(final ClassMetricsTable classes, final int pointBudget) {
+        return ScatterPlotDensity.create(classes, classes.getColumn("X").orElseThrow(),
+                classes.getColumn("Y").orElseThrow(), pointBudget);
+    }
+
+    private ClassMetricsTable createTable(final List<int[]> values) {
+        List<ClassMetricsMeasurement> measurements = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            measurements.add(new ClassMetricsMeasurementBuilder().withPackageName("edu.hm")
+                    .withClassName("Class" + i)
+                    .withMetric(new IntegerMetric(X, values.get(i)[0]))
+                    .withMetric(new IntegerMetric(Y, values.get(i)[1]))
+                    .build());
+        }
+        return ClassMetricsTable.create(measurements);
+    }
+}